@@ -0,0 +1,73 @@
+package com.dream11.queue.benchmarks;
+
+import com.dream11.queue.config.BatchConfig;
+import com.dream11.queue.impl.sqs.SqsConfig;
+import com.dream11.queue.impl.sqs.SqsConsumer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+/** Measures the cost of a SqsConsumer.receive call followed by acknowledging every message. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConsumerBenchmark {
+  /** The latency in microseconds of every request to the stub client. */
+  @Param({"0", "500"})
+  public long latencyMicros;
+
+  /** The number of messages returned by every receive. */
+  @Param({"1", "10"})
+  public int maxMessages;
+
+  /** Whether acknowledgements are coalesced into DeleteMessageBatch requests. */
+  @Param({"false", "true"})
+  public boolean ackBatching;
+
+  private SqsConsumer consumer;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("benchmark-queue")
+            .region("us-east-1")
+            .receiveConfig(SqsConfig.ReceiveConfig.builder().maxMessages(this.maxMessages).build())
+            .ackBatchConfig(BatchConfig.builder().enabled(this.ackBatching).build())
+            .build();
+    this.consumer = new SqsConsumer(sqsConfig, new StubSqsAsyncClient(this.latencyMicros, 256));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.consumer.close();
+  }
+
+  @Benchmark
+  public List<Message> receiveAndAcknowledge() {
+    List<Message> messages = this.consumer.receive().join();
+    CompletableFuture<?>[] futures = new CompletableFuture[messages.size()];
+    for (int i = 0; i < messages.size(); i++) {
+      futures[i] = this.consumer.acknowledgeMessage(messages.get(i));
+    }
+    CompletableFuture.allOf(futures).join();
+    return messages;
+  }
+}
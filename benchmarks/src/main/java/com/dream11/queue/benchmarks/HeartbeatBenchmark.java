@@ -0,0 +1,80 @@
+package com.dream11.queue.benchmarks;
+
+import com.dream11.queue.config.HeartbeatConfig;
+import com.dream11.queue.impl.sqs.SqsConfig;
+import com.dream11.queue.impl.sqs.SqsConsumer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+/**
+ * Measures the cost of scheduling and cancelling heartbeats while a large number of messages is in
+ * flight. The consumer first receives the configured number of messages without acknowledging
+ * them. Every invocation then receives a batch, which schedules its heartbeats, and acknowledges
+ * it, which cancels them, so that the number of in-flight messages stays constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class HeartbeatBenchmark {
+  private static final int BATCH_SIZE = 10;
+
+  /** The number of messages that are in flight, each with scheduled heartbeats. */
+  @Param({"1000", "10000", "100000"})
+  public int inFlight;
+
+  /** The interval in seconds between heartbeats of a message. */
+  @Param({"5"})
+  public int heartbeatInterval;
+
+  private SqsConsumer consumer;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("benchmark-queue")
+            .region("us-east-1")
+            .receiveConfig(SqsConfig.ReceiveConfig.builder().maxMessages(BATCH_SIZE).build())
+            .heartbeatConfig(
+                HeartbeatConfig.builder().heartbeatInterval(this.heartbeatInterval).build())
+            .build();
+    this.consumer = new SqsConsumer(sqsConfig, new StubSqsAsyncClient(0, 256));
+    for (int received = 0; received < this.inFlight; received += BATCH_SIZE) {
+      this.consumer.receive().join();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.consumer.close();
+  }
+
+  @Benchmark
+  public List<Message> receiveAndAcknowledge() {
+    List<Message> messages = this.consumer.receive().join();
+    CompletableFuture<?>[] futures = new CompletableFuture[messages.size()];
+    for (int i = 0; i < messages.size(); i++) {
+      futures[i] = this.consumer.acknowledgeMessage(messages.get(i));
+    }
+    CompletableFuture.allOf(futures).join();
+    return messages;
+  }
+}
@@ -0,0 +1,78 @@
+package com.dream11.queue.benchmarks;
+
+import com.dream11.queue.config.BatchConfig;
+import com.dream11.queue.impl.sqs.SqsConfig;
+import com.dream11.queue.impl.sqs.SqsProducer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of SqsProducer.send. Every invocation sends a burst of messages and waits for
+ * all of them, so that batching can fill its batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProducerBenchmark {
+  private static final int BURST_SIZE = 100;
+
+  /** The latency in microseconds of every request to the stub client. */
+  @Param({"0", "500"})
+  public long latencyMicros;
+
+  /** Whether sent messages are coalesced into SendMessageBatch requests. */
+  @Param({"false", "true"})
+  public boolean batching;
+
+  /** The size in characters of every message body. */
+  @Param({"256"})
+  public int bodySize;
+
+  private SqsProducer<String> producer;
+  private String body;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("benchmark-queue")
+            .region("us-east-1")
+            .sendBatchConfig(BatchConfig.builder().enabled(this.batching).build())
+            .build();
+    this.producer =
+        new SqsProducer<>(sqsConfig, new StubSqsAsyncClient(this.latencyMicros, this.bodySize));
+    this.body = "x".repeat(this.bodySize);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.producer.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST_SIZE)
+  public void send() {
+    CompletableFuture<?>[] futures = new CompletableFuture[BURST_SIZE];
+    for (int i = 0; i < BURST_SIZE; i++) {
+      futures[i] = this.producer.send(this.body);
+    }
+    CompletableFuture.allOf(futures).join();
+  }
+}
@@ -0,0 +1,177 @@
+package com.dream11.queue.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageResponse;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+
+/**
+ * In-process SqsAsyncClient that answers every request after a fixed latency without doing any
+ * I/O. Receives always return the requested number of freshly generated messages, so consumers
+ * never see an empty queue.
+ */
+public class StubSqsAsyncClient implements SqsAsyncClient {
+  private final Executor executor;
+  private final String body;
+  private final AtomicLong messageIds = new AtomicLong();
+
+  /**
+   * Constructs a new StubSqsAsyncClient.
+   *
+   * @param latencyMicros The latency in microseconds of every request. With a latency of 0, the
+   *     returned futures are already completed.
+   * @param bodySize The size in characters of the bodies of received messages.
+   */
+  public StubSqsAsyncClient(long latencyMicros, int bodySize) {
+    this.executor =
+        latencyMicros > 0
+            ? CompletableFuture.delayedExecutor(latencyMicros, TimeUnit.MICROSECONDS)
+            : null;
+    this.body = "x".repeat(bodySize);
+  }
+
+  @Override
+  public CompletableFuture<SendMessageResponse> sendMessage(SendMessageRequest request) {
+    return this.respond(() -> SendMessageResponse.builder().messageId(this.nextId()).build());
+  }
+
+  @Override
+  public CompletableFuture<SendMessageBatchResponse> sendMessageBatch(
+      SendMessageBatchRequest request) {
+    return this.respond(
+        () -> {
+          List<SendMessageBatchResultEntry> successful = new ArrayList<>();
+          request
+              .entries()
+              .forEach(
+                  entry ->
+                      successful.add(
+                          SendMessageBatchResultEntry.builder()
+                              .id(entry.id())
+                              .messageId(this.nextId())
+                              .build()));
+          return SendMessageBatchResponse.builder().successful(successful).build();
+        });
+  }
+
+  @Override
+  public CompletableFuture<ReceiveMessageResponse> receiveMessage(ReceiveMessageRequest request) {
+    return this.respond(
+        () -> {
+          int count = request.maxNumberOfMessages() != null ? request.maxNumberOfMessages() : 1;
+          List<Message> messages = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            String id = this.nextId();
+            messages.add(
+                Message.builder()
+                    .messageId(id)
+                    .receiptHandle("handle-" + id)
+                    .body(this.body)
+                    .build());
+          }
+          return ReceiveMessageResponse.builder().messages(messages).build();
+        });
+  }
+
+  @Override
+  public CompletableFuture<DeleteMessageResponse> deleteMessage(DeleteMessageRequest request) {
+    return this.respond(() -> DeleteMessageResponse.builder().build());
+  }
+
+  @Override
+  public CompletableFuture<DeleteMessageBatchResponse> deleteMessageBatch(
+      DeleteMessageBatchRequest request) {
+    return this.respond(
+        () -> {
+          List<DeleteMessageBatchResultEntry> successful = new ArrayList<>();
+          request
+              .entries()
+              .forEach(
+                  entry ->
+                      successful.add(
+                          DeleteMessageBatchResultEntry.builder().id(entry.id()).build()));
+          return DeleteMessageBatchResponse.builder().successful(successful).build();
+        });
+  }
+
+  @Override
+  public CompletableFuture<ChangeMessageVisibilityResponse> changeMessageVisibility(
+      ChangeMessageVisibilityRequest request) {
+    return this.respond(() -> ChangeMessageVisibilityResponse.builder().build());
+  }
+
+  @Override
+  public CompletableFuture<ChangeMessageVisibilityBatchResponse> changeMessageVisibilityBatch(
+      ChangeMessageVisibilityBatchRequest request) {
+    return this.respond(
+        () -> {
+          List<ChangeMessageVisibilityBatchResultEntry> successful = new ArrayList<>();
+          request
+              .entries()
+              .forEach(
+                  entry ->
+                      successful.add(
+                          ChangeMessageVisibilityBatchResultEntry.builder()
+                              .id(entry.id())
+                              .build()));
+          return ChangeMessageVisibilityBatchResponse.builder().successful(successful).build();
+        });
+  }
+
+  @Override
+  public CompletableFuture<GetQueueAttributesResponse> getQueueAttributes(
+      GetQueueAttributesRequest request) {
+    return this.respond(
+        () ->
+            GetQueueAttributesResponse.builder()
+                .attributes(Map.of(QueueAttributeName.VISIBILITY_TIMEOUT, "30"))
+                .build());
+  }
+
+  @Override
+  public String serviceName() {
+    return SERVICE_NAME;
+  }
+
+  @Override
+  public void close() {
+    // Nothing to release
+  }
+
+  private String nextId() {
+    return Long.toString(this.messageIds.incrementAndGet());
+  }
+
+  private <T> CompletableFuture<T> respond(Supplier<T> response) {
+    if (this.executor == null) {
+      return CompletableFuture.completedFuture(response.get());
+    }
+    return CompletableFuture.supplyAsync(response, this.executor);
+  }
+}
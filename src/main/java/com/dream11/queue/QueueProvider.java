@@ -2,5 +2,9 @@ package com.dream11.queue;
 
 /** Enum representing the types of queue providers. */
 public enum QueueProvider {
-  SQS
+  SQS,
+  /** A queue held in the memory of the process, for tests and local development. */
+  IN_MEMORY,
+  /** A queue held in memory and journaled to memory-mapped files in a local directory. */
+  LOCAL_DISK
 }
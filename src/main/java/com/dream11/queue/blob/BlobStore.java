@@ -0,0 +1,36 @@
+package com.dream11.queue.blob;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage for message payloads that are too large to be sent through the queue itself. Producers
+ * write the payload under a unique key and send only the key, and consumers read the payload back
+ * using the key. Implementations must be thread-safe.
+ */
+public interface BlobStore {
+  /**
+   * Stores a payload under the given key.
+   *
+   * @param key The key of the payload. Keys only contain letters, digits, '-', '_' and '.'.
+   * @param data The payload.
+   * @return A CompletableFuture that completes when the payload is stored.
+   */
+  CompletableFuture<Void> put(String key, byte[] data);
+
+  /**
+   * Reads the payload stored under the given key.
+   *
+   * @param key The key of the payload.
+   * @return A CompletableFuture containing the payload. It fails if no payload is stored under the
+   *     key.
+   */
+  CompletableFuture<byte[]> get(String key);
+
+  /**
+   * Deletes the payload stored under the given key. Deleting a missing payload is not an error.
+   *
+   * @param key The key of the payload.
+   * @return A CompletableFuture that completes when the payload is deleted.
+   */
+  CompletableFuture<Void> delete(String key);
+}
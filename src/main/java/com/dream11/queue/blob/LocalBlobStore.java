@@ -0,0 +1,100 @@
+package com.dream11.queue.blob;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import lombok.NonNull;
+
+/**
+ * BlobStore that keeps every payload in a file in a local directory. Intended for development and
+ * tests, where no remote store is available. Payloads are written to a temporary file first and
+ * then moved into place, so that readers never see a partially written payload.
+ */
+public class LocalBlobStore implements BlobStore {
+  private static final Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+  private final Path directory;
+  private final Executor executor;
+
+  /**
+   * Constructs a new LocalBlobStore that performs file operations on the common fork-join pool.
+   *
+   * @param directory The directory to store payloads in. It is created if it does not exist.
+   */
+  public LocalBlobStore(@NonNull Path directory) {
+    this(directory, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a new LocalBlobStore that performs file operations on the given executor.
+   *
+   * @param directory The directory to store payloads in. It is created if it does not exist.
+   * @param executor The executor to perform file operations on.
+   */
+  public LocalBlobStore(@NonNull Path directory, @NonNull Executor executor) {
+    try {
+      this.directory = Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create blob directory: " + directory, e);
+    }
+    this.executor = executor;
+  }
+
+  @Override
+  public CompletableFuture<Void> put(String key, byte[] data) {
+    return this.run(
+        key,
+        path -> {
+          Path temporary = Files.createTempFile(this.directory, key, ".tmp");
+          try {
+            Files.write(temporary, data);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+          } finally {
+            Files.deleteIfExists(temporary);
+          }
+          return null;
+        });
+  }
+
+  @Override
+  public CompletableFuture<byte[]> get(String key) {
+    return this.run(key, Files::readAllBytes);
+  }
+
+  @Override
+  public CompletableFuture<Void> delete(String key) {
+    return this.run(
+        key,
+        path -> {
+          Files.deleteIfExists(path);
+          return null;
+        });
+  }
+
+  private <R> CompletableFuture<R> run(String key, FileOperation<R> operation) {
+    if (!VALID_KEY.matcher(key).matches()) {
+      return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid key: " + key));
+    }
+    Path path = this.directory.resolve(key);
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            return operation.apply(path);
+          } catch (IOException e) {
+            throw new UncheckedIOException("Failed to access blob: " + key, e);
+          }
+        },
+        this.executor);
+  }
+
+  @FunctionalInterface
+  private interface FileOperation<R> {
+    R apply(Path path) throws IOException;
+  }
+}
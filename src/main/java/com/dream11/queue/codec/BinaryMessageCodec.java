@@ -0,0 +1,94 @@
+package com.dream11.queue.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codec that encodes messages into a compact binary form using user-supplied writer and reader
+ * functions. The binary form is base64 encoded, since SQS message bodies only allow a restricted
+ * set of characters. Messages are written straight into a reused per-thread buffer.
+ *
+ * @param <T> The type of message that this codec will handle.
+ */
+public class BinaryMessageCodec<T> implements MessageCodec<T> {
+  private final Writer<T> writer;
+  private final Reader<T> reader;
+
+  /**
+   * Constructs a new BinaryMessageCodec.
+   *
+   * @param writer The function that writes a message in binary form.
+   * @param reader The function that reads a message from its binary form.
+   */
+  public BinaryMessageCodec(Writer<T> writer, Reader<T> reader) {
+    this.writer = writer;
+    this.reader = reader;
+  }
+
+  @Override
+  public String encode(T message) {
+    EncodeBuffer buffer = EncodeBuffer.acquire();
+    try {
+      this.writer.write(message, new DataOutputStream(buffer));
+      ByteBuffer encoded = Base64.getEncoder().encode(buffer.view());
+      return new String(
+          encoded.array(), encoded.arrayOffset(), encoded.remaining(), StandardCharsets.US_ASCII);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to encode message", e);
+    } finally {
+      buffer.release();
+    }
+  }
+
+  @Override
+  public T decode(String body) {
+    try {
+      return this.reader.read(
+          new DataInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(body))));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to decode message", e);
+    }
+  }
+
+  /**
+   * Function that writes a message in binary form.
+   *
+   * @param <T> The type of message.
+   */
+  @FunctionalInterface
+  public interface Writer<T> {
+    /**
+     * Writes a message.
+     *
+     * @param message The message to write.
+     * @param output The output to write the message to.
+     * @throws IOException if the message could not be written.
+     */
+    void write(T message, DataOutput output) throws IOException;
+  }
+
+  /**
+   * Function that reads a message from its binary form.
+   *
+   * @param <T> The type of message.
+   */
+  @FunctionalInterface
+  public interface Reader<T> {
+    /**
+     * Reads a message.
+     *
+     * @param input The input to read the message from.
+     * @return The message.
+     * @throws IOException if the message could not be read.
+     */
+    T read(DataInput input) throws IOException;
+  }
+}
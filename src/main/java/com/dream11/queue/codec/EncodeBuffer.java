@@ -0,0 +1,50 @@
+package com.dream11.queue.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Growable byte buffer that is reused across encode calls on the same thread, so that encoding a
+ * message does not allocate an intermediate buffer per call. Buffers that grew beyond the retention
+ * limit are dropped after use, so that a single large message does not pin memory.
+ */
+class EncodeBuffer extends ByteArrayOutputStream {
+  private static final int INITIAL_SIZE = 1024;
+  private static final int MAX_RETAINED_SIZE = 256 * 1024;
+  private static final ThreadLocal<EncodeBuffer> BUFFERS = new ThreadLocal<>();
+
+  private EncodeBuffer() {
+    super(INITIAL_SIZE);
+  }
+
+  /**
+   * Returns the empty buffer of the current thread.
+   *
+   * @return The buffer.
+   */
+  static EncodeBuffer acquire() {
+    EncodeBuffer buffer = BUFFERS.get();
+    if (buffer == null) {
+      buffer = new EncodeBuffer();
+      BUFFERS.set(buffer);
+    }
+    buffer.reset();
+    return buffer;
+  }
+
+  /** Drops the buffer of the current thread if it grew beyond the retention limit. */
+  void release() {
+    if (this.buf.length > MAX_RETAINED_SIZE) {
+      BUFFERS.remove();
+    }
+  }
+
+  /**
+   * Returns a view of the written bytes without copying them.
+   *
+   * @return A ByteBuffer backed by this buffer.
+   */
+  ByteBuffer view() {
+    return ByteBuffer.wrap(this.buf, 0, this.count);
+  }
+}
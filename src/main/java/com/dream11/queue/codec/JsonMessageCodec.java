@@ -0,0 +1,70 @@
+package com.dream11.queue.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codec that encodes messages as JSON using Jackson. Messages are serialized straight into a reused
+ * per-thread buffer. This codec requires jackson-databind on the classpath.
+ *
+ * @param <T> The type of message that this codec will handle.
+ */
+public class JsonMessageCodec<T> implements MessageCodec<T> {
+  private final ObjectMapper objectMapper;
+  private final JavaType type;
+
+  /**
+   * Constructs a new JsonMessageCodec with a default ObjectMapper.
+   *
+   * @param type The class of the messages.
+   */
+  public JsonMessageCodec(Class<T> type) {
+    this(new ObjectMapper(), type);
+  }
+
+  /**
+   * Constructs a new JsonMessageCodec with the given ObjectMapper.
+   *
+   * @param objectMapper The ObjectMapper used to serialize and deserialize messages.
+   * @param type The class of the messages.
+   */
+  public JsonMessageCodec(ObjectMapper objectMapper, Class<T> type) {
+    this(objectMapper, objectMapper.constructType(type));
+  }
+
+  /**
+   * Constructs a new JsonMessageCodec for a generic message type.
+   *
+   * @param objectMapper The ObjectMapper used to serialize and deserialize messages.
+   * @param type The type of the messages.
+   */
+  public JsonMessageCodec(ObjectMapper objectMapper, JavaType type) {
+    this.objectMapper = objectMapper;
+    this.type = type;
+  }
+
+  @Override
+  public String encode(T message) {
+    EncodeBuffer buffer = EncodeBuffer.acquire();
+    try {
+      this.objectMapper.writeValue(buffer, message);
+      return buffer.toString(StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to encode message", e);
+    } finally {
+      buffer.release();
+    }
+  }
+
+  @Override
+  public T decode(String body) {
+    try {
+      return this.objectMapper.readValue(body, this.type);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to decode message", e);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.dream11.queue.codec;
+
+/**
+ * Codec that converts messages to and from the body of a queue message. Implementations must be
+ * thread-safe, since a single codec is shared by all threads that use a producer or consumer.
+ *
+ * @param <T> The type of message that this codec will handle.
+ */
+public interface MessageCodec<T> {
+  /**
+   * Encodes a message into a message body.
+   *
+   * @param message The message to encode.
+   * @return The encoded message body.
+   */
+  String encode(T message);
+
+  /**
+   * Decodes a message body into a message.
+   *
+   * @param body The message body to decode.
+   * @return The decoded message.
+   */
+  T decode(String body);
+}
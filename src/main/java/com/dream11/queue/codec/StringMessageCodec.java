@@ -0,0 +1,17 @@
+package com.dream11.queue.codec;
+
+/** Codec that uses the message body as the message itself. */
+public class StringMessageCodec implements MessageCodec<String> {
+  /** The shared instance of this stateless codec. */
+  public static final StringMessageCodec INSTANCE = new StringMessageCodec();
+
+  @Override
+  public String encode(String message) {
+    return message;
+  }
+
+  @Override
+  public String decode(String body) {
+    return body;
+  }
+}
@@ -0,0 +1,48 @@
+package com.dream11.queue.config;
+
+import com.dream11.queue.metrics.NoopQueueMetrics;
+import com.dream11.queue.metrics.QueueMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration class for scaling the concurrency of a listener container with the depth of its
+ * queue. At every interval, the backlog of the queue and the processing latency of its messages are
+ * sampled, and the concurrency is set to what is needed to keep up with the messages that are
+ * processed and to work off the backlog within the target drain time. The number of pollers of the
+ * consumer is scaled along, so that receives keep up with the workers.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class AutoscaleConfig {
+  /** Whether the concurrency is scaled. Disabled by default. */
+  @Builder.Default private boolean enabled = false;
+
+  /** The lowest number of messages processed concurrently. */
+  @Builder.Default private int minConcurrency = 1;
+
+  /** The highest number of messages processed concurrently. */
+  @Builder.Default private int maxConcurrency = 100;
+
+  /** The lowest number of receive loops of the consumer. */
+  @Builder.Default private int minPollers = 1;
+
+  /** The highest number of receive loops of the consumer. */
+  @Builder.Default private int maxPollers = 10;
+
+  /** The time in seconds between two samples of the queue depth. */
+  @Builder.Default private int intervalSeconds = 30;
+
+  /** The time in seconds within which a backlog should be worked off. */
+  @Builder.Default private int targetDrainSeconds = 60;
+
+  /** The metrics that the concurrency and the backlog are reported to. */
+  @Builder.Default private QueueMetrics metrics = NoopQueueMetrics.INSTANCE;
+
+  /** The name of the queue that the metrics are reported under. */
+  @Builder.Default private String queue = "default";
+}
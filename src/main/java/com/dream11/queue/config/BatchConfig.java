@@ -0,0 +1,34 @@
+package com.dream11.queue.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** Configuration class for coalescing individual queue operations into batch requests. */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class BatchConfig {
+  /** Whether operations are buffered and sent as batch requests. Disabled by default. */
+  @Builder.Default private boolean enabled = false;
+
+  /** The maximum number of entries in a single batch request. SQS allows at most 10. */
+  @Builder.Default private int maxBatchSize = 10;
+
+  /** The maximum total payload size of a batch request in bytes. SQS allows at most 256 KB. */
+  @Builder.Default private int maxBatchBytes = 262_144;
+
+  /**
+   * The maximum time in milliseconds an entry waits for its batch to fill up before the batch is
+   * flushed anyway.
+   */
+  @Builder.Default private int lingerMillis = 10;
+
+  /**
+   * The number of times an entry that failed within an otherwise successful batch is retried before
+   * its future is completed exceptionally.
+   */
+  @Builder.Default private int maxRetries = 3;
+}
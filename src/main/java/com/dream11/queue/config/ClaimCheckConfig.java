@@ -0,0 +1,37 @@
+package com.dream11.queue.config;
+
+import com.dream11.queue.blob.BlobStore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration class for offloading large message payloads to a blob store (claim-check pattern).
+ * When enabled, the producer stores payloads above the threshold in the blob store and sends only
+ * their key, and consumers fetch the payload using the key and delete it once the message is
+ * acknowledged.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class ClaimCheckConfig {
+  /**
+   * Whether producers offload payloads above the threshold and consumers fetch offloaded payloads.
+   * Disabled by default.
+   */
+  @Builder.Default private boolean enabled = false;
+
+  /**
+   * The minimum size in bytes of a message body for it to be offloaded. The default leaves room for
+   * message attributes below the SQS limit of 256 KB.
+   */
+  @Builder.Default private int thresholdBytes = 204_800;
+
+  /** The store that holds offloaded payloads. Required by producers and consumers alike. */
+  private BlobStore blobStore;
+
+  /** Whether consumers delete the payload of a message from the store once it is acknowledged. */
+  @Builder.Default private boolean deleteOnAcknowledge = true;
+}
@@ -0,0 +1,25 @@
+package com.dream11.queue.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** Configuration class for compressing message bodies before they are sent. */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class CompressionConfig {
+  /** Whether message bodies above the threshold are compressed. Disabled by default. */
+  @Builder.Default private boolean enabled = false;
+
+  /**
+   * The minimum size in bytes of a message body for it to be compressed. Smaller bodies are sent as
+   * they are, since compressing them rarely pays off.
+   */
+  @Builder.Default private int thresholdBytes = 8192;
+
+  /** The Deflate compression level, from 1 (fastest) to 9 (smallest). */
+  @Builder.Default private int level = 6;
+}
@@ -0,0 +1,32 @@
+package com.dream11.queue.config;
+
+import com.dream11.queue.metrics.NoopQueueMetrics;
+import com.dream11.queue.metrics.QueueMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration class for dropping duplicate sends before they reach the queue provider. The ids of
+ * sent messages are held in a bounded cache for the window, and a send whose id is in the cache is
+ * dropped. The cache holds at most the configured number of ids, and the oldest ids are evicted
+ * first, so that duplicates are only caught within the window if fewer messages are sent in it.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class DeduplicationConfig {
+  /** The time in seconds for which the id of a sent message is remembered. */
+  @Builder.Default private int windowSeconds = 300;
+
+  /** The maximum number of ids remembered. Each id takes about 48 bytes. */
+  @Builder.Default private int maxEntries = 100_000;
+
+  /** The metrics that duplicate and unique sends are reported to. */
+  @Builder.Default private QueueMetrics metrics = NoopQueueMetrics.INSTANCE;
+
+  /** The name of the queue that the metrics are reported under. */
+  @Builder.Default private String queue = "default";
+}
@@ -0,0 +1,40 @@
+package com.dream11.queue.config;
+
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration class for sending messages to FIFO queues. Every message is assigned a message
+ * group, and messages of a group are delivered in the order they were accepted by the queue.
+ *
+ * @param <T> The type of message that the producer will handle.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class FifoConfig<T> {
+  /** Whether messages are sent with a message group id and deduplication id. */
+  @Builder.Default private boolean enabled = false;
+
+  /**
+   * Extracts the message group id from a message. Messages of different groups can be processed in
+   * parallel, so the group should be the narrowest entity whose messages must stay in order. If
+   * null, all messages are sent to the default group.
+   */
+  private Function<T, String> groupIdExtractor;
+
+  /** The message group id of messages for which no group id is extracted. */
+  @Builder.Default private String defaultGroupId = "default";
+
+  /**
+   * Extracts the deduplication id from a message. Messages with the same deduplication id that are
+   * sent within the deduplication interval of the queue are only delivered once. If null, no
+   * deduplication id is sent, which requires content-based deduplication to be enabled on the
+   * queue.
+   */
+  private Function<T, String> deduplicationIdExtractor;
+}
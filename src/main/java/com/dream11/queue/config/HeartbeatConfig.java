@@ -18,8 +18,30 @@ public class HeartbeatConfig {
   @Builder.Default private Integer heartbeatInterval = -1; // in seconds
 
   /**
-   * The number of threads in the executor pool used for sending heartbeats. This determines how
-   * many concurrent heartbeat operations can be performed.
+   * The number of threads in the scheduled executor pool of the consumer. Heartbeats of all
+   * in-flight messages are driven by a single timer wheel task on this pool, which is also used to
+   * flush acknowledgement batches.
    */
   @Builder.Default private Integer executorThreadPoolSize = 2;
+
+  /**
+   * Whether the visibility timeout is chosen from observed processing times. In adaptive mode, the
+   * visibility timeout requested on receive is a multiple of the configured processing time
+   * percentile, and heartbeats are sent at half of that timeout. Messages that finish faster than
+   * the percentile never get a heartbeat. Until enough samples are collected, the visibility
+   * timeout is derived from the heartbeat interval, or 30 seconds if heartbeats are disabled.
+   */
+  @Builder.Default private Boolean adaptive = false;
+
+  /** The processing time percentile used in adaptive mode, between 0 and 1. */
+  @Builder.Default private Double adaptivePercentile = 0.99;
+
+  /** The multiplier applied to the processing time percentile to get the visibility timeout. */
+  @Builder.Default private Double adaptiveMultiplier = 2.0;
+
+  /** The minimum visibility timeout in seconds chosen in adaptive mode. */
+  @Builder.Default private Integer minVisibilityTimeout = 2;
+
+  /** The maximum visibility timeout in seconds chosen in adaptive mode. SQS allows 12 hours. */
+  @Builder.Default private Integer maxVisibilityTimeout = 43_200;
 }
@@ -0,0 +1,43 @@
+package com.dream11.queue.config;
+
+import com.dream11.queue.dedup.IdempotencyStore;
+import com.dream11.queue.metrics.NoopQueueMetrics;
+import com.dream11.queue.metrics.QueueMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration class for dropping received messages that have already been processed. The keys of
+ * acknowledged messages are recorded in a store, and a received message whose key is in the store
+ * is acknowledged and dropped before it is handed out. The store is held in memory by default; a
+ * shared store lets the consumers of several nodes drop each other's processed messages.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class IdempotencyConfig {
+  /**
+   * The time in seconds for which the key of a processed message is remembered by the in-memory
+   * store. Should exceed the time for which messages are redelivered, such as the retention period
+   * or the time until a message is dead-lettered.
+   */
+  @Builder.Default private int windowSeconds = 3600;
+
+  /** The maximum number of keys remembered by the in-memory store. Each takes about 48 bytes. */
+  @Builder.Default private int maxEntries = 100_000;
+
+  /**
+   * The store of the keys of processed messages, or null for an in-memory store bounded by the
+   * window and maximum number of entries. A configured store is closed with the consumer.
+   */
+  private IdempotencyStore store;
+
+  /** The metrics that duplicate and unique received messages are reported to. */
+  @Builder.Default private QueueMetrics metrics = NoopQueueMetrics.INSTANCE;
+
+  /** The name of the queue that the metrics are reported under. */
+  @Builder.Default private String queue = "default";
+}
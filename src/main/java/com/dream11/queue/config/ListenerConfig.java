@@ -0,0 +1,34 @@
+package com.dream11.queue.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** Configuration class for message listener containers. */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class ListenerConfig {
+  /** The maximum number of messages processed concurrently. */
+  @Builder.Default private int maxConcurrency = 10;
+
+  /** The timeout in seconds of each receive call made by the poll loop. */
+  @Builder.Default private int receiveTimeout = 20;
+
+  /**
+   * Whether messages are processed on virtual threads. Virtual threads require a JDK 21+ runtime;
+   * on older runtimes a fixed pool of platform threads is used instead.
+   */
+  @Builder.Default private boolean useVirtualThreads = false;
+
+  /** The time in seconds to wait for in-flight messages to finish processing on close. */
+  @Builder.Default private int shutdownTimeout = 30;
+
+  /** The configuration for retrying and dead-lettering messages whose handler fails. */
+  @Builder.Default private RetryConfig retryConfig = new RetryConfig();
+
+  /** The configuration for scaling the concurrency with the depth of the queue. */
+  @Builder.Default private AutoscaleConfig autoscaleConfig = new AutoscaleConfig();
+}
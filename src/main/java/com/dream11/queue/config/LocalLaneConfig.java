@@ -0,0 +1,38 @@
+package com.dream11.queue.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration class for handing messages from a producer to a consumer of the same queue in the
+ * same JVM through an in-memory ring, instead of sending them through the queue provider. The queue
+ * provider is only written to when the ring is full, when a message is not acknowledged within the
+ * deadline, and for the messages left in the ring when the last local consumer closes. Messages in
+ * the ring are lost if the JVM crashes, so the lane only suits messages whose loss on a crash is
+ * acceptable. FIFO producers never use the lane, since it does not preserve the order of messages
+ * within a group.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class LocalLaneConfig {
+  /** Whether messages are handed to local consumers in memory. Disabled by default. */
+  @Builder.Default private boolean enabled = false;
+
+  /**
+   * The number of messages the ring holds. Sends that find the ring full go to the queue provider.
+   * Set on the consumer, which creates the ring.
+   */
+  @Builder.Default private int capacity = 1024;
+
+  /**
+   * The time in seconds within which a message in the ring must be received and acknowledged, or
+   * else it is sent to the queue provider. Heartbeats extend it by the same time; when heartbeats
+   * are enabled on the consumer, they are sent every half deadline until the message is
+   * acknowledged. Set on the consumer, which creates the ring.
+   */
+  @Builder.Default private int ackDeadlineSeconds = 30;
+}
@@ -0,0 +1,40 @@
+package com.dream11.queue.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** Configuration class for consumers that receive messages from several queues. */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class MultiQueueConfig {
+  /** How the messages of different queues are ordered. Weighted fair scheduling by default. */
+  @Builder.Default private Scheduling scheduling = Scheduling.WEIGHTED_FAIR;
+
+  /** The maximum number of messages returned by a single receive. */
+  @Builder.Default private int maxMessages = 10;
+
+  /**
+   * The maximum number of messages per queue that have been received but not yet returned. A queue
+   * is not polled while its buffer is full.
+   */
+  @Builder.Default private int bufferSize = 10;
+
+  /** How the messages of different queues are ordered. */
+  public enum Scheduling {
+    /**
+     * Every queue gets a share of the returned messages proportional to its weight, as long as it
+     * has messages. Queues without messages give their share to the others.
+     */
+    WEIGHTED_FAIR,
+
+    /**
+     * Messages of a queue are only returned while no queue with a higher weight has messages, and
+     * queues are only polled while no queue with a higher weight has a backlog.
+     */
+    STRICT_PRIORITY
+  }
+}
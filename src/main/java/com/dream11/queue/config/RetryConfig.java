@@ -0,0 +1,43 @@
+package com.dream11.queue.config;
+
+import com.dream11.queue.producer.MessageProducer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration class for retrying messages whose handler fails. A failed message is released back
+ * to the queue with a delay that grows exponentially with its receive count. Once a message has
+ * been received the maximum number of times, it is sent to the dead-letter producer and
+ * acknowledged. Messages that are received more often than that, for example because their handler
+ * never returns, are dead-lettered without being handled again.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class RetryConfig {
+  /** Whether failed messages are retried with backoff. Disabled by default. */
+  @Builder.Default private boolean enabled = false;
+
+  /** The number of times a message is received before it is dead-lettered. */
+  @Builder.Default private int maxAttempts = 5;
+
+  /** The delay in seconds before the first retry of a message. */
+  @Builder.Default private int initialBackoffSeconds = 2;
+
+  /** The factor that the delay is multiplied with for every further retry. */
+  @Builder.Default private double backoffMultiplier = 2.0;
+
+  /** The maximum delay in seconds before a retry. SQS allows 12 hours. */
+  @Builder.Default private int maxBackoffSeconds = 900;
+
+  /**
+   * The producer that messages are sent to once they have been received the maximum number of
+   * times. It must accept the type of message of the listener container, for example an SqsProducer
+   * of SQS messages with {@code Message::body} as its transformer. If null, such messages are
+   * released with the maximum delay instead, leaving them to the redrive policy of the queue.
+   */
+  private MessageProducer<?> deadLetterProducer;
+}
@@ -0,0 +1,71 @@
+package com.dream11.queue.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration class for limiting the rate and concurrency of sent messages. A token bucket bounds
+ * the rate of sends, and a concurrency limit bounds the number of sends that are outstanding.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class SendLimitConfig {
+  /** Whether sends are limited. Disabled by default. */
+  @Builder.Default private boolean enabled = false;
+
+  /** The maximum sustained number of sends per second. A value of 0 disables rate limiting. */
+  @Builder.Default private double permitsPerSecond = 0;
+
+  /**
+   * The number of sends that may exceed the sustained rate in a burst. A value of 0 allows a burst
+   * of one second worth of sends.
+   */
+  @Builder.Default private int burstSize = 0;
+
+  /**
+   * The maximum number of outstanding sends. With adaptive concurrency, this is the upper bound of
+   * the limit. A value of 0 disables the fixed limit.
+   */
+  @Builder.Default private int maxConcurrency = 0;
+
+  /**
+   * Whether the concurrency limit adapts to the queue provider. The limit grows by one for every
+   * limit worth of successful sends, and halves whenever a send is throttled.
+   */
+  @Builder.Default private boolean adaptiveConcurrency = false;
+
+  /** The initial concurrency limit with adaptive concurrency. */
+  @Builder.Default private int initialConcurrency = 20;
+
+  /** The minimum concurrency limit with adaptive concurrency. */
+  @Builder.Default private int minConcurrency = 1;
+
+  /** What happens to sends that exceed the limits. */
+  @Builder.Default private OverflowStrategy overflowStrategy = OverflowStrategy.BLOCK;
+
+  /**
+   * The maximum time in milliseconds a blocked send waits for the limits to allow it, after which
+   * it fails.
+   */
+  @Builder.Default private long maxBlockMillis = 30_000;
+
+  /** The maximum number of queued sends with the QUEUE strategy. */
+  @Builder.Default private int maxQueueSize = 10_000;
+
+  /** Strategies for sends that exceed the limits. */
+  public enum OverflowStrategy {
+    /** The calling thread blocks until the send is allowed, for up to {@code maxBlockMillis}. */
+    BLOCK,
+    /** The send fails immediately with a SendRejectedException. */
+    FAIL,
+    /**
+     * The send is queued and made once the limits allow it. Sends fail immediately once {@code
+     * maxQueueSize} sends are queued.
+     */
+    QUEUE
+  }
+}
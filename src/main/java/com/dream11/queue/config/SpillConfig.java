@@ -0,0 +1,50 @@
+package com.dream11.queue.config;
+
+import java.nio.file.Path;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration class for spilling sends that fail with a retriable error to a local journal. While
+ * spilled messages are waiting to be replayed, new sends are spilled right away, so that the
+ * throughput of sends does not depend on the availability of the queue provider. Spilled messages
+ * are replayed in the background, and may therefore be delivered out of order; spilling is not
+ * suited to FIFO queues that rely on the order of messages within a group.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class SpillConfig {
+  /** Whether failed sends are spilled. Disabled by default. */
+  @Builder.Default private boolean enabled = false;
+
+  /**
+   * The directory of the journal. Required if spilling is enabled. Every producer needs a directory
+   * of its own; messages found in it when the producer is created are replayed.
+   */
+  private Path directory;
+
+  /**
+   * The maximum total size in bytes of the spilled messages. Sends that would exceed it fail with
+   * the error of the send.
+   */
+  @Builder.Default private long maxBytes = 64L * 1024 * 1024;
+
+  /** The size in bytes of a journal segment file. */
+  @Builder.Default private int segmentSizeBytes = 16 * 1024 * 1024;
+
+  /**
+   * Whether every journal write is forced to disk. Without forcing, spilled messages survive a
+   * crash of the process but not of the operating system.
+   */
+  @Builder.Default private boolean forceOnWrite = false;
+
+  /** The interval in milliseconds at which replays are attempted while messages are spilled. */
+  @Builder.Default private long replayIntervalMillis = 1000;
+
+  /** The maximum number of spilled messages sent concurrently by a replay. */
+  @Builder.Default private int replayBatchSize = 10;
+}
@@ -0,0 +1,157 @@
+package com.dream11.queue.consumer;
+
+import com.dream11.queue.config.AutoscaleConfig;
+import com.dream11.queue.metrics.QueueMetrics;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scales the concurrency of a listener container and the pollers of its consumer with the depth of
+ * the queue. At every interval, the depth of the queue is sampled from the consumer, and the
+ * throughput and mean latency of the handler since the last sample are taken from the container. By
+ * Little's law, the concurrency needed to handle messages at a given rate is the rate times the
+ * latency. The target rate is the measured throughput plus the rate needed to work off the visible
+ * backlog within the target drain time.
+ *
+ * <p>The concurrency is raised to the target right away, and lowered by at most half per interval
+ * so that short lulls do not collapse it. Until a latency has been measured, the concurrency is
+ * doubled while there is a backlog. The pollers are scaled linearly with the concurrency between
+ * their bounds. The concurrency and the last sampled backlog are published as gauges. Autoscaling
+ * stops if the consumer does not report the depth of its queue.
+ */
+@Slf4j
+class ConcurrencyAutoscaler implements AutoCloseable {
+  private final MessageListenerContainer<?> container;
+  private final MessageConsumer<?> consumer;
+  private final AutoscaleConfig config;
+  private final ScheduledExecutorService scheduler;
+  private final List<Runnable> gaugeRegistrations;
+
+  /** The mean latency of the handler in seconds, or 0 if none has been measured yet. */
+  private double latencySeconds;
+
+  private long lastSampleNanos = System.nanoTime();
+  private volatile long backlog;
+
+  /**
+   * Constructs and starts a new ConcurrencyAutoscaler.
+   *
+   * @param container The container whose concurrency is scaled.
+   * @param consumer The consumer whose queue depth is sampled and whose pollers are scaled.
+   * @param config The autoscale configuration.
+   */
+  ConcurrencyAutoscaler(
+      MessageListenerContainer<?> container, MessageConsumer<?> consumer, AutoscaleConfig config) {
+    this.container = container;
+    this.consumer = consumer;
+    this.config = config;
+    QueueMetrics metrics = config.getMetrics();
+    this.gaugeRegistrations =
+        List.of(
+            metrics.registerGauge(
+                config.getQueue(), QueueMetrics.Gauge.CONCURRENCY, container::getConcurrency),
+            metrics.registerGauge(
+                config.getQueue(), QueueMetrics.Gauge.BACKLOG, () -> this.backlog));
+    this.consumer.setPollers(this.pollersFor(container.getConcurrency()));
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "message-listener-autoscaler");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.scheduler.scheduleWithFixedDelay(
+        this::sample, config.getIntervalSeconds(), config.getIntervalSeconds(), TimeUnit.SECONDS);
+  }
+
+  /** Stops sampling and removes the gauges. */
+  @Override
+  public void close() {
+    this.scheduler.shutdownNow();
+    this.gaugeRegistrations.forEach(Runnable::run);
+  }
+
+  private void sample() {
+    QueueDepth depth;
+    try {
+      depth =
+          this.consumer
+              .getQueueDepth()
+              .get(Math.max(1, this.config.getIntervalSeconds()), TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UnsupportedOperationException) {
+        log.warn("Consumer does not report its queue depth, stopping autoscaling");
+        this.scheduler.shutdown();
+      } else {
+        log.warn("Failed to sample queue depth, keeping concurrency", e.getCause());
+      }
+      return;
+    } catch (TimeoutException e) {
+      log.warn("Timed out sampling queue depth, keeping concurrency");
+      return;
+    }
+    this.scale(depth);
+  }
+
+  /**
+   * Sets the concurrency and the pollers for a sampled queue depth.
+   *
+   * @param depth The sampled depth of the queue.
+   */
+  void scale(QueueDepth depth) {
+    long now = System.nanoTime();
+    double elapsedSeconds = Math.max(1e-3, (now - this.lastSampleNanos) / 1e9);
+    this.lastSampleNanos = now;
+    long handled = this.container.drainHandledCount();
+    long handlingNanos = this.container.drainHandlingNanos();
+    if (handled > 0) {
+      this.latencySeconds = handlingNanos / 1e9 / handled;
+    }
+    this.backlog = depth.getVisible();
+
+    int current = this.container.getConcurrency();
+    int target;
+    if (this.latencySeconds == 0) {
+      target = depth.getVisible() > 0 ? current * 2 : current;
+    } else {
+      double throughput = handled / elapsedSeconds;
+      double drainRate =
+          (double) depth.getVisible() / Math.max(1, this.config.getTargetDrainSeconds());
+      target = (int) Math.ceil((throughput + drainRate) * this.latencySeconds);
+    }
+    target = Math.max(target, current / 2);
+    target = Math.min(this.config.getMaxConcurrency(), target);
+    target = Math.max(this.config.getMinConcurrency(), target);
+    if (target != current) {
+      log.info(
+          "Scaling concurrency from {} to {} with {} visible and {} in-flight messages",
+          current,
+          target,
+          depth.getVisible(),
+          depth.getInFlight());
+      this.container.setConcurrency(target);
+    }
+    this.consumer.setPollers(this.pollersFor(target));
+  }
+
+  /** Interpolates the number of pollers linearly between their bounds. */
+  private int pollersFor(int concurrency) {
+    int minConcurrency = this.config.getMinConcurrency();
+    int maxConcurrency = this.config.getMaxConcurrency();
+    int minPollers = this.config.getMinPollers();
+    int maxPollers = this.config.getMaxPollers();
+    if (maxConcurrency <= minConcurrency) {
+      return maxPollers;
+    }
+    double share = (double) (concurrency - minConcurrency) / (maxConcurrency - minConcurrency);
+    return minPollers + (int) Math.ceil(share * (maxPollers - minPollers));
+  }
+}
@@ -0,0 +1,183 @@
+package com.dream11.queue.consumer;
+
+import com.dream11.queue.config.IdempotencyConfig;
+import com.dream11.queue.dedup.IdempotencyStore;
+import com.dream11.queue.dedup.InMemoryIdempotencyStore;
+import com.dream11.queue.metrics.QueueMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MessageConsumer that drops redelivered messages that have already been processed. The key of a
+ * message, such as its message id or a business key, is extracted with the given function and
+ * recorded in an {@link IdempotencyStore} when the message is acknowledged. A received message
+ * whose key is in the store is acknowledged and left out of the received messages, so that it never
+ * reaches a handler. Messages without a key are always handed out.
+ *
+ * <p>Only processed messages are dropped: a copy that is redelivered while the first copy is still
+ * being handled is handed out as well. A store that fails to look a key up is treated as not
+ * holding it, so that messages are never lost to an unavailable store. Every checked message is
+ * reported to the metrics as a hit for a dropped duplicate or a miss otherwise. All other
+ * operations are delegated to the underlying consumer, which is closed with this consumer.
+ *
+ * @param <T> The type of message that this consumer will handle.
+ */
+@Slf4j
+public class IdempotentConsumer<T> implements MessageConsumer<T> {
+  private final MessageConsumer<T> consumer;
+  private final Function<T, String> keyExtractor;
+  private final IdempotencyStore store;
+  private final QueueMetrics metrics;
+  private final String queue;
+
+  /**
+   * Constructs a new IdempotentConsumer.
+   *
+   * @param consumer The consumer to receive messages from.
+   * @param keyExtractor The function that extracts the key of a message, or returns null if the
+   *     message has none.
+   * @param config The idempotency configuration.
+   */
+  public IdempotentConsumer(
+      @NonNull MessageConsumer<T> consumer,
+      @NonNull Function<T, String> keyExtractor,
+      @NonNull IdempotencyConfig config) {
+    this.consumer = consumer;
+    this.keyExtractor = keyExtractor;
+    this.store =
+        config.getStore() != null
+            ? config.getStore()
+            : new InMemoryIdempotencyStore(
+                config.getMaxEntries(), TimeUnit.SECONDS.toMillis(config.getWindowSeconds()));
+    this.metrics = config.getMetrics();
+    this.queue = config.getQueue();
+  }
+
+  @Override
+  public CompletableFuture<List<T>> receive() {
+    return this.consumer.receive().thenCompose(this::filter);
+  }
+
+  @Override
+  public CompletableFuture<List<T>> receive(int timeout) {
+    return this.consumer.receive(timeout).thenCompose(this::filter);
+  }
+
+  /**
+   * Acknowledges a message, and records its key as processed.
+   *
+   * @param message The message to acknowledge.
+   * @return A CompletableFuture that completes when the message is acknowledged.
+   */
+  @Override
+  public CompletableFuture<Void> acknowledgeMessage(T message) {
+    String key = this.keyExtractor.apply(message);
+    if (key != null) {
+      this.store
+          .add(key)
+          .exceptionally(
+              e -> {
+                log.warn("Failed to record processed message: {}", key, e);
+                return null;
+              });
+    }
+    return this.consumer.acknowledgeMessage(message);
+  }
+
+  @Override
+  public CompletableFuture<Void> sendHeartbeat(T message) {
+    return this.consumer.sendHeartbeat(message);
+  }
+
+  @Override
+  public int getReceiveCount(T message) {
+    return this.consumer.getReceiveCount(message);
+  }
+
+  @Override
+  public CompletableFuture<Void> releaseMessage(T message, int delaySeconds) {
+    return this.consumer.releaseMessage(message, delaySeconds);
+  }
+
+  @Override
+  public CompletableFuture<QueueDepth> getQueueDepth() {
+    return this.consumer.getQueueDepth();
+  }
+
+  @Override
+  public void setPollers(int pollers) {
+    this.consumer.setPollers(pollers);
+  }
+
+  /** Closes the store and the underlying consumer. */
+  @Override
+  public void close() {
+    this.consumer.close();
+    this.store.close();
+  }
+
+  private CompletableFuture<List<T>> filter(List<T> messages) {
+    if (messages.isEmpty()) {
+      return CompletableFuture.completedFuture(messages);
+    }
+    List<CompletableFuture<Boolean>> duplicates = new ArrayList<>(messages.size());
+    for (T message : messages) {
+      duplicates.add(this.isDuplicate(message));
+    }
+    return CompletableFuture.allOf(duplicates.toArray(new CompletableFuture[0]))
+        .thenApply(
+            ignored -> {
+              List<T> unique = new ArrayList<>(messages.size());
+              for (int i = 0; i < messages.size(); i++) {
+                T message = messages.get(i);
+                boolean duplicate = duplicates.get(i).join();
+                if (duplicate) {
+                  this.drop(message);
+                } else {
+                  unique.add(message);
+                }
+              }
+              return unique;
+            });
+  }
+
+  private CompletableFuture<Boolean> isDuplicate(T message) {
+    String key = this.keyExtractor.apply(message);
+    if (key == null) {
+      return CompletableFuture.completedFuture(false);
+    }
+    CompletableFuture<Boolean> contains;
+    try {
+      contains = this.store.contains(key);
+    } catch (RuntimeException e) {
+      contains = CompletableFuture.failedFuture(e);
+    }
+    return contains
+        .exceptionally(
+            e -> {
+              log.warn("Failed to look up processed message: {}", key, e);
+              return false;
+            })
+        .thenApply(
+            duplicate -> {
+              this.metrics.recordReceiveDeduplication(this.queue, duplicate);
+              return duplicate;
+            });
+  }
+
+  private void drop(T message) {
+    log.debug("Dropping processed message: {}", this.keyExtractor.apply(message));
+    this.consumer
+        .acknowledgeMessage(message)
+        .exceptionally(
+            e -> {
+              log.warn("Failed to acknowledge processed message", e);
+              return null;
+            });
+  }
+}
@@ -0,0 +1,73 @@
+package com.dream11.queue.consumer;
+
+import com.dream11.queue.config.AutoscaleConfig;
+import com.dream11.queue.config.ListenerConfig;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/** Factory methods for the executors used by message listener containers. */
+@Slf4j
+@UtilityClass
+public class ListenerExecutors {
+
+  /**
+   * Creates the executor described by the given configuration. If virtual threads are requested but
+   * not supported by the runtime, a fixed pool of platform threads is created instead. The pool is
+   * large enough for the highest concurrency that the autoscaler may set.
+   *
+   * @param config The listener configuration.
+   * @return A new ExecutorService.
+   */
+  public ExecutorService create(ListenerConfig config) {
+    if (config.isUseVirtualThreads()) {
+      Optional<ExecutorService> executor = newVirtualThreadPerTaskExecutor();
+      if (executor.isPresent()) {
+        return executor.get();
+      }
+      log.warn("Virtual threads are not supported by this runtime, using platform threads");
+    }
+    AutoscaleConfig autoscaleConfig = config.getAutoscaleConfig();
+    return newPlatformThreadExecutor(
+        autoscaleConfig.isEnabled()
+            ? Math.max(config.getMaxConcurrency(), autoscaleConfig.getMaxConcurrency())
+            : config.getMaxConcurrency());
+  }
+
+  /**
+   * Creates an executor that starts a new virtual thread for each task. Virtual threads are looked
+   * up reflectively, so that the library can be compiled for and run on Java 11.
+   *
+   * @return An ExecutorService, or an empty Optional if the runtime does not support virtual
+   *     threads.
+   */
+  public Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+    try {
+      return Optional.of(
+          (ExecutorService)
+              Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+    } catch (ReflectiveOperationException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Creates a fixed pool of daemon platform threads.
+   *
+   * @param threads The number of threads in the pool.
+   * @return A new ExecutorService.
+   */
+  public ExecutorService newPlatformThreadExecutor(int threads) {
+    AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        threads,
+        runnable -> {
+          Thread thread = new Thread(runnable, "message-listener-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+}
@@ -44,6 +44,50 @@ public interface MessageConsumer<T> extends AutoCloseable {
    */
   CompletableFuture<Void> sendHeartbeat(T message);
 
+  /**
+   * Returns the number of times the given message has been received, including the delivery it was
+   * received with. Providers that do not track receive counts return 1.
+   *
+   * @param message The received message.
+   * @return The receive count of the message.
+   */
+  default int getReceiveCount(T message) {
+    return 1;
+  }
+
+  /**
+   * Releases a message without acknowledging it, so that it is delivered again once the given delay
+   * has passed. Heartbeats for the message are stopped. Providers that cannot delay redelivery fail
+   * with an UnsupportedOperationException.
+   *
+   * @param message The message to release.
+   * @param delaySeconds The delay in seconds before the message is delivered again.
+   * @return A CompletableFuture that completes when the message is released.
+   */
+  default CompletableFuture<Void> releaseMessage(T message, int delaySeconds) {
+    return CompletableFuture.failedFuture(
+        new UnsupportedOperationException("Releasing messages is not supported"));
+  }
+
+  /**
+   * Returns the approximate number of visible and in-flight messages in the queue. Providers that
+   * cannot report the depth of the queue fail with an UnsupportedOperationException.
+   *
+   * @return A CompletableFuture containing the depth of the queue.
+   */
+  default CompletableFuture<QueueDepth> getQueueDepth() {
+    return CompletableFuture.failedFuture(
+        new UnsupportedOperationException("Queue depth is not supported"));
+  }
+
+  /**
+   * Sets the number of concurrent receive loops that the consumer runs to keep its buffer filled.
+   * Consumers without receive loops ignore it.
+   *
+   * @param pollers The number of receive loops.
+   */
+  default void setPollers(int pollers) {}
+
   /**
    * Closes the message consumer, releasing any resources. This method should be called when the
    * consumer is no longer needed.
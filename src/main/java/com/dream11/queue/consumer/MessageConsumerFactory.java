@@ -1,8 +1,13 @@
 package com.dream11.queue.consumer;
 
+import com.dream11.queue.codec.MessageCodec;
 import com.dream11.queue.config.QueueConfig;
+import com.dream11.queue.impl.local.LocalConfig;
+import com.dream11.queue.impl.local.LocalConsumer;
+import com.dream11.queue.impl.local.LocalTypedConsumer;
 import com.dream11.queue.impl.sqs.SqsConfig;
 import com.dream11.queue.impl.sqs.SqsConsumer;
+import com.dream11.queue.impl.sqs.SqsTypedConsumer;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
@@ -28,6 +33,34 @@ public class MessageConsumerFactory {
     switch (config.getProvider()) {
       case SQS:
         return (MessageConsumer<T>) new SqsConsumer((SqsConfig) config);
+      case IN_MEMORY:
+      case LOCAL_DISK:
+        return (MessageConsumer<T>) new LocalConsumer((LocalConfig) config);
+      default:
+        throw new IllegalArgumentException(
+            "Invalid message consumer type: " + config.getProvider());
+    }
+  }
+
+  /**
+   * Creates a MessageConsumer that decodes messages with the given codec. Payloads are decoded
+   * lazily when they are accessed. The type of consumer created depends on the provider specified
+   * in the configuration.
+   *
+   * @param config The configuration for the message consumer.
+   * @param codec The codec used to decode messages.
+   * @return A new MessageConsumer instance.
+   * @throws IllegalArgumentException if the provider type is invalid.
+   * @param <T> The type of the decoded payload.
+   */
+  public <T> MessageConsumer<ReceivedMessage<T>> create(
+      @NonNull QueueConfig config, @NonNull MessageCodec<T> codec) {
+    switch (config.getProvider()) {
+      case SQS:
+        return new SqsTypedConsumer<>((SqsConfig) config, codec);
+      case IN_MEMORY:
+      case LOCAL_DISK:
+        return new LocalTypedConsumer<>((LocalConfig) config, codec);
       default:
         throw new IllegalArgumentException(
             "Invalid message consumer type: " + config.getProvider());
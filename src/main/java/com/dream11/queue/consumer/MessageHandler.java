@@ -0,0 +1,18 @@
+package com.dream11.queue.consumer;
+
+/**
+ * Handler invoked by a MessageListenerContainer for every received message. A message is
+ * acknowledged when the handler returns normally.
+ *
+ * @param <T> The type of message that this handler will process.
+ */
+@FunctionalInterface
+public interface MessageHandler<T> {
+  /**
+   * Processes a message.
+   *
+   * @param message The message to process.
+   * @throws Exception if the message could not be processed. The message is not acknowledged.
+   */
+  void handle(T message) throws Exception;
+}
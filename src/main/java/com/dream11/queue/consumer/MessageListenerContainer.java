@@ -0,0 +1,482 @@
+package com.dream11.queue.consumer;
+
+import com.dream11.queue.config.AutoscaleConfig;
+import com.dream11.queue.config.ListenerConfig;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a poll loop on top of a MessageConsumer and dispatches every received message to a handler
+ * on an executor. At most the configured number of messages are processed concurrently; the poll
+ * loop stops receiving while all slots are taken. A message is acknowledged once its handler
+ * returns normally.
+ *
+ * <p>When a group key extractor is given, messages of different groups are processed in parallel
+ * while messages of the same group are processed one at a time, in the order they were received.
+ * This is meant for FIFO queues, where the group key is the message group id. When the handler
+ * fails for a message, the messages of its group that are waiting behind it are skipped and
+ * released back to the consumer without delay, so that they are redelivered after it and stay in
+ * order.
+ *
+ * <p>When retries are enabled in the configuration, a message whose handler fails is released with
+ * a delay that grows exponentially with its receive count, rather than waiting for its visibility
+ * timeout to expire. A message that fails on its last attempt is sent to the dead-letter producer
+ * and acknowledged, and a message that is received after its last attempt is given up without being
+ * handled, so that poison messages do not take up processing slots.
+ *
+ * <p>When autoscaling is enabled in the configuration, the concurrency is scaled between the
+ * configured bounds with the depth of the queue and the processing latency of its messages, and the
+ * pollers of the consumer are scaled along.
+ *
+ * <p>The container does not close the underlying consumer, since it does not own it.
+ *
+ * @param <T> The type of message that this container will handle.
+ */
+@Slf4j
+public class MessageListenerContainer<T> implements AutoCloseable {
+  private static final long RECEIVE_ERROR_BACKOFF_MILLIS = 1000;
+
+  private final MessageConsumer<T> consumer;
+  private final MessageHandler<T> handler;
+  @Getter private final ListenerConfig listenerConfig;
+  private final ExecutorService executor;
+  private final boolean ownsExecutor;
+
+  /** Extracts the group key of a message, or null if messages are not ordered by group. */
+  private final Function<T, String> groupKeyExtractor;
+
+  /**
+   * Messages waiting for an earlier message of their group to be processed, keyed by group. A group
+   * is present while one of its messages is being processed.
+   */
+  private final Map<String, Queue<T>> groups = new HashMap<>();
+
+  /** The retrier of failed messages, or null if retries are disabled. */
+  private final MessageRetrier<T> retrier;
+
+  /** Free processing slots. A slot is taken for every dispatched message until it is handled. */
+  private final ResizableSemaphore slots;
+
+  /** The number of processing slots, which is changed by the autoscaler. */
+  private volatile int concurrency;
+
+  /** The number of messages handled, and the time spent handling them, since the last sample. */
+  private final LongAdder handledCount = new LongAdder();
+
+  private final LongAdder handlingNanos = new LongAdder();
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private ConcurrencyAutoscaler autoscaler;
+  private volatile boolean running = false;
+  private Thread pollThread;
+
+  /**
+   * Constructs a new MessageListenerContainer that processes messages on the executor described by
+   * the configuration.
+   *
+   * @param consumer The consumer to receive messages from.
+   * @param handler The handler to process messages with.
+   * @param listenerConfig The listener configuration.
+   */
+  public MessageListenerContainer(
+      @NonNull MessageConsumer<T> consumer,
+      @NonNull MessageHandler<T> handler,
+      @NonNull ListenerConfig listenerConfig) {
+    this(consumer, handler, listenerConfig, ListenerExecutors.create(listenerConfig), true, null);
+  }
+
+  /**
+   * Constructs a new MessageListenerContainer that processes messages on the executor described by
+   * the configuration, keeping messages of the same group in order.
+   *
+   * @param consumer The consumer to receive messages from.
+   * @param handler The handler to process messages with.
+   * @param listenerConfig The listener configuration.
+   * @param groupKeyExtractor Extracts the group key of a message. Messages with a null key are not
+   *     ordered.
+   */
+  public MessageListenerContainer(
+      @NonNull MessageConsumer<T> consumer,
+      @NonNull MessageHandler<T> handler,
+      @NonNull ListenerConfig listenerConfig,
+      @NonNull Function<T, String> groupKeyExtractor) {
+    this(
+        consumer,
+        handler,
+        listenerConfig,
+        ListenerExecutors.create(listenerConfig),
+        true,
+        groupKeyExtractor);
+  }
+
+  /**
+   * Constructs a new MessageListenerContainer that processes messages on the given executor. The
+   * executor is not shut down when the container is closed.
+   *
+   * @param consumer The consumer to receive messages from.
+   * @param handler The handler to process messages with.
+   * @param listenerConfig The listener configuration.
+   * @param executor The executor to process messages on.
+   */
+  public MessageListenerContainer(
+      @NonNull MessageConsumer<T> consumer,
+      @NonNull MessageHandler<T> handler,
+      @NonNull ListenerConfig listenerConfig,
+      @NonNull ExecutorService executor) {
+    this(consumer, handler, listenerConfig, executor, false, null);
+  }
+
+  /**
+   * Constructs a new MessageListenerContainer that processes messages on the given executor,
+   * keeping messages of the same group in order. The executor is not shut down when the container
+   * is closed.
+   *
+   * @param consumer The consumer to receive messages from.
+   * @param handler The handler to process messages with.
+   * @param listenerConfig The listener configuration.
+   * @param executor The executor to process messages on.
+   * @param groupKeyExtractor Extracts the group key of a message. Messages with a null key are not
+   *     ordered.
+   */
+  public MessageListenerContainer(
+      @NonNull MessageConsumer<T> consumer,
+      @NonNull MessageHandler<T> handler,
+      @NonNull ListenerConfig listenerConfig,
+      @NonNull ExecutorService executor,
+      @NonNull Function<T, String> groupKeyExtractor) {
+    this(consumer, handler, listenerConfig, executor, false, groupKeyExtractor);
+  }
+
+  private MessageListenerContainer(
+      MessageConsumer<T> consumer,
+      MessageHandler<T> handler,
+      ListenerConfig listenerConfig,
+      ExecutorService executor,
+      boolean ownsExecutor,
+      Function<T, String> groupKeyExtractor) {
+    this.consumer = consumer;
+    this.handler = handler;
+    this.listenerConfig = listenerConfig;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+    this.groupKeyExtractor = groupKeyExtractor;
+    AutoscaleConfig autoscaleConfig = listenerConfig.getAutoscaleConfig();
+    this.concurrency =
+        autoscaleConfig.isEnabled()
+            ? Math.max(
+                autoscaleConfig.getMinConcurrency(),
+                Math.min(listenerConfig.getMaxConcurrency(), autoscaleConfig.getMaxConcurrency()))
+            : listenerConfig.getMaxConcurrency();
+    this.slots = new ResizableSemaphore(this.concurrency);
+    this.retrier =
+        listenerConfig.getRetryConfig().isEnabled()
+            ? new MessageRetrier<>(consumer, listenerConfig.getRetryConfig())
+            : null;
+  }
+
+  /** Starts the poll loop. Calling this method on a running container has no effect. */
+  public synchronized void start() {
+    if (this.running) {
+      return;
+    }
+    this.running = true;
+    this.pollThread = new Thread(this::poll, "message-listener-poll");
+    this.pollThread.setDaemon(true);
+    this.pollThread.start();
+    if (this.listenerConfig.getAutoscaleConfig().isEnabled()) {
+      this.autoscaler =
+          new ConcurrencyAutoscaler(this, this.consumer, this.listenerConfig.getAutoscaleConfig());
+    }
+  }
+
+  /**
+   * Returns whether the poll loop is running.
+   *
+   * @return true if the container has been started and not yet closed.
+   */
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * Returns the number of messages that have been dispatched and are still being handled.
+   *
+   * @return The number of in-flight messages.
+   */
+  public int getInFlightCount() {
+    return this.inFlight.get();
+  }
+
+  /**
+   * Returns the number of messages that may be processed concurrently. This is the configured
+   * maximum concurrency, unless it has been changed by the autoscaler.
+   *
+   * @return The concurrency.
+   */
+  public int getConcurrency() {
+    return this.concurrency;
+  }
+
+  /**
+   * Changes the number of messages that may be processed concurrently. Lowering it does not
+   * interrupt in-flight messages; new messages are dispatched once enough of them finish.
+   *
+   * @param concurrency The new concurrency. Must be positive.
+   */
+  public synchronized void setConcurrency(int concurrency) {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+    }
+    int delta = concurrency - this.concurrency;
+    if (delta > 0) {
+      this.slots.release(delta);
+    } else if (delta < 0) {
+      this.slots.reducePermits(-delta);
+    }
+    this.concurrency = concurrency;
+  }
+
+  /**
+   * Stops the poll loop and waits for in-flight messages to finish processing, up to the configured
+   * shutdown timeout. Messages received by a poll that is still outstanding are processed before
+   * the container stops.
+   */
+  @Override
+  public void close() {
+    Thread thread;
+    synchronized (this) {
+      if (!this.running) {
+        return;
+      }
+      this.running = false;
+      thread = this.pollThread;
+      if (this.autoscaler != null) {
+        this.autoscaler.close();
+        this.autoscaler = null;
+      }
+    }
+    long deadline =
+        System.nanoTime() + TimeUnit.SECONDS.toNanos(this.listenerConfig.getShutdownTimeout());
+    try {
+      thread.join(TimeUnit.NANOSECONDS.toMillis(Math.max(0, deadline - System.nanoTime())));
+      if (!this.slots.tryAcquire(
+          this.concurrency,
+          Math.max(0, deadline - System.nanoTime()),
+          TimeUnit.NANOSECONDS)) {
+        log.warn("Timed out waiting for {} in-flight messages", this.inFlight.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      if (this.ownsExecutor) {
+        this.executor.shutdownNow();
+      }
+    }
+  }
+
+  private void poll() {
+    while (this.running) {
+      int available;
+      try {
+        this.slots.acquire();
+        available = 1 + this.slots.drainPermits();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      List<T> messages;
+      try {
+        messages = this.consumer.receive(this.listenerConfig.getReceiveTimeout()).get();
+      } catch (InterruptedException e) {
+        this.slots.release(available);
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException | RuntimeException e) {
+        this.slots.release(available);
+        log.error("Failed to receive messages", e);
+        this.backoff();
+        continue;
+      }
+      if (messages.size() < available) {
+        this.slots.release(available - messages.size());
+      } else if (messages.size() > available) {
+        this.slots.acquireUninterruptibly(messages.size() - available);
+      }
+      messages.forEach(this::dispatch);
+    }
+  }
+
+  private void backoff() {
+    try {
+      Thread.sleep(RECEIVE_ERROR_BACKOFF_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.running = false;
+    }
+  }
+
+  private void dispatch(T message) {
+    this.inFlight.incrementAndGet();
+    String group = this.groupKeyExtractor != null ? this.groupKeyExtractor.apply(message) : null;
+    if (group == null) {
+      this.execute(message, () -> this.process(message));
+      return;
+    }
+    synchronized (this.groups) {
+      Queue<T> waiting = this.groups.get(group);
+      if (waiting != null) {
+        waiting.add(message);
+        return;
+      }
+      this.groups.put(group, new ArrayDeque<>());
+    }
+    if (!this.execute(message, () -> this.processGroup(group, message))) {
+      this.abandonGroup(group);
+    }
+  }
+
+  private boolean execute(T message, Runnable task) {
+    try {
+      this.executor.execute(task);
+      return true;
+    } catch (RejectedExecutionException e) {
+      log.error("Failed to dispatch message: {}", message, e);
+      this.release();
+      return false;
+    }
+  }
+
+  /** Processes a message of a group, then hands over to the next waiting message of the group. */
+  private void processGroup(String group, T message) {
+    boolean handled = this.process(message);
+    T next;
+    List<T> skipped = List.of();
+    synchronized (this.groups) {
+      Queue<T> waiting = this.groups.get(group);
+      if (!handled && !waiting.isEmpty()) {
+        log.warn("Skipping {} messages of group {} after failed message", waiting.size(), group);
+        skipped = new ArrayList<>(waiting);
+        waiting.clear();
+      }
+      next = waiting.poll();
+      if (next == null) {
+        this.groups.remove(group);
+      }
+    }
+    skipped.forEach(this::skip);
+    if (next != null && !this.execute(next, () -> this.processGroup(group, next))) {
+      this.abandonGroup(group);
+    }
+  }
+
+  /** Removes a group whose messages can no longer be dispatched, skipping its waiting messages. */
+  private void abandonGroup(String group) {
+    Queue<T> waiting;
+    synchronized (this.groups) {
+      waiting = this.groups.remove(group);
+    }
+    if (waiting != null) {
+      waiting.forEach(this::skip);
+    }
+  }
+
+  /**
+   * Skips a message without handling it, releasing it back to the consumer so that it is
+   * redelivered right away rather than once its visibility timeout expires.
+   */
+  private void skip(T message) {
+    this.release();
+    this.consumer
+        .releaseMessage(message, 0)
+        .exceptionally(
+            e -> {
+              log.warn("Failed to release message: {}", message, e);
+              return null;
+            });
+  }
+
+  /**
+   * Processes a message and acknowledges it if it was handled. Poison messages are given up without
+   * being handled, and failed messages are retried if retries are enabled.
+   *
+   * @return Whether the handler returned normally or the message was given up.
+   */
+  private boolean process(T message) {
+    try {
+      if (this.retrier != null && this.retrier.isPoison(message)) {
+        this.retrier.giveUp(message);
+        return true;
+      }
+      long start = System.nanoTime();
+      this.handler.handle(message);
+      this.handlingNanos.add(System.nanoTime() - start);
+      this.handledCount.increment();
+      this.consumer
+          .acknowledgeMessage(message)
+          .exceptionally(
+              e -> {
+                log.error("Failed to acknowledge message: {}", message, e);
+                return null;
+              });
+      return true;
+    } catch (Exception e) {
+      log.error("Failed to handle message: {}", message, e);
+      if (this.retrier != null) {
+        this.retrier.onFailure(message);
+      }
+      return false;
+    } finally {
+      this.release();
+    }
+  }
+
+  private void release() {
+    this.inFlight.decrementAndGet();
+    this.slots.release();
+  }
+
+  /**
+   * Returns the number of messages handled since the last call, and resets it.
+   *
+   * @return The number of handled messages.
+   */
+  long drainHandledCount() {
+    return this.handledCount.sumThenReset();
+  }
+
+  /**
+   * Returns the time in nanoseconds spent handling messages since the last call, and resets it.
+   *
+   * @return The handling time in nanoseconds.
+   */
+  long drainHandlingNanos() {
+    return this.handlingNanos.sumThenReset();
+  }
+
+  /** A semaphore whose number of permits can be reduced. */
+  private static final class ResizableSemaphore extends Semaphore {
+    private ResizableSemaphore(int permits) {
+      super(permits);
+    }
+
+    @Override
+    protected void reducePermits(int reduction) {
+      super.reducePermits(reduction);
+    }
+  }
+}
@@ -0,0 +1,260 @@
+package com.dream11.queue.consumer;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the messages of a MessageConsumer as a {@link Flow.Publisher}. The consumer is only
+ * polled while the subscriber has requested more messages than are buffered, so a subscriber that
+ * stops requesting stops the polling as well.
+ *
+ * <p>A published message stays in flight until the subscriber is done with it and calls {@link
+ * #acknowledge(Object)}, or {@link #release(Object)} to have it delivered again. Polling also stops
+ * while the configured number of messages are in flight, so the rate at which messages are received
+ * follows the rate at which the subscriber completes them, even if it requests messages without
+ * bound. Messages that are never acknowledged are redelivered once their visibility timeout
+ * expires.
+ *
+ * <p>A publisher supports a single subscriber. Failed receives are logged and retried after a
+ * backoff, and the publisher never completes; the subscriber cancels its subscription to stop.
+ * Messages that are buffered when the subscription is cancelled are released. The publisher does
+ * not close the underlying consumer, since it does not own it.
+ *
+ * @param <T> The type of message that this publisher will publish.
+ */
+@Slf4j
+public class MessagePublisher<T> implements Flow.Publisher<T> {
+  private static final long RECEIVE_ERROR_BACKOFF_MILLIS = 1000;
+
+  private final MessageConsumer<T> consumer;
+  private final int maxInFlight;
+  private final int receiveTimeout;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  /** The published messages that have not been acknowledged or released. */
+  private final Set<T> published = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /** The number of buffered and published messages that have not been acknowledged or released. */
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private volatile MessageSubscription subscription;
+
+  /**
+   * Constructs a new MessagePublisher.
+   *
+   * @param consumer The consumer to receive messages from.
+   * @param maxInFlight The number of unacknowledged messages at which polling stops.
+   * @param receiveTimeout The timeout in seconds of each receive call.
+   */
+  public MessagePublisher(
+      @NonNull MessageConsumer<T> consumer, int maxInFlight, int receiveTimeout) {
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("Invalid maximum number of in-flight messages");
+    }
+    this.consumer = consumer;
+    this.maxInFlight = maxInFlight;
+    this.receiveTimeout = receiveTimeout;
+  }
+
+  @Override
+  public void subscribe(@NonNull Flow.Subscriber<? super T> subscriber) {
+    if (!this.subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(
+          new Flow.Subscription() {
+            @Override
+            public void request(long n) {}
+
+            @Override
+            public void cancel() {}
+          });
+      subscriber.onError(new IllegalStateException("Publisher already has a subscriber"));
+      return;
+    }
+    this.subscription = new MessageSubscription(subscriber);
+    subscriber.onSubscribe(this.subscription);
+  }
+
+  /**
+   * Acknowledges a published message and frees its in-flight slot.
+   *
+   * @param message The message to acknowledge.
+   * @return A CompletableFuture that completes when the message is acknowledged.
+   */
+  public CompletableFuture<Void> acknowledge(T message) {
+    this.complete(message);
+    return this.consumer.acknowledgeMessage(message);
+  }
+
+  /**
+   * Releases a published message without acknowledging it and frees its in-flight slot. The message
+   * is delivered again right away if the consumer supports releasing messages, and once its
+   * visibility timeout expires otherwise.
+   *
+   * @param message The message to release.
+   */
+  public void release(T message) {
+    this.complete(message);
+    this.releaseMessage(message);
+  }
+
+  /**
+   * Returns the number of messages that have been received and not yet acknowledged or released,
+   * including messages that are buffered until the subscriber requests them.
+   *
+   * @return The number of in-flight messages.
+   */
+  public int getInFlightCount() {
+    return this.inFlight.get();
+  }
+
+  private void complete(T message) {
+    boolean removed;
+    synchronized (this.published) {
+      removed = this.published.remove(message);
+    }
+    if (removed) {
+      this.inFlight.decrementAndGet();
+      MessageSubscription current = this.subscription;
+      if (current != null) {
+        current.drain();
+      }
+    }
+  }
+
+  private void releaseMessage(T message) {
+    this.consumer
+        .releaseMessage(message, 0)
+        .exceptionally(
+            e -> {
+              log.debug("Message is delivered again after its visibility timeout: {}", message);
+              return null;
+            });
+  }
+
+  /** The subscription of the single subscriber, which delivers buffered messages on demand. */
+  private final class MessageSubscription implements Flow.Subscription {
+    private final Flow.Subscriber<? super T> subscriber;
+    private final Queue<T> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+
+    /** Serializes drains: the thread that raises it from 0 drains until it drops back to 0. */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private volatile boolean cancelled;
+
+    private MessageSubscription(Flow.Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        this.cancel();
+        this.subscriber.onError(
+            new IllegalArgumentException("Requested a non-positive number of messages: " + n));
+        return;
+      }
+      this.requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+      this.drain();
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+      this.drain();
+    }
+
+    /** Delivers buffered messages up to the demand, and polls if the demand is not met. */
+    private void drain() {
+      if (this.pending.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        if (this.cancelled) {
+          this.releaseBuffered();
+        } else {
+          this.deliver();
+          this.poll();
+        }
+        missed = this.pending.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void deliver() {
+      long delivered = 0;
+      long demand = this.requested.get();
+      while (delivered < demand && !this.cancelled) {
+        T message = this.buffer.poll();
+        if (message == null) {
+          break;
+        }
+        synchronized (MessagePublisher.this.published) {
+          MessagePublisher.this.published.add(message);
+        }
+        delivered++;
+        try {
+          this.subscriber.onNext(message);
+        } catch (RuntimeException e) {
+          log.error("Subscriber failed to accept message: {}", message, e);
+          this.cancelled = true;
+        }
+      }
+      if (delivered > 0 && demand != Long.MAX_VALUE) {
+        this.requested.addAndGet(-delivered);
+      }
+    }
+
+    private void poll() {
+      if (this.requested.get() <= this.buffer.size()
+          || MessagePublisher.this.inFlight.get() >= MessagePublisher.this.maxInFlight
+          || !this.polling.compareAndSet(false, true)) {
+        return;
+      }
+      CompletableFuture<List<T>> received;
+      try {
+        received = MessagePublisher.this.consumer.receive(MessagePublisher.this.receiveTimeout);
+      } catch (RuntimeException e) {
+        received = CompletableFuture.failedFuture(e);
+      }
+      received.whenComplete(
+          (messages, throwable) -> {
+            if (throwable != null) {
+              log.error("Failed to receive messages", throwable);
+              CompletableFuture.delayedExecutor(RECEIVE_ERROR_BACKOFF_MILLIS, TimeUnit.MILLISECONDS)
+                  .execute(this::onPolled);
+              return;
+            }
+            MessagePublisher.this.inFlight.addAndGet(messages.size());
+            this.buffer.addAll(messages);
+            this.onPolled();
+          });
+    }
+
+    private void onPolled() {
+      this.polling.set(false);
+      this.drain();
+    }
+
+    private void releaseBuffered() {
+      T message;
+      while ((message = this.buffer.poll()) != null) {
+        MessagePublisher.this.inFlight.decrementAndGet();
+        MessagePublisher.this.releaseMessage(message);
+      }
+    }
+  }
+}
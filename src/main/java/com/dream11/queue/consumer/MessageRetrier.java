@@ -0,0 +1,111 @@
+package com.dream11.queue.consumer;
+
+import com.dream11.queue.config.RetryConfig;
+import com.dream11.queue.producer.MessageProducer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies a {@link RetryConfig} to the messages of a consumer. Failed messages are released with a
+ * delay of the initial backoff multiplied by the backoff multiplier for every earlier receive, up
+ * to the maximum backoff. Messages that have used up their attempts are given up: they are sent to
+ * the dead-letter producer and acknowledged, or, without a dead-letter producer, released with the
+ * maximum backoff.
+ *
+ * @param <T> The type of message that the consumer handles.
+ */
+@Slf4j
+class MessageRetrier<T> {
+  private final MessageConsumer<T> consumer;
+  private final RetryConfig retryConfig;
+
+  /** The producer of dead-lettered messages, or null if messages are not dead-lettered. */
+  private final MessageProducer<T> deadLetterProducer;
+
+  /**
+   * Constructs a new MessageRetrier.
+   *
+   * @param consumer The consumer that messages are received from.
+   * @param retryConfig The retry configuration.
+   */
+  @SuppressWarnings("unchecked")
+  MessageRetrier(MessageConsumer<T> consumer, RetryConfig retryConfig) {
+    this.consumer = consumer;
+    this.retryConfig = retryConfig;
+    this.deadLetterProducer = (MessageProducer<T>) retryConfig.getDeadLetterProducer();
+  }
+
+  /**
+   * Returns whether a message has been received more often than the maximum number of attempts, in
+   * which case it is given up without being handled again.
+   *
+   * @param message The received message.
+   * @return Whether the message is a poison message.
+   */
+  boolean isPoison(T message) {
+    return this.consumer.getReceiveCount(message) > this.retryConfig.getMaxAttempts();
+  }
+
+  /**
+   * Handles a message whose handler failed, by releasing it with backoff or giving it up if it has
+   * used up its attempts.
+   *
+   * @param message The failed message.
+   */
+  void onFailure(T message) {
+    int receiveCount = this.consumer.getReceiveCount(message);
+    if (receiveCount >= this.retryConfig.getMaxAttempts()) {
+      this.giveUp(message);
+    } else {
+      this.release(message, this.backoffSeconds(receiveCount));
+    }
+  }
+
+  /**
+   * Gives up a message, by sending it to the dead-letter producer and acknowledging it, or by
+   * releasing it with the maximum backoff if there is no dead-letter producer. If the message
+   * cannot be dead-lettered, it is released with backoff to be retried later.
+   *
+   * @param message The message to give up.
+   */
+  void giveUp(T message) {
+    if (this.deadLetterProducer == null) {
+      log.warn(
+          "Giving up message after {} attempts: {}", this.retryConfig.getMaxAttempts(), message);
+      this.release(message, this.retryConfig.getMaxBackoffSeconds());
+      return;
+    }
+    this.deadLetterProducer
+        .send(message)
+        .thenCompose(ignored -> this.consumer.acknowledgeMessage(message))
+        .whenComplete(
+            (ignored, throwable) -> {
+              if (throwable != null) {
+                log.error("Failed to dead-letter message: {}", message, throwable);
+                this.release(message, this.backoffSeconds(this.consumer.getReceiveCount(message)));
+              }
+            });
+  }
+
+  /**
+   * Returns the delay before the next delivery of a message that failed.
+   *
+   * @param receiveCount The receive count of the message.
+   * @return The delay in seconds.
+   */
+  int backoffSeconds(int receiveCount) {
+    double backoff =
+        this.retryConfig.getInitialBackoffSeconds()
+            * Math.pow(this.retryConfig.getBackoffMultiplier(), Math.max(0, receiveCount - 1));
+    return (int) Math.min(this.retryConfig.getMaxBackoffSeconds(), backoff);
+  }
+
+  private void release(T message, int delaySeconds) {
+    this.consumer
+        .releaseMessage(message, delaySeconds)
+        .exceptionally(
+            e -> {
+              log.warn("Failed to release message: {}", message, e);
+              return null;
+            });
+  }
+}
@@ -0,0 +1,422 @@
+package com.dream11.queue.consumer;
+
+import com.dream11.queue.config.MultiQueueConfig;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MessageConsumer that receives messages from several queues, each through its own consumer, and
+ * returns them from a single receive call. Combined with a {@link MessageListenerContainer}, the
+ * messages of all queues are processed by one poll loop and one worker pool.
+ *
+ * <p>Every queue has a weight. With weighted fair scheduling, every queue with messages gets a
+ * share of the returned messages proportional to its weight. With strict priority scheduling, the
+ * messages of a queue are only returned while no queue with a higher weight has any, and queues are
+ * only polled while no queue with a higher weight has a backlog.
+ *
+ * <p>Queues are polled concurrently, at most one request per queue at a time, and the received
+ * messages are buffered per queue until they are returned. A queue whose last poll returned
+ * messages is assumed to have a backlog: it is polled again without waiting as soon as its buffer
+ * has room. A queue whose last poll came back empty is long-polled with the receive timeout, and
+ * only while a receive call is waiting for messages. Polling effort therefore follows the queues
+ * that have messages, while quiet queues cost one long poll at a time.
+ *
+ * <p>Acknowledgements, heartbeats and releases are routed to the consumer that received the
+ * message. Closing this consumer closes the consumers of all queues, and releases messages that
+ * were received but not returned.
+ *
+ * @param <T> The type of message that this consumer will handle.
+ */
+@Slf4j
+public class MultiQueueConsumer<T> implements MessageConsumer<T> {
+  private static final long POLL_ERROR_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final MultiQueueConfig config;
+
+  /** The queues, in descending order of weight for strict priority scheduling. */
+  private final List<QueueState> queues;
+
+  /** The queue that each returned message was received from. Weak, since not all are acked. */
+  private final Map<T, QueueState> owners = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /** The receive calls waiting for messages, oldest first. Guarded by this. */
+  private final Deque<Waiter<T>> waiters = new ArrayDeque<>();
+
+  /** The virtual time of weighted fair scheduling. Guarded by this. */
+  private double virtualTime;
+
+  /** The timeout of the most recent receive call. Guarded by this. */
+  private int receiveTimeout;
+
+  private boolean closed;
+
+  /**
+   * Constructs a new MultiQueueConsumer.
+   *
+   * @param sources The consumers of the queues and their weights.
+   * @param config The multi-queue configuration.
+   */
+  public MultiQueueConsumer(@NonNull List<Source<T>> sources, @NonNull MultiQueueConfig config) {
+    if (sources.isEmpty()) {
+      throw new IllegalArgumentException("At least one queue is required");
+    }
+    for (Source<T> source : sources) {
+      if (source.getWeight() <= 0) {
+        throw new IllegalArgumentException("Invalid weight: " + source.getWeight());
+      }
+    }
+    this.config = config;
+    this.queues = sources.stream().map(QueueState::new).collect(Collectors.toList());
+    if (config.getScheduling() == MultiQueueConfig.Scheduling.STRICT_PRIORITY) {
+      this.queues.sort(Comparator.comparingInt((QueueState queue) -> queue.weight).reversed());
+    }
+  }
+
+  /**
+   * Returns the messages buffered for the queues without waiting, or polls the queues once if none
+   * are buffered.
+   *
+   * @return A CompletableFuture containing a list of received messages.
+   */
+  @Override
+  public CompletableFuture<List<T>> receive() {
+    return this.receive(0);
+  }
+
+  /**
+   * Returns the messages buffered for the queues, or waits up to the given timeout for messages if
+   * none are buffered.
+   *
+   * @param timeout The timeout in seconds to wait for messages.
+   * @return A CompletableFuture containing a list of received messages.
+   */
+  @Override
+  public CompletableFuture<List<T>> receive(int timeout) {
+    List<T> messages;
+    Waiter<T> waiter = null;
+    synchronized (this) {
+      if (this.closed) {
+        return CompletableFuture.failedFuture(new IllegalStateException("Consumer is closed"));
+      }
+      this.receiveTimeout = timeout;
+      messages = this.take();
+      if (messages.isEmpty()) {
+        waiter = new Waiter<>(timeout);
+        this.waiters.add(waiter);
+      }
+    }
+    this.refill();
+    if (waiter == null) {
+      return CompletableFuture.completedFuture(messages);
+    }
+    this.completeIdleWaiters();
+    return waiter.future.completeOnTimeout(List.of(), timeout, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public CompletableFuture<Void> acknowledgeMessage(T message) {
+    QueueState queue = this.owners.remove(message);
+    if (queue == null) {
+      return CompletableFuture.failedFuture(unknown(message));
+    }
+    return queue.consumer.acknowledgeMessage(message);
+  }
+
+  @Override
+  public CompletableFuture<Void> sendHeartbeat(T message) {
+    QueueState queue = this.owners.get(message);
+    if (queue == null) {
+      return CompletableFuture.failedFuture(unknown(message));
+    }
+    return queue.consumer.sendHeartbeat(message);
+  }
+
+  @Override
+  public int getReceiveCount(T message) {
+    QueueState queue = this.owners.get(message);
+    return queue != null ? queue.consumer.getReceiveCount(message) : 1;
+  }
+
+  @Override
+  public CompletableFuture<Void> releaseMessage(T message, int delaySeconds) {
+    QueueState queue = this.owners.remove(message);
+    if (queue == null) {
+      return CompletableFuture.failedFuture(unknown(message));
+    }
+    return queue.consumer.releaseMessage(message, delaySeconds);
+  }
+
+  /**
+   * Returns the sum of the depths of the queues. Fails if the depth of any queue cannot be
+   * reported.
+   *
+   * @return A CompletableFuture containing the total depth of the queues.
+   */
+  @Override
+  public CompletableFuture<QueueDepth> getQueueDepth() {
+    CompletableFuture<QueueDepth> total = CompletableFuture.completedFuture(new QueueDepth(0, 0));
+    for (QueueState queue : this.queues) {
+      total =
+          total.thenCombine(
+              queue.consumer.getQueueDepth(),
+              (sum, depth) ->
+                  new QueueDepth(
+                      sum.getVisible() + depth.getVisible(),
+                      sum.getInFlight() + depth.getInFlight()));
+    }
+    return total;
+  }
+
+  /**
+   * Returns the number of messages that have been received from the queues and not yet returned.
+   *
+   * @return The number of buffered messages.
+   */
+  public synchronized int getBufferedCount() {
+    return this.queues.stream().mapToInt(queue -> queue.buffer.size()).sum();
+  }
+
+  /**
+   * Closes the consumers of all queues. Messages that were received but not returned are released
+   * first, and waiting receive calls complete without messages.
+   */
+  @Override
+  public void close() {
+    List<Waiter<T>> waiting;
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      waiting = new ArrayList<>(this.waiters);
+      this.waiters.clear();
+    }
+    waiting.forEach(waiter -> waiter.future.complete(List.of()));
+    for (QueueState queue : this.queues) {
+      List<T> buffered;
+      synchronized (this) {
+        buffered = new ArrayList<>(queue.buffer);
+        queue.buffer.clear();
+      }
+      buffered.forEach(
+          message ->
+              queue.consumer
+                  .releaseMessage(message, 0)
+                  .exceptionally(
+                      e -> {
+                        log.debug("Message is delivered again after its visibility timeout");
+                        return null;
+                      }));
+      queue.consumer.close();
+    }
+  }
+
+  private static IllegalArgumentException unknown(Object message) {
+    return new IllegalArgumentException("Message was not received by this consumer: " + message);
+  }
+
+  /** Takes up to the maximum number of buffered messages in scheduling order. Guarded by this. */
+  private List<T> take() {
+    List<T> messages = new ArrayList<>();
+    while (messages.size() < this.config.getMaxMessages()) {
+      QueueState next = null;
+      for (QueueState queue : this.queues) {
+        if (queue.buffer.isEmpty()) {
+          continue;
+        }
+        if (this.config.getScheduling() == MultiQueueConfig.Scheduling.STRICT_PRIORITY) {
+          next = queue;
+          break;
+        }
+        if (next == null || queue.finishTime < next.finishTime) {
+          next = queue;
+        }
+      }
+      if (next == null) {
+        break;
+      }
+      this.virtualTime = Math.max(this.virtualTime, next.finishTime);
+      next.finishTime += 1.0 / next.weight;
+      T message = next.buffer.poll();
+      this.owners.put(message, next);
+      messages.add(message);
+    }
+    return messages;
+  }
+
+  /** Starts a poll of every queue that has room in its buffer and is due to be polled. */
+  private void refill() {
+    List<QueueState> due = new ArrayList<>();
+    int timeout;
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+      timeout = this.receiveTimeout;
+      this.waiters.removeIf(waiter -> waiter.future.isDone());
+      long now = System.nanoTime();
+      boolean higherBusy = false;
+      for (QueueState queue : this.queues) {
+        boolean blocked =
+            this.config.getScheduling() == MultiQueueConfig.Scheduling.STRICT_PRIORITY
+                && higherBusy;
+        higherBusy |= queue.backlog || !queue.buffer.isEmpty();
+        if (blocked
+            || queue.polling
+            || queue.buffer.size() >= this.config.getBufferSize()
+            || now - queue.failedAt < POLL_ERROR_BACKOFF_NANOS
+            || (!queue.backlog && this.waiters.isEmpty())) {
+          continue;
+        }
+        queue.polling = true;
+        due.add(queue);
+      }
+    }
+    for (QueueState queue : due) {
+      CompletableFuture<List<T>> received;
+      try {
+        received = queue.consumer.receive(queue.backlog ? 0 : timeout);
+      } catch (RuntimeException e) {
+        received = CompletableFuture.failedFuture(e);
+      }
+      received.whenComplete((messages, throwable) -> this.onPolled(queue, messages, throwable));
+    }
+  }
+
+  private void onPolled(QueueState queue, List<T> messages, Throwable throwable) {
+    List<Map.Entry<Waiter<T>, List<T>>> served = new ArrayList<>();
+    synchronized (this) {
+      queue.polling = false;
+      if (this.closed) {
+        if (throwable == null) {
+          messages.forEach(message -> queue.consumer.releaseMessage(message, 0));
+        }
+        return;
+      }
+      if (throwable != null) {
+        log.error("Failed to receive messages", throwable);
+        queue.backlog = false;
+        queue.failedAt = System.nanoTime();
+      } else {
+        queue.backlog = !messages.isEmpty();
+        if (queue.buffer.isEmpty()) {
+          queue.finishTime = Math.max(queue.finishTime, this.virtualTime);
+        }
+        queue.buffer.addAll(messages);
+      }
+      while (!this.waiters.isEmpty()) {
+        Waiter<T> waiter = this.waiters.peek();
+        if (waiter.future.isDone()) {
+          this.waiters.poll();
+          continue;
+        }
+        List<T> taken = this.take();
+        if (taken.isEmpty()) {
+          break;
+        }
+        this.waiters.poll();
+        served.add(Map.entry(waiter, taken));
+      }
+    }
+    for (Map.Entry<Waiter<T>, List<T>> entry : served) {
+      if (!entry.getKey().future.complete(entry.getValue())) {
+        this.putBack(entry.getValue());
+      }
+    }
+    this.refill();
+    this.completeIdleWaiters();
+  }
+
+  /** Returns messages taken for a receive call that timed out to the front of their buffers. */
+  private synchronized void putBack(List<T> messages) {
+    for (int i = messages.size() - 1; i >= 0; i--) {
+      T message = messages.get(i);
+      QueueState queue = this.owners.remove(message);
+      if (queue != null) {
+        queue.buffer.addFirst(message);
+      }
+    }
+  }
+
+  /** Completes the receive calls without timeout once no poll can return messages for them. */
+  private void completeIdleWaiters() {
+    List<Waiter<T>> idle = new ArrayList<>();
+    synchronized (this) {
+      if (this.queues.stream().anyMatch(queue -> queue.polling || !queue.buffer.isEmpty())) {
+        return;
+      }
+      Iterator<Waiter<T>> iterator = this.waiters.iterator();
+      while (iterator.hasNext()) {
+        Waiter<T> waiter = iterator.next();
+        if (waiter.timeout == 0 || waiter.future.isDone()) {
+          iterator.remove();
+          idle.add(waiter);
+        }
+      }
+    }
+    idle.forEach(waiter -> waiter.future.complete(List.of()));
+  }
+
+  /**
+   * A queue to receive messages from, given by its consumer and its weight.
+   *
+   * @param <T> The type of message that the consumer handles.
+   */
+  @Value(staticConstructor = "of")
+  public static class Source<T> {
+    /** The consumer that receives the messages of the queue. */
+    MessageConsumer<T> consumer;
+
+    /**
+     * The weight of the queue. With weighted fair scheduling, the share of returned messages; with
+     * strict priority scheduling, the priority. Must be positive.
+     */
+    int weight;
+  }
+
+  /** A receive call waiting for messages. */
+  private static final class Waiter<T> {
+    private final CompletableFuture<List<T>> future = new CompletableFuture<>();
+    private final int timeout;
+
+    private Waiter(int timeout) {
+      this.timeout = timeout;
+    }
+  }
+
+  /** The polling state and buffered messages of a queue. Guarded by the consumer. */
+  private final class QueueState {
+    private final MessageConsumer<T> consumer;
+    private final int weight;
+    private final Deque<T> buffer = new ArrayDeque<>();
+
+    /** Whether the last poll of the queue returned messages. */
+    private boolean backlog;
+
+    private boolean polling;
+
+    /** The start time of the last failed poll, which delays the next poll of the queue. */
+    private long failedAt = System.nanoTime() - POLL_ERROR_BACKOFF_NANOS;
+
+    /** The virtual time at which the next message of the queue is due. */
+    private double finishTime;
+
+    private QueueState(Source<T> source) {
+      this.consumer = source.getConsumer();
+      this.weight = source.getWeight();
+    }
+  }
+}
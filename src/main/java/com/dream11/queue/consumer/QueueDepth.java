@@ -0,0 +1,13 @@
+package com.dream11.queue.consumer;
+
+import lombok.Value;
+
+/** The approximate number of messages in a queue, as reported by the queue provider. */
+@Value
+public class QueueDepth {
+  /** The number of messages that are available to be received. */
+  long visible;
+
+  /** The number of messages that have been received and are neither acknowledged nor visible. */
+  long inFlight;
+}
@@ -0,0 +1,30 @@
+package com.dream11.queue.consumer;
+
+/**
+ * A received queue message whose payload is decoded lazily. The body is decoded the first time the
+ * payload is accessed, and the decoded payload is reused on later accesses.
+ *
+ * @param <T> The type of the decoded payload.
+ */
+public interface ReceivedMessage<T> {
+  /**
+   * Returns the identifier assigned to the message by the queue provider.
+   *
+   * @return The message ID.
+   */
+  String getMessageId();
+
+  /**
+   * Returns the raw body of the message.
+   *
+   * @return The message body.
+   */
+  String getBody();
+
+  /**
+   * Returns the decoded payload of the message.
+   *
+   * @return The payload.
+   */
+  T getPayload();
+}
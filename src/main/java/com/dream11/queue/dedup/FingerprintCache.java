@@ -0,0 +1,205 @@
+package com.dream11.queue.dedup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, time-expiring set of keys that stores a 64-bit fingerprint of every key in primitive
+ * arrays instead of the key itself, so that its memory is fixed at about 48 bytes per entry and no
+ * objects are allocated per key. Distinct keys with the same fingerprint are taken for the same
+ * key; with 64-bit fingerprints, the chance of that is negligible for the sizes a cache can have.
+ *
+ * <p>Fingerprints are held in an open-addressing hash table with linear probing, and in a ring in
+ * the order they were added. A key expires once it has been in the cache for the time to live, and
+ * the oldest key is evicted when a key is added to a full cache. Since keys are added in time
+ * order, both only ever remove the head of the ring. All operations take constant time and are
+ * serialized.
+ */
+public class FingerprintCache {
+  private static final long EMPTY = 0;
+
+  private final int capacity;
+  private final long ttlNanos;
+
+  /** The fingerprints of the hash table, where {@link #EMPTY} marks a free slot. */
+  private final long[] tableFingerprints;
+
+  /** The sequence numbers of the ring slots of the fingerprints of the hash table. */
+  private final long[] tableSequences;
+
+  private final int mask;
+
+  /** The fingerprints of the ring, indexed by sequence number modulo the capacity. */
+  private final long[] ringFingerprints;
+
+  /** The times in nanoseconds at which the fingerprints of the ring were added. */
+  private final long[] ringTimes;
+
+  /** The sequence number of the oldest entry of the ring. */
+  private long head;
+
+  /** The sequence number of the next entry of the ring. */
+  private long tail;
+
+  private int size;
+
+  /**
+   * Constructs a new FingerprintCache.
+   *
+   * @param capacity The maximum number of keys held.
+   * @param ttlMillis The time in milliseconds after which a key expires.
+   */
+  public FingerprintCache(int capacity, long ttlMillis) {
+    if (capacity <= 0 || capacity > 1 << 29) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    if (ttlMillis <= 0) {
+      throw new IllegalArgumentException("Invalid time to live: " + ttlMillis);
+    }
+    this.capacity = capacity;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+    this.tableFingerprints = new long[tableSize];
+    this.tableSequences = new long[tableSize];
+    this.mask = tableSize - 1;
+    this.ringFingerprints = new long[capacity];
+    this.ringTimes = new long[capacity];
+  }
+
+  /**
+   * Adds a key, unless it is already held and has not expired.
+   *
+   * @param key The key to add.
+   * @return Whether the key was added, which is false if it was already held.
+   */
+  public synchronized boolean add(String key) {
+    long now = System.nanoTime();
+    this.expire(now);
+    long fingerprint = fingerprint(key);
+    if (this.find(fingerprint) >= 0) {
+      return false;
+    }
+    if (this.tail - this.head == this.capacity) {
+      this.evictHead();
+    }
+    long sequence = this.tail++;
+    int slot = (int) (sequence % this.capacity);
+    this.ringFingerprints[slot] = fingerprint;
+    this.ringTimes[slot] = now;
+    int index = this.home(fingerprint);
+    while (this.tableFingerprints[index] != EMPTY) {
+      index = (index + 1) & this.mask;
+    }
+    this.tableFingerprints[index] = fingerprint;
+    this.tableSequences[index] = sequence;
+    this.size++;
+    return true;
+  }
+
+  /**
+   * Returns whether a key is held and has not expired.
+   *
+   * @param key The key to look up.
+   * @return Whether the key is held.
+   */
+  public synchronized boolean contains(String key) {
+    this.expire(System.nanoTime());
+    return this.find(fingerprint(key)) >= 0;
+  }
+
+  /**
+   * Removes a key, so that it can be added again.
+   *
+   * @param key The key to remove.
+   * @return Whether the key was held.
+   */
+  public synchronized boolean remove(String key) {
+    int index = this.find(fingerprint(key));
+    if (index < 0) {
+      return false;
+    }
+    this.delete(index);
+    return true;
+  }
+
+  /**
+   * Returns the number of keys held, including expired keys that have not been removed yet.
+   *
+   * @return The number of keys.
+   */
+  public synchronized int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the 64-bit fingerprint of a key, which is its FNV-1a hash with the bits of the result
+   * mixed, and never 0.
+   *
+   * @param key The key.
+   * @return The fingerprint of the key.
+   */
+  static long fingerprint(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash ^= key.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    return hash == EMPTY ? 1 : hash;
+  }
+
+  private void expire(long now) {
+    while (this.head < this.tail
+        && now - this.ringTimes[(int) (this.head % this.capacity)] >= this.ttlNanos) {
+      this.evictHead();
+    }
+  }
+
+  /** Removes the oldest entry of the ring, and its fingerprint unless it was added again. */
+  private void evictHead() {
+    long sequence = this.head++;
+    int index = this.find(this.ringFingerprints[(int) (sequence % this.capacity)]);
+    if (index >= 0 && this.tableSequences[index] == sequence) {
+      this.delete(index);
+    }
+  }
+
+  private int home(long fingerprint) {
+    return (int) (fingerprint ^ (fingerprint >>> 32)) & this.mask;
+  }
+
+  private int find(long fingerprint) {
+    int index = this.home(fingerprint);
+    while (this.tableFingerprints[index] != EMPTY) {
+      if (this.tableFingerprints[index] == fingerprint) {
+        return index;
+      }
+      index = (index + 1) & this.mask;
+    }
+    return -1;
+  }
+
+  /** Deletes a slot of the hash table, shifting back later slots of its probe sequence. */
+  private void delete(int index) {
+    this.size--;
+    int free = index;
+    int next = index;
+    while (true) {
+      next = (next + 1) & this.mask;
+      long fingerprint = this.tableFingerprints[next];
+      if (fingerprint == EMPTY) {
+        break;
+      }
+      int home = this.home(fingerprint);
+      // An entry can move to the free slot unless its home lies cyclically in (free, next]
+      boolean stays = free <= next ? free < home && home <= next : free < home || home <= next;
+      if (!stays) {
+        this.tableFingerprints[free] = fingerprint;
+        this.tableSequences[free] = this.tableSequences[next];
+        free = next;
+      }
+    }
+    this.tableFingerprints[free] = EMPTY;
+  }
+}
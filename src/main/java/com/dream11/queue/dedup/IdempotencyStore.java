@@ -0,0 +1,32 @@
+package com.dream11.queue.dedup;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Store of the keys of processed messages, which is consulted to drop redelivered messages before
+ * they are handled again. The in-memory store is local to a consumer; an implementation backed by a
+ * shared store, such as a cache cluster, lets the consumers of all nodes drop the messages
+ * processed by any of them. Implementations must be thread-safe, and should expire keys after a
+ * window, since a message is only redelivered for a limited time.
+ */
+public interface IdempotencyStore extends AutoCloseable {
+  /**
+   * Returns whether a message with the given key has been processed.
+   *
+   * @param key The key of the message.
+   * @return A CompletableFuture containing whether the key is in the store.
+   */
+  CompletableFuture<Boolean> contains(String key);
+
+  /**
+   * Records that a message with the given key has been processed.
+   *
+   * @param key The key of the message.
+   * @return A CompletableFuture that completes when the key is in the store.
+   */
+  CompletableFuture<Void> add(String key);
+
+  /** Closes the store, releasing any resources. */
+  @Override
+  default void close() {}
+}
@@ -0,0 +1,35 @@
+package com.dream11.queue.dedup;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * IdempotencyStore that holds the keys of processed messages in a {@link FingerprintCache}, so that
+ * its memory is bounded by the maximum number of keys and no objects are retained per key.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+  private static final CompletableFuture<Boolean> TRUE = CompletableFuture.completedFuture(true);
+  private static final CompletableFuture<Boolean> FALSE = CompletableFuture.completedFuture(false);
+
+  private final FingerprintCache cache;
+
+  /**
+   * Constructs a new InMemoryIdempotencyStore.
+   *
+   * @param maxEntries The maximum number of keys held; the oldest keys are evicted first.
+   * @param ttlMillis The time in milliseconds after which a key expires.
+   */
+  public InMemoryIdempotencyStore(int maxEntries, long ttlMillis) {
+    this.cache = new FingerprintCache(maxEntries, ttlMillis);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> contains(String key) {
+    return this.cache.contains(key) ? TRUE : FALSE;
+  }
+
+  @Override
+  public CompletableFuture<Void> add(String key) {
+    this.cache.add(key);
+    return CompletableFuture.completedFuture(null);
+  }
+}
@@ -0,0 +1,70 @@
+package com.dream11.queue.impl.local;
+
+import com.dream11.queue.QueueProvider;
+import com.dream11.queue.config.HeartbeatConfig;
+import com.dream11.queue.config.QueueConfig;
+import java.nio.file.Path;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * Configuration of a queue provided by the process itself rather than by a remote service. Without
+ * a directory, the queue is held in memory only and its provider is {@link
+ * QueueProvider#IN_MEMORY}. With a directory, every sent and acknowledged message is also journaled
+ * to memory-mapped segment files in a subdirectory named after the queue, so that unacknowledged
+ * messages survive a restart, and its provider is {@link QueueProvider#LOCAL_DISK}. Producers and
+ * consumers created from configurations with the same queue name, or the same directory, share the
+ * same queue.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+public class LocalConfig implements QueueConfig {
+  /** The name of the queue. */
+  @NonNull private String queueName;
+
+  /** The directory to journal the queue to, or null to hold the queue in memory only. */
+  private Path directory;
+
+  /**
+   * The maximum number of messages in the queue, including in-flight messages. Sends to a full
+   * queue are rejected.
+   */
+  @Builder.Default private Integer capacity = 100_000;
+
+  /** The time in seconds that a received message stays invisible to other receives. */
+  @Builder.Default private Integer visibilityTimeout = 30;
+
+  /** The maximum number of messages returned by a receive. */
+  @Builder.Default private Integer maxMessages = 10;
+
+  /** The size in bytes of a journal segment file. Only used with a directory. */
+  @Builder.Default private Integer segmentSizeBytes = 64 * 1024 * 1024;
+
+  /**
+   * Whether every journal write is forced to disk. Without forcing, journaled messages survive a
+   * crash of the process but not of the operating system. Only used with a directory.
+   */
+  @Builder.Default private Boolean forceOnWrite = false;
+
+  /**
+   * The configuration for heartbeat settings. Adaptive visibility is not supported; heartbeats
+   * extend the visibility of a message by twice the heartbeat interval.
+   */
+  @Builder.Default private HeartbeatConfig heartbeatConfig = new HeartbeatConfig();
+
+  /**
+   * Returns the provider type for this configuration.
+   *
+   * @return {@link QueueProvider#LOCAL_DISK} if a directory is configured, and {@link
+   *     QueueProvider#IN_MEMORY} otherwise.
+   */
+  @Override
+  public QueueProvider getProvider() {
+    return this.directory == null ? QueueProvider.IN_MEMORY : QueueProvider.LOCAL_DISK;
+  }
+}
@@ -0,0 +1,182 @@
+package com.dream11.queue.impl.local;
+
+import com.dream11.queue.consumer.MessageConsumer;
+import com.dream11.queue.consumer.QueueDepth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implementation of MessageConsumer for local queues. Messages are received from the {@link
+ * LocalQueue} of the configuration with its visibility timeout. If heartbeats are enabled,
+ * heartbeats are sent for every received message at the configured interval until it is
+ * acknowledged, each extending its visibility by twice the interval.
+ */
+@Slf4j
+public class LocalConsumer implements MessageConsumer<LocalMessage> {
+  /** The local queue configuration. */
+  @Getter private final LocalConfig localConfig;
+
+  /** The queue that messages are received from. */
+  @Getter private final LocalQueue localQueue;
+
+  /** The scheduler of heartbeats, or null if heartbeats are disabled. */
+  private final ScheduledExecutorService heartbeatScheduler;
+
+  /** The scheduled heartbeats by receipt handle. */
+  private final Map<String, ScheduledFuture<?>> heartbeats = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a new LocalConsumer with the given configuration.
+   *
+   * @param localConfig The local queue configuration.
+   */
+  public LocalConsumer(LocalConfig localConfig) {
+    this.localConfig = localConfig;
+    this.localQueue = LocalQueue.open(localConfig);
+    this.heartbeatScheduler =
+        localConfig.getHeartbeatConfig().getHeartbeatInterval() > 0
+            ? Executors.newScheduledThreadPool(
+                localConfig.getHeartbeatConfig().getExecutorThreadPoolSize())
+            : null;
+  }
+
+  /**
+   * Receives a list of visible messages without waiting.
+   *
+   * @return A CompletableFuture containing a list of received messages.
+   */
+  @Override
+  public CompletableFuture<List<LocalMessage>> receive() {
+    return this.receive(0);
+  }
+
+  /**
+   * Receives a list of messages, waiting up to the given timeout if no message is visible.
+   *
+   * @param timeout The timeout in seconds to wait for messages.
+   * @return A CompletableFuture containing a list of received messages.
+   */
+  @Override
+  public CompletableFuture<List<LocalMessage>> receive(int timeout) {
+    return this.localQueue
+        .receive(
+            this.localConfig.getMaxMessages(), timeout, this.localConfig.getVisibilityTimeout())
+        .thenApply(
+            messages -> {
+              if (this.heartbeatScheduler != null) {
+                messages.forEach(this::scheduleHeartbeats);
+              }
+              return messages;
+            });
+  }
+
+  /**
+   * Acknowledges a message by removing it from the local queue.
+   *
+   * @param message The message to acknowledge.
+   * @return A CompletableFuture that completes when the message is removed.
+   */
+  @Override
+  public CompletableFuture<Void> acknowledgeMessage(LocalMessage message) {
+    this.cancelHeartbeats(message);
+    return this.localQueue.acknowledge(message.getReceiptHandle());
+  }
+
+  /**
+   * Sends a heartbeat for the given message, extending its visibility by twice the heartbeat
+   * interval, or by the visibility timeout if heartbeats are disabled.
+   *
+   * @param message The message for which the heartbeat is sent.
+   * @return A CompletableFuture that completes when the heartbeat is sent.
+   */
+  @Override
+  public CompletableFuture<Void> sendHeartbeat(LocalMessage message) {
+    int heartbeatInterval = this.localConfig.getHeartbeatConfig().getHeartbeatInterval();
+    return this.localQueue.changeVisibility(
+        message.getReceiptHandle(),
+        heartbeatInterval > 0 ? heartbeatInterval * 2 : this.localConfig.getVisibilityTimeout());
+  }
+
+  /**
+   * Returns the number of times the given message has been received.
+   *
+   * @param message The received message.
+   * @return The receive count of the message.
+   */
+  @Override
+  public int getReceiveCount(LocalMessage message) {
+    return message.getReceiveCount();
+  }
+
+  /**
+   * Releases a message by changing its visibility timeout to the given delay, after stopping its
+   * heartbeats.
+   *
+   * @param message The message to release.
+   * @param delaySeconds The delay in seconds before the message is delivered again.
+   * @return A CompletableFuture that completes when the visibility timeout is changed.
+   */
+  @Override
+  public CompletableFuture<Void> releaseMessage(LocalMessage message, int delaySeconds) {
+    this.cancelHeartbeats(message);
+    return this.localQueue.changeVisibility(message.getReceiptHandle(), delaySeconds);
+  }
+
+  /**
+   * Returns the number of visible and in-flight messages in the local queue.
+   *
+   * @return A CompletableFuture containing the depth of the queue.
+   */
+  @Override
+  public CompletableFuture<QueueDepth> getQueueDepth() {
+    int inFlight = this.localQueue.inFlight();
+    return CompletableFuture.completedFuture(
+        new QueueDepth(Math.max(0, this.localQueue.size() - inFlight), inFlight));
+  }
+
+  /**
+   * Closes the consumer and stops its heartbeats. The queue stays open for other producers and
+   * consumers.
+   */
+  @Override
+  public void close() {
+    if (this.heartbeatScheduler != null) {
+      this.heartbeatScheduler.shutdownNow();
+    }
+    this.heartbeats.clear();
+  }
+
+  private void scheduleHeartbeats(LocalMessage message) {
+    long interval = this.localConfig.getHeartbeatConfig().getHeartbeatInterval();
+    this.heartbeats.put(
+        message.getReceiptHandle(),
+        this.heartbeatScheduler.scheduleAtFixedRate(
+            () ->
+                this.sendHeartbeat(message)
+                    .whenComplete(
+                        (ignored, throwable) -> {
+                          if (throwable != null) {
+                            log.warn("Failed to send heartbeat for message {}", message, throwable);
+                            this.cancelHeartbeats(message);
+                          }
+                        }),
+            interval,
+            interval,
+            TimeUnit.SECONDS));
+  }
+
+  private void cancelHeartbeats(LocalMessage message) {
+    ScheduledFuture<?> heartbeat = this.heartbeats.remove(message.getReceiptHandle());
+    if (heartbeat != null) {
+      heartbeat.cancel(false);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.dream11.queue.impl.local;
+
+import com.dream11.queue.journal.SegmentLog;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal of a local queue. Every sent message is appended as a send record and every acknowledged
+ * message as an acknowledgement record. When the journal is opened again, the messages that were
+ * sent but not acknowledged are restored. The segments of the journal are deleted once all messages
+ * sent in them are acknowledged.
+ */
+class LocalJournal implements AutoCloseable {
+  private static final byte SEND = 1;
+  private static final byte ACKNOWLEDGE = 2;
+
+  private final SegmentLog segmentLog;
+
+  /**
+   * Opens the journal in the given directory.
+   *
+   * @param directory The directory that holds the segment files.
+   * @param segmentSizeBytes The size of a segment in bytes.
+   * @param forceOnWrite Whether every write is forced to disk.
+   */
+  LocalJournal(Path directory, int segmentSizeBytes, boolean forceOnWrite) {
+    this.segmentLog = new SegmentLog(directory, segmentSizeBytes, forceOnWrite);
+  }
+
+  /**
+   * Appends a send record for a message.
+   *
+   * @param messageId The id of the message.
+   * @param sentTimestamp The time the message was sent.
+   * @param body The body of the message.
+   * @return The id of the segment holding the record.
+   */
+  long send(String messageId, long sentTimestamp, String body) {
+    byte[] id = messageId.getBytes(StandardCharsets.UTF_8);
+    byte[] content = body.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer record =
+        ByteBuffer.allocate(1 + Integer.BYTES + id.length + Long.BYTES + content.length);
+    record.put(SEND).putInt(id.length).put(id).putLong(sentTimestamp).put(content);
+    return this.segmentLog.append(record.array());
+  }
+
+  /**
+   * Appends an acknowledgement record for a message, and releases the send record of the message.
+   *
+   * @param stored The acknowledged message.
+   */
+  void acknowledge(LocalQueue.Stored stored) {
+    byte[] id = stored.messageId.getBytes(StandardCharsets.UTF_8);
+    byte[] record = ByteBuffer.allocate(1 + id.length).put(ACKNOWLEDGE).put(id).array();
+    // The acknowledgement is only needed while the send record exists, and segments are deleted
+    // oldest first, so it can be released right away
+    this.segmentLog.release(this.segmentLog.append(record));
+    this.segmentLog.release(stored.segment);
+  }
+
+  /**
+   * Returns the messages that were sent but not acknowledged, in the order they were sent, and
+   * releases the records of all acknowledged messages.
+   *
+   * @return The unacknowledged messages.
+   */
+  List<LocalQueue.Stored> replay() {
+    Map<String, LocalQueue.Stored> pending = new LinkedHashMap<>();
+    this.segmentLog.replay(
+        (segment, record) -> {
+          byte type = record.get();
+          if (type == SEND) {
+            String messageId = readString(record, record.getInt());
+            long sentTimestamp = record.getLong();
+            String body = readString(record, record.remaining());
+            pending.put(messageId, new LocalQueue.Stored(messageId, body, sentTimestamp, segment));
+          } else {
+            LocalQueue.Stored stored = pending.remove(readString(record, record.remaining()));
+            this.segmentLog.release(segment);
+            if (stored != null) {
+              this.segmentLog.release(stored.segment);
+            }
+          }
+        });
+    return new ArrayList<>(pending.values());
+  }
+
+  @Override
+  public void close() {
+    this.segmentLog.close();
+  }
+
+  private static String readString(ByteBuffer buffer, int length) {
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,30 @@
+package com.dream11.queue.impl.local;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A message received from a local queue. Every delivery of a message has its own receipt handle,
+ * which is used to acknowledge the delivery or extend its visibility.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class LocalMessage {
+  /** The identifier assigned to the message when it was sent. */
+  private final String messageId;
+
+  /** The body of the message. */
+  private final String body;
+
+  /** The handle of this delivery of the message. */
+  private final String receiptHandle;
+
+  /** The number of times the message has been received, including this delivery. */
+  private final int receiveCount;
+
+  /** The time the message was sent, in milliseconds since the epoch. */
+  private final long sentTimestamp;
+}
@@ -0,0 +1,67 @@
+package com.dream11.queue.impl.local;
+
+import com.dream11.queue.codec.MessageCodec;
+import com.dream11.queue.producer.MessageProducer;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import lombok.Getter;
+
+/**
+ * Implementation of MessageProducer for local queues. Messages are transformed to strings and added
+ * to the {@link LocalQueue} of the configuration. Sends to a full queue fail with a {@link
+ * com.dream11.queue.producer.SendRejectedException}.
+ *
+ * @param <T> The type of message that this producer will handle.
+ */
+public class LocalProducer<T> implements MessageProducer<T> {
+  /** The queue that messages are sent to. */
+  @Getter private final LocalQueue localQueue;
+
+  private final Function<T, String> transformer;
+
+  /**
+   * Constructs a new LocalProducer with the given configuration and default transformer. The
+   * default transformer uses Object.toString() to convert messages to strings.
+   *
+   * @param localConfig The local queue configuration.
+   */
+  public LocalProducer(LocalConfig localConfig) {
+    this(localConfig, Object::toString);
+  }
+
+  /**
+   * Constructs a new LocalProducer with the given configuration and transformer.
+   *
+   * @param localConfig The local queue configuration.
+   * @param transformer The function to transform messages from type T to String.
+   */
+  public LocalProducer(LocalConfig localConfig, Function<T, String> transformer) {
+    this.localQueue = LocalQueue.open(localConfig);
+    this.transformer = transformer;
+  }
+
+  /**
+   * Constructs a new LocalProducer with the given configuration and codec.
+   *
+   * @param localConfig The local queue configuration.
+   * @param codec The codec used to encode messages.
+   */
+  public LocalProducer(LocalConfig localConfig, MessageCodec<T> codec) {
+    this(localConfig, codec::encode);
+  }
+
+  /**
+   * Sends a message to the local queue.
+   *
+   * @param message The message to send.
+   * @return A CompletableFuture that completes when the message is in the queue.
+   */
+  @Override
+  public CompletableFuture<Void> send(T message) {
+    return this.localQueue.send(this.transformer.apply(message));
+  }
+
+  /** Closes the producer. The queue stays open for other producers and consumers. */
+  @Override
+  public void close() {}
+}
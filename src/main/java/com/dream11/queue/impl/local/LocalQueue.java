@@ -0,0 +1,384 @@
+package com.dream11.queue.impl.local;
+
+import com.dream11.queue.producer.SendRejectedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A bounded queue held in the memory of the process, with the delivery semantics of SQS. A received
+ * message stays in the queue but is invisible to other receives until its visibility timeout
+ * expires, after which it is delivered again, unless it is acknowledged first. The visibility
+ * timeout of a delivery can be extended with a heartbeat. Receives with a timeout wait for a
+ * message to be sent or become visible again.
+ *
+ * <p>All operations are lock-free: visible messages are kept in a concurrent linked queue, the
+ * number of messages is bounded with an atomic counter, and in-flight messages are tracked in a
+ * concurrent hash map and a concurrent skip list ordered by visibility deadline. Expired deliveries
+ * are returned to the queue on every receive and by a shared sweeper thread.
+ *
+ * <p>If the configuration has a directory, sends and acknowledgements are also written to a {@link
+ * LocalJournal}, and unacknowledged messages are restored from it when the queue is opened.
+ *
+ * <p>Queues are opened with {@link #open(LocalConfig)} and shared by all producers and consumers of
+ * the same queue name or directory. They stay open until they are closed explicitly.
+ */
+@Slf4j
+public class LocalQueue implements AutoCloseable {
+  static final long SWEEP_INTERVAL_MILLIS = 100;
+
+  private static final Map<String, LocalQueue> QUEUES = new ConcurrentHashMap<>();
+  private static final ScheduledExecutorService SWEEPER =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "local-queue-sweeper");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /** The name of the queue. */
+  @Getter private final String queueName;
+
+  private final String key;
+  private final int capacity;
+
+  /** The journal of the queue, or null if the queue is held in memory only. */
+  private final LocalJournal journal;
+
+  private final Queue<Stored> visible = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final Map<String, Delivery> inFlight = new ConcurrentHashMap<>();
+  private final NavigableMap<Deadline, Delivery> deadlines = new ConcurrentSkipListMap<>();
+  private final Queue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final ScheduledFuture<?> sweep;
+
+  private LocalQueue(String key, LocalConfig config) {
+    this.queueName = config.getQueueName();
+    this.key = key;
+    this.capacity = config.getCapacity();
+    if (config.getDirectory() == null) {
+      this.journal = null;
+    } else {
+      this.journal =
+          new LocalJournal(
+              config.getDirectory().resolve(config.getQueueName()),
+              config.getSegmentSizeBytes(),
+              config.getForceOnWrite());
+      List<Stored> restored = this.journal.replay();
+      this.visible.addAll(restored);
+      this.size.set(restored.size());
+      log.info("Restored {} messages of local queue {}", restored.size(), this.queueName);
+    }
+    this.sweep =
+        SWEEPER.scheduleWithFixedDelay(
+            this::expire, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns the queue for the given configuration, opening it if it is not open yet. Queues held in
+   * memory are identified by their name, and journaled queues by their directory. The capacity and
+   * journal settings of the configuration that opened the queue apply.
+   *
+   * @param config The configuration of the queue.
+   * @return The open queue.
+   */
+  public static LocalQueue open(@NonNull LocalConfig config) {
+    String key =
+        config.getDirectory() == null
+            ? "memory:" + config.getQueueName()
+            : "disk:" + config.getDirectory().resolve(config.getQueueName()).toAbsolutePath();
+    return QUEUES.computeIfAbsent(key, ignored -> new LocalQueue(key, config));
+  }
+
+  /**
+   * Closes all open queues. Messages of queues held in memory are discarded, while journaled
+   * messages are restored when their queue is opened again.
+   */
+  public static void closeAll() {
+    new ArrayList<>(QUEUES.values()).forEach(LocalQueue::close);
+  }
+
+  /**
+   * Returns the number of messages in the queue, including in-flight messages.
+   *
+   * @return The number of messages.
+   */
+  public int size() {
+    return this.size.get();
+  }
+
+  /**
+   * Returns the number of messages that have been received but neither acknowledged nor returned to
+   * the queue.
+   *
+   * @return The number of in-flight messages.
+   */
+  public int inFlight() {
+    return this.inFlight.size();
+  }
+
+  /**
+   * Sends a message to the queue.
+   *
+   * @param body The body of the message.
+   * @return A CompletableFuture that completes when the message is in the queue, or fails with a
+   *     {@link SendRejectedException} if the queue is full.
+   */
+  CompletableFuture<Void> send(String body) {
+    if (this.closed.get()) {
+      return CompletableFuture.failedFuture(
+          new IllegalStateException("Local queue is closed: " + this.queueName));
+    }
+    int current;
+    do {
+      current = this.size.get();
+      if (current >= this.capacity) {
+        return CompletableFuture.failedFuture(
+            new SendRejectedException("Local queue is full: " + this.queueName));
+      }
+    } while (!this.size.compareAndSet(current, current + 1));
+    try {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      String messageId = new UUID(random.nextLong(), random.nextLong()).toString();
+      long sentTimestamp = System.currentTimeMillis();
+      long segment = this.journal == null ? -1 : this.journal.send(messageId, sentTimestamp, body);
+      this.visible.add(new Stored(messageId, body, sentTimestamp, segment));
+    } catch (RuntimeException e) {
+      this.size.decrementAndGet();
+      return CompletableFuture.failedFuture(e);
+    }
+    this.signal();
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Receives up to the given number of visible messages. If no message is visible, waits up to the
+   * given timeout for one.
+   *
+   * @param maxMessages The maximum number of messages to receive.
+   * @param timeout The timeout in seconds to wait for messages.
+   * @param visibilityTimeout The time in seconds the received messages stay invisible.
+   * @return A CompletableFuture containing the received messages, which is empty if no message
+   *     became visible within the timeout.
+   */
+  CompletableFuture<List<LocalMessage>> receive(
+      int maxMessages, int timeout, int visibilityTimeout) {
+    long visibilityMillis = TimeUnit.SECONDS.toMillis(visibilityTimeout);
+    List<LocalMessage> messages = this.poll(maxMessages, visibilityMillis);
+    if (!messages.isEmpty() || timeout <= 0 || this.closed.get()) {
+      return CompletableFuture.completedFuture(messages);
+    }
+    CompletableFuture<Void> waiter = new CompletableFuture<>();
+    this.waiters.add(waiter);
+    // A message sent between the poll and the registration of the waiter would not signal it
+    if (!this.visible.isEmpty() || this.closed.get()) {
+      waiter.complete(null);
+    }
+    return waiter
+        .completeOnTimeout(null, timeout, TimeUnit.SECONDS)
+        .thenApply(ignored -> this.poll(maxMessages, visibilityMillis));
+  }
+
+  /**
+   * Acknowledges a delivery, removing its message from the queue.
+   *
+   * @param receiptHandle The receipt handle of the delivery.
+   * @return A CompletableFuture that completes when the message is removed, or fails with an
+   *     IllegalStateException if the delivery was already acknowledged or has expired.
+   */
+  CompletableFuture<Void> acknowledge(String receiptHandle) {
+    Delivery delivery = this.inFlight.remove(receiptHandle);
+    if (delivery == null || !delivery.done.compareAndSet(false, true)) {
+      return invalidReceiptHandle(receiptHandle);
+    }
+    this.deadlines.remove(delivery.deadline);
+    try {
+      if (this.journal != null) {
+        this.journal.acknowledge(delivery.stored);
+      }
+    } catch (RuntimeException e) {
+      log.error("Failed to journal acknowledgement of message {}", delivery.stored.messageId, e);
+    } finally {
+      this.size.decrementAndGet();
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Changes the visibility timeout of a delivery, counted from now.
+   *
+   * @param receiptHandle The receipt handle of the delivery.
+   * @param visibilityTimeout The new visibility timeout in seconds. 0 makes the message visible
+   *     again right away.
+   * @return A CompletableFuture that completes when the visibility is changed, or fails with an
+   *     IllegalStateException if the delivery was already acknowledged or has expired.
+   */
+  CompletableFuture<Void> changeVisibility(String receiptHandle, int visibilityTimeout) {
+    Delivery delivery = this.inFlight.get(receiptHandle);
+    if (delivery == null || delivery.done.get()) {
+      return invalidReceiptHandle(receiptHandle);
+    }
+    Deadline previous = delivery.deadline;
+    this.schedule(
+        delivery, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(visibilityTimeout));
+    this.deadlines.remove(previous);
+    if (visibilityTimeout <= 0) {
+      this.expire();
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Closes the queue and removes it from the open queues. Waiting receives complete empty. The
+   * journal, if any, is forced to disk and closed.
+   */
+  @Override
+  public void close() {
+    if (!this.closed.compareAndSet(false, true)) {
+      return;
+    }
+    QUEUES.remove(this.key, this);
+    this.sweep.cancel(false);
+    CompletableFuture<Void> waiter;
+    while ((waiter = this.waiters.poll()) != null) {
+      waiter.complete(null);
+    }
+    if (this.journal != null) {
+      this.journal.close();
+    }
+  }
+
+  private List<LocalMessage> poll(int maxMessages, long visibilityMillis) {
+    this.expire();
+    List<LocalMessage> messages = new ArrayList<>();
+    if (this.closed.get()) {
+      return messages;
+    }
+    Stored stored;
+    while (messages.size() < maxMessages && (stored = this.visible.poll()) != null) {
+      stored.receiveCount++;
+      Delivery delivery =
+          new Delivery(stored, stored.messageId + "#" + this.sequence.incrementAndGet());
+      this.inFlight.put(delivery.receiptHandle, delivery);
+      this.schedule(delivery, System.currentTimeMillis() + visibilityMillis);
+      messages.add(
+          new LocalMessage(
+              stored.messageId,
+              stored.body,
+              delivery.receiptHandle,
+              stored.receiveCount,
+              stored.sentTimestamp));
+    }
+    return messages;
+  }
+
+  private void schedule(Delivery delivery, long deadlineMillis) {
+    Deadline deadline = new Deadline(deadlineMillis, this.sequence.incrementAndGet());
+    delivery.deadline = deadline;
+    this.deadlines.put(deadline, delivery);
+  }
+
+  /** Returns the messages of expired deliveries to the queue. */
+  private void expire() {
+    long now = System.currentTimeMillis();
+    Map.Entry<Deadline, Delivery> first;
+    while ((first = this.deadlines.firstEntry()) != null && first.getKey().millis <= now) {
+      Delivery delivery = this.deadlines.remove(first.getKey());
+      // Deadlines replaced by a heartbeat, and deliveries acknowledged concurrently, are skipped
+      if (delivery == null
+          || delivery.deadline != first.getKey()
+          || !delivery.done.compareAndSet(false, true)) {
+        continue;
+      }
+      this.inFlight.remove(delivery.receiptHandle, delivery);
+      this.visible.add(delivery.stored);
+      this.signal();
+    }
+    this.waiters.removeIf(CompletableFuture::isDone);
+  }
+
+  /** Wakes up one waiting receive. */
+  private void signal() {
+    CompletableFuture<Void> waiter;
+    while ((waiter = this.waiters.poll()) != null) {
+      if (waiter.complete(null)) {
+        return;
+      }
+    }
+  }
+
+  private static CompletableFuture<Void> invalidReceiptHandle(String receiptHandle) {
+    return CompletableFuture.failedFuture(
+        new IllegalStateException("Receipt handle is no longer valid: " + receiptHandle));
+  }
+
+  /** A message in the queue. */
+  static final class Stored {
+    final String messageId;
+    final String body;
+    final long sentTimestamp;
+
+    /** The id of the journal segment holding the message, or -1 if it is not journaled. */
+    final long segment;
+
+    /** The number of deliveries, only updated by the receive that owns the message. */
+    int receiveCount;
+
+    Stored(String messageId, String body, long sentTimestamp, long segment) {
+      this.messageId = messageId;
+      this.body = body;
+      this.sentTimestamp = sentTimestamp;
+      this.segment = segment;
+    }
+  }
+
+  /** A delivery of a message, which ends when it is acknowledged or its deadline expires. */
+  private static final class Delivery {
+    private final Stored stored;
+    private final String receiptHandle;
+    private final AtomicBoolean done = new AtomicBoolean();
+    private volatile Deadline deadline;
+
+    private Delivery(Stored stored, String receiptHandle) {
+      this.stored = stored;
+      this.receiptHandle = receiptHandle;
+    }
+  }
+
+  /** A visibility deadline, ordered by time and then by creation. */
+  private static final class Deadline implements Comparable<Deadline> {
+    private final long millis;
+    private final long sequence;
+
+    private Deadline(long millis, long sequence) {
+      this.millis = millis;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(Deadline other) {
+      int result = Long.compare(this.millis, other.millis);
+      return result != 0 ? result : Long.compare(this.sequence, other.sequence);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.dream11.queue.impl.local;
+
+import com.dream11.queue.codec.MessageCodec;
+import com.dream11.queue.consumer.ReceivedMessage;
+import lombok.Getter;
+
+/**
+ * ReceivedMessage backed by a message of a local queue. The body is decoded with the codec of the
+ * consumer the first time the payload is accessed.
+ *
+ * @param <T> The type of the decoded payload.
+ */
+public class LocalReceivedMessage<T> implements ReceivedMessage<T> {
+  /** The underlying message, as received from the queue. */
+  @Getter private final LocalMessage message;
+
+  private final MessageCodec<T> codec;
+  private volatile T payload;
+
+  /**
+   * Constructs a new LocalReceivedMessage.
+   *
+   * @param message The underlying message.
+   * @param codec The codec used to decode the body.
+   */
+  public LocalReceivedMessage(LocalMessage message, MessageCodec<T> codec) {
+    this.message = message;
+    this.codec = codec;
+  }
+
+  @Override
+  public String getMessageId() {
+    return this.message.getMessageId();
+  }
+
+  @Override
+  public String getBody() {
+    return this.message.getBody();
+  }
+
+  @Override
+  public T getPayload() {
+    T decoded = this.payload;
+    if (decoded == null) {
+      decoded = this.codec.decode(this.message.getBody());
+      this.payload = decoded;
+    }
+    return decoded;
+  }
+}
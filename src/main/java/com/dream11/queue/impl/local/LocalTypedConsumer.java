@@ -0,0 +1,104 @@
+package com.dream11.queue.impl.local;
+
+import com.dream11.queue.codec.MessageCodec;
+import com.dream11.queue.consumer.MessageConsumer;
+import com.dream11.queue.consumer.QueueDepth;
+import com.dream11.queue.consumer.ReceivedMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.Getter;
+
+/**
+ * Implementation of MessageConsumer for local queues that decodes messages with a codec. Received
+ * messages are wrapped so that their payload is only decoded when it is accessed. Receiving,
+ * acknowledging and heartbeats are delegated to a LocalConsumer.
+ *
+ * @param <T> The type of the decoded payload.
+ */
+public class LocalTypedConsumer<T> implements MessageConsumer<ReceivedMessage<T>> {
+  /** The consumer that receives the underlying messages. */
+  @Getter private final LocalConsumer localConsumer;
+
+  private final MessageCodec<T> codec;
+
+  /**
+   * Constructs a new LocalTypedConsumer with the given configuration and codec.
+   *
+   * @param localConfig The local queue configuration.
+   * @param codec The codec used to decode message bodies.
+   */
+  public LocalTypedConsumer(LocalConfig localConfig, MessageCodec<T> codec) {
+    this(new LocalConsumer(localConfig), codec);
+  }
+
+  /**
+   * Constructs a new LocalTypedConsumer on top of an existing LocalConsumer.
+   *
+   * @param localConsumer The consumer that receives the underlying messages.
+   * @param codec The codec used to decode message bodies.
+   */
+  public LocalTypedConsumer(LocalConsumer localConsumer, MessageCodec<T> codec) {
+    this.localConsumer = localConsumer;
+    this.codec = codec;
+  }
+
+  @Override
+  public CompletableFuture<List<ReceivedMessage<T>>> receive() {
+    return this.receive(0);
+  }
+
+  @Override
+  public CompletableFuture<List<ReceivedMessage<T>>> receive(int timeout) {
+    return this.localConsumer.receive(timeout).thenApply(this::wrap);
+  }
+
+  @Override
+  public CompletableFuture<Void> acknowledgeMessage(ReceivedMessage<T> message) {
+    return this.localConsumer.acknowledgeMessage(unwrap(message));
+  }
+
+  @Override
+  public CompletableFuture<Void> sendHeartbeat(ReceivedMessage<T> message) {
+    return this.localConsumer.sendHeartbeat(unwrap(message));
+  }
+
+  @Override
+  public int getReceiveCount(ReceivedMessage<T> message) {
+    return this.localConsumer.getReceiveCount(unwrap(message));
+  }
+
+  @Override
+  public CompletableFuture<Void> releaseMessage(ReceivedMessage<T> message, int delaySeconds) {
+    return this.localConsumer.releaseMessage(unwrap(message), delaySeconds);
+  }
+
+  @Override
+  public CompletableFuture<QueueDepth> getQueueDepth() {
+    return this.localConsumer.getQueueDepth();
+  }
+
+  @Override
+  public void setPollers(int pollers) {
+    this.localConsumer.setPollers(pollers);
+  }
+
+  /** Closes the underlying local consumer. */
+  @Override
+  public void close() {
+    this.localConsumer.close();
+  }
+
+  private List<ReceivedMessage<T>> wrap(List<LocalMessage> messages) {
+    List<ReceivedMessage<T>> wrapped = new ArrayList<>(messages.size());
+    messages.forEach(message -> wrapped.add(new LocalReceivedMessage<>(message, this.codec)));
+    return wrapped;
+  }
+
+  private static LocalMessage unwrap(ReceivedMessage<?> message) {
+    if (!(message instanceof LocalReceivedMessage)) {
+      throw new IllegalArgumentException("Message was not received from a local queue: " + message);
+    }
+    return ((LocalReceivedMessage<?>) message).getMessage();
+  }
+}
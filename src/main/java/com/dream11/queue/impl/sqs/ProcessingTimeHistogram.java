@@ -0,0 +1,100 @@
+package com.dream11.queue.impl.sqs;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of processing times in milliseconds. Every power of two is split
+ * into 8 linear sub-buckets, which bounds the relative error of a percentile to 12.5%. Samples are
+ * recorded into two generations that are rotated after a fixed number of samples, so that
+ * percentiles follow changes in processing time.
+ */
+class ProcessingTimeHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final long generationSize;
+  private final AtomicLong samples = new AtomicLong();
+  private volatile AtomicLongArray current = new AtomicLongArray(BUCKETS);
+  private volatile AtomicLongArray previous = new AtomicLongArray(BUCKETS);
+
+  /**
+   * Constructs a new ProcessingTimeHistogram.
+   *
+   * @param generationSize The number of samples after which the oldest generation is discarded.
+   */
+  ProcessingTimeHistogram(long generationSize) {
+    this.generationSize = generationSize;
+  }
+
+  /**
+   * Records a processing time.
+   *
+   * @param millis The processing time in milliseconds.
+   */
+  void record(long millis) {
+    this.current.incrementAndGet(index(Math.max(0, millis)));
+    if (this.samples.incrementAndGet() % this.generationSize == 0) {
+      synchronized (this) {
+        this.previous = this.current;
+        this.current = new AtomicLongArray(BUCKETS);
+      }
+    }
+  }
+
+  /**
+   * Returns the total number of recorded samples.
+   *
+   * @return The number of samples.
+   */
+  long count() {
+    return this.samples.get();
+  }
+
+  /**
+   * Returns an upper bound of the given percentile over the current and previous generation.
+   *
+   * @param percentile The percentile between 0 and 1.
+   * @return The percentile in milliseconds, or 0 if no samples have been recorded.
+   */
+  long percentile(double percentile) {
+    AtomicLongArray first = this.current;
+    AtomicLongArray second = this.previous;
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += first.get(i) + second.get(i);
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(percentile * total);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += first.get(i) + second.get(i);
+      if (seen >= rank) {
+        return upperBound(i);
+      }
+    }
+    return upperBound(BUCKETS - 1);
+  }
+
+  private static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long upperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long subBucket = index % SUB_BUCKETS;
+    return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+}
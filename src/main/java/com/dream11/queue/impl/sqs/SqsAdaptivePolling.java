@@ -0,0 +1,118 @@
+package com.dream11.queue.impl.sqs;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+/**
+ * Adapts receive requests to the traffic of the queue. Short polls are replaced by long polls after
+ * a number of consecutive empty receives, until a receive returns messages again. Throttled
+ * receives are delayed by an exponential backoff with jitter, so that consumers do not retry in
+ * lockstep.
+ */
+class SqsAdaptivePolling {
+  static final long BASE_THROTTLE_BACKOFF_MILLIS = 100;
+  private static final int MAX_BACKOFF_EXPONENT = 20;
+
+  private final SqsConfig.ReceiveConfig receiveConfig;
+  private final AtomicInteger consecutiveEmptyReceives = new AtomicInteger();
+  private final AtomicInteger consecutiveThrottles = new AtomicInteger();
+
+  /**
+   * Constructs a new SqsAdaptivePolling.
+   *
+   * @param receiveConfig The receive configuration.
+   */
+  SqsAdaptivePolling(SqsConfig.ReceiveConfig receiveConfig) {
+    this.receiveConfig = receiveConfig;
+  }
+
+  /**
+   * Returns the wait time to use for a receive. The requested wait time is used unless the queue is
+   * quiet, in which case the long-poll wait time is used if it is longer.
+   *
+   * @param requestedWaitTimeSeconds The wait time in seconds requested by the caller.
+   * @return The wait time in seconds.
+   */
+  int waitTimeSeconds(int requestedWaitTimeSeconds) {
+    if (!this.isQuiet()) {
+      return requestedWaitTimeSeconds;
+    }
+    return Math.max(requestedWaitTimeSeconds, this.receiveConfig.getLongPollWaitTimeSeconds());
+  }
+
+  /**
+   * Returns whether the queue is quiet, which is the case after the configured number of
+   * consecutive empty receives.
+   *
+   * @return Whether the queue is quiet.
+   */
+  boolean isQuiet() {
+    return this.consecutiveEmptyReceives.get()
+        >= this.receiveConfig.getEmptyReceivesBeforeLongPoll();
+  }
+
+  /**
+   * Records the outcome of a successful receive.
+   *
+   * @param messageCount The number of received messages.
+   */
+  void onReceive(int messageCount) {
+    this.consecutiveThrottles.set(0);
+    if (messageCount == 0) {
+      this.consecutiveEmptyReceives.incrementAndGet();
+    } else {
+      this.consecutiveEmptyReceives.set(0);
+    }
+  }
+
+  /**
+   * Records a failed receive and returns the time to back off before the next receive. Only
+   * throttled receives are backed off. The backoff doubles with every consecutive throttled receive
+   * up to the configured maximum, and its second half is randomized as jitter.
+   *
+   * @param throwable The failure of the receive.
+   * @return The backoff in milliseconds, or 0 if the receive was not throttled.
+   */
+  long onError(Throwable throwable) {
+    if (!SqsClient.isThrottling(throwable)) {
+      return 0;
+    }
+    int exponent = Math.min(this.consecutiveThrottles.getAndIncrement(), MAX_BACKOFF_EXPONENT);
+    long backoff =
+        Math.min(
+            this.receiveConfig.getMaxThrottleBackoffMillis(),
+            BASE_THROTTLE_BACKOFF_MILLIS << exponent);
+    return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+  }
+
+  /**
+   * Observes a receive. The returned future completes with the received messages, or, if the
+   * receive was throttled, fails only after the backoff has elapsed.
+   *
+   * @param receiveFuture The future of the receive.
+   * @return A CompletableFuture containing the received messages.
+   */
+  CompletableFuture<List<Message>> observe(CompletableFuture<List<Message>> receiveFuture) {
+    CompletableFuture<List<Message>> observed = new CompletableFuture<>();
+    receiveFuture.whenComplete(
+        (messages, throwable) -> {
+          if (throwable == null) {
+            this.onReceive(messages.size());
+            observed.complete(messages);
+            return;
+          }
+          long backoff = this.onError(throwable);
+          if (backoff == 0) {
+            observed.completeExceptionally(throwable);
+          } else {
+            CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS)
+                .execute(() -> observed.completeExceptionally(throwable));
+          }
+        });
+    return observed;
+  }
+}
@@ -0,0 +1,58 @@
+package com.dream11.queue.impl.sqs;
+
+import com.dream11.queue.config.HeartbeatConfig;
+
+/**
+ * Chooses the visibility timeout of received messages from the processing times observed by a
+ * consumer. The timeout is the configured percentile of the processing time multiplied by the
+ * configured multiplier, clamped between the configured bounds.
+ */
+class SqsAdaptiveVisibility {
+  private static final int DEFAULT_VISIBILITY_TIMEOUT = 30;
+  private static final long MIN_SAMPLES = 100;
+  private static final long GENERATION_SIZE = 10_000;
+
+  private final HeartbeatConfig heartbeatConfig;
+  private final ProcessingTimeHistogram histogram = new ProcessingTimeHistogram(GENERATION_SIZE);
+
+  /**
+   * Constructs a new SqsAdaptiveVisibility.
+   *
+   * @param heartbeatConfig The heartbeat configuration.
+   */
+  SqsAdaptiveVisibility(HeartbeatConfig heartbeatConfig) {
+    this.heartbeatConfig = heartbeatConfig;
+  }
+
+  /**
+   * Records the time it took to process a message, from its receipt until its acknowledgement.
+   *
+   * @param millis The processing time in milliseconds.
+   */
+  void record(long millis) {
+    this.histogram.record(millis);
+  }
+
+  /**
+   * Returns the visibility timeout to request for newly received messages.
+   *
+   * @return The visibility timeout in seconds.
+   */
+  int visibilityTimeout() {
+    int visibilityTimeout;
+    if (this.histogram.count() < MIN_SAMPLES) {
+      visibilityTimeout =
+          this.heartbeatConfig.getHeartbeatInterval() > 0
+              ? this.heartbeatConfig.getHeartbeatInterval() * 2
+              : DEFAULT_VISIBILITY_TIMEOUT;
+    } else {
+      double millis =
+          this.histogram.percentile(this.heartbeatConfig.getAdaptivePercentile())
+              * this.heartbeatConfig.getAdaptiveMultiplier();
+      visibilityTimeout = (int) Math.ceil(millis / 1000);
+    }
+    return Math.max(
+        this.heartbeatConfig.getMinVisibilityTimeout(),
+        Math.min(this.heartbeatConfig.getMaxVisibilityTimeout(), visibilityTimeout));
+  }
+}
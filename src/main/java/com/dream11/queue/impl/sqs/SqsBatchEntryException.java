@@ -0,0 +1,25 @@
+package com.dream11.queue.impl.sqs;
+
+import lombok.Getter;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+
+/** Exception describing the failure of a single entry within an SQS batch request. */
+@Getter
+public class SqsBatchEntryException extends RuntimeException {
+  /** The error code returned by SQS for the entry. */
+  private final String code;
+
+  /** Whether the failure was caused by the request itself rather than by SQS. */
+  private final boolean senderFault;
+
+  /**
+   * Constructs a new SqsBatchEntryException from the error entry returned by SQS.
+   *
+   * @param errorEntry The failed entry of a batch response.
+   */
+  public SqsBatchEntryException(BatchResultErrorEntry errorEntry) {
+    super(errorEntry.code() + ": " + errorEntry.message());
+    this.code = errorEntry.code();
+    this.senderFault = Boolean.TRUE.equals(errorEntry.senderFault());
+  }
+}
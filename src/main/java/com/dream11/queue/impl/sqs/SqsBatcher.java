@@ -0,0 +1,221 @@
+package com.dream11.queue.impl.sqs;
+
+import com.dream11.queue.config.BatchConfig;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+
+/**
+ * Buffers individual SQS operations and flushes them as batch requests. A batch is flushed when it
+ * reaches the configured number of entries, when adding an entry would exceed the configured
+ * payload size, or when the oldest entry has waited for the configured linger time. Entries that
+ * fail within an otherwise successful batch are retried on their own until the retry limit is
+ * reached.
+ *
+ * @param <T> The type of the buffered entries.
+ */
+@Slf4j
+abstract class SqsBatcher<T> {
+  private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+  private final BatchConfig batchConfig;
+  private final ScheduledExecutorService scheduler;
+
+  /** Futures of all entries that have been added but not yet completed. */
+  private final Set<CompletableFuture<Void>> outstanding = ConcurrentHashMap.newKeySet();
+
+  private List<Entry<T>> pending = new ArrayList<>();
+  private int pendingBytes = 0;
+  private ScheduledFuture<?> lingerFuture;
+  private boolean closed = false;
+
+  /**
+   * Constructs a new SqsBatcher.
+   *
+   * @param batchConfig The batch configuration.
+   * @param scheduler The scheduler used to flush batches after the linger time. It is not shut down
+   *     by this batcher.
+   */
+  SqsBatcher(BatchConfig batchConfig, ScheduledExecutorService scheduler) {
+    this.batchConfig = batchConfig;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Adds an entry to the current batch.
+   *
+   * @param item The entry to add.
+   * @return A CompletableFuture that completes when the entry has been processed by SQS.
+   */
+  public CompletableFuture<Void> add(T item) {
+    Entry<T> entry = new Entry<>(item, this.sizeOf(item));
+    this.outstanding.add(entry.future);
+    entry.future.whenComplete((v, e) -> this.outstanding.remove(entry.future));
+    synchronized (this) {
+      if (this.closed) {
+        entry.future.completeExceptionally(new IllegalStateException("Batcher is closed"));
+        return entry.future;
+      }
+    }
+    this.enqueue(entry);
+    return entry.future;
+  }
+
+  /** Sends all buffered entries immediately, regardless of the batch size. */
+  public void flush() {
+    List<Entry<T>> batch;
+    synchronized (this) {
+      batch = this.drain();
+    }
+    this.dispatch(batch);
+  }
+
+  /**
+   * Flushes all buffered entries and waits for outstanding entries to complete. Entries added after
+   * this method is called are rejected.
+   */
+  public void close() {
+    synchronized (this) {
+      this.closed = true;
+    }
+    this.flush();
+    try {
+      CompletableFuture.allOf(this.outstanding.toArray(new CompletableFuture[0]))
+          .get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (TimeoutException e) {
+      log.warn("Timed out waiting for {} outstanding batch entries", this.outstanding.size());
+    } catch (Exception e) {
+      // Failures are reported through the futures of the individual entries
+    }
+  }
+
+  /**
+   * Returns the number of bytes an entry contributes to the payload size of a batch.
+   *
+   * @param item The entry.
+   * @return The size of the entry in bytes.
+   */
+  protected abstract int sizeOf(T item);
+
+  /**
+   * Sends a batch request containing the given entries.
+   *
+   * @param entries The entries keyed by their id within the batch.
+   * @return A CompletableFuture containing the failures of the batch keyed by entry id. Entries
+   *     that are not present in the map succeeded.
+   */
+  protected abstract CompletableFuture<Map<String, SqsBatchEntryException>> execute(
+      Map<String, T> entries);
+
+  /**
+   * Converts the failed entries of a batch response into exceptions keyed by entry id.
+   *
+   * @param failed The failed entries of a batch response.
+   * @return The failures keyed by entry id.
+   */
+  protected static Map<String, SqsBatchEntryException> toFailures(
+      List<BatchResultErrorEntry> failed) {
+    if (failed == null || failed.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, SqsBatchEntryException> failures = new HashMap<>();
+    failed.forEach(entry -> failures.put(entry.id(), new SqsBatchEntryException(entry)));
+    return failures;
+  }
+
+  private void enqueue(Entry<T> entry) {
+    List<Entry<T>> overflow = Collections.emptyList();
+    List<Entry<T>> full = Collections.emptyList();
+    synchronized (this) {
+      if (!this.pending.isEmpty()
+          && this.pendingBytes + entry.size > this.batchConfig.getMaxBatchBytes()) {
+        overflow = this.drain();
+      }
+      this.pending.add(entry);
+      this.pendingBytes += entry.size;
+      if (this.pending.size() >= this.batchConfig.getMaxBatchSize() || this.closed) {
+        full = this.drain();
+      } else if (this.lingerFuture == null) {
+        this.lingerFuture =
+            this.scheduler.schedule(
+                this::flush, this.batchConfig.getLingerMillis(), TimeUnit.MILLISECONDS);
+      }
+    }
+    this.dispatch(overflow);
+    this.dispatch(full);
+  }
+
+  private List<Entry<T>> drain() {
+    if (this.lingerFuture != null) {
+      this.lingerFuture.cancel(false);
+      this.lingerFuture = null;
+    }
+    if (this.pending.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<Entry<T>> batch = this.pending;
+    this.pending = new ArrayList<>();
+    this.pendingBytes = 0;
+    return batch;
+  }
+
+  private void dispatch(List<Entry<T>> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    Map<String, T> entries = new LinkedHashMap<>();
+    for (int i = 0; i < batch.size(); i++) {
+      entries.put(Integer.toString(i), batch.get(i).item);
+    }
+    CompletableFuture<Map<String, SqsBatchEntryException>> result;
+    try {
+      result = this.execute(entries);
+    } catch (Exception e) {
+      result = CompletableFuture.failedFuture(e);
+    }
+    result.whenComplete(
+        (failures, throwable) -> {
+          for (int i = 0; i < batch.size(); i++) {
+            Entry<T> entry = batch.get(i);
+            if (throwable != null) {
+              entry.future.completeExceptionally(throwable);
+              continue;
+            }
+            SqsBatchEntryException failure = failures.get(Integer.toString(i));
+            if (failure == null) {
+              entry.future.complete(null);
+            } else if (!failure.isSenderFault()
+                && entry.attempts < this.batchConfig.getMaxRetries()) {
+              log.debug("Retrying batch entry after failure: {}", failure.getMessage());
+              entry.attempts++;
+              this.enqueue(entry);
+            } else {
+              entry.future.completeExceptionally(failure);
+            }
+          }
+        });
+  }
+
+  @RequiredArgsConstructor
+  private static class Entry<T> {
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    private final T item;
+    private final int size;
+    private int attempts = 0;
+  }
+}
@@ -0,0 +1,111 @@
+package com.dream11.queue.impl.sqs;
+
+import com.dream11.queue.blob.BlobStore;
+import com.dream11.queue.config.ClaimCheckConfig;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+
+/**
+ * Offloads large message bodies to a blob store and restores them on receive. An offloaded message
+ * carries the blob key both as its body and in the claim check message attribute.
+ */
+class SqsClaimCheck {
+  private final ClaimCheckConfig claimCheckConfig;
+  private final BlobStore blobStore;
+
+  /**
+   * Constructs a new SqsClaimCheck.
+   *
+   * @param claimCheckConfig The claim check configuration. Its blob store must be set.
+   */
+  SqsClaimCheck(ClaimCheckConfig claimCheckConfig) {
+    if (claimCheckConfig.getBlobStore() == null) {
+      throw new IllegalArgumentException("Claim check requires a blob store");
+    }
+    this.claimCheckConfig = claimCheckConfig;
+    this.blobStore = claimCheckConfig.getBlobStore();
+  }
+
+  /**
+   * Stores the body of an outgoing message in the blob store if it is above the configured
+   * threshold, and replaces the body with a pointer.
+   *
+   * @param entry The outgoing message.
+   * @return A CompletableFuture containing the message to send instead, or the given message if it
+   *     is below the threshold.
+   */
+  CompletableFuture<SendMessageBatchRequestEntry> offload(SendMessageBatchRequestEntry entry) {
+    String body = entry.messageBody();
+    if (body.length() < this.claimCheckConfig.getThresholdBytes() / 3) {
+      // A UTF-8 encoded character takes at most 3 bytes, so the body is below the threshold
+      return CompletableFuture.completedFuture(entry);
+    }
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length < this.claimCheckConfig.getThresholdBytes()) {
+      return CompletableFuture.completedFuture(entry);
+    }
+    String key = UUID.randomUUID().toString();
+    return this.blobStore
+        .put(key, bytes)
+        .thenApply(
+            v ->
+                entry.toBuilder()
+                    .messageBody(key)
+                    .messageAttributes(
+                        SqsMessageAttributes.with(
+                            entry.messageAttributes(),
+                            SqsMessageAttributes.CLAIM_CHECK,
+                            SqsMessageAttributes.stringValue(key)))
+                    .build());
+  }
+
+  /**
+   * Deletes the offloaded body of an outgoing message that could not be sent, if it has one.
+   *
+   * @param entry The outgoing message returned by {@link #offload}.
+   * @return A CompletableFuture that completes when the body is deleted.
+   */
+  CompletableFuture<Void> discard(SendMessageBatchRequestEntry entry) {
+    MessageAttributeValue key = entry.messageAttributes().get(SqsMessageAttributes.CLAIM_CHECK);
+    if (key == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return this.blobStore.delete(key.stringValue());
+  }
+
+  /**
+   * Restores the body of a received message from the blob store. Messages without the claim check
+   * attribute are returned as they are.
+   *
+   * @param message The received message.
+   * @return A CompletableFuture containing the message with its original body.
+   */
+  CompletableFuture<Message> retrieve(Message message) {
+    String key = SqsMessageAttributes.get(message, SqsMessageAttributes.CLAIM_CHECK);
+    if (key == null) {
+      return CompletableFuture.completedFuture(message);
+    }
+    return this.blobStore
+        .get(key)
+        .thenApply(
+            bytes -> message.toBuilder().body(new String(bytes, StandardCharsets.UTF_8)).build());
+  }
+
+  /**
+   * Deletes the offloaded body of an acknowledged message, if it has one and deletion is enabled.
+   *
+   * @param message The acknowledged message.
+   * @return A CompletableFuture that completes when the body is deleted.
+   */
+  CompletableFuture<Void> delete(Message message) {
+    String key = SqsMessageAttributes.get(message, SqsMessageAttributes.CLAIM_CHECK);
+    if (key == null || !this.claimCheckConfig.isDeleteOnAcknowledge()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return this.blobStore.delete(key);
+  }
+}
@@ -1,26 +1,75 @@
 package com.dream11.queue.impl.sqs;
 
-import java.net.URI;
+import com.dream11.queue.metrics.QueueMetrics;
+import com.dream11.queue.producer.SendRejectedException;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
-import software.amazon.awssdk.regions.Region;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.sqs.SqsAsyncClient;
-import software.amazon.awssdk.services.sqs.SqsAsyncClientBuilder;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
 import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
 import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesResponse;
 import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
 import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
-import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
 import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
 
 /**
  * Client for interacting with Amazon SQS. This class handles the low-level operations of sending,
- * receiving, and managing messages in an SQS queue.
+ * receiving, and managing messages in an SQS queue. The latency and outcome of every request are
+ * reported to the metrics of the configuration.
+ *
+ * <p>Receive requests are built from a template that is prepared once from the receive
+ * configuration, so that only the wait time, visibility timeout and attempt id are set per receive.
  */
 public class SqsClient {
+  /** The maximum number of entries SQS accepts in a batch request. */
+  private static final int MAX_BATCH_SIZE = 10;
+  private static final String OVER_LIMIT = "OverLimit";
+
+  /** The time for which SQS deduplicates receives with the same receive request attempt id. */
+  private static final long ATTEMPT_ID_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+  /** The system attributes requested on every receive, which this library relies on. */
+  private static final List<String> SYSTEM_ATTRIBUTES =
+      List.of(
+          MessageSystemAttributeName.SENT_TIMESTAMP.toString(),
+          MessageSystemAttributeName.MESSAGE_GROUP_ID.toString(),
+          MessageSystemAttributeName.APPROXIMATE_RECEIVE_COUNT.toString());
+
   private final SqsConfig sqsConfig;
   private final SqsAsyncClient sqsAsyncClient;
+  private final QueueMetrics metrics;
+  private final SqsClientRegistry.Lease lease;
+
+  /** The receive request with every field set that does not change between receives. */
+  private final ReceiveMessageRequest receiveTemplate;
+
+  /** The attempt ids of failed receives, to be reused by the next receives. */
+  private final Queue<FailedAttempt> failedAttempts = new ConcurrentLinkedQueue<>();
 
   /**
    * Constructs a new SqsClient with the given configuration and SQS client. This constructor is
@@ -32,25 +81,55 @@ public class SqsClient {
   public SqsClient(SqsConfig sqsConfig, SqsAsyncClient sqsAsyncClient) {
     this.sqsConfig = sqsConfig;
     this.sqsAsyncClient = sqsAsyncClient;
+    this.lease = null;
+    this.metrics = sqsConfig.getMetrics();
+    this.receiveTemplate = receiveTemplate(sqsConfig);
   }
 
   /**
-   * Constructs a new SqsClient with the given configuration. Creates a new SQS client using the
-   * default credentials provider and the specified region. If an endpoint is provided in the
-   * configuration, it will be used instead of the default endpoint.
+   * Constructs a new SqsClient with the given configuration. Unless sharing is disabled in the HTTP
+   * configuration, the SQS client is acquired from the default {@link SqsClientRegistry} and shared
+   * with every other producer and consumer using the same region, endpoint, credentials provider
+   * and HTTP configuration. Otherwise a dedicated SQS client is created.
    *
    * @param sqsConfig The SQS configuration.
    */
   public SqsClient(SqsConfig sqsConfig) {
+    this(sqsConfig, SqsClientRegistry.getDefault());
+  }
+
+  /**
+   * Constructs a new SqsClient with the given configuration, acquiring shared SQS clients from the
+   * given registry.
+   *
+   * @param sqsConfig The SQS configuration.
+   * @param registry The registry of shared SQS clients.
+   */
+  SqsClient(SqsConfig sqsConfig, SqsClientRegistry registry) {
     this.sqsConfig = sqsConfig;
-    SqsAsyncClientBuilder sqsClientBuilder =
-        SqsAsyncClient.builder()
-            .credentialsProvider(DefaultCredentialsProvider.create())
-            .region(Region.of(sqsConfig.getRegion()));
-    if (this.sqsConfig.getEndpoint() != null && !this.sqsConfig.getEndpoint().isEmpty()) {
-      sqsClientBuilder.endpointOverride(URI.create(sqsConfig.getEndpoint()));
+    if (sqsConfig.getHttpConfig().isShared()) {
+      this.lease = registry.acquire(sqsConfig);
+      this.sqsAsyncClient = this.lease.getClient();
+    } else {
+      this.lease = null;
+      this.sqsAsyncClient = SqsClientRegistry.createClient(sqsConfig);
     }
-    this.sqsAsyncClient = sqsClientBuilder.build();
+    this.metrics = sqsConfig.getMetrics();
+    this.receiveTemplate = receiveTemplate(sqsConfig);
+  }
+
+  private static ReceiveMessageRequest receiveTemplate(SqsConfig sqsConfig) {
+    SqsConfig.ReceiveConfig receiveConfig = sqsConfig.getReceiveConfig();
+    Set<String> messageAttributes = new LinkedHashSet<>(SqsMessageAttributes.ALL);
+    messageAttributes.addAll(receiveConfig.getMessageAttributeNames());
+    Set<String> systemAttributes = new LinkedHashSet<>(SYSTEM_ATTRIBUTES);
+    systemAttributes.addAll(receiveConfig.getSystemAttributeNames());
+    return ReceiveMessageRequest.builder()
+        .queueUrl(sqsConfig.getQueueUrl())
+        .maxNumberOfMessages(receiveConfig.getMaxMessages())
+        .messageAttributeNames(List.copyOf(messageAttributes))
+        .attributeNamesWithStrings(List.copyOf(systemAttributes))
+        .build();
   }
 
   /**
@@ -71,14 +150,58 @@ public class SqsClient {
    * @return A CompletableFuture containing a list of received messages.
    */
   public CompletableFuture<List<Message>> receive(int timeout) {
-    return this.sqsAsyncClient
-        .receiveMessage(
-            ReceiveMessageRequest.builder()
-                .queueUrl(this.sqsConfig.getQueueUrl())
-                .waitTimeSeconds(timeout)
-                .maxNumberOfMessages(this.sqsConfig.getReceiveConfig().getMaxMessages())
-                .build())
-        .thenApply(ReceiveMessageResponse::messages);
+    return this.receive(timeout, this.sqsConfig.getReceiveConfig().getVisibilityTimeout());
+  }
+
+  /**
+   * Receives a list of messages asynchronously with a specified timeout and visibility timeout. The
+   * number of messages received is determined by the configuration. The delivery latency of every
+   * received message is reported to the metrics of the configuration. If receive request attempt
+   * ids are enabled, the receive reuses the attempt id of an earlier receive that failed with a
+   * retriable error, or carries a new one.
+   *
+   * @param timeout The timeout in seconds to wait for messages.
+   * @param visibilityTimeout The visibility timeout in seconds of the received messages, or null to
+   *     use the visibility timeout of the queue.
+   * @return A CompletableFuture containing a list of received messages.
+   */
+  public CompletableFuture<List<Message>> receive(int timeout, Integer visibilityTimeout) {
+    long start = System.nanoTime();
+    ReceiveMessageRequest.Builder request =
+        this.receiveTemplate.toBuilder()
+            .waitTimeSeconds(timeout)
+            .visibilityTimeout(visibilityTimeout);
+    String attemptId =
+        this.sqsConfig.getReceiveConfig().isReceiveRequestAttemptIds()
+            ? this.nextAttemptId()
+            : null;
+    return this.instrument(
+            QueueMetrics.Operation.RECEIVE,
+            start,
+            this.sqsAsyncClient.receiveMessage(request.receiveRequestAttemptId(attemptId).build()))
+        .whenComplete(
+            (response, throwable) -> {
+              if (attemptId != null && throwable != null && isRetriable(throwable)) {
+                this.failedAttempts.add(new FailedAttempt(attemptId, start));
+              }
+            })
+        .thenApply(
+            response -> {
+              this.metrics.recordReceive(this.sqsConfig.getQueueUrl(), response.messages().size());
+              this.recordDeliveryLatencies(response.messages());
+              return response.messages();
+            });
+  }
+
+  /** Returns the attempt id of a failed receive that SQS still deduplicates, or a new one. */
+  private String nextAttemptId() {
+    FailedAttempt failed;
+    while ((failed = this.failedAttempts.poll()) != null) {
+      if (System.nanoTime() - failed.startNanos < ATTEMPT_ID_TTL_NANOS) {
+        return failed.attemptId;
+      }
+    }
+    return UUID.randomUUID().toString();
   }
 
   /**
@@ -89,15 +212,48 @@ public class SqsClient {
    * @return A CompletableFuture that completes when the message is deleted.
    */
   public CompletableFuture<Void> deleteMessage(Message message) {
-    return this.sqsAsyncClient
-        .deleteMessage(
-            DeleteMessageRequest.builder()
-                .queueUrl(sqsConfig.getQueueUrl())
-                .receiptHandle(message.receiptHandle())
-                .build())
+    long start = System.nanoTime();
+    return this.instrument(
+            QueueMetrics.Operation.DELETE,
+            start,
+            this.sqsAsyncClient.deleteMessage(
+                DeleteMessageRequest.builder()
+                    .queueUrl(sqsConfig.getQueueUrl())
+                    .receiptHandle(message.receiptHandle())
+                    .build()))
         .thenAccept(__ -> {});
   }
 
+  /**
+   * Deletes a batch of messages from the SQS queue in a single request. Individual entries may fail
+   * even when the request succeeds, so callers must inspect the response.
+   *
+   * @param entries The entries to delete. SQS accepts at most 10 entries per request.
+   * @return A CompletableFuture containing the batch response.
+   */
+  public CompletableFuture<DeleteMessageBatchResponse> deleteMessageBatch(
+      List<DeleteMessageBatchRequestEntry> entries) {
+    long start = System.nanoTime();
+    this.metrics.recordBatch(
+        this.sqsConfig.getQueueUrl(),
+        QueueMetrics.Operation.DELETE_BATCH,
+        entries.size(),
+        this.sqsConfig.getAckBatchConfig().getMaxBatchSize());
+    return this.instrument(
+            QueueMetrics.Operation.DELETE_BATCH,
+            start,
+            this.sqsAsyncClient.deleteMessageBatch(
+                DeleteMessageBatchRequest.builder()
+                    .queueUrl(sqsConfig.getQueueUrl())
+                    .entries(entries)
+                    .build()))
+        .thenApply(
+            response -> {
+              this.recordFailures(QueueMetrics.Operation.DELETE_BATCH, response.failed());
+              return response;
+            });
+  }
+
   /**
    * Sends a message asynchronously to the SQS queue.
    *
@@ -105,15 +261,82 @@ public class SqsClient {
    * @return A CompletableFuture that completes when the message is sent.
    */
   public CompletableFuture<Void> send(String message) {
-    return this.sqsAsyncClient
-        .sendMessage(
-            SendMessageRequest.builder()
-                .queueUrl(sqsConfig.getQueueUrl())
-                .messageBody(message)
-                .build())
+    return this.send(message, Map.of());
+  }
+
+  /**
+   * Sends a message with message attributes asynchronously to the SQS queue.
+   *
+   * @param message The message to send.
+   * @param messageAttributes The message attributes keyed by attribute name.
+   * @return A CompletableFuture that completes when the message is sent.
+   */
+  public CompletableFuture<Void> send(
+      String message, Map<String, MessageAttributeValue> messageAttributes) {
+    return this.send(message, messageAttributes, null, null);
+  }
+
+  /**
+   * Sends a message with message attributes asynchronously to the SQS queue. The message group id
+   * is required by FIFO queues, and the deduplication id is required by FIFO queues that do not
+   * have content-based deduplication enabled.
+   *
+   * @param message The message to send.
+   * @param messageAttributes The message attributes keyed by attribute name.
+   * @param messageGroupId The message group id, or null for standard queues.
+   * @param messageDeduplicationId The deduplication id, or null to use content-based deduplication.
+   * @return A CompletableFuture that completes when the message is sent.
+   */
+  public CompletableFuture<Void> send(
+      String message,
+      Map<String, MessageAttributeValue> messageAttributes,
+      String messageGroupId,
+      String messageDeduplicationId) {
+    long start = System.nanoTime();
+    return this.instrument(
+            QueueMetrics.Operation.SEND,
+            start,
+            this.sqsAsyncClient.sendMessage(
+                SendMessageRequest.builder()
+                    .queueUrl(sqsConfig.getQueueUrl())
+                    .messageBody(message)
+                    .messageAttributes(messageAttributes)
+                    .messageGroupId(messageGroupId)
+                    .messageDeduplicationId(messageDeduplicationId)
+                    .build()))
         .thenAccept(__ -> {});
   }
 
+  /**
+   * Sends a batch of messages asynchronously to the SQS queue in a single request. Individual
+   * entries may fail even when the request succeeds, so callers must inspect the response.
+   *
+   * @param entries The entries to send. SQS accepts at most 10 entries per request.
+   * @return A CompletableFuture containing the batch response.
+   */
+  public CompletableFuture<SendMessageBatchResponse> sendBatch(
+      List<SendMessageBatchRequestEntry> entries) {
+    long start = System.nanoTime();
+    this.metrics.recordBatch(
+        this.sqsConfig.getQueueUrl(),
+        QueueMetrics.Operation.SEND_BATCH,
+        entries.size(),
+        this.sqsConfig.getSendBatchConfig().getMaxBatchSize());
+    return this.instrument(
+            QueueMetrics.Operation.SEND_BATCH,
+            start,
+            this.sqsAsyncClient.sendMessageBatch(
+                SendMessageBatchRequest.builder()
+                    .queueUrl(sqsConfig.getQueueUrl())
+                    .entries(entries)
+                    .build()))
+        .thenApply(
+            response -> {
+              this.recordFailures(QueueMetrics.Operation.SEND_BATCH, response.failed());
+              return response;
+            });
+  }
+
   /**
    * Changes the visibility timeout of a message. This is useful for extending the time a message is
    * invisible to other consumers.
@@ -123,18 +346,180 @@ public class SqsClient {
    * @return A CompletableFuture that completes when the message visibility is changed.
    */
   public CompletableFuture<Void> changeMessageVisibility(Message message, int visibilityTimeout) {
-    return this.sqsAsyncClient
-        .changeMessageVisibility(
-            ChangeMessageVisibilityRequest.builder()
-                .queueUrl(this.sqsConfig.getQueueUrl())
-                .receiptHandle(message.receiptHandle())
-                .visibilityTimeout(visibilityTimeout)
-                .build())
+    long start = System.nanoTime();
+    return this.instrument(
+            QueueMetrics.Operation.CHANGE_VISIBILITY,
+            start,
+            this.sqsAsyncClient.changeMessageVisibility(
+                ChangeMessageVisibilityRequest.builder()
+                    .queueUrl(this.sqsConfig.getQueueUrl())
+                    .receiptHandle(message.receiptHandle())
+                    .visibilityTimeout(visibilityTimeout)
+                    .build()))
         .thenAccept(__ -> {});
   }
 
-  /** Closes the SQS client, releasing any resources. */
+  /**
+   * Changes the visibility timeout of a batch of messages in a single request. Individual entries
+   * may fail even when the request succeeds, so callers must inspect the response.
+   *
+   * @param entries The entries to change. SQS accepts at most 10 entries per request.
+   * @return A CompletableFuture containing the batch response.
+   */
+  public CompletableFuture<ChangeMessageVisibilityBatchResponse> changeMessageVisibilityBatch(
+      List<ChangeMessageVisibilityBatchRequestEntry> entries) {
+    long start = System.nanoTime();
+    this.metrics.recordBatch(
+        this.sqsConfig.getQueueUrl(),
+        QueueMetrics.Operation.CHANGE_VISIBILITY_BATCH,
+        entries.size(),
+        MAX_BATCH_SIZE);
+    return this.instrument(
+            QueueMetrics.Operation.CHANGE_VISIBILITY_BATCH,
+            start,
+            this.sqsAsyncClient.changeMessageVisibilityBatch(
+                ChangeMessageVisibilityBatchRequest.builder()
+                    .queueUrl(this.sqsConfig.getQueueUrl())
+                    .entries(entries)
+                    .build()))
+        .thenApply(
+            response -> {
+              this.recordFailures(
+                  QueueMetrics.Operation.CHANGE_VISIBILITY_BATCH, response.failed());
+              return response;
+            });
+  }
+
+  /**
+   * Fetches the given attributes of the SQS queue.
+   *
+   * @param attributeNames The names of the attributes to fetch.
+   * @return A CompletableFuture containing the attribute values keyed by attribute name.
+   */
+  public CompletableFuture<Map<QueueAttributeName, String>> getQueueAttributes(
+      QueueAttributeName... attributeNames) {
+    long start = System.nanoTime();
+    return this.instrument(
+            QueueMetrics.Operation.GET_QUEUE_ATTRIBUTES,
+            start,
+            this.sqsAsyncClient.getQueueAttributes(
+                GetQueueAttributesRequest.builder()
+                    .queueUrl(this.sqsConfig.getQueueUrl())
+                    .attributeNames(attributeNames)
+                    .build()))
+        .thenApply(GetQueueAttributesResponse::attributes);
+  }
+
+  /**
+   * Closes the SQS client, releasing any resources. A shared SQS client is only closed once every
+   * producer and consumer using it is closed.
+   */
   public void close() {
-    this.sqsAsyncClient.close();
+    if (this.lease != null) {
+      this.lease.release();
+    } else {
+      this.sqsAsyncClient.close();
+    }
+  }
+
+  private <R> CompletableFuture<R> instrument(
+      QueueMetrics.Operation operation, long start, CompletableFuture<R> future) {
+    return future.whenComplete(
+        (response, throwable) -> {
+          String queue = this.sqsConfig.getQueueUrl();
+          this.metrics.recordLatency(queue, operation, System.nanoTime() - start);
+          if (throwable != null) {
+            this.metrics.recordError(queue, operation, errorType(throwable));
+          }
+        });
+  }
+
+  private void recordFailures(
+      QueueMetrics.Operation operation, List<BatchResultErrorEntry> failures) {
+    if (failures != null) {
+      failures.forEach(
+          failure ->
+              this.metrics.recordError(this.sqsConfig.getQueueUrl(), operation, failure.code()));
+    }
+  }
+
+  private void recordDeliveryLatencies(List<Message> messages) {
+    long now = System.currentTimeMillis();
+    for (Message message : messages) {
+      String sentTimestamp = message.attributes().get(MessageSystemAttributeName.SENT_TIMESTAMP);
+      if (sentTimestamp != null) {
+        // Clocks of the sender and SQS may be skewed, so the latency can appear negative
+        this.metrics.recordDeliveryLatency(
+            this.sqsConfig.getQueueUrl(), Math.max(0, now - Long.parseLong(sentTimestamp)));
+      }
+    }
+  }
+
+  /**
+   * Returns whether the given failure is caused by the request being throttled.
+   *
+   * @param throwable The failure.
+   * @return Whether the request was throttled.
+   */
+  static boolean isThrottling(Throwable throwable) {
+    Throwable cause = throwable;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (!(cause instanceof AwsServiceException)) {
+      return false;
+    }
+    AwsServiceException exception = (AwsServiceException) cause;
+    return exception.isThrottlingException()
+        || (exception.awsErrorDetails() != null
+            && OVER_LIMIT.equals(exception.awsErrorDetails().errorCode()));
+  }
+
+  /**
+   * Returns whether the given failure may not recur if the request is retried later. This is the
+   * case for throttled requests, server errors, client-side failures such as connection errors,
+   * sends rejected by send limits, and batch entries that did not fail by the fault of the sender.
+   *
+   * @param throwable The failure.
+   * @return Whether the request may succeed later.
+   */
+  static boolean isRetriable(Throwable throwable) {
+    Throwable cause = throwable;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof AwsServiceException) {
+      return isThrottling(cause) || ((AwsServiceException) cause).statusCode() >= 500;
+    }
+    if (cause instanceof SqsBatchEntryException) {
+      return !((SqsBatchEntryException) cause).isSenderFault();
+    }
+    return cause instanceof SdkClientException || cause instanceof SendRejectedException;
+  }
+
+  private static String errorType(Throwable throwable) {
+    Throwable cause = throwable;
+    while (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof AwsServiceException
+        && ((AwsServiceException) cause).awsErrorDetails() != null
+        && ((AwsServiceException) cause).awsErrorDetails().errorCode() != null) {
+      return ((AwsServiceException) cause).awsErrorDetails().errorCode();
+    }
+    return cause.getClass().getSimpleName();
+  }
+
+  /** The attempt id of a receive that failed, and the time the receive was started. */
+  private static final class FailedAttempt {
+    private final String attemptId;
+    private final long startNanos;
+
+    private FailedAttempt(String attemptId, long startNanos) {
+      this.attemptId = attemptId;
+      this.startNanos = startNanos;
+    }
   }
 }
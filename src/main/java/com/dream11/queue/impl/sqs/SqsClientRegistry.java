@@ -0,0 +1,155 @@
+package com.dream11.queue.impl.sqs;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.SqsAsyncClientBuilder;
+
+/**
+ * Reference counted registry of SQS async clients. Producers and consumers that use the same
+ * region, endpoint, credentials provider and HTTP configuration share a single client, and
+ * therefore a single connection pool and event loop. A client is closed once the last lease on it
+ * is released.
+ */
+@Slf4j
+public class SqsClientRegistry {
+  private static final SqsClientRegistry DEFAULT =
+      new SqsClientRegistry(SqsClientRegistry::createClient);
+
+  private final Function<SqsConfig, SqsAsyncClient> clientFactory;
+  private final Map<Key, SharedClient> clients = new HashMap<>();
+
+  /**
+   * Constructs a new SqsClientRegistry.
+   *
+   * @param clientFactory The factory creating a client for the first configuration of a key.
+   */
+  SqsClientRegistry(Function<SqsConfig, SqsAsyncClient> clientFactory) {
+    this.clientFactory = clientFactory;
+  }
+
+  /**
+   * Returns the registry shared by all SQS producers and consumers of the JVM.
+   *
+   * @return The default registry.
+   */
+  public static SqsClientRegistry getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Creates a new SQS async client for the given configuration, using its credentials provider,
+   * region, endpoint and HTTP configuration.
+   *
+   * @param sqsConfig The SQS configuration.
+   * @return The new SQS async client.
+   */
+  public static SqsAsyncClient createClient(SqsConfig sqsConfig) {
+    SqsAsyncClientBuilder sqsClientBuilder =
+        SqsAsyncClient.builder()
+            .credentialsProvider(credentialsProvider(sqsConfig))
+            .region(Region.of(sqsConfig.getRegion()))
+            .httpClientBuilder(SqsHttpClients.builder(sqsConfig.getHttpConfig()));
+    if (sqsConfig.getEndpoint() != null && !sqsConfig.getEndpoint().isEmpty()) {
+      sqsClientBuilder.endpointOverride(URI.create(sqsConfig.getEndpoint()));
+    }
+    return sqsClientBuilder.build();
+  }
+
+  /**
+   * Acquires a lease on the client for the given configuration, creating the client if no lease on
+   * it is held.
+   *
+   * @param sqsConfig The SQS configuration.
+   * @return The lease, which must be released once the client is no longer used.
+   */
+  public synchronized Lease acquire(SqsConfig sqsConfig) {
+    Key key =
+        new Key(
+            sqsConfig.getRegion(),
+            sqsConfig.getEndpoint(),
+            credentialsProvider(sqsConfig),
+            sqsConfig.getHttpConfig());
+    SharedClient sharedClient =
+        this.clients.computeIfAbsent(
+            key, k -> new SharedClient(this.clientFactory.apply(sqsConfig)));
+    sharedClient.references++;
+    return new Lease(key, sharedClient);
+  }
+
+  /**
+   * Returns the number of clients currently held by the registry.
+   *
+   * @return The number of clients.
+   */
+  public synchronized int size() {
+    return this.clients.size();
+  }
+
+  private synchronized void release(Key key, SharedClient sharedClient) {
+    if (--sharedClient.references == 0) {
+      this.clients.remove(key);
+      log.debug("Closing shared SQS client for region {}", key.getRegion());
+      sharedClient.client.close();
+    }
+  }
+
+  private static AwsCredentialsProvider credentialsProvider(SqsConfig sqsConfig) {
+    return sqsConfig.getCredentialsProvider() != null
+        ? sqsConfig.getCredentialsProvider()
+        : DefaultCredentialsProvider.create();
+  }
+
+  /** A lease on a shared SQS async client. */
+  public class Lease {
+    private final Key key;
+    private final SharedClient sharedClient;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    private Lease(Key key, SharedClient sharedClient) {
+      this.key = key;
+      this.sharedClient = sharedClient;
+    }
+
+    /**
+     * Returns the shared SQS async client. The client must not be closed directly.
+     *
+     * @return The SQS async client.
+     */
+    public SqsAsyncClient getClient() {
+      return this.sharedClient.client;
+    }
+
+    /** Releases the lease. Closes the client if this was the last lease on it. Idempotent. */
+    public void release() {
+      if (this.released.compareAndSet(false, true)) {
+        SqsClientRegistry.this.release(this.key, this.sharedClient);
+      }
+    }
+  }
+
+  @Value
+  private static class Key {
+    String region;
+    String endpoint;
+    AwsCredentialsProvider credentialsProvider;
+    SqsConfig.HttpConfig httpConfig;
+  }
+
+  private static class SharedClient {
+    private final SqsAsyncClient client;
+    private int references = 0;
+
+    private SharedClient(SqsAsyncClient client) {
+      this.client = client;
+    }
+  }
+}
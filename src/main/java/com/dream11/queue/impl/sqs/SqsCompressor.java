@@ -0,0 +1,112 @@
+package com.dream11.queue.impl.sqs;
+
+import com.dream11.queue.config.CompressionConfig;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+
+/**
+ * Compresses message bodies with Deflate and tags them with the encoding message attribute. Since
+ * SQS only accepts text bodies, the compressed bytes are base64 encoded, and a body is only sent
+ * compressed if the encoded form is smaller than the original.
+ */
+@Slf4j
+class SqsCompressor {
+  static final String DEFLATE = "deflate";
+
+  private static final MessageAttributeValue DEFLATE_ATTRIBUTE =
+      SqsMessageAttributes.stringValue(DEFLATE);
+
+  private final CompressionConfig compressionConfig;
+
+  /**
+   * Constructs a new SqsCompressor.
+   *
+   * @param compressionConfig The compression configuration.
+   */
+  SqsCompressor(CompressionConfig compressionConfig) {
+    this.compressionConfig = compressionConfig;
+  }
+
+  /**
+   * Compresses the body of an outgoing message if it is above the configured threshold.
+   *
+   * @param entry The outgoing message.
+   * @return The message with a compressed body and the encoding attribute, or the given message if
+   *     compressing it does not make it smaller.
+   */
+  SendMessageBatchRequestEntry compress(SendMessageBatchRequestEntry entry) {
+    String body = entry.messageBody();
+    if (body.length() < this.compressionConfig.getThresholdBytes() / 3) {
+      // A UTF-8 encoded character takes at most 3 bytes, so the body is below the threshold
+      return entry;
+    }
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length < this.compressionConfig.getThresholdBytes()) {
+      return entry;
+    }
+    ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 2);
+    Deflater deflater = new Deflater(this.compressionConfig.getLevel());
+    try (OutputStream stream =
+        new DeflaterOutputStream(Base64.getEncoder().wrap(output), deflater)) {
+      stream.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to compress message", e);
+    } finally {
+      deflater.end();
+    }
+    if (output.size() >= bytes.length) {
+      return entry;
+    }
+    return entry.toBuilder()
+        .messageBody(output.toString(StandardCharsets.US_ASCII))
+        .messageAttributes(
+            SqsMessageAttributes.with(
+                entry.messageAttributes(), SqsMessageAttributes.ENCODING, DEFLATE_ATTRIBUTE))
+        .build();
+  }
+
+  /**
+   * Restores the original body of a received message that was compressed by a producer. Messages
+   * without the encoding attribute, and messages that cannot be decompressed, are returned as they
+   * are, so that a single malformed message does not fail the whole receive.
+   *
+   * @param message The received message.
+   * @return The message with its original body.
+   */
+  static Message decompress(Message message) {
+    String encoding = SqsMessageAttributes.get(message, SqsMessageAttributes.ENCODING);
+    if (encoding == null) {
+      return message;
+    }
+    if (!DEFLATE.equals(encoding)) {
+      log.warn("Unsupported encoding {} of message: {}", encoding, message.messageId());
+      return message;
+    }
+    try (InputStream stream =
+        new InflaterInputStream(
+            Base64.getDecoder()
+                .wrap(
+                    new ByteArrayInputStream(
+                        message.body().getBytes(StandardCharsets.US_ASCII))))) {
+      return message.toBuilder()
+          .body(new String(stream.readAllBytes(), StandardCharsets.UTF_8))
+          .build();
+    } catch (IOException | IllegalArgumentException e) {
+      log.error("Failed to decompress message: {}", message.messageId(), e);
+      return message;
+    }
+  }
+}
@@ -1,13 +1,25 @@
 package com.dream11.queue.impl.sqs;
 
 import com.dream11.queue.QueueProvider;
+import com.dream11.queue.config.BatchConfig;
+import com.dream11.queue.config.ClaimCheckConfig;
+import com.dream11.queue.config.CompressionConfig;
+import com.dream11.queue.config.FifoConfig;
 import com.dream11.queue.config.HeartbeatConfig;
+import com.dream11.queue.config.LocalLaneConfig;
 import com.dream11.queue.config.QueueConfig;
+import com.dream11.queue.config.SendLimitConfig;
+import com.dream11.queue.config.SpillConfig;
+import com.dream11.queue.metrics.NoopQueueMetrics;
+import com.dream11.queue.metrics.QueueMetrics;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 
 @Getter
 @AllArgsConstructor
@@ -21,12 +33,51 @@ public class SqsConfig implements QueueConfig {
   /** The endpoint for the SQS queue. */
   private String endpoint;
 
+  /**
+   * The provider of the credentials used to access the SQS queue. If null, the default credentials
+   * provider chain is used.
+   */
+  private AwsCredentialsProvider credentialsProvider;
+
+  /** The configuration of the HTTP client used to access the SQS queue. */
+  @Builder.Default private HttpConfig httpConfig = new HttpConfig();
+
   /** The configuration for receiving messages from the SQS queue. */
   @Builder.Default private ReceiveConfig receiveConfig = new ReceiveConfig();
 
   /** The configuration for heartbeat settings. */
   @Builder.Default private HeartbeatConfig heartbeatConfig = new HeartbeatConfig();
 
+  /** The configuration for coalescing sent messages into SendMessageBatch requests. */
+  @Builder.Default private BatchConfig sendBatchConfig = new BatchConfig();
+
+  /** The configuration for coalescing acknowledgements into DeleteMessageBatch requests. */
+  @Builder.Default private BatchConfig ackBatchConfig = new BatchConfig();
+
+  /** The configuration for compressing the bodies of sent messages. */
+  @Builder.Default private CompressionConfig compressionConfig = new CompressionConfig();
+
+  /** The configuration for offloading large message bodies to a blob store. */
+  @Builder.Default private ClaimCheckConfig claimCheckConfig = new ClaimCheckConfig();
+
+  /**
+   * The configuration for sending messages to a FIFO queue. Its extractors must accept the type of
+   * message of the producers created from this configuration.
+   */
+  @Builder.Default private FifoConfig<?> fifoConfig = new FifoConfig<>();
+
+  /** The configuration for limiting the rate and concurrency of sent messages. */
+  @Builder.Default private SendLimitConfig sendLimitConfig = new SendLimitConfig();
+
+  /** The configuration for spilling failed sends to a local journal. */
+  @Builder.Default private SpillConfig spillConfig = new SpillConfig();
+
+  /** The configuration for handing messages to consumers of the queue in the same JVM. */
+  @Builder.Default private LocalLaneConfig localLaneConfig = new LocalLaneConfig();
+
+  /** The metrics that measurements of all operations on the queue are reported to. */
+  @Builder.Default private QueueMetrics metrics = NoopQueueMetrics.INSTANCE;
+
   /**
    * Returns the provider type for this configuration.
    *
@@ -44,5 +95,120 @@ public class SqsConfig implements QueueConfig {
   public static class ReceiveConfig {
     /** The maximum number of messages to receive from the SQS queue. */
     @Builder.Default private int maxMessages = 1;
+
+    /**
+     * The visibility timeout in seconds requested for received messages. If null, the visibility
+     * timeout of the queue is used.
+     */
+    private Integer visibilityTimeout;
+
+    /**
+     * The number of concurrent long-poll loops that keep the prefetch buffer filled. A value of 0
+     * disables prefetching, in which case every receive call makes its own request to SQS.
+     */
+    @Builder.Default private int prefetchPollers = 0;
+
+    /**
+     * The maximum number of prefetched messages held in memory. Pollers pause while the buffer is
+     * full.
+     */
+    @Builder.Default private int prefetchBufferSize = 100;
+
+    /** The long-poll wait time in seconds used by the prefetch pollers. */
+    @Builder.Default private int prefetchWaitTimeSeconds = 20;
+
+    /**
+     * The minimum remaining visibility in seconds for a prefetched message to be handed out.
+     * Messages closer to their visibility timeout are released back to the queue instead.
+     */
+    @Builder.Default private int prefetchVisibilityMarginSeconds = 5;
+
+    /**
+     * Whether polling adapts to the traffic of the queue. Short polls switch to long polls once the
+     * queue goes quiet, prefetch pollers are added while receives come back full, and receives back
+     * off with jitter when requests are throttled.
+     */
+    @Builder.Default private boolean adaptivePolling = false;
+
+    /**
+     * The number of consecutive empty receives after which short polls are replaced by long polls.
+     * Only used with adaptive polling.
+     */
+    @Builder.Default private int emptyReceivesBeforeLongPoll = 3;
+
+    /** The wait time in seconds of the long polls used on quiet queues with adaptive polling. */
+    @Builder.Default private int longPollWaitTimeSeconds = 20;
+
+    /**
+     * The maximum number of prefetch pollers with adaptive polling or autoscaling. With adaptive
+     * polling, pollers are added while receives come back full, and removed down to {@link
+     * #prefetchPollers}, or the number set by an autoscaler, when receives come back empty. A value
+     * of 0 keeps the number of pollers fixed.
+     */
+    @Builder.Default private int maxPrefetchPollers = 0;
+
+    /** The maximum backoff in milliseconds after throttled receives with adaptive polling. */
+    @Builder.Default private long maxThrottleBackoffMillis = 20_000;
+
+    /**
+     * The names of the message attributes requested on receive, in addition to the attributes that
+     * this library sets itself. The name {@code All} requests every message attribute.
+     */
+    @Builder.Default private List<String> messageAttributeNames = List.of();
+
+    /**
+     * The names of the system attributes requested on receive, such as {@code SenderId} or {@code
+     * ApproximateFirstReceiveTimestamp}. {@code SentTimestamp}, {@code MessageGroupId} and {@code
+     * ApproximateReceiveCount} are always requested.
+     */
+    @Builder.Default private List<String> systemAttributeNames = List.of();
+
+    /**
+     * Whether receives carry a receive request attempt id, which FIFO queues use to deduplicate
+     * receives. The attempt id of a receive that fails with a retriable error is reused by the next
+     * receive, so that the retry returns the messages locked by the failed receive instead of
+     * leaving them invisible until their visibility timeout expires. Only FIFO queues accept it.
+     */
+    @Builder.Default private boolean receiveRequestAttemptIds = false;
+  }
+
+  @Builder
+  @Getter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  public static class HttpConfig {
+    /**
+     * Whether the SQS client is shared with all other producers and consumers that use the same
+     * region, endpoint, credentials provider and HTTP configuration. A shared client is closed once
+     * the last producer or consumer using it is closed.
+     */
+    @Builder.Default private boolean shared = true;
+
+    /** The HTTP client implementation. */
+    @Builder.Default private ClientType clientType = ClientType.NETTY;
+
+    /** The maximum number of concurrent requests, and therefore open connections. */
+    @Builder.Default private int maxConcurrency = 50;
+
+    /**
+     * The maximum time in milliseconds a connection is kept open before it is closed and replaced.
+     * A value of 0 keeps connections open indefinitely. Only applies to the Netty client.
+     */
+    @Builder.Default private long connectionTimeToLiveMillis = 0;
+
+    /** The maximum time in milliseconds an idle connection is kept open. */
+    @Builder.Default private long connectionMaxIdleTimeMillis = 60_000;
+
+    /** Whether TCP keep-alive is enabled on connections. Only applies to the Netty client. */
+    @Builder.Default private boolean tcpKeepAlive = false;
+
+    /** HTTP client implementations. */
+    public enum ClientType {
+      /** The Netty based client of the AWS SDK. */
+      NETTY,
+      /** The AWS Common Runtime based client. Requires aws-crt-client on the classpath. */
+      CRT
+    }
   }
 }
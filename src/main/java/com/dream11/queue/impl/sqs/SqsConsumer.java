@@ -1,22 +1,31 @@
 package com.dream11.queue.impl.sqs;
 
+import com.dream11.queue.config.HeartbeatConfig;
 import com.dream11.queue.consumer.MessageConsumer;
+import com.dream11.queue.consumer.QueueDepth;
+import com.dream11.queue.metrics.QueueMetrics;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
 
 /**
  * Implementation of MessageConsumer for Amazon SQS. This consumer handles receiving and
- * acknowledging messages from an SQS queue.
+ * acknowledging messages from an SQS queue. When the local lane is enabled, the consumer also
+ * receives the messages that producers of the queue in the same JVM hand over in memory through an
+ * {@link SqsLocalLane}.
  */
 @Slf4j
 public class SqsConsumer implements MessageConsumer<Message> {
@@ -25,13 +34,40 @@ public class SqsConsumer implements MessageConsumer<Message> {
   @Getter private final SqsConfig sqsConfig;
 
   /**
-   * A map to store scheduled futures for heartbeats. The key is the message ID, and the value is
-   * the ScheduledFuture.
+   * A map to store scheduled heartbeats. The key is the message ID, and the value is the handle of
+   * the heartbeats of the message.
    */
-  private final Map<String, ScheduledFuture<?>> heartbeatFutures = new ConcurrentHashMap<>();
+  private final Map<String, SqsHeartbeatWheel.Heartbeat> heartbeats = new ConcurrentHashMap<>();
 
   private final ScheduledExecutorService executorService;
 
+  /** The timer wheel that sends heartbeats, or null if heartbeats are disabled. */
+  private final SqsHeartbeatWheel heartbeatWheel;
+
+  /** The chooser of visibility timeouts, or null if adaptive visibility is disabled. */
+  private final SqsAdaptiveVisibility adaptiveVisibility;
+
+  /** The batcher used to acknowledge messages, or null if batching is disabled. */
+  private final SqsDeleteBatcher deleteBatcher;
+
+  /** The adapter of polling to the queue traffic, or null if adaptive polling is disabled. */
+  private final SqsAdaptivePolling adaptivePolling;
+
+  /** The prefetcher used to receive messages, or null if prefetching is disabled. */
+  private final SqsPrefetcher prefetcher;
+
+  /** The retriever of offloaded message bodies, or null if no blob store is configured. */
+  private final SqsClaimCheck claimCheck;
+
+  /** The in-memory lane of the queue, or null if the local lane is disabled. */
+  private final SqsLocalLane localLane;
+
+  /** Messages received from SQS while a receive returned messages of the local lane. */
+  private final Queue<Message> carriedOver = new ConcurrentLinkedQueue<>();
+
+  /** Callbacks that remove the gauges registered by this consumer. */
+  private final List<Runnable> gaugeRegistrations;
+
   /**
    * Constructs a new SqsConsumer with the given configuration. Creates a new SQS client using the
    * provided configuration.
@@ -39,11 +75,7 @@ public class SqsConsumer implements MessageConsumer<Message> {
    * @param sqsConfig The SQS configuration.
    */
   public SqsConsumer(SqsConfig sqsConfig) {
-    this.sqsClient = new SqsClient(sqsConfig);
-    this.sqsConfig = sqsConfig;
-    this.executorService =
-        Executors.newScheduledThreadPool(
-            sqsConfig.getHeartbeatConfig().getExecutorThreadPoolSize());
+    this(sqsConfig, new SqsClient(sqsConfig));
   }
 
   /**
@@ -54,11 +86,68 @@ public class SqsConsumer implements MessageConsumer<Message> {
    * @param sqsAsyncClient The SQS async client.
    */
   public SqsConsumer(SqsConfig sqsConfig, SqsAsyncClient sqsAsyncClient) {
-    this.sqsClient = new SqsClient(sqsConfig, sqsAsyncClient);
+    this(sqsConfig, new SqsClient(sqsConfig, sqsAsyncClient));
+  }
+
+  private SqsConsumer(SqsConfig sqsConfig, SqsClient sqsClient) {
+    this.sqsClient = sqsClient;
     this.sqsConfig = sqsConfig;
     this.executorService =
         Executors.newScheduledThreadPool(
             sqsConfig.getHeartbeatConfig().getExecutorThreadPoolSize());
+    HeartbeatConfig heartbeatConfig = sqsConfig.getHeartbeatConfig();
+    this.adaptiveVisibility =
+        heartbeatConfig.getAdaptive() ? new SqsAdaptiveVisibility(heartbeatConfig) : null;
+    this.localLane =
+        sqsConfig.getLocalLaneConfig().isEnabled()
+            ? SqsLocalLane.register(sqsConfig, sqsClient)
+            : null;
+    this.heartbeatWheel =
+        heartbeatConfig.getHeartbeatInterval() > 0 || this.adaptiveVisibility != null
+            ? new SqsHeartbeatWheel(
+                sqsClient,
+                this.executorService,
+                sqsConfig.getMetrics(),
+                sqsConfig.getQueueUrl(),
+                heartbeat -> this.heartbeats.remove(heartbeat.message().messageId(), heartbeat),
+                this.localLane)
+            : null;
+    this.deleteBatcher =
+        sqsConfig.getAckBatchConfig().isEnabled()
+            ? new SqsDeleteBatcher(sqsClient, sqsConfig.getAckBatchConfig(), this.executorService)
+            : null;
+    this.adaptivePolling =
+        sqsConfig.getReceiveConfig().isAdaptivePolling()
+            ? new SqsAdaptivePolling(sqsConfig.getReceiveConfig())
+            : null;
+    this.prefetcher =
+        sqsConfig.getReceiveConfig().getPrefetchPollers() > 0
+            ? new SqsPrefetcher(sqsClient, sqsConfig.getReceiveConfig(), this.adaptivePolling)
+            : null;
+    this.claimCheck =
+        sqsConfig.getClaimCheckConfig().isEnabled()
+            ? new SqsClaimCheck(sqsConfig.getClaimCheckConfig())
+            : null;
+    this.gaugeRegistrations = new ArrayList<>();
+    if (this.heartbeatWheel != null) {
+      this.gaugeRegistrations.add(
+          sqsConfig
+              .getMetrics()
+              .registerGauge(
+                  sqsConfig.getQueueUrl(), QueueMetrics.Gauge.IN_FLIGHT, this.heartbeats::size));
+    }
+    if (this.prefetcher != null) {
+      this.gaugeRegistrations.add(
+          sqsConfig
+              .getMetrics()
+              .registerGauge(
+                  sqsConfig.getQueueUrl(), QueueMetrics.Gauge.PREFETCHED, this.prefetcher::size));
+      this.gaugeRegistrations.add(
+          sqsConfig
+              .getMetrics()
+              .registerGauge(
+                  sqsConfig.getQueueUrl(), QueueMetrics.Gauge.POLLERS, this.prefetcher::pollers));
+    }
   }
 
   /**
@@ -74,42 +163,181 @@ public class SqsConsumer implements MessageConsumer<Message> {
 
   /**
    * Receives a list of messages asynchronously with a specified timeout. The number of messages
-   * received is determined by the configuration.
+   * received is determined by the configuration. When prefetching is enabled, messages are taken
+   * from the prefetch buffer and the timeout only applies while the buffer is empty. When adaptive
+   * visibility is enabled, the visibility timeout of the received messages is chosen from the
+   * observed processing times. When adaptive polling is enabled, short polls are replaced by long
+   * polls once the queue is quiet, and throttled receives fail only after a backoff with jitter.
+   * Bodies that were compressed by the producer are decompressed, and bodies that were offloaded to
+   * the blob store are fetched. Messages whose body cannot be fetched are left out and become
+   * visible again once their visibility timeout expires. When the local lane is enabled, messages
+   * waiting in the lane are returned right away, and a message that arrives in the lane while SQS
+   * is polled is returned without waiting for the poll. When heartbeats are enabled, the deadline
+   * of messages of the lane is extended every half deadline.
    *
    * @param timeout The timeout in seconds to wait for messages.
    * @return A CompletableFuture containing a list of received messages.
    */
   @Override
   public CompletableFuture<List<Message>> receive(int timeout) {
-    return this.sqsClient
-        .receive(timeout)
-        .thenApply(
-            messages -> {
-              if (this.getSqsConfig().getHeartbeatConfig().getHeartbeatInterval() > 0) {
-                this.sendHeartbeats(messages);
+    return this.receive(timeout, true);
+  }
+
+  /**
+   * Receives a list of messages asynchronously with a specified timeout, optionally without
+   * restoring their original bodies. Unresolved messages can be restored later using {@link
+   * #resolve(Message)}.
+   *
+   * @param timeout The timeout in seconds to wait for messages.
+   * @param resolve Whether the original bodies of the messages are restored.
+   * @return A CompletableFuture containing a list of received messages.
+   */
+  CompletableFuture<List<Message>> receive(int timeout, boolean resolve) {
+    if (this.localLane != null) {
+      return this.receiveWithLocalLane(timeout, resolve);
+    }
+    return this.receiveRemote(timeout, resolve);
+  }
+
+  private CompletableFuture<List<Message>> receiveWithLocalLane(int timeout, boolean resolve) {
+    int maxMessages = this.sqsConfig.getReceiveConfig().getMaxMessages();
+    List<Message> messages = new ArrayList<>();
+    Message carried;
+    while (messages.size() < maxMessages && (carried = this.carriedOver.poll()) != null) {
+      messages.add(carried);
+    }
+    List<Message> polled = this.localLane.poll(maxMessages - messages.size());
+    this.sendLocalHeartbeats(polled);
+    messages.addAll(polled);
+    if (!messages.isEmpty()) {
+      return CompletableFuture.completedFuture(messages);
+    }
+    CompletableFuture<List<Message>> result = new CompletableFuture<>();
+    CompletableFuture<List<Message>> local = this.localLane.await();
+    local.thenAccept(
+        localMessages -> {
+          if (!localMessages.isEmpty()) {
+            this.sendLocalHeartbeats(localMessages);
+            result.complete(localMessages);
+          }
+        });
+    this.receiveRemote(timeout, resolve)
+        .whenComplete(
+            (remoteMessages, throwable) -> {
+              // Stops waiting for the lane, and keeps the messages that it handed over meanwhile
+              local.complete(List.of());
+              this.localLane.cancel(local);
+              List<Message> handedOver = local.join();
+              if (throwable != null) {
+                if (handedOver.isEmpty()) {
+                  result.completeExceptionally(throwable);
+                } else {
+                  result.complete(handedOver);
+                }
+                return;
+              }
+              List<Message> received = new ArrayList<>(handedOver);
+              received.addAll(remoteMessages);
+              if (!result.complete(received)) {
+                this.carriedOver.addAll(remoteMessages);
               }
-              return messages;
             });
+    return result;
+  }
+
+  private CompletableFuture<List<Message>> receiveRemote(int timeout, boolean resolve) {
+    Integer visibilityTimeout =
+        this.adaptiveVisibility != null
+            ? Integer.valueOf(this.adaptiveVisibility.visibilityTimeout())
+            : this.sqsConfig.getReceiveConfig().getVisibilityTimeout();
+    // The times at which the visibility of prefetched messages expires, keyed by message ID
+    Map<String, Long> visibleAt = new ConcurrentHashMap<>();
+    CompletableFuture<List<Message>> receiveFuture;
+    if (this.prefetcher != null) {
+      receiveFuture =
+          this.prefetcher
+              .take(this.sqsConfig.getReceiveConfig().getMaxMessages(), timeout)
+              .thenApply(
+                  prefetched -> {
+                    List<Message> messages = new ArrayList<>(prefetched.size());
+                    prefetched.forEach(
+                        message -> {
+                          messages.add(message.getMessage());
+                          visibleAt.put(message.getMessage().messageId(), message.getVisibleAt());
+                        });
+                    return messages;
+                  });
+    } else if (this.adaptivePolling != null) {
+      receiveFuture =
+          this.adaptivePolling.observe(
+              this.sqsClient.receive(
+                  this.adaptivePolling.waitTimeSeconds(timeout), visibilityTimeout));
+    } else {
+      receiveFuture = this.sqsClient.receive(timeout, visibilityTimeout);
+    }
+    if (resolve) {
+      receiveFuture = receiveFuture.thenCompose(this::resolve);
+    }
+    return receiveFuture.thenApply(
+        messages -> {
+          if (this.heartbeatWheel != null) {
+            this.sendHeartbeats(messages, visibilityTimeout, visibleAt);
+          }
+          return messages;
+        });
+  }
+
+  /**
+   * Restores the original body of a message received without resolving it, by fetching it from the
+   * blob store and decompressing it as needed. Blocks while the body is fetched.
+   *
+   * @param message The received message.
+   * @return The message with its original body.
+   * @throws java.util.concurrent.CompletionException if the body could not be fetched.
+   */
+  Message resolve(Message message) {
+    return this.retrieve(message).thenApply(SqsCompressor::decompress).join();
   }
 
   /**
    * Acknowledges a message by deleting it from the SQS queue. This indicates that the message has
-   * been successfully processed.
+   * been successfully processed. When ack batching is enabled, the deletion is sent as part of a
+   * DeleteMessageBatch request. Heartbeats for the message are stopped only once it is deleted. The
+   * offloaded body of the message, if any, is deleted from the blob store afterwards.
    *
    * @param message The message to acknowledge.
    * @return A CompletableFuture that completes when the message is deleted.
    */
   @Override
   public CompletableFuture<Void> acknowledgeMessage(Message message) {
-    return this.sqsClient
-        .deleteMessage(message)
-        .thenAccept(
-            v -> {
-              ScheduledFuture<?> future = this.heartbeatFutures.remove(message.messageId());
-              if (future != null) {
-                future.cancel(true);
-              }
-            });
+    if (this.localLane != null && SqsLocalLane.isLocal(message)) {
+      this.localLane.acknowledge(message);
+      this.stopHeartbeats(message);
+      return CompletableFuture.completedFuture(null);
+    }
+    CompletableFuture<Void> deleteFuture =
+        this.deleteBatcher != null
+            ? this.deleteBatcher.add(message)
+            : this.sqsClient.deleteMessage(message);
+    return deleteFuture.thenAccept(
+        v -> {
+          SqsHeartbeatWheel.Heartbeat heartbeat = this.heartbeats.remove(message.messageId());
+          if (heartbeat != null) {
+            heartbeat.cancel();
+            if (this.adaptiveVisibility != null) {
+              this.adaptiveVisibility.record(heartbeat.elapsedMillis());
+            }
+          }
+          if (this.claimCheck != null) {
+            this.claimCheck
+                .delete(message)
+                .exceptionally(
+                    e -> {
+                      log.warn("Failed to delete payload of message: {}", message.messageId(), e);
+                      return null;
+                    });
+          }
+        });
   }
 
   /**
@@ -120,36 +348,227 @@ public class SqsConsumer implements MessageConsumer<Message> {
    */
   @Override
   public CompletableFuture<Void> sendHeartbeat(Message message) {
-    return this.sqsClient.changeMessageVisibility(
-        message, this.getSqsConfig().getHeartbeatConfig().getHeartbeatInterval() * 2);
+    if (this.localLane != null && SqsLocalLane.isLocal(message)) {
+      this.localLane.extend(message);
+      return CompletableFuture.completedFuture(null);
+    }
+    int visibilityTimeout =
+        this.adaptiveVisibility != null
+            ? this.adaptiveVisibility.visibilityTimeout()
+            : this.getSqsConfig().getHeartbeatConfig().getHeartbeatInterval() * 2;
+    this.sqsConfig.getMetrics().recordHeartbeats(this.sqsConfig.getQueueUrl(), 1);
+    return this.sqsClient.changeMessageVisibility(message, visibilityTimeout);
+  }
+
+  /**
+   * Returns the approximate number of times the given message has been received, as reported by
+   * SQS.
+   *
+   * @param message The received message.
+   * @return The receive count of the message, or 1 if SQS did not report it.
+   */
+  @Override
+  public int getReceiveCount(Message message) {
+    String receiveCount =
+        message.attributes().get(MessageSystemAttributeName.APPROXIMATE_RECEIVE_COUNT);
+    return receiveCount != null ? Integer.parseInt(receiveCount) : 1;
   }
 
   /**
-   * Closes the SQS consumer, releasing any resources. This method should be called when the
+   * Releases a message by changing its visibility timeout to the given delay, after stopping its
+   * heartbeats.
+   *
+   * @param message The message to release.
+   * @param delaySeconds The delay in seconds before the message is delivered again.
+   * @return A CompletableFuture that completes when the visibility timeout is changed.
+   */
+  @Override
+  public CompletableFuture<Void> releaseMessage(Message message, int delaySeconds) {
+    this.stopHeartbeats(message);
+    if (this.localLane != null && SqsLocalLane.isLocal(message)) {
+      this.localLane.release(message, delaySeconds);
+      return CompletableFuture.completedFuture(null);
+    }
+    return this.sqsClient.changeMessageVisibility(message, delaySeconds);
+  }
+
+  /**
+   * Returns the approximate depth of the queue, as reported by the ApproximateNumberOfMessages and
+   * ApproximateNumberOfMessagesNotVisible attributes of the queue, including the messages of the
+   * local lane if it is enabled.
+   *
+   * @return A CompletableFuture containing the depth of the queue.
+   */
+  @Override
+  public CompletableFuture<QueueDepth> getQueueDepth() {
+    return this.sqsClient
+        .getQueueAttributes(
+            QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES,
+            QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES_NOT_VISIBLE)
+        .thenApply(
+            attributes -> {
+              long visible =
+                  Long.parseLong(
+                      attributes.getOrDefault(
+                          QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES, "0"));
+              long inFlight =
+                  Long.parseLong(
+                      attributes.getOrDefault(
+                          QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES_NOT_VISIBLE, "0"));
+              if (this.localLane != null) {
+                visible += this.localLane.size();
+                inFlight += this.localLane.inFlight();
+              }
+              return new QueueDepth(visible, inFlight);
+            });
+  }
+
+  /**
+   * Sets the number of prefetch pollers, up to the larger of the configured number of prefetch
+   * pollers and the maximum number of prefetch pollers. Has no effect if prefetching is disabled.
+   *
+   * @param pollers The number of prefetch pollers.
+   */
+  @Override
+  public void setPollers(int pollers) {
+    if (this.prefetcher != null) {
+      this.prefetcher.setPollers(pollers);
+    }
+  }
+
+  /**
+   * Returns the message group id of a message received from a FIFO queue. Can be used as the group
+   * key of a {@link com.dream11.queue.consumer.MessageListenerContainer}, so that messages of
+   * different groups are processed in parallel while messages of a group stay in order.
+   *
+   * @param message The received message.
+   * @return The message group id, or null if the message was not received from a FIFO queue.
+   */
+  public static String messageGroupId(Message message) {
+    return message.attributes().get(MessageSystemAttributeName.MESSAGE_GROUP_ID);
+  }
+
+  /**
+   * Closes the SQS consumer, releasing any resources. If this is the last consumer of a local lane,
+   * the messages left in the lane are sent to SQS first. This method should be called when the
    * consumer is no longer needed.
    */
   @Override
   public void close() {
-    this.heartbeatFutures.values().forEach(future -> future.cancel(true));
+    if (this.localLane != null) {
+      this.localLane.deregister(this.sqsClient);
+    }
+    if (this.prefetcher != null) {
+      this.prefetcher.close();
+    }
+    if (this.deleteBatcher != null) {
+      this.deleteBatcher.close();
+    }
+    if (this.heartbeatWheel != null) {
+      this.heartbeatWheel.stop();
+    }
+    this.heartbeats.clear();
+    this.gaugeRegistrations.forEach(Runnable::run);
     this.executorService.shutdown();
     this.sqsClient.close();
   }
 
-  private void sendHeartbeats(List<Message> messages) {
+  private CompletableFuture<List<Message>> resolve(List<Message> messages) {
+    if (messages.stream().noneMatch(SqsConsumer::isClaimCheck)) {
+      List<Message> resolved = new ArrayList<>(messages.size());
+      messages.forEach(message -> resolved.add(SqsCompressor.decompress(message)));
+      return CompletableFuture.completedFuture(resolved);
+    }
+    List<CompletableFuture<Message>> futures = new ArrayList<>(messages.size());
     messages.forEach(
         message ->
-            this.heartbeatFutures.put(
+            futures.add(
+                this.retrieve(message)
+                    .thenApply(SqsCompressor::decompress)
+                    .exceptionally(
+                        e -> {
+                          log.error(
+                              "Failed to fetch payload of message: {}", message.messageId(), e);
+                          return null;
+                        })));
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        .thenApply(
+            v -> {
+              List<Message> resolved = new ArrayList<>(futures.size());
+              futures.forEach(
+                  future -> {
+                    Message message = future.join();
+                    if (message != null) {
+                      resolved.add(message);
+                    }
+                  });
+              return resolved;
+            });
+  }
+
+  private CompletableFuture<Message> retrieve(Message message) {
+    if (!isClaimCheck(message)) {
+      return CompletableFuture.completedFuture(message);
+    }
+    if (this.claimCheck == null) {
+      return CompletableFuture.failedFuture(
+          new IllegalStateException("Claim check is not enabled to fetch offloaded payload"));
+    }
+    return this.claimCheck.retrieve(message);
+  }
+
+  private static boolean isClaimCheck(Message message) {
+    return SqsMessageAttributes.get(message, SqsMessageAttributes.CLAIM_CHECK) != null;
+  }
+
+  private void sendHeartbeats(
+      List<Message> messages, Integer visibilityTimeout, Map<String, Long> visibleAt) {
+    long intervalMillis;
+    int extension;
+    if (this.adaptiveVisibility != null) {
+      // Heartbeats start at half of the visibility timeout, so that messages processed within the
+      // chosen percentile never get a heartbeat
+      extension = visibilityTimeout;
+      intervalMillis = TimeUnit.SECONDS.toMillis(extension) / 2;
+    } else {
+      int heartbeatInterval = this.getSqsConfig().getHeartbeatConfig().getHeartbeatInterval();
+      extension = heartbeatInterval * 2;
+      intervalMillis = TimeUnit.SECONDS.toMillis(heartbeatInterval);
+    }
+    long now = System.currentTimeMillis();
+    messages.forEach(
+        message -> {
+          // A prefetched message has aged in the buffer with the visibility timeout it was received
+          // with, so its first heartbeat is due halfway through its remaining visibility if sooner
+          Long expiry = visibleAt.get(message.messageId());
+          long delayMillis =
+              expiry != null
+                  ? Math.min(intervalMillis, Math.max(0, expiry - now) / 2)
+                  : intervalMillis;
+          this.heartbeats.put(
+              message.messageId(),
+              this.heartbeatWheel.schedule(message, delayMillis, intervalMillis, extension));
+        });
+  }
+
+  /** Schedules heartbeats that extend the deadline of messages of the local lane. */
+  private void sendLocalHeartbeats(List<Message> messages) {
+    if (this.heartbeatWheel == null || messages.isEmpty()) {
+      return;
+    }
+    int deadline = this.sqsConfig.getLocalLaneConfig().getAckDeadlineSeconds();
+    long intervalMillis = TimeUnit.SECONDS.toMillis(deadline) / 2;
+    messages.forEach(
+        message ->
+            this.heartbeats.put(
                 message.messageId(),
-                this.executorService.scheduleAtFixedRate(
-                    () -> {
-                      try {
-                        this.sendHeartbeat(message);
-                      } catch (Exception e) {
-                        log.error("Failed to send heartbeat for message: {}", message, e);
-                      }
-                    },
-                    this.getSqsConfig().getHeartbeatConfig().getHeartbeatInterval(),
-                    this.getSqsConfig().getHeartbeatConfig().getHeartbeatInterval(),
-                    TimeUnit.SECONDS)));
+                this.heartbeatWheel.schedule(message, intervalMillis, deadline)));
+  }
+
+  private void stopHeartbeats(Message message) {
+    SqsHeartbeatWheel.Heartbeat heartbeat = this.heartbeats.remove(message.messageId());
+    if (heartbeat != null) {
+      heartbeat.cancel();
+    }
   }
 }
@@ -0,0 +1,48 @@
+package com.dream11.queue.impl.sqs;
+
+import com.dream11.queue.config.BatchConfig;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+/** Batcher that coalesces message deletions into DeleteMessageBatch requests. */
+class SqsDeleteBatcher extends SqsBatcher<Message> {
+  private final SqsClient sqsClient;
+
+  /**
+   * Constructs a new SqsDeleteBatcher.
+   *
+   * @param sqsClient The client used to send batch requests.
+   * @param batchConfig The batch configuration.
+   * @param scheduler The scheduler used to flush batches after the linger time.
+   */
+  SqsDeleteBatcher(
+      SqsClient sqsClient, BatchConfig batchConfig, ScheduledExecutorService scheduler) {
+    super(batchConfig, scheduler);
+    this.sqsClient = sqsClient;
+  }
+
+  @Override
+  protected int sizeOf(Message message) {
+    return message.receiptHandle().length();
+  }
+
+  @Override
+  protected CompletableFuture<Map<String, SqsBatchEntryException>> execute(
+      Map<String, Message> entries) {
+    return this.sqsClient
+        .deleteMessageBatch(
+            entries.entrySet().stream()
+                .map(
+                    entry ->
+                        DeleteMessageBatchRequestEntry.builder()
+                            .id(entry.getKey())
+                            .receiptHandle(entry.getValue().receiptHandle())
+                            .build())
+                .collect(Collectors.toList()))
+        .thenApply(response -> toFailures(response.failed()));
+  }
+}
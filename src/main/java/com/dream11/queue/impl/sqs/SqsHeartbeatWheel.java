@@ -0,0 +1,245 @@
+package com.dream11.queue.impl.sqs;
+
+import com.dream11.queue.metrics.QueueMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+/**
+ * Extends the visibility of in-flight messages using a single hashed timer wheel. Scheduling and
+ * cancelling a heartbeat are O(1) and do not touch the executor. On every tick, the heartbeats that
+ * are due are collected and sent as ChangeMessageVisibilityBatch requests in groups of 10.
+ *
+ * <p>The wheel is only mutated by the tick task. New heartbeats are handed over through a lock-free
+ * queue, and cancelled heartbeats are dropped when their bucket is next visited. Heartbeats that
+ * the wheel cancels itself, because the receipt handle of their message is no longer valid, are
+ * passed to a callback, so that their owner can forget them.
+ *
+ * <p>Messages received from a local lane are extended in the lane instead of in SQS. Their
+ * heartbeats are cancelled and passed to the callback as well once the lane no longer holds them,
+ * for example because they were sent to SQS after missing their deadline.
+ */
+@Slf4j
+class SqsHeartbeatWheel {
+  static final long TICK_MILLIS = 100;
+  private static final int WHEEL_SIZE = 512;
+  private static final int MAX_BATCH_SIZE = 10;
+  private static final String RECEIPT_HANDLE_IS_INVALID = "ReceiptHandleIsInvalid";
+
+  private final SqsClient sqsClient;
+  private final QueueMetrics metrics;
+  private final String queue;
+  private final Consumer<Heartbeat> onInvalid;
+
+  /** The lane that extends the messages received from it, or null if the lane is disabled. */
+  private final SqsLocalLane localLane;
+
+  private final Heartbeat[] buckets = new Heartbeat[WHEEL_SIZE];
+  private final Queue<Heartbeat> additions = new ConcurrentLinkedQueue<>();
+  private final ScheduledFuture<?> ticker;
+  private long tick = 0;
+
+  /**
+   * Constructs and starts a new SqsHeartbeatWheel.
+   *
+   * @param sqsClient The client used to extend message visibility.
+   * @param scheduler The scheduler that runs the tick task. It is not shut down by this wheel.
+   * @param metrics The metrics that sent heartbeats are reported to.
+   * @param queue The queue the heartbeats are reported for.
+   * @param onInvalid The callback of heartbeats cancelled because their receipt handle is invalid.
+   * @param localLane The lane that extends the messages received from it, or null if the local lane
+   *     is disabled.
+   */
+  SqsHeartbeatWheel(
+      SqsClient sqsClient,
+      ScheduledExecutorService scheduler,
+      QueueMetrics metrics,
+      String queue,
+      Consumer<Heartbeat> onInvalid,
+      SqsLocalLane localLane) {
+    this.sqsClient = sqsClient;
+    this.metrics = metrics;
+    this.queue = queue;
+    this.onInvalid = onInvalid;
+    this.localLane = localLane;
+    this.ticker =
+        scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Schedules periodic heartbeats for a message, starting one interval from now.
+   *
+   * @param message The message to extend.
+   * @param intervalMillis The interval in milliseconds between heartbeats of the message.
+   * @param visibilityTimeout The visibility timeout in seconds set by every heartbeat.
+   * @return A handle that cancels the heartbeats.
+   */
+  Heartbeat schedule(Message message, long intervalMillis, int visibilityTimeout) {
+    return this.schedule(message, intervalMillis, intervalMillis, visibilityTimeout);
+  }
+
+  /**
+   * Schedules periodic heartbeats for a message, starting after the given delay.
+   *
+   * @param message The message to extend.
+   * @param delayMillis The delay in milliseconds before the first heartbeat of the message.
+   * @param intervalMillis The interval in milliseconds between heartbeats of the message.
+   * @param visibilityTimeout The visibility timeout in seconds set by every heartbeat.
+   * @return A handle that cancels the heartbeats.
+   */
+  Heartbeat schedule(
+      Message message, long delayMillis, long intervalMillis, int visibilityTimeout) {
+    Heartbeat heartbeat =
+        new Heartbeat(message, Math.max(1, intervalMillis / TICK_MILLIS), visibilityTimeout);
+    heartbeat.delayTicks = Math.max(1, delayMillis / TICK_MILLIS);
+    this.additions.add(heartbeat);
+    return heartbeat;
+  }
+
+  /** Stops the tick task. Scheduled heartbeats are not sent anymore. */
+  void stop() {
+    this.ticker.cancel(false);
+  }
+
+  private void tick() {
+    try {
+      int index = (int) (this.tick & (WHEEL_SIZE - 1));
+      Heartbeat heartbeat = this.buckets[index];
+      this.buckets[index] = null;
+      List<Heartbeat> due = new ArrayList<>();
+      while (heartbeat != null) {
+        Heartbeat next = heartbeat.next;
+        heartbeat.next = null;
+        if (!heartbeat.cancelled) {
+          if (heartbeat.rounds > 0) {
+            heartbeat.rounds--;
+            heartbeat.next = this.buckets[index];
+            this.buckets[index] = heartbeat;
+          } else if (this.localLane != null && SqsLocalLane.isLocal(heartbeat.message)) {
+            this.extendLocal(heartbeat);
+          } else {
+            due.add(heartbeat);
+            this.place(heartbeat, heartbeat.intervalTicks);
+          }
+        }
+        heartbeat = next;
+      }
+      Heartbeat added;
+      while ((added = this.additions.poll()) != null) {
+        this.place(added, added.delayTicks);
+      }
+      if (!due.isEmpty()) {
+        this.metrics.recordHeartbeats(this.queue, due.size());
+      }
+      for (int i = 0; i < due.size(); i += MAX_BATCH_SIZE) {
+        this.extend(due.subList(i, Math.min(i + MAX_BATCH_SIZE, due.size())));
+      }
+    } catch (Exception e) {
+      log.error("Failed to process heartbeat tick", e);
+    } finally {
+      this.tick++;
+    }
+  }
+
+  private void place(Heartbeat heartbeat, long ticks) {
+    int index = (int) ((this.tick + ticks) & (WHEEL_SIZE - 1));
+    heartbeat.rounds = (ticks - 1) / WHEEL_SIZE;
+    heartbeat.next = this.buckets[index];
+    this.buckets[index] = heartbeat;
+  }
+
+  private void extendLocal(Heartbeat heartbeat) {
+    if (this.localLane.extend(heartbeat.message)) {
+      this.place(heartbeat, heartbeat.intervalTicks);
+    } else {
+      heartbeat.cancel();
+      this.onInvalid.accept(heartbeat);
+    }
+  }
+
+  private void extend(List<Heartbeat> batch) {
+    List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      entries.add(
+          ChangeMessageVisibilityBatchRequestEntry.builder()
+              .id(Integer.toString(i))
+              .receiptHandle(batch.get(i).message.receiptHandle())
+              .visibilityTimeout(batch.get(i).visibilityTimeout)
+              .build());
+    }
+    List<Heartbeat> heartbeats = new ArrayList<>(batch);
+    this.sqsClient
+        .changeMessageVisibilityBatch(entries)
+        .whenComplete(
+            (response, throwable) -> {
+              if (throwable != null) {
+                log.error(
+                    "Failed to send heartbeats for {} messages", heartbeats.size(), throwable);
+                return;
+              }
+              response
+                  .failed()
+                  .forEach(
+                      failure -> {
+                        Heartbeat heartbeat = heartbeats.get(Integer.parseInt(failure.id()));
+                        log.error(
+                            "Failed to send heartbeat for message: {}, {}",
+                            heartbeat.message.messageId(),
+                            failure.message());
+                        if (RECEIPT_HANDLE_IS_INVALID.equals(failure.code())) {
+                          heartbeat.cancel();
+                          this.onInvalid.accept(heartbeat);
+                        }
+                      });
+            });
+  }
+
+  /** Handle of the periodic heartbeats of a single message. */
+  static final class Heartbeat {
+    private final Message message;
+    private final long intervalTicks;
+    private final int visibilityTimeout;
+    private final long scheduledAt = System.nanoTime();
+    private volatile boolean cancelled = false;
+    private long delayTicks;
+    private long rounds;
+    private Heartbeat next;
+
+    private Heartbeat(Message message, long intervalTicks, int visibilityTimeout) {
+      this.message = message;
+      this.intervalTicks = intervalTicks;
+      this.visibilityTimeout = visibilityTimeout;
+    }
+
+    /**
+     * Returns the message that the heartbeats extend.
+     *
+     * @return The message.
+     */
+    Message message() {
+      return this.message;
+    }
+
+    /** Stops the heartbeats of the message. */
+    void cancel() {
+      this.cancelled = true;
+    }
+
+    /**
+     * Returns the time elapsed since the heartbeats were scheduled.
+     *
+     * @return The elapsed time in milliseconds.
+     */
+    long elapsedMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.scheduledAt);
+    }
+  }
+}
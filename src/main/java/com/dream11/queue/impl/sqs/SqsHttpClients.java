@@ -0,0 +1,42 @@
+package com.dream11.queue.impl.sqs;
+
+import java.time.Duration;
+import lombok.experimental.UtilityClass;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+
+/** Creates the HTTP clients used by SQS clients from an {@link SqsConfig.HttpConfig}. */
+@UtilityClass
+class SqsHttpClients {
+
+  /**
+   * Creates a builder of the HTTP client described by the given configuration.
+   *
+   * @param httpConfig The HTTP configuration.
+   * @return The builder of the HTTP client.
+   */
+  SdkAsyncHttpClient.Builder<?> builder(SqsConfig.HttpConfig httpConfig) {
+    if (httpConfig.getClientType() == SqsConfig.HttpConfig.ClientType.CRT) {
+      return Crt.builder(httpConfig);
+    }
+    NettyNioAsyncHttpClient.Builder builder =
+        NettyNioAsyncHttpClient.builder()
+            .maxConcurrency(httpConfig.getMaxConcurrency())
+            .connectionMaxIdleTime(Duration.ofMillis(httpConfig.getConnectionMaxIdleTimeMillis()))
+            .tcpKeepAlive(httpConfig.isTcpKeepAlive());
+    if (httpConfig.getConnectionTimeToLiveMillis() > 0) {
+      builder.connectionTimeToLive(Duration.ofMillis(httpConfig.getConnectionTimeToLiveMillis()));
+    }
+    return builder;
+  }
+
+  /** Kept apart so that the optional aws-crt-client is only loaded when it is configured. */
+  private static class Crt {
+    static SdkAsyncHttpClient.Builder<?> builder(SqsConfig.HttpConfig httpConfig) {
+      return AwsCrtAsyncHttpClient.builder()
+          .maxConcurrency(httpConfig.getMaxConcurrency())
+          .connectionMaxIdleTime(Duration.ofMillis(httpConfig.getConnectionMaxIdleTimeMillis()));
+    }
+  }
+}
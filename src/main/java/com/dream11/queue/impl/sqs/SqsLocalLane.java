@@ -0,0 +1,477 @@
+package com.dream11.queue.impl.sqs;
+
+import com.dream11.queue.config.LocalLaneConfig;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+
+/**
+ * In-memory lane between the producers and consumers of an SQS queue in the same JVM. The first
+ * consumer of a queue with the local lane enabled creates its lane, and producers of the queue look
+ * the lane up on every send. A message that a producer puts into the lane is handed to a waiting
+ * receive right away, or held in a bounded lock-free ring until a consumer receives it. Received
+ * messages carry a local receipt handle, so that their acknowledgement, heartbeats and release stay
+ * in memory as well.
+ *
+ * <p>SQS is written to only as a fallback: producers send to SQS while the ring is full or the body
+ * is above the SQS size limit, and messages that are not received or acknowledged within the
+ * deadline are sent to SQS by a sweep that runs every second. When the last consumer of the lane
+ * closes, the lane is removed and the messages left in it are sent to SQS. Fallback sends go
+ * through the sender of the producer that put the message into the lane, so that they are
+ * compressed, offloaded, limited and spilled like its other sends, and with the client of a
+ * consumer of the lane once that producer is closed. Fallback sends that fail with a retriable
+ * error are retried every second, even after the lane is removed.
+ */
+@Slf4j
+class SqsLocalLane {
+  /** The prefix of the receipt handles of messages received from a local lane. */
+  static final String RECEIPT_HANDLE_PREFIX = "local:";
+
+  /** The largest body in bytes that SQS accepts, and the lane holds. */
+  static final int MAX_BODY_BYTES = 262_144;
+
+  private static final long RETRY_DELAY_MILLIS = 1000;
+  private static final Map<String, SqsLocalLane> LANES = new ConcurrentHashMap<>();
+  private static final ScheduledExecutorService SCHEDULER =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "sqs-local-lane");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final String queueUrl;
+  private final int capacity;
+  private final long deadlineNanos;
+
+  /** The messages waiting to be received. Bounded by the capacity through its size counter. */
+  private final Deque<Entry> ring = new ConcurrentLinkedDeque<>();
+
+  private final AtomicInteger size = new AtomicInteger();
+  private final Queue<CompletableFuture<List<Message>>> waiters = new ConcurrentLinkedQueue<>();
+
+  /** The received and released messages, keyed by their receipt handle. */
+  private final Map<String, Entry> inFlight = new ConcurrentHashMap<>();
+
+  /** The clients of the consumers of the lane, which fallback sends are made with. */
+  private final List<SqsClient> clients = new CopyOnWriteArrayList<>();
+
+  private final ScheduledFuture<?> sweep;
+  private volatile boolean closed;
+
+  private SqsLocalLane(String queueUrl, LocalLaneConfig config) {
+    this.queueUrl = queueUrl;
+    this.capacity = config.getCapacity();
+    this.deadlineNanos = TimeUnit.SECONDS.toNanos(config.getAckDeadlineSeconds());
+    this.sweep = SCHEDULER.scheduleWithFixedDelay(this::sweep, 1, 1, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Registers a consumer with the lane of its queue, creating the lane if the queue has none.
+   *
+   * @param sqsConfig The configuration of the consumer.
+   * @param sqsClient The client of the consumer, used for fallback sends.
+   * @return The lane of the queue.
+   */
+  static SqsLocalLane register(SqsConfig sqsConfig, SqsClient sqsClient) {
+    synchronized (LANES) {
+      SqsLocalLane lane =
+          LANES.computeIfAbsent(
+              sqsConfig.getQueueUrl(),
+              queueUrl -> new SqsLocalLane(queueUrl, sqsConfig.getLocalLaneConfig()));
+      lane.clients.add(sqsClient);
+      return lane;
+    }
+  }
+
+  /**
+   * Returns the lane of a queue, if a consumer of the queue has registered one.
+   *
+   * @param queueUrl The URL of the queue.
+   * @return The lane of the queue, or null if it has no local consumer.
+   */
+  static SqsLocalLane find(String queueUrl) {
+    return LANES.get(queueUrl);
+  }
+
+  /**
+   * Returns whether a message was received from a local lane.
+   *
+   * @param message The received message.
+   * @return Whether the message has a local receipt handle.
+   */
+  static boolean isLocal(Message message) {
+    return message.receiptHandle() != null
+        && message.receiptHandle().startsWith(RECEIPT_HANDLE_PREFIX);
+  }
+
+  /**
+   * Deregisters a consumer from the lane. When the last consumer is deregistered, the lane is
+   * removed and the messages left in it are sent to SQS, waiting up to the deadline for the sends.
+   *
+   * @param sqsClient The client of the consumer.
+   */
+  void deregister(SqsClient sqsClient) {
+    synchronized (LANES) {
+      if (this.clients.size() > 1 || !this.clients.contains(sqsClient)) {
+        this.clients.remove(sqsClient);
+        return;
+      }
+      LANES.remove(this.queueUrl, this);
+      this.closed = true;
+    }
+    this.sweep.cancel(false);
+    List<CompletableFuture<Void>> sends = new ArrayList<>();
+    Entry entry;
+    while ((entry = this.pollRing()) != null) {
+      sends.add(this.fallback(sqsClient, entry));
+    }
+    this.inFlight.values().forEach(message -> sends.add(this.fallback(sqsClient, message)));
+    this.inFlight.clear();
+    this.waiters.forEach(waiter -> waiter.complete(List.of()));
+    try {
+      CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+          .get(this.deadlineNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.warn("Failed to send {} local messages to queue {}", sends.size(), this.queueUrl, e);
+    } finally {
+      this.clients.remove(sqsClient);
+    }
+  }
+
+  /**
+   * Puts a message into the lane, unless the ring is full, the body is above the SQS size limit, or
+   * the lane is removed.
+   *
+   * @param body The body of the message.
+   * @param sender The sender of the producer, which sends the message to SQS if it is not received
+   *     or acknowledged in time.
+   * @return Whether the message was put into the lane; if not, it must be sent to SQS.
+   */
+  boolean offer(String body, Function<String, CompletableFuture<Void>> sender) {
+    if (body.length() > MAX_BODY_BYTES / 3
+        && body.getBytes(StandardCharsets.UTF_8).length > MAX_BODY_BYTES) {
+      // A UTF-8 encoded character takes at most 3 bytes, so shorter bodies are below the limit
+      return false;
+    }
+    if (this.closed || !this.reserve()) {
+      return false;
+    }
+    Entry entry =
+        new Entry(UUID.randomUUID().toString(), body, System.currentTimeMillis(), sender);
+    entry.enqueuedNanos = System.nanoTime();
+    this.ring.addLast(entry);
+    if (this.closed && this.ring.removeFirstOccurrence(entry)) {
+      this.size.decrementAndGet();
+      return false;
+    }
+    this.drainToWaiters();
+    return true;
+  }
+
+  /**
+   * Detaches the messages of a closed producer from its sender, so that they are sent to SQS with
+   * the client of a consumer instead.
+   *
+   * @param sender The sender of the producer.
+   */
+  void detach(Function<String, CompletableFuture<Void>> sender) {
+    this.ring.forEach(entry -> entry.detach(sender));
+    this.inFlight.values().forEach(entry -> entry.detach(sender));
+  }
+
+  /**
+   * Receives up to the given number of messages from the ring, without waiting.
+   *
+   * @param maxMessages The maximum number of messages.
+   * @return The received messages, which may be empty.
+   */
+  List<Message> poll(int maxMessages) {
+    List<Message> messages = new ArrayList<>();
+    Entry entry;
+    while (messages.size() < maxMessages && (entry = this.pollRing()) != null) {
+      messages.add(this.deliver(entry));
+    }
+    return messages;
+  }
+
+  /**
+   * Waits for the next message put into the lane. The returned future completes with the message
+   * once it arrives, and the waiting receive stops waiting by completing the future itself and
+   * calling {@link #cancel(CompletableFuture)}.
+   *
+   * @return A CompletableFuture containing the next message.
+   */
+  CompletableFuture<List<Message>> await() {
+    CompletableFuture<List<Message>> waiter = new CompletableFuture<>();
+    if (this.closed) {
+      waiter.complete(List.of());
+      return waiter;
+    }
+    this.waiters.add(waiter);
+    this.drainToWaiters();
+    return waiter;
+  }
+
+  /**
+   * Stops waiting for the next message.
+   *
+   * @param waiter The future returned by {@link #await()}.
+   */
+  void cancel(CompletableFuture<List<Message>> waiter) {
+    this.waiters.remove(waiter);
+  }
+
+  /**
+   * Acknowledges a message received from the lane. Acknowledging a message that has been sent to
+   * SQS in the meantime has no effect.
+   *
+   * @param message The received message.
+   */
+  void acknowledge(Message message) {
+    this.inFlight.remove(message.receiptHandle());
+  }
+
+  /**
+   * Extends the deadline of a message received from the lane.
+   *
+   * @param message The received message.
+   * @return Whether the lane still holds the message, which is false once it has been acknowledged
+   *     or sent to SQS.
+   */
+  boolean extend(Message message) {
+    Entry entry = this.inFlight.get(message.receiptHandle());
+    if (entry == null) {
+      return false;
+    }
+    entry.deadline = System.nanoTime() + this.deadlineNanos;
+    return true;
+  }
+
+  /**
+   * Releases a message received from the lane, so that it is received again after the delay.
+   *
+   * @param message The received message.
+   * @param delaySeconds The delay in seconds before the message is received again.
+   */
+  void release(Message message, int delaySeconds) {
+    Entry entry = this.inFlight.get(message.receiptHandle());
+    if (entry == null) {
+      return;
+    }
+    if (delaySeconds <= 0) {
+      if (this.inFlight.remove(message.receiptHandle(), entry)) {
+        this.requeue(entry);
+      }
+      return;
+    }
+    entry.released = true;
+    entry.deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(delaySeconds);
+  }
+
+  /**
+   * Returns the number of messages waiting in the ring.
+   *
+   * @return The number of waiting messages.
+   */
+  int size() {
+    return this.size.get();
+  }
+
+  /**
+   * Returns the number of received messages that have not been acknowledged.
+   *
+   * @return The number of in-flight messages.
+   */
+  int inFlight() {
+    return this.inFlight.size();
+  }
+
+  private boolean reserve() {
+    int current;
+    do {
+      current = this.size.get();
+      if (current >= this.capacity) {
+        return false;
+      }
+    } while (!this.size.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  private Entry pollRing() {
+    Entry entry = this.ring.pollFirst();
+    if (entry != null) {
+      this.size.decrementAndGet();
+    }
+    return entry;
+  }
+
+  private Message deliver(Entry entry) {
+    entry.receiveCount++;
+    entry.released = false;
+    entry.deadline = System.nanoTime() + this.deadlineNanos;
+    String receiptHandle = RECEIPT_HANDLE_PREFIX + entry.id + ":" + entry.receiveCount;
+    this.inFlight.put(receiptHandle, entry);
+    return Message.builder()
+        .messageId(entry.id)
+        .receiptHandle(receiptHandle)
+        .body(entry.body)
+        .attributes(
+            Map.of(
+                MessageSystemAttributeName.APPROXIMATE_RECEIVE_COUNT,
+                Integer.toString(entry.receiveCount),
+                MessageSystemAttributeName.SENT_TIMESTAMP,
+                Long.toString(entry.sentTimestamp)))
+        .build();
+  }
+
+  /** Hands messages in the ring to waiting receives, one message per receive. */
+  private void drainToWaiters() {
+    CompletableFuture<List<Message>> waiter;
+    while (!this.ring.isEmpty() && (waiter = this.waiters.poll()) != null) {
+      if (waiter.isDone()) {
+        continue;
+      }
+      Entry entry = this.pollRing();
+      if (entry == null) {
+        this.waiters.add(waiter);
+        return;
+      }
+      Message message = this.deliver(entry);
+      if (!waiter.complete(List.of(message))) {
+        this.inFlight.remove(message.receiptHandle());
+        entry.receiveCount--;
+        this.size.incrementAndGet();
+        this.ring.addFirst(entry);
+      }
+    }
+  }
+
+  private void requeue(Entry entry) {
+    if (this.closed || !this.reserve()) {
+      this.fallback(entry);
+      return;
+    }
+    entry.enqueuedNanos = System.nanoTime();
+    this.ring.addLast(entry);
+    this.drainToWaiters();
+  }
+
+  /** Sends the messages that missed their deadline to SQS, and requeues released messages. */
+  private void sweep() {
+    long now = System.nanoTime();
+    Entry head;
+    while ((head = this.ring.peekFirst()) != null
+        && now - head.enqueuedNanos > this.deadlineNanos) {
+      if (this.ring.removeFirstOccurrence(head)) {
+        this.size.decrementAndGet();
+        log.debug("Local message {} was not received in time, sending it to SQS", head.id);
+        this.fallback(head);
+      }
+    }
+    this.inFlight.forEach(
+        (receiptHandle, entry) -> {
+          if (now - entry.deadline > 0 && this.inFlight.remove(receiptHandle, entry)) {
+            if (entry.released) {
+              this.requeue(entry);
+            } else {
+              log.debug(
+                  "Local message {} was not acknowledged in time, sending it to SQS", entry.id);
+              this.fallback(entry);
+            }
+          }
+        });
+  }
+
+  private CompletableFuture<Void> fallback(Entry entry) {
+    return this.fallback(null, entry);
+  }
+
+  /**
+   * Sends a message to SQS through the sender of its producer or, once the producer is closed, with
+   * the given client or the client of any consumer of the lane.
+   */
+  private CompletableFuture<Void> fallback(SqsClient sqsClient, Entry entry) {
+    Function<String, CompletableFuture<Void>> sender = entry.sender;
+    if (sender == null) {
+      List<SqsClient> current = this.clients;
+      SqsClient client = sqsClient != null ? sqsClient : current.isEmpty() ? null : current.get(0);
+      if (client == null) {
+        log.error(
+            "Dropping local message {} of queue {}, its producer and consumers are closed",
+            entry.id,
+            this.queueUrl);
+        return CompletableFuture.completedFuture(null);
+      }
+      sender = client::send;
+    }
+    CompletableFuture<Void> sent;
+    try {
+      sent = sender.apply(entry.body);
+    } catch (RuntimeException e) {
+      sent = CompletableFuture.failedFuture(e);
+    }
+    return sent.whenComplete(
+        (ignored, throwable) -> {
+          if (throwable == null) {
+            return;
+          }
+          if (SqsClient.isRetriable(throwable)) {
+            log.warn("Failed to send local message {} to SQS, retrying", entry.id, throwable);
+            SCHEDULER.schedule(
+                () -> this.fallback(entry), RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+          } else {
+            log.error("Dropping local message {} that cannot be sent to SQS", entry.id, throwable);
+          }
+        });
+  }
+
+  /** A message in the lane. */
+  private static class Entry {
+    private final String id;
+    private final String body;
+    private final long sentTimestamp;
+    private volatile Function<String, CompletableFuture<Void>> sender;
+    private volatile long enqueuedNanos;
+    private volatile long deadline;
+    private volatile boolean released;
+    private int receiveCount;
+
+    private Entry(
+        String id,
+        String body,
+        long sentTimestamp,
+        Function<String, CompletableFuture<Void>> sender) {
+      this.id = id;
+      this.body = body;
+      this.sentTimestamp = sentTimestamp;
+      this.sender = sender;
+    }
+
+    private void detach(Function<String, CompletableFuture<Void>> sender) {
+      if (this.sender == sender) {
+        this.sender = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.dream11.queue.impl.sqs;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.experimental.UtilityClass;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+
+/** Names of the message attributes that this library sets on messages it sends. */
+@UtilityClass
+class SqsMessageAttributes {
+  /** The encoding applied to the message body, such as compression. */
+  static final String ENCODING = "MessageKit.Encoding";
+
+  /** The blob store key of an offloaded payload. The body of such a message is only a pointer. */
+  static final String CLAIM_CHECK = "MessageKit.ClaimCheck";
+
+  /** The attributes requested on every receive, so that consumers can undo the encoding. */
+  static final List<String> ALL = List.of(ENCODING, CLAIM_CHECK);
+
+  /**
+   * Creates a string attribute value.
+   *
+   * @param value The value.
+   * @return The attribute value.
+   */
+  static MessageAttributeValue stringValue(String value) {
+    return MessageAttributeValue.builder().dataType("String").stringValue(value).build();
+  }
+
+  /**
+   * Returns the string value of an attribute of a received message.
+   *
+   * @param message The message.
+   * @param name The name of the attribute.
+   * @return The value, or null if the message does not have the attribute.
+   */
+  static String get(Message message, String name) {
+    MessageAttributeValue value = message.messageAttributes().get(name);
+    return value != null ? value.stringValue() : null;
+  }
+
+  /**
+   * Returns a copy of the given attributes with an additional attribute.
+   *
+   * @param attributes The attributes of a message.
+   * @param name The name of the attribute to add.
+   * @param value The value of the attribute to add.
+   * @return The attributes including the added one.
+   */
+  static Map<String, MessageAttributeValue> with(
+      Map<String, MessageAttributeValue> attributes, String name, MessageAttributeValue value) {
+    if (attributes == null || attributes.isEmpty()) {
+      return Map.of(name, value);
+    }
+    Map<String, MessageAttributeValue> merged = new HashMap<>(attributes);
+    merged.put(name, value);
+    return merged;
+  }
+}
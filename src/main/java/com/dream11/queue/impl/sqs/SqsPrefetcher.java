@@ -0,0 +1,343 @@
+package com.dream11.queue.impl.sqs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+
+/**
+ * Keeps a bounded in-memory buffer of messages filled using concurrent long-poll loops. Pollers
+ * pause while the buffer is full. Messages that have been buffered for so long that their
+ * visibility timeout is about to expire are released back to the queue instead of being handed out.
+ *
+ * <p>With adaptive polling, a poller is added whenever a receive comes back full, up to the maximum
+ * number of pollers, and a poller above the target number stops whenever a receive comes back
+ * empty. Throttled receives are backed off with jitter. Without adaptive polling, the number of
+ * pollers follows the target number. The target number starts at the configured number of pollers
+ * and can be changed between 1 and the maximum number of pollers.
+ */
+@Slf4j
+class SqsPrefetcher {
+  private static final int DEFAULT_VISIBILITY_TIMEOUT = 30;
+  private static final long POLL_ERROR_BACKOFF_MILLIS = 1000;
+  private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+  private final SqsClient sqsClient;
+  private final SqsConfig.ReceiveConfig receiveConfig;
+  private final ExecutorService pollerExecutor;
+
+  /** The adapter of polling to the queue traffic, or null if adaptive polling is disabled. */
+  private final SqsAdaptivePolling adaptivePolling;
+
+  /** The maximum number of pollers. */
+  private final int maxPollers;
+
+  /** The number of active pollers. */
+  private final AtomicInteger pollers = new AtomicInteger();
+
+  /** The target number of pollers. */
+  private volatile int targetPollers;
+
+  /** Buffered messages. Its size is bounded by the permits of {@link #capacity}. */
+  private final Queue<PrefetchedMessage> buffer = new ConcurrentLinkedQueue<>();
+
+  /** Free slots in the buffer. Pollers acquire a slot per requested message before polling. */
+  private final Semaphore capacity;
+
+  /** Receive calls waiting for messages to arrive in an empty buffer. */
+  private final Queue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+
+  /** The visibility timeout in milliseconds that messages are received with. */
+  private final long visibilityTimeoutMillis;
+
+  /** The time in milliseconds a message may stay in the buffer before it is released. */
+  private final long maxBufferedMillis;
+
+  private volatile boolean running = true;
+
+  /**
+   * Constructs and starts a new SqsPrefetcher.
+   *
+   * @param sqsClient The client used to receive messages.
+   * @param receiveConfig The receive configuration.
+   * @param adaptivePolling The adapter of polling to the traffic of the queue, or null if adaptive
+   *     polling is disabled.
+   */
+  SqsPrefetcher(
+      SqsClient sqsClient,
+      SqsConfig.ReceiveConfig receiveConfig,
+      SqsAdaptivePolling adaptivePolling) {
+    this.sqsClient = sqsClient;
+    this.receiveConfig = receiveConfig;
+    this.adaptivePolling = adaptivePolling;
+    this.maxPollers =
+        Math.max(receiveConfig.getPrefetchPollers(), receiveConfig.getMaxPrefetchPollers());
+    this.capacity =
+        new Semaphore(
+            Math.max(receiveConfig.getPrefetchBufferSize(), receiveConfig.getMaxMessages()));
+    this.visibilityTimeoutMillis = TimeUnit.SECONDS.toMillis(this.resolveVisibilityTimeout());
+    this.maxBufferedMillis =
+        Math.max(
+            0,
+            this.visibilityTimeoutMillis
+                - TimeUnit.SECONDS.toMillis(receiveConfig.getPrefetchVisibilityMarginSeconds()));
+    AtomicInteger threadCount = new AtomicInteger();
+    this.pollerExecutor =
+        Executors.newFixedThreadPool(
+            this.maxPollers,
+            runnable -> {
+              Thread thread = new Thread(runnable, "sqs-prefetch-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.targetPollers = receiveConfig.getPrefetchPollers();
+    this.pollers.set(receiveConfig.getPrefetchPollers());
+    for (int i = 0; i < receiveConfig.getPrefetchPollers(); i++) {
+      this.pollerExecutor.execute(this::poll);
+    }
+  }
+
+  /**
+   * Takes up to the given number of messages from the buffer. If the buffer is empty, waits for up
+   * to the given timeout for messages to arrive. Every message is taken along with the time at
+   * which its visibility timeout expires, since it has aged in the buffer.
+   *
+   * @param maxMessages The maximum number of messages to take.
+   * @param timeout The timeout in seconds to wait for messages if the buffer is empty.
+   * @return A CompletableFuture containing the taken messages.
+   */
+  CompletableFuture<List<PrefetchedMessage>> take(int maxMessages, int timeout) {
+    List<PrefetchedMessage> messages = this.drain(maxMessages);
+    if (!messages.isEmpty() || timeout <= 0) {
+      return CompletableFuture.completedFuture(messages);
+    }
+    CompletableFuture<Void> waiter = new CompletableFuture<>();
+    this.waiters.add(waiter);
+    if (!this.buffer.isEmpty() || !this.running) {
+      waiter.complete(null);
+    }
+    return waiter
+        .completeOnTimeout(null, timeout, TimeUnit.SECONDS)
+        .thenApply(
+            v -> {
+              this.waiters.remove(waiter);
+              return this.drain(maxMessages);
+            });
+  }
+
+  /**
+   * Returns the number of messages currently held in the buffer.
+   *
+   * @return The number of buffered messages.
+   */
+  int size() {
+    return this.buffer.size();
+  }
+
+  /**
+   * Returns the number of active pollers.
+   *
+   * @return The number of active pollers.
+   */
+  int pollers() {
+    return this.pollers.get();
+  }
+
+  /**
+   * Sets the target number of pollers, clamped between 1 and the maximum number of pollers. Missing
+   * pollers are started right away. Without adaptive polling, surplus pollers stop before their
+   * next receive; with adaptive polling, they stop once a receive comes back empty.
+   *
+   * @param target The target number of pollers.
+   */
+  void setPollers(int target) {
+    this.targetPollers = Math.max(1, Math.min(target, this.maxPollers));
+    while (this.running && this.pollers.get() < this.targetPollers && this.addPoller()) {
+      // Keep adding until the target is reached
+    }
+  }
+
+  /**
+   * Stops the pollers and releases all buffered messages back to the queue so that they can be
+   * received again without waiting for their visibility timeout.
+   */
+  void close() {
+    this.running = false;
+    this.pollerExecutor.shutdownNow();
+    this.signalWaiters();
+    List<CompletableFuture<Void>> releases = new ArrayList<>();
+    PrefetchedMessage prefetched;
+    while ((prefetched = this.buffer.poll()) != null) {
+      releases.add(this.release(prefetched.message));
+    }
+    try {
+      CompletableFuture.allOf(releases.toArray(new CompletableFuture[0]))
+          .get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.warn("Failed to release prefetched messages", e);
+    }
+  }
+
+  private void poll() {
+    int maxMessages = this.receiveConfig.getMaxMessages();
+    while (this.running) {
+      if (this.adaptivePolling == null && this.removePoller()) {
+        return;
+      }
+      try {
+        this.capacity.acquire(maxMessages);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      List<Message> messages;
+      try {
+        messages = this.sqsClient.receive(this.receiveConfig.getPrefetchWaitTimeSeconds()).get();
+      } catch (InterruptedException e) {
+        this.capacity.release(maxMessages);
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        this.capacity.release(maxMessages);
+        log.error("Failed to prefetch messages", e);
+        long backoff = this.adaptivePolling != null ? this.adaptivePolling.onError(e) : 0;
+        this.sleep(backoff > 0 ? backoff : POLL_ERROR_BACKOFF_MILLIS);
+        continue;
+      }
+      this.capacity.release(maxMessages - messages.size());
+      long receivedAt = System.currentTimeMillis();
+      long visibleAt = receivedAt + this.visibilityTimeoutMillis;
+      messages.forEach(
+          message -> this.buffer.add(new PrefetchedMessage(message, receivedAt, visibleAt)));
+      if (!messages.isEmpty()) {
+        this.signalWaiters();
+      }
+      if (this.adaptivePolling != null) {
+        this.adaptivePolling.onReceive(messages.size());
+        if (messages.size() == maxMessages) {
+          this.addPoller();
+        } else if (messages.isEmpty() && this.removePoller()) {
+          return;
+        }
+      }
+    }
+  }
+
+  /** Starts a poller if the maximum is not reached, and returns whether the caller may retry. */
+  private boolean addPoller() {
+    int current = this.pollers.get();
+    if (!this.running || current >= this.maxPollers) {
+      return false;
+    }
+    if (this.pollers.compareAndSet(current, current + 1)) {
+      try {
+        this.pollerExecutor.execute(this::poll);
+        log.debug("Added prefetch poller, now {}", current + 1);
+      } catch (RejectedExecutionException e) {
+        // The prefetcher is closing
+        this.pollers.decrementAndGet();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Stops the calling poller if there are more pollers than the target number. */
+  private boolean removePoller() {
+    int current = this.pollers.get();
+    if (current <= this.targetPollers || !this.pollers.compareAndSet(current, current - 1)) {
+      return false;
+    }
+    log.debug("Removed prefetch poller, now {}", current - 1);
+    return true;
+  }
+
+  private List<PrefetchedMessage> drain(int maxMessages) {
+    List<PrefetchedMessage> messages = Collections.emptyList();
+    long now = System.currentTimeMillis();
+    PrefetchedMessage prefetched;
+    while (messages.size() < maxMessages && (prefetched = this.buffer.poll()) != null) {
+      this.capacity.release();
+      if (now - prefetched.receivedAt > this.maxBufferedMillis) {
+        log.debug("Releasing expired prefetched message: {}", prefetched.message.messageId());
+        this.release(prefetched.message);
+        continue;
+      }
+      if (messages.isEmpty()) {
+        messages = new ArrayList<>(maxMessages);
+      }
+      messages.add(prefetched);
+    }
+    return messages;
+  }
+
+  private CompletableFuture<Void> release(Message message) {
+    return this.sqsClient
+        .changeMessageVisibility(message, 0)
+        .exceptionally(
+            e -> {
+              log.warn("Failed to release prefetched message: {}", message.messageId(), e);
+              return null;
+            });
+  }
+
+  private void signalWaiters() {
+    CompletableFuture<Void> waiter;
+    while ((waiter = this.waiters.poll()) != null) {
+      waiter.complete(null);
+    }
+  }
+
+  private int resolveVisibilityTimeout() {
+    if (this.receiveConfig.getVisibilityTimeout() != null) {
+      return this.receiveConfig.getVisibilityTimeout();
+    }
+    try {
+      return Integer.parseInt(
+          this.sqsClient
+              .getQueueAttributes(QueueAttributeName.VISIBILITY_TIMEOUT)
+              .get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+              .get(QueueAttributeName.VISIBILITY_TIMEOUT));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.warn("Failed to fetch queue visibility timeout, assuming the SQS default", e);
+    }
+    return DEFAULT_VISIBILITY_TIMEOUT;
+  }
+
+  private void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.running = false;
+    }
+  }
+
+  /** A buffered message, with the times in milliseconds at which it was received. */
+  @Getter
+  @RequiredArgsConstructor
+  static class PrefetchedMessage {
+    private final Message message;
+    private final long receivedAt;
+
+    /** The time at which the visibility timeout that the message was received with expires. */
+    private final long visibleAt;
+  }
+}
@@ -1,14 +1,31 @@
 package com.dream11.queue.impl.sqs;
 
+import com.dream11.queue.codec.MessageCodec;
+import com.dream11.queue.config.FifoConfig;
 import com.dream11.queue.producer.MessageProducer;
+import com.dream11.queue.producer.SendLimiter;
+import com.dream11.queue.producer.SpillBuffer;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
 
 /**
  * Implementation of MessageProducer for Amazon SQS. This producer handles sending messages to an
- * SQS queue and provides functionality to transform messages before sending.
+ * SQS queue and provides functionality to transform messages before sending. When batching is
+ * enabled in the configuration, messages are buffered and sent using SendMessageBatch requests.
+ * When compression is enabled, bodies above the configured threshold are compressed before they are
+ * sent. When claim check is enabled, bodies that are still above its threshold are stored in the
+ * blob store and only their key is sent, and deleted again if the send fails. When send limits are
+ * enabled, the rate and concurrency of sends are bounded by a {@link SendLimiter}. When FIFO is
+ * enabled, every message is sent with the message group id and deduplication id extracted from it.
+ * When spilling is enabled, sends that fail with a retriable error are written to a {@link
+ * SpillBuffer} and replayed in the background. When the local lane is enabled and a consumer of the
+ * queue runs in the same JVM, messages are handed to it in memory through an {@link SqsLocalLane},
+ * and only sent to SQS while its ring is full or when they are not acknowledged in time.
  *
  * @param <T> The type of message that this producer will handle.
  */
@@ -17,6 +34,33 @@ public class SqsProducer<T> implements MessageProducer<T> {
   private final SqsClient sqsClient;
   private final Function<T, String> transformer;
 
+  /** The scheduler used to flush batches, or null if batching is disabled. */
+  private final ScheduledExecutorService batchScheduler;
+
+  /** The batcher used to send messages, or null if batching is disabled. */
+  private final SqsSendBatcher sendBatcher;
+
+  /** The compressor applied to message bodies, or null if compression is disabled. */
+  private final SqsCompressor compressor;
+
+  /** The offloader of large message bodies, or null if claim check is disabled. */
+  private final SqsClaimCheck claimCheck;
+
+  /** The FIFO configuration, or null if FIFO is disabled. */
+  private final FifoConfig<T> fifoConfig;
+
+  /** The limiter of sends, or null if send limits are disabled. */
+  private final SendLimiter sendLimiter;
+
+  /** The spill stage of failed sends, or null if spilling is disabled. */
+  private final SpillBuffer spillBuffer;
+
+  /** The URL of the queue whose local lane is used, or null if the local lane is disabled. */
+  private final String localLaneQueueUrl;
+
+  /** The sender of messages that the local lane sends to SQS, through the rest of the pipeline. */
+  private final Function<String, CompletableFuture<Void>> localLaneSender = this::sendFromLocalLane;
+
   /**
    * Constructs a new SqsProducer with the given configuration and default transformer. The default
    * transformer uses Object.toString() to convert messages to strings.
@@ -34,8 +78,17 @@ public class SqsProducer<T> implements MessageProducer<T> {
    * @param transformer The function to transform messages from type T to String.
    */
   public SqsProducer(SqsConfig sqsConfig, Function<T, String> transformer) {
-    this.sqsClient = new SqsClient(sqsConfig);
-    this.transformer = transformer;
+    this(sqsConfig, new SqsClient(sqsConfig), transformer);
+  }
+
+  /**
+   * Constructs a new SqsProducer with the given configuration and codec.
+   *
+   * @param sqsConfig The SQS configuration.
+   * @param codec The codec used to encode messages.
+   */
+  public SqsProducer(SqsConfig sqsConfig, MessageCodec<T> codec) {
+    this(sqsConfig, new SqsClient(sqsConfig), codec::encode);
   }
 
   /**
@@ -58,28 +111,195 @@ public class SqsProducer<T> implements MessageProducer<T> {
    */
   public SqsProducer(
       SqsConfig sqsConfig, SqsAsyncClient sqsAsyncClient, Function<T, String> transformer) {
-    this.sqsClient = new SqsClient(sqsConfig, sqsAsyncClient);
+    this(sqsConfig, new SqsClient(sqsConfig, sqsAsyncClient), transformer);
+  }
+
+  /**
+   * Constructs a new SqsProducer with the given configuration, SQS client, and codec.
+   *
+   * @param sqsConfig The SQS configuration.
+   * @param sqsAsyncClient The SQS async client.
+   * @param codec The codec used to encode messages.
+   */
+  public SqsProducer(SqsConfig sqsConfig, SqsAsyncClient sqsAsyncClient, MessageCodec<T> codec) {
+    this(sqsConfig, new SqsClient(sqsConfig, sqsAsyncClient), codec::encode);
+  }
+
+  @SuppressWarnings("unchecked")
+  private SqsProducer(SqsConfig sqsConfig, SqsClient sqsClient, Function<T, String> transformer) {
+    this.sqsClient = sqsClient;
     this.transformer = transformer;
+    if (sqsConfig.getSendBatchConfig().isEnabled()) {
+      this.batchScheduler = Executors.newSingleThreadScheduledExecutor();
+      this.sendBatcher =
+          new SqsSendBatcher(sqsClient, sqsConfig.getSendBatchConfig(), this.batchScheduler);
+    } else {
+      this.batchScheduler = null;
+      this.sendBatcher = null;
+    }
+    this.compressor =
+        sqsConfig.getCompressionConfig().isEnabled()
+            ? new SqsCompressor(sqsConfig.getCompressionConfig())
+            : null;
+    this.claimCheck =
+        sqsConfig.getClaimCheckConfig().isEnabled()
+            ? new SqsClaimCheck(sqsConfig.getClaimCheckConfig())
+            : null;
+    this.fifoConfig =
+        sqsConfig.getFifoConfig().isEnabled() ? (FifoConfig<T>) sqsConfig.getFifoConfig() : null;
+    this.sendLimiter =
+        sqsConfig.getSendLimitConfig().isEnabled()
+            ? new SendLimiter(
+                sqsConfig.getSendLimitConfig(),
+                SqsClient::isThrottling,
+                sqsConfig.getMetrics(),
+                sqsConfig.getQueueUrl())
+            : null;
+    this.spillBuffer =
+        sqsConfig.getSpillConfig().isEnabled()
+            ? new SpillBuffer(
+                sqsConfig.getSpillConfig(),
+                spilled ->
+                    this.attempt(
+                        SendMessageBatchRequestEntry.builder()
+                            .messageBody(spilled.getBody())
+                            .messageGroupId(spilled.getGroupId())
+                            .messageDeduplicationId(spilled.getDeduplicationId())
+                            .build()),
+                SqsClient::isRetriable,
+                sqsConfig.getMetrics(),
+                sqsConfig.getQueueUrl())
+            : null;
+    this.localLaneQueueUrl =
+        sqsConfig.getLocalLaneConfig().isEnabled() && this.fifoConfig == null
+            ? sqsConfig.getQueueUrl()
+            : null;
   }
 
   /**
    * Sends a message asynchronously to the SQS queue. The message is transformed to a string before
-   * sending.
+   * sending. When batching is enabled, the returned future completes once the batch containing the
+   * message has been accepted by SQS. When send limits are enabled and the send exceeds them, the
+   * send blocks, fails with a {@link com.dream11.queue.producer.SendRejectedException}, or is
+   * queued, depending on the overflow strategy. When spilling is enabled, the returned future also
+   * completes once the message is spilled. When the message is handed to a local consumer through
+   * the local lane, the returned future completes right away.
    *
    * @param message The message to send.
    * @return A CompletableFuture that completes when the message is sent.
    */
   @Override
   public CompletableFuture<Void> send(T message) {
-    return this.sqsClient.send(transformer.apply(message));
+    SendMessageBatchRequestEntry.Builder builder =
+        SendMessageBatchRequestEntry.builder().messageBody(transformer.apply(message));
+    if (this.fifoConfig != null) {
+      builder
+          .messageGroupId(this.groupId(message))
+          .messageDeduplicationId(
+              this.fifoConfig.getDeduplicationIdExtractor() != null
+                  ? this.fifoConfig.getDeduplicationIdExtractor().apply(message)
+                  : null);
+    }
+    SendMessageBatchRequestEntry entry = builder.build();
+    if (this.localLaneQueueUrl != null && this.offerLocal(entry.messageBody())) {
+      return CompletableFuture.completedFuture(null);
+    }
+    if (this.spillBuffer != null) {
+      return this.spillBuffer.send(
+          new SpillBuffer.Entry(
+              entry.messageBody(), entry.messageGroupId(), entry.messageDeduplicationId()));
+    }
+    return this.attempt(entry);
   }
 
   /**
-   * Closes the SQS producer, releasing any resources. This method should be called when the
+   * Closes the SQS producer, releasing any resources. Buffered messages are flushed before the
+   * client is closed, sends queued by the send limiter fail, and spilled messages are kept in the
+   * journal for the next producer on the same directory. This method should be called when the
    * producer is no longer needed.
    */
   @Override
   public void close() {
+    if (this.localLaneQueueUrl != null) {
+      SqsLocalLane lane = SqsLocalLane.find(this.localLaneQueueUrl);
+      if (lane != null) {
+        lane.detach(this.localLaneSender);
+      }
+    }
+    if (this.spillBuffer != null) {
+      this.spillBuffer.close();
+    }
+    if (this.sendLimiter != null) {
+      this.sendLimiter.close();
+    }
+    if (this.sendBatcher != null) {
+      this.sendBatcher.close();
+      this.batchScheduler.shutdown();
+    }
     this.sqsClient.close();
   }
+
+  private boolean offerLocal(String body) {
+    SqsLocalLane lane = SqsLocalLane.find(this.localLaneQueueUrl);
+    return lane != null && lane.offer(body, this.localLaneSender);
+  }
+
+  private CompletableFuture<Void> sendFromLocalLane(String body) {
+    if (this.spillBuffer != null) {
+      return this.spillBuffer.send(new SpillBuffer.Entry(body, null, null));
+    }
+    return this.attempt(SendMessageBatchRequestEntry.builder().messageBody(body).build());
+  }
+
+  private CompletableFuture<Void> attempt(SendMessageBatchRequestEntry entry) {
+    if (this.sendLimiter != null) {
+      return this.sendLimiter.submit(() -> this.process(entry));
+    }
+    return this.process(entry);
+  }
+
+  private CompletableFuture<Void> process(SendMessageBatchRequestEntry entry) {
+    if (this.compressor != null) {
+      entry = this.compressor.compress(entry);
+    }
+    if (this.claimCheck != null) {
+      return this.claimCheck.offload(entry).thenCompose(this::dispatchOffloaded);
+    }
+    return this.dispatch(entry);
+  }
+
+  private CompletableFuture<Void> dispatchOffloaded(SendMessageBatchRequestEntry entry) {
+    return this.dispatch(entry)
+        .whenComplete(
+            (v, throwable) -> {
+              if (throwable != null) {
+                this.claimCheck
+                    .discard(entry)
+                    .exceptionally(
+                        e -> {
+                          log.warn("Failed to delete offloaded payload of unsent message", e);
+                          return null;
+                        });
+              }
+            });
+  }
+
+  private CompletableFuture<Void> dispatch(SendMessageBatchRequestEntry entry) {
+    if (this.sendBatcher != null) {
+      return this.sendBatcher.add(entry);
+    }
+    return this.sqsClient.send(
+        entry.messageBody(),
+        entry.messageAttributes(),
+        entry.messageGroupId(),
+        entry.messageDeduplicationId());
+  }
+
+  private String groupId(T message) {
+    String groupId =
+        this.fifoConfig.getGroupIdExtractor() != null
+            ? this.fifoConfig.getGroupIdExtractor().apply(message)
+            : null;
+    return groupId != null ? groupId : this.fifoConfig.getDefaultGroupId();
+  }
 }
@@ -0,0 +1,77 @@
+package com.dream11.queue.impl.sqs;
+
+import com.dream11.queue.codec.MessageCodec;
+import com.dream11.queue.consumer.ReceivedMessage;
+import java.util.function.UnaryOperator;
+import lombok.Getter;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+/**
+ * ReceivedMessage backed by an SQS message. The original body is restored the first time it is
+ * accessed, which may involve fetching it from a blob store, and the body is decoded with the codec
+ * of the consumer the first time the payload is accessed.
+ *
+ * @param <T> The type of the decoded payload.
+ */
+public class SqsReceivedMessage<T> implements ReceivedMessage<T> {
+  /** The underlying SQS message, as received from the queue. */
+  @Getter private final Message message;
+
+  private final MessageCodec<T> codec;
+  private final UnaryOperator<Message> resolver;
+  private volatile String body;
+  private volatile T payload;
+
+  /**
+   * Constructs a new SqsReceivedMessage for a message whose body has already been restored.
+   *
+   * @param message The underlying SQS message.
+   * @param codec The codec used to decode the body.
+   */
+  public SqsReceivedMessage(Message message, MessageCodec<T> codec) {
+    this(message, codec, UnaryOperator.identity());
+  }
+
+  /**
+   * Constructs a new SqsReceivedMessage.
+   *
+   * @param message The underlying SQS message.
+   * @param codec The codec used to decode the body.
+   * @param resolver The function that restores the original body of the message.
+   */
+  SqsReceivedMessage(Message message, MessageCodec<T> codec, UnaryOperator<Message> resolver) {
+    this.message = message;
+    this.codec = codec;
+    this.resolver = resolver;
+  }
+
+  @Override
+  public String getMessageId() {
+    return this.message.messageId();
+  }
+
+  @Override
+  public String getBody() {
+    String resolved = this.body;
+    if (resolved == null) {
+      resolved = this.resolver.apply(this.message).body();
+      this.body = resolved;
+    }
+    return resolved;
+  }
+
+  @Override
+  public T getPayload() {
+    T decoded = this.payload;
+    if (decoded == null) {
+      decoded = this.codec.decode(this.getBody());
+      this.payload = decoded;
+    }
+    return decoded;
+  }
+
+  @Override
+  public String toString() {
+    return this.message.toString();
+  }
+}
@@ -0,0 +1,77 @@
+package com.dream11.queue.impl.sqs;
+
+import com.dream11.queue.config.BatchConfig;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+
+/**
+ * Batcher that coalesces message sends into SendMessageBatch requests. Entries are assigned their
+ * id within the batch when the batch is sent.
+ */
+class SqsSendBatcher extends SqsBatcher<SendMessageBatchRequestEntry> {
+  private final SqsClient sqsClient;
+
+  /**
+   * Constructs a new SqsSendBatcher.
+   *
+   * @param sqsClient The client used to send batch requests.
+   * @param batchConfig The batch configuration.
+   * @param scheduler The scheduler used to flush batches after the linger time.
+   */
+  SqsSendBatcher(SqsClient sqsClient, BatchConfig batchConfig, ScheduledExecutorService scheduler) {
+    super(batchConfig, scheduler);
+    this.sqsClient = sqsClient;
+  }
+
+  @Override
+  protected int sizeOf(SendMessageBatchRequestEntry entry) {
+    int size = utf8Length(entry.messageBody());
+    if (entry.messageAttributes() != null) {
+      for (Map.Entry<String, MessageAttributeValue> attribute :
+          entry.messageAttributes().entrySet()) {
+        MessageAttributeValue value = attribute.getValue();
+        size += utf8Length(attribute.getKey()) + utf8Length(value.dataType());
+        if (value.stringValue() != null) {
+          size += utf8Length(value.stringValue());
+        }
+        if (value.binaryValue() != null) {
+          size += value.binaryValue().asByteBuffer().remaining();
+        }
+      }
+    }
+    return size;
+  }
+
+  @Override
+  protected CompletableFuture<Map<String, SqsBatchEntryException>> execute(
+      Map<String, SendMessageBatchRequestEntry> entries) {
+    return this.sqsClient
+        .sendBatch(
+            entries.entrySet().stream()
+                .map(entry -> entry.getValue().toBuilder().id(entry.getKey()).build())
+                .collect(Collectors.toList()))
+        .thenApply(response -> toFailures(response.failed()));
+  }
+
+  private static int utf8Length(String value) {
+    int length = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        length += 1;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c)) {
+        length += 4;
+        i++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+}
@@ -0,0 +1,144 @@
+package com.dream11.queue.impl.sqs;
+
+import com.dream11.queue.codec.MessageCodec;
+import com.dream11.queue.consumer.MessageConsumer;
+import com.dream11.queue.consumer.QueueDepth;
+import com.dream11.queue.consumer.ReceivedMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.Getter;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+/**
+ * Implementation of MessageConsumer for Amazon SQS that decodes messages with a codec. Received
+ * messages are wrapped so that their payload is only decoded when it is accessed. Offloaded and
+ * compressed bodies are likewise only fetched and decompressed when they are accessed. Receiving,
+ * acknowledging and heartbeats are delegated to an SqsConsumer.
+ *
+ * @param <T> The type of the decoded payload.
+ */
+public class SqsTypedConsumer<T> implements MessageConsumer<ReceivedMessage<T>> {
+  /** The consumer that receives the underlying SQS messages. */
+  @Getter private final SqsConsumer sqsConsumer;
+
+  private final MessageCodec<T> codec;
+
+  /**
+   * Constructs a new SqsTypedConsumer with the given configuration and codec.
+   *
+   * @param sqsConfig The SQS configuration.
+   * @param codec The codec used to decode message bodies.
+   */
+  public SqsTypedConsumer(SqsConfig sqsConfig, MessageCodec<T> codec) {
+    this(new SqsConsumer(sqsConfig), codec);
+  }
+
+  /**
+   * Constructs a new SqsTypedConsumer with the given configuration, SQS client and codec.
+   *
+   * @param sqsConfig The SQS configuration.
+   * @param sqsAsyncClient The SQS async client.
+   * @param codec The codec used to decode message bodies.
+   */
+  public SqsTypedConsumer(
+      SqsConfig sqsConfig, SqsAsyncClient sqsAsyncClient, MessageCodec<T> codec) {
+    this(new SqsConsumer(sqsConfig, sqsAsyncClient), codec);
+  }
+
+  /**
+   * Constructs a new SqsTypedConsumer on top of an existing SqsConsumer.
+   *
+   * @param sqsConsumer The consumer that receives the underlying SQS messages.
+   * @param codec The codec used to decode message bodies.
+   */
+  public SqsTypedConsumer(SqsConsumer sqsConsumer, MessageCodec<T> codec) {
+    this.sqsConsumer = sqsConsumer;
+    this.codec = codec;
+  }
+
+  /**
+   * Receives a list of messages asynchronously from the SQS queue.
+   *
+   * @return A CompletableFuture containing a list of received messages.
+   */
+  @Override
+  public CompletableFuture<List<ReceivedMessage<T>>> receive() {
+    return this.receive(0);
+  }
+
+  /**
+   * Receives a list of messages asynchronously with a specified timeout.
+   *
+   * @param timeout The timeout in seconds to wait for messages.
+   * @return A CompletableFuture containing a list of received messages.
+   */
+  @Override
+  public CompletableFuture<List<ReceivedMessage<T>>> receive(int timeout) {
+    return this.sqsConsumer.receive(timeout, false).thenApply(this::wrap);
+  }
+
+  /**
+   * Acknowledges a message by deleting it from the SQS queue.
+   *
+   * @param message The message to acknowledge.
+   * @return A CompletableFuture that completes when the message is deleted.
+   */
+  @Override
+  public CompletableFuture<Void> acknowledgeMessage(ReceivedMessage<T> message) {
+    return this.sqsConsumer.acknowledgeMessage(unwrap(message));
+  }
+
+  /**
+   * Sends a heartbeat for the given message.
+   *
+   * @param message The message for which the heartbeat is sent.
+   * @return A CompletableFuture that completes when the heartbeat is sent.
+   */
+  @Override
+  public CompletableFuture<Void> sendHeartbeat(ReceivedMessage<T> message) {
+    return this.sqsConsumer.sendHeartbeat(unwrap(message));
+  }
+
+  @Override
+  public int getReceiveCount(ReceivedMessage<T> message) {
+    return this.sqsConsumer.getReceiveCount(unwrap(message));
+  }
+
+  @Override
+  public CompletableFuture<Void> releaseMessage(ReceivedMessage<T> message, int delaySeconds) {
+    return this.sqsConsumer.releaseMessage(unwrap(message), delaySeconds);
+  }
+
+  @Override
+  public CompletableFuture<QueueDepth> getQueueDepth() {
+    return this.sqsConsumer.getQueueDepth();
+  }
+
+  @Override
+  public void setPollers(int pollers) {
+    this.sqsConsumer.setPollers(pollers);
+  }
+
+  /** Closes the underlying SQS consumer, releasing any resources. */
+  @Override
+  public void close() {
+    this.sqsConsumer.close();
+  }
+
+  private List<ReceivedMessage<T>> wrap(List<Message> messages) {
+    List<ReceivedMessage<T>> wrapped = new ArrayList<>(messages.size());
+    messages.forEach(
+        message ->
+            wrapped.add(new SqsReceivedMessage<>(message, this.codec, this.sqsConsumer::resolve)));
+    return wrapped;
+  }
+
+  private static Message unwrap(ReceivedMessage<?> message) {
+    if (!(message instanceof SqsReceivedMessage)) {
+      throw new IllegalArgumentException("Message was not received from SQS: " + message);
+    }
+    return ((SqsReceivedMessage<?>) message).getMessage();
+  }
+}
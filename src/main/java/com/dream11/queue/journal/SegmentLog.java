@@ -0,0 +1,316 @@
+package com.dream11.queue.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of opaque records stored in memory-mapped segment files. Records are appended to
+ * the newest segment, and a new segment is started when a record does not fit into it. Every record
+ * is counted as live until it is released; the oldest segments are deleted as soon as all of their
+ * records are released. Segments are only deleted from the head of the log, so that a record
+ * referring to an earlier record never outlives it.
+ *
+ * <p>Each record is stored as its length followed by its bytes. The bytes are written before the
+ * length, so a record that was only partially written when the process died is ignored when the log
+ * is opened again. Writes land in the page cache and survive a crash of the process; they only
+ * survive a crash of the operating system if the log forces every append to disk. Appends are
+ * serialized. A log is owned by a single instance, which holds a lock on a file in its directory
+ * until it is closed.
+ */
+@Slf4j
+public class SegmentLog implements AutoCloseable {
+  private static final String SUFFIX = ".log";
+  private static final Pattern SEGMENT_NAME = Pattern.compile("[0-9]{1,19}\\.log");
+  private static final int HEADER_BYTES = Integer.BYTES;
+  private static final String LOCK_FILE = "segments.lock";
+
+  /** The directory that holds the segment files. */
+  @Getter private final Path directory;
+
+  private final int segmentSizeBytes;
+  private final boolean forceOnAppend;
+
+  /** The segments of the log by id, oldest first. */
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+  private final FileChannel lockChannel;
+  private final FileLock lock;
+
+  private Segment active;
+  private boolean closed;
+
+  /**
+   * Opens the log in the given directory, creating the directory if it does not exist. Existing
+   * segments are mapped, and appends continue at the end of the newest one. All existing records
+   * are counted as live until they are released.
+   *
+   * @param directory The directory that holds the segment files.
+   * @param segmentSizeBytes The size of a segment in bytes. Records larger than this get a segment
+   *     of their own.
+   * @param forceOnAppend Whether every append is forced to disk.
+   * @throws IllegalStateException if the log is already open.
+   * @throws UncheckedIOException if the log cannot be opened.
+   */
+  public SegmentLog(@NonNull Path directory, int segmentSizeBytes, boolean forceOnAppend) {
+    if (segmentSizeBytes <= HEADER_BYTES) {
+      throw new IllegalArgumentException("Invalid segment size: " + segmentSizeBytes);
+    }
+    this.directory = directory;
+    this.segmentSizeBytes = segmentSizeBytes;
+    this.forceOnAppend = forceOnAppend;
+    try {
+      Files.createDirectories(directory);
+      this.lockChannel =
+          FileChannel.open(
+              directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open segment log: " + directory, e);
+    }
+    this.lock = lock(this.lockChannel, directory);
+    try {
+      try (Stream<Path> files = Files.list(directory)) {
+        for (Path path : (Iterable<Path>) files::iterator) {
+          String fileName = path.getFileName().toString();
+          if (SEGMENT_NAME.matcher(fileName).matches()) {
+            long id = Long.parseLong(fileName.substring(0, fileName.length() - SUFFIX.length()));
+            this.segments.put(id, Segment.open(id, path));
+          }
+        }
+      }
+      this.active =
+          this.segments.isEmpty()
+              ? this.createSegment(0, segmentSizeBytes)
+              : this.segments.lastEntry().getValue();
+    } catch (IOException | RuntimeException e) {
+      this.unlock();
+      throw e instanceof IOException
+          ? new UncheckedIOException("Failed to open segment log: " + directory, (IOException) e)
+          : (RuntimeException) e;
+    }
+  }
+
+  /**
+   * Appends a record to the log.
+   *
+   * @param record The bytes of the record. Must not be empty.
+   * @return The id of the segment the record was appended to, to be passed to {@link
+   *     #release(long)}.
+   * @throws IllegalStateException if the log is closed.
+   * @throws UncheckedIOException if a new segment cannot be created.
+   */
+  public synchronized long append(@NonNull byte[] record) {
+    if (record.length == 0) {
+      throw new IllegalArgumentException("Records must not be empty");
+    }
+    if (this.closed) {
+      throw new IllegalStateException("Segment log is closed: " + this.directory);
+    }
+    int recordBytes = HEADER_BYTES + record.length;
+    if (this.active.buffer.remaining() < recordBytes) {
+      try {
+        this.active =
+            this.createSegment(this.active.id + 1, Math.max(this.segmentSizeBytes, recordBytes));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to create segment in: " + this.directory, e);
+      }
+      this.trim();
+    }
+    MappedByteBuffer buffer = this.active.buffer;
+    int position = buffer.position();
+    ByteBuffer body = buffer.duplicate();
+    body.position(position + HEADER_BYTES);
+    body.put(record);
+    buffer.putInt(position, record.length);
+    buffer.position(position + recordBytes);
+    this.active.live++;
+    if (this.forceOnAppend) {
+      buffer.force();
+    }
+    return this.active.id;
+  }
+
+  /**
+   * Releases a record of the given segment. Once all records of the oldest segments are released,
+   * those segments are deleted. The newest segment is never deleted.
+   *
+   * @param segmentId The id of the segment the record was appended to.
+   */
+  public synchronized void release(long segmentId) {
+    Segment segment = this.segments.get(segmentId);
+    if (segment != null && segment.live > 0) {
+      segment.live--;
+      this.trim();
+    }
+  }
+
+  /**
+   * Passes every record in the log to the given consumer, oldest first, together with the id of its
+   * segment. This is typically done once after opening the log, to restore state and release
+   * records that are no longer needed. The consumer must not append to the log.
+   *
+   * @param consumer The consumer of segment ids and read-only record buffers.
+   */
+  public void replay(BiConsumer<Long, ByteBuffer> consumer) {
+    List<Map.Entry<Long, ByteBuffer>> records = new ArrayList<>();
+    synchronized (this) {
+      for (Segment segment : this.segments.values()) {
+        ByteBuffer buffer = segment.buffer.asReadOnlyBuffer();
+        int end = segment.buffer.position();
+        int position = 0;
+        while (position < end) {
+          int length = buffer.getInt(position);
+          ByteBuffer record = buffer.duplicate();
+          record.limit(position + HEADER_BYTES + length).position(position + HEADER_BYTES);
+          records.add(Map.entry(segment.id, record.slice()));
+          position += HEADER_BYTES + length;
+        }
+      }
+    }
+    records.forEach(record -> consumer.accept(record.getKey(), record.getValue()));
+  }
+
+  /**
+   * Returns the number of segments of the log.
+   *
+   * @return The number of segments.
+   */
+  public synchronized int getSegmentCount() {
+    return this.segments.size();
+  }
+
+  /**
+   * Returns the number of records that have not been released.
+   *
+   * @return The number of live records.
+   */
+  public synchronized long getLiveRecords() {
+    return this.segments.values().stream().mapToLong(segment -> segment.live).sum();
+  }
+
+  /**
+   * Forces all segments to disk and closes the log. The segment files are kept, so that the log can
+   * be opened again.
+   */
+  @Override
+  public synchronized void close() {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.segments.values().forEach(segment -> segment.buffer.force());
+    this.segments.clear();
+    this.unlock();
+  }
+
+  private static FileLock lock(FileChannel channel, Path directory) {
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (IOException | OverlappingFileLockException e) {
+      lock = null;
+    }
+    if (lock == null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        log.warn("Failed to close lock file of segment log: {}", directory, e);
+      }
+      throw new IllegalStateException("Segment log is already open: " + directory);
+    }
+    return lock;
+  }
+
+  private void unlock() {
+    try {
+      this.lock.release();
+      this.lockChannel.close();
+    } catch (IOException e) {
+      log.warn("Failed to release lock of segment log: {}", this.directory, e);
+    }
+  }
+
+  private Segment createSegment(long id, int sizeBytes) throws IOException {
+    Path path = this.directory.resolve(String.format("%019d%s", id, SUFFIX));
+    Segment segment;
+    try (FileChannel channel =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      segment = new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes));
+    }
+    this.segments.put(id, segment);
+    return segment;
+  }
+
+  /** Deletes the oldest segments while all of their records are released. */
+  private void trim() {
+    while (this.segments.size() > 1) {
+      Segment oldest = this.segments.firstEntry().getValue();
+      if (oldest == this.active || oldest.live > 0) {
+        return;
+      }
+      this.segments.pollFirstEntry();
+      try {
+        Files.deleteIfExists(oldest.path);
+      } catch (IOException e) {
+        log.error("Failed to delete segment: {}", oldest.path, e);
+      }
+    }
+  }
+
+  /** A memory-mapped segment file. The position of its buffer is the end of its last record. */
+  private static final class Segment {
+    private final long id;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private int live;
+
+    private Segment(long id, Path path, MappedByteBuffer buffer) {
+      this.id = id;
+      this.path = path;
+      this.buffer = buffer;
+    }
+
+    /** Maps an existing segment file and counts its complete records as live. */
+    private static Segment open(long id, Path path) throws IOException {
+      Segment segment;
+      try (FileChannel channel =
+          FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        segment =
+            new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+      }
+      MappedByteBuffer buffer = segment.buffer;
+      int position = 0;
+      while (position + HEADER_BYTES <= buffer.capacity()) {
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > buffer.capacity() - position - HEADER_BYTES) {
+          break;
+        }
+        segment.live++;
+        position += HEADER_BYTES + length;
+      }
+      buffer.position(position);
+      return segment;
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package com.dream11.queue.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import lombok.NonNull;
+
+/**
+ * QueueMetrics that publishes measurements to a Micrometer MeterRegistry. All meters are tagged
+ * with the queue, and meters of requests are also tagged with the operation. Latencies are
+ * published with percentile histograms, so that percentiles can be aggregated across instances.
+ * This binding requires micrometer-core on the classpath.
+ *
+ * <p>The following meters are published:
+ *
+ * <ul>
+ *   <li>{@code messagekit.request.latency}: timer of every request to the queue provider.
+ *   <li>{@code messagekit.request.errors}: counter of failed requests and failed batch entries,
+ *       tagged with the error type.
+ *   <li>{@code messagekit.receive.messages}: distribution of the number of messages per receive.
+ *   <li>{@code messagekit.receive.empty}: counter of receives that returned no messages.
+ *   <li>{@code messagekit.delivery.latency}: timer of the time between sending and receiving a
+ *       message.
+ *   <li>{@code messagekit.batch.fill}: distribution of the fill ratio of batch requests.
+ *   <li>{@code messagekit.heartbeats}: counter of sent heartbeats.
+ *   <li>{@code messagekit.send.deduplication}: counter of sends checked for duplicates, tagged with
+ *       the result, which is {@code hit} for dropped duplicates and {@code miss} otherwise.
+ *   <li>{@code messagekit.receive.deduplication}: counter of received messages checked for
+ *       duplicates, tagged with the result in the same way.
+ *   <li>{@code messagekit.in_flight}, {@code messagekit.prefetched}, {@code messagekit.pollers},
+ *       {@code messagekit.send_concurrency_limit}, {@code messagekit.send_in_flight}, {@code
+ *       messagekit.send_queued}, {@code messagekit.spilled}, {@code messagekit.concurrency} and
+ *       {@code messagekit.backlog}: gauges.
+ * </ul>
+ *
+ * <p>A gauge registered by several owners on the same queue, such as two producers with send
+ * limits, publishes the sum of their values, except for the backlog, which every owner samples from
+ * the same queue and which publishes the largest value. The gauge is removed once all of its owners
+ * are closed.
+ */
+public class MicrometerQueueMetrics implements QueueMetrics {
+  private static final String QUEUE = "queue";
+  private static final String OPERATION = "operation";
+
+  private final MeterRegistry registry;
+
+  /** Meters keyed by their name and tags, so that they are not looked up on every measurement. */
+  private final Map<String, Object> meters = new ConcurrentHashMap<>();
+
+  /** The owners of registered gauges, keyed by their name and queue. */
+  private final Map<String, GaugeOwners> gauges = new HashMap<>();
+
+  /**
+   * Constructs a new MicrometerQueueMetrics.
+   *
+   * @param registry The registry to publish meters to.
+   */
+  public MicrometerQueueMetrics(@NonNull MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void recordLatency(String queue, Operation operation, long durationNanos) {
+    this.<Timer>meter(
+            "latency",
+            queue,
+            operation,
+            () ->
+                Timer.builder("messagekit.request.latency")
+                    .tags(tags(queue, operation))
+                    .publishPercentileHistogram()
+                    .register(this.registry))
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void recordError(String queue, Operation operation, String errorType) {
+    this.<Counter>meter(
+            "errors:" + errorType,
+            queue,
+            operation,
+            () ->
+                Counter.builder("messagekit.request.errors")
+                    .tags(tags(queue, operation).and("type", errorType))
+                    .register(this.registry))
+        .increment();
+  }
+
+  @Override
+  public void recordReceive(String queue, int messageCount) {
+    this.<DistributionSummary>meter(
+            "receive",
+            queue,
+            null,
+            () ->
+                DistributionSummary.builder("messagekit.receive.messages")
+                    .tags(Tags.of(QUEUE, queue))
+                    .register(this.registry))
+        .record(messageCount);
+    if (messageCount == 0) {
+      this.<Counter>meter(
+              "empty",
+              queue,
+              null,
+              () ->
+                  Counter.builder("messagekit.receive.empty")
+                      .tags(Tags.of(QUEUE, queue))
+                      .register(this.registry))
+          .increment();
+    }
+  }
+
+  @Override
+  public void recordDeliveryLatency(String queue, long latencyMillis) {
+    this.<Timer>meter(
+            "delivery",
+            queue,
+            null,
+            () ->
+                Timer.builder("messagekit.delivery.latency")
+                    .tags(Tags.of(QUEUE, queue))
+                    .publishPercentileHistogram()
+                    .register(this.registry))
+        .record(latencyMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void recordBatch(String queue, Operation operation, int size, int capacity) {
+    this.<DistributionSummary>meter(
+            "batch",
+            queue,
+            operation,
+            () ->
+                DistributionSummary.builder("messagekit.batch.fill")
+                    .tags(tags(queue, operation))
+                    .register(this.registry))
+        .record(capacity > 0 ? (double) size / capacity : 1.0);
+  }
+
+  @Override
+  public void recordHeartbeats(String queue, int count) {
+    this.<Counter>meter(
+            "heartbeats",
+            queue,
+            null,
+            () ->
+                Counter.builder("messagekit.heartbeats")
+                    .tags(Tags.of(QUEUE, queue))
+                    .register(this.registry))
+        .increment(count);
+  }
+
+  @Override
+  public void recordSendDeduplication(String queue, boolean duplicate) {
+    String result = duplicate ? "hit" : "miss";
+    this.<Counter>meter(
+            "send.deduplication:" + result,
+            queue,
+            null,
+            () ->
+                Counter.builder("messagekit.send.deduplication")
+                    .tags(Tags.of(QUEUE, queue, "result", result))
+                    .register(this.registry))
+        .increment();
+  }
+
+  @Override
+  public void recordReceiveDeduplication(String queue, boolean duplicate) {
+    String result = duplicate ? "hit" : "miss";
+    this.<Counter>meter(
+            "receive.deduplication:" + result,
+            queue,
+            null,
+            () ->
+                Counter.builder("messagekit.receive.deduplication")
+                    .tags(Tags.of(QUEUE, queue, "result", result))
+                    .register(this.registry))
+        .increment();
+  }
+
+  @Override
+  public Runnable registerGauge(String queue, Gauge gauge, Supplier<Number> value) {
+    String name = "messagekit." + gauge.name().toLowerCase(Locale.ROOT);
+    String key = name + '|' + queue;
+    GaugeOwners owners;
+    synchronized (this.gauges) {
+      owners = this.gauges.computeIfAbsent(key, k -> new GaugeOwners(gauge == Gauge.BACKLOG));
+      if (owners.values.isEmpty()) {
+        owners.registered =
+            io.micrometer.core.instrument.Gauge.builder(name, owners::value)
+                .tags(Tags.of(QUEUE, queue))
+                .register(this.registry);
+      }
+      owners.values.add(value);
+    }
+    AtomicBoolean removed = new AtomicBoolean();
+    return () -> {
+      if (!removed.compareAndSet(false, true)) {
+        return;
+      }
+      synchronized (this.gauges) {
+        owners.values.remove(value);
+        if (owners.values.isEmpty()) {
+          this.gauges.remove(key, owners);
+          this.registry.remove(owners.registered);
+        }
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private <M> M meter(String kind, String queue, Operation operation, Supplier<M> factory) {
+    String key = kind + '|' + queue + '|' + operation;
+    return (M) this.meters.computeIfAbsent(key, k -> factory.get());
+  }
+
+  private static Tags tags(String queue, Operation operation) {
+    return Tags.of(QUEUE, queue, OPERATION, operation.name().toLowerCase(Locale.ROOT));
+  }
+
+  /** The values of the owners of a gauge, which the gauge publishes the sum or maximum of. */
+  private static final class GaugeOwners {
+    private final boolean max;
+    private final List<Supplier<Number>> values = new CopyOnWriteArrayList<>();
+    private io.micrometer.core.instrument.Gauge registered;
+
+    private GaugeOwners(boolean max) {
+      this.max = max;
+    }
+
+    private Number value() {
+      DoubleStream values = this.values.stream().mapToDouble(value -> value.get().doubleValue());
+      return this.max ? values.max().orElse(Double.NaN) : values.sum();
+    }
+  }
+}
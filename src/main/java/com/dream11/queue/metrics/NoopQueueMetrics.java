@@ -0,0 +1,40 @@
+package com.dream11.queue.metrics;
+
+import java.util.function.Supplier;
+
+/** QueueMetrics that discards all measurements. Used when no metrics are configured. */
+public class NoopQueueMetrics implements QueueMetrics {
+  /** The shared instance of this stateless implementation. */
+  public static final NoopQueueMetrics INSTANCE = new NoopQueueMetrics();
+
+  private static final Runnable NOOP = () -> {};
+
+  @Override
+  public void recordLatency(String queue, Operation operation, long durationNanos) {}
+
+  @Override
+  public void recordError(String queue, Operation operation, String errorType) {}
+
+  @Override
+  public void recordReceive(String queue, int messageCount) {}
+
+  @Override
+  public void recordDeliveryLatency(String queue, long latencyMillis) {}
+
+  @Override
+  public void recordBatch(String queue, Operation operation, int size, int capacity) {}
+
+  @Override
+  public void recordHeartbeats(String queue, int count) {}
+
+  @Override
+  public void recordSendDeduplication(String queue, boolean duplicate) {}
+
+  @Override
+  public void recordReceiveDeduplication(String queue, boolean duplicate) {}
+
+  @Override
+  public Runnable registerGauge(String queue, Gauge gauge, Supplier<Number> value) {
+    return NOOP;
+  }
+}
@@ -0,0 +1,124 @@
+package com.dream11.queue.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * Receives measurements of queue operations. Every measurement is tagged with the queue it was
+ * taken on, so a single instance can be shared by all producers and consumers. Implementations must
+ * be thread-safe and must not block, since they are called on the hot path of every operation.
+ */
+public interface QueueMetrics {
+  /**
+   * Records the latency of a request to the queue provider.
+   *
+   * @param queue The queue the request was made on.
+   * @param operation The operation of the request.
+   * @param durationNanos The latency in nanoseconds.
+   */
+  void recordLatency(String queue, Operation operation, long durationNanos);
+
+  /**
+   * Records a failed request, or a failed entry within a batch request.
+   *
+   * @param queue The queue the request was made on.
+   * @param operation The operation of the request.
+   * @param errorType The error code returned by the queue provider, or the simple class name of the
+   *     exception if there is none.
+   */
+  void recordError(String queue, Operation operation, String errorType);
+
+  /**
+   * Records the number of messages returned by a receive request.
+   *
+   * @param queue The queue the messages were received from.
+   * @param messageCount The number of received messages. 0 for an empty receive.
+   */
+  void recordReceive(String queue, int messageCount);
+
+  /**
+   * Records the delivery latency of a received message, from the time it was sent to the queue
+   * until it was received.
+   *
+   * @param queue The queue the message was received from.
+   * @param latencyMillis The delivery latency in milliseconds.
+   */
+  void recordDeliveryLatency(String queue, long latencyMillis);
+
+  /**
+   * Records the size of a batch request.
+   *
+   * @param queue The queue the request was made on.
+   * @param operation The operation of the request.
+   * @param size The number of entries in the batch.
+   * @param capacity The maximum number of entries the batch could have held.
+   */
+  void recordBatch(String queue, Operation operation, int size, int capacity);
+
+  /**
+   * Records heartbeats that were sent to extend the visibility of in-flight messages.
+   *
+   * @param queue The queue the messages were received from.
+   * @param count The number of heartbeats.
+   */
+  void recordHeartbeats(String queue, int count);
+
+  /**
+   * Records a send that was checked for duplicates by a deduplicating producer.
+   *
+   * @param queue The queue the message was sent to.
+   * @param duplicate Whether the send was a duplicate and was dropped.
+   */
+  void recordSendDeduplication(String queue, boolean duplicate);
+
+  /**
+   * Records a received message that was checked for duplicates by an idempotent consumer.
+   *
+   * @param queue The queue the message was received from.
+   * @param duplicate Whether the message had already been processed and was dropped.
+   */
+  void recordReceiveDeduplication(String queue, boolean duplicate);
+
+  /**
+   * Registers a gauge whose value is sampled by the implementation whenever needed.
+   *
+   * @param queue The queue the gauge belongs to.
+   * @param gauge The gauge.
+   * @param value The supplier of the current value.
+   * @return A callback that removes the gauge. It is called when the owner of the gauge is closed.
+   */
+  Runnable registerGauge(String queue, Gauge gauge, Supplier<Number> value);
+
+  /** Requests made to the queue provider. */
+  enum Operation {
+    SEND,
+    SEND_BATCH,
+    RECEIVE,
+    DELETE,
+    DELETE_BATCH,
+    CHANGE_VISIBILITY,
+    CHANGE_VISIBILITY_BATCH,
+    GET_QUEUE_ATTRIBUTES
+  }
+
+  /** Values that are sampled rather than recorded. */
+  enum Gauge {
+    /** The number of received messages with active heartbeats that are not yet acknowledged. */
+    IN_FLIGHT,
+    /** The number of messages held in the prefetch buffer. */
+    PREFETCHED,
+    /** The number of active long-poll loops filling the prefetch buffer. */
+    POLLERS,
+    /** The current concurrency limit of sends. */
+    SEND_CONCURRENCY_LIMIT,
+    /** The number of sends that have started but not completed. */
+    SEND_IN_FLIGHT,
+    /** The number of sends queued by the send limiter. */
+    SEND_QUEUED,
+    /** The number of spilled messages waiting to be replayed. */
+    SPILLED,
+    /** The concurrency of a listener container, as set by its autoscaler. */
+    CONCURRENCY,
+    /** The number of visible messages in the queue, as last sampled by an autoscaler. */
+    BACKLOG
+  }
+}
@@ -0,0 +1,115 @@
+package com.dream11.queue.producer;
+
+import com.dream11.queue.config.DeduplicationConfig;
+import com.dream11.queue.dedup.FingerprintCache;
+import com.dream11.queue.metrics.QueueMetrics;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MessageProducer that drops duplicate sends before they reach another producer. The id of every
+ * message is extracted with the given function and added to a {@link FingerprintCache}; a message
+ * whose id is already in the cache is dropped, and its send completes right away. A duplicate of a
+ * message whose send is still in flight is dropped as well, but its send completes together with
+ * the send of the original message. If a send fails, its id is removed from the cache again, so
+ * that a retry of the message is sent. Messages without an id are always sent.
+ *
+ * <p>Duplicates are only caught within the window of the configuration, and among the ids of the
+ * last maximum number of messages. Every checked send is reported to the metrics as a hit for a
+ * dropped duplicate or a miss otherwise. Closing the producer closes the producer it sends to.
+ *
+ * @param <T> The type of message that this producer will handle.
+ */
+@Slf4j
+public class DeduplicatingProducer<T> implements MessageProducer<T> {
+  private final MessageProducer<T> producer;
+  private final Function<T, String> idExtractor;
+  private final FingerprintCache cache;
+
+  /** The sends in flight by message id, which duplicates complete together with. */
+  private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+  private final QueueMetrics metrics;
+  private final String queue;
+
+  /**
+   * Constructs a new DeduplicatingProducer.
+   *
+   * @param producer The producer that unique messages are sent with.
+   * @param idExtractor The function that extracts the id of a message, or returns null if the
+   *     message has none.
+   * @param config The deduplication configuration.
+   */
+  public DeduplicatingProducer(
+      @NonNull MessageProducer<T> producer,
+      @NonNull Function<T, String> idExtractor,
+      @NonNull DeduplicationConfig config) {
+    this.producer = producer;
+    this.idExtractor = idExtractor;
+    this.cache =
+        new FingerprintCache(
+            config.getMaxEntries(), TimeUnit.SECONDS.toMillis(config.getWindowSeconds()));
+    this.metrics = config.getMetrics();
+    this.queue = config.getQueue();
+  }
+
+  /**
+   * Sends a message unless a message with the same id was sent within the window.
+   *
+   * @param message The message to send.
+   * @return A CompletableFuture that completes when the message is sent, when the original message
+   *     is sent if it is a duplicate of a message in flight, or right away if it is a duplicate of
+   *     a sent message.
+   */
+  @Override
+  public CompletableFuture<Void> send(T message) {
+    String id = this.idExtractor.apply(message);
+    if (id == null) {
+      return this.producer.send(message);
+    }
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    CompletableFuture<Void> original = this.inFlight.putIfAbsent(id, result);
+    if (original != null) {
+      this.metrics.recordSendDeduplication(this.queue, true);
+      log.debug("Dropping duplicate of message in flight: {}", id);
+      return original.copy();
+    }
+    if (!this.cache.add(id)) {
+      this.inFlight.remove(id, result);
+      this.metrics.recordSendDeduplication(this.queue, true);
+      log.debug("Dropping duplicate message: {}", id);
+      return CompletableFuture.completedFuture(null);
+    }
+    this.metrics.recordSendDeduplication(this.queue, false);
+    CompletableFuture<Void> sent;
+    try {
+      sent = this.producer.send(message);
+    } catch (RuntimeException e) {
+      sent = CompletableFuture.failedFuture(e);
+    }
+    sent.whenComplete(
+        (ignored, throwable) -> {
+          if (throwable != null) {
+            this.cache.remove(id);
+          }
+          this.inFlight.remove(id, result);
+          if (throwable == null) {
+            result.complete(null);
+          } else {
+            result.completeExceptionally(throwable);
+          }
+        });
+    return result;
+  }
+
+  /** Closes the producer that messages are sent with. */
+  @Override
+  public void close() {
+    this.producer.close();
+  }
+}
@@ -1,6 +1,9 @@
 package com.dream11.queue.producer;
 
+import com.dream11.queue.codec.MessageCodec;
 import com.dream11.queue.config.QueueConfig;
+import com.dream11.queue.impl.local.LocalConfig;
+import com.dream11.queue.impl.local.LocalProducer;
 import com.dream11.queue.impl.sqs.SqsConfig;
 import com.dream11.queue.impl.sqs.SqsProducer;
 import lombok.NonNull;
@@ -27,6 +30,33 @@ public class MessageProducerFactory {
     switch (config.getProvider()) {
       case SQS:
         return new SqsProducer<>((SqsConfig) config);
+      case IN_MEMORY:
+      case LOCAL_DISK:
+        return new LocalProducer<>((LocalConfig) config);
+      default:
+        throw new IllegalArgumentException(
+            "Invalid message producer type: " + config.getProvider());
+    }
+  }
+
+  /**
+   * Creates a MessageProducer that encodes messages with the given codec. The type of producer
+   * created depends on the provider specified in the configuration.
+   *
+   * @param config The configuration for the message producer.
+   * @param codec The codec used to encode messages.
+   * @return A new MessageProducer instance.
+   * @throws IllegalArgumentException if the provider type is invalid.
+   * @param <T> The type of message that the producer will handle.
+   */
+  public <T> MessageProducer<T> create(
+      @NonNull QueueConfig config, @NonNull MessageCodec<T> codec) {
+    switch (config.getProvider()) {
+      case SQS:
+        return new SqsProducer<>((SqsConfig) config, codec);
+      case IN_MEMORY:
+      case LOCAL_DISK:
+        return new LocalProducer<>((LocalConfig) config, codec);
       default:
         throw new IllegalArgumentException(
             "Invalid message producer type: " + config.getProvider());
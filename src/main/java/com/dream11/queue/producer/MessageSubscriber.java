@@ -0,0 +1,154 @@
+package com.dream11.queue.producer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the items of a {@link Flow.Publisher} with a MessageProducer. Items are requested one batch
+ * at a time, where the batch size should match the batch size of the producer, and at most two
+ * batches of sends are outstanding. The next batch is requested once a batch worth of sends has
+ * completed, so the publisher is slowed down to the rate at which the producer sends.
+ *
+ * <p>The first failed send cancels the subscription and fails the completion future. Otherwise the
+ * completion future completes once the publisher completes and all sends have completed, or fails
+ * with the error of the publisher once its outstanding sends have completed. The subscriber does
+ * not close the underlying producer, since it does not own it.
+ *
+ * @param <T> The type of message that this subscriber will send.
+ */
+@Slf4j
+public class MessageSubscriber<T> implements Flow.Subscriber<T> {
+  /** The default batch size, which is the largest batch that SQS accepts. */
+  public static final int DEFAULT_BATCH_SIZE = 10;
+
+  private final MessageProducer<T> producer;
+  private final int batchSize;
+
+  /**
+   * The future that completes when all items have been sent, or fails with the first error of the
+   * publisher or of a send.
+   */
+  @Getter private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+  private Flow.Subscription subscription;
+
+  /** The number of sends that have not completed. */
+  private int outstanding;
+
+  /** The number of sends that have completed since the last request. */
+  private int completed;
+
+  /** Whether the publisher has signalled completion or an error. */
+  private boolean upstreamDone;
+
+  private Throwable upstreamError;
+
+  /**
+   * Constructs a new MessageSubscriber that requests items in batches of the default size.
+   *
+   * @param producer The producer to send items with.
+   */
+  public MessageSubscriber(MessageProducer<T> producer) {
+    this(producer, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Constructs a new MessageSubscriber.
+   *
+   * @param producer The producer to send items with.
+   * @param batchSize The number of items to request at a time.
+   */
+  public MessageSubscriber(@NonNull MessageProducer<T> producer, int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+    }
+    this.producer = producer;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public void onSubscribe(@NonNull Flow.Subscription subscription) {
+    synchronized (this) {
+      if (this.subscription != null) {
+        subscription.cancel();
+        return;
+      }
+      this.subscription = subscription;
+    }
+    subscription.request(2L * this.batchSize);
+  }
+
+  @Override
+  public void onNext(@NonNull T item) {
+    synchronized (this) {
+      if (this.completion.isDone()) {
+        return;
+      }
+      this.outstanding++;
+    }
+    CompletableFuture<Void> sent;
+    try {
+      sent = this.producer.send(item);
+    } catch (RuntimeException e) {
+      sent = CompletableFuture.failedFuture(e);
+    }
+    sent.whenComplete((ignored, throwable) -> this.onSent(throwable));
+  }
+
+  @Override
+  public void onError(@NonNull Throwable throwable) {
+    synchronized (this) {
+      this.upstreamDone = true;
+      this.upstreamError = throwable;
+    }
+    this.completeIfDone();
+  }
+
+  @Override
+  public void onComplete() {
+    synchronized (this) {
+      this.upstreamDone = true;
+    }
+    this.completeIfDone();
+  }
+
+  private void onSent(Throwable throwable) {
+    boolean request = false;
+    synchronized (this) {
+      this.outstanding--;
+      if (throwable == null && ++this.completed == this.batchSize) {
+        this.completed = 0;
+        request = !this.upstreamDone && !this.completion.isDone();
+      }
+    }
+    if (throwable != null) {
+      if (this.completion.completeExceptionally(throwable)) {
+        log.error("Failed to send message, cancelling subscription", throwable);
+        this.subscription.cancel();
+      }
+      return;
+    }
+    if (request) {
+      this.subscription.request(this.batchSize);
+    }
+    this.completeIfDone();
+  }
+
+  private void completeIfDone() {
+    Throwable error;
+    synchronized (this) {
+      if (!this.upstreamDone || this.outstanding > 0) {
+        return;
+      }
+      error = this.upstreamError;
+    }
+    if (error != null) {
+      this.completion.completeExceptionally(error);
+    } else {
+      this.completion.complete(null);
+    }
+  }
+}
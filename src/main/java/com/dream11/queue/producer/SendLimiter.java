@@ -0,0 +1,371 @@
+package com.dream11.queue.producer;
+
+import com.dream11.queue.config.SendLimitConfig;
+import com.dream11.queue.metrics.QueueMetrics;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Limits the rate and concurrency of sends. A token bucket bounds the rate at which sends start,
+ * and a concurrency limit bounds the number of sends that have started but not completed. With
+ * adaptive concurrency, the limit is adjusted using additive increase and multiplicative decrease:
+ * it grows by one for every limit worth of successful sends, and halves whenever a send fails
+ * because the queue provider is overloaded.
+ *
+ * <p>Sends that exceed the limits block the caller, fail immediately, or are queued, depending on
+ * the overflow strategy of the configuration. The concurrency limit and the number of outstanding
+ * and queued sends are published as gauges, and rejected sends are recorded as errors of the SEND
+ * operation.
+ */
+public class SendLimiter implements AutoCloseable {
+  private static final double DECREASE_RATIO = 0.5;
+
+  private final SendLimitConfig config;
+  private final Predicate<Throwable> isOverload;
+  private final QueueMetrics metrics;
+  private final String queue;
+  private final double maxLimit;
+  private final double burstSize;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /** Signalled whenever a send completes. */
+  private final Condition released = this.lock.newCondition();
+
+  private final Deque<QueuedSend> queued = new ArrayDeque<>();
+
+  /** The scheduler that starts queued sends once tokens are available, or null if not needed. */
+  private final ScheduledExecutorService drainScheduler;
+
+  private final List<Runnable> gaugeRegistrations = new ArrayList<>();
+  private double tokens;
+  private long refilledAtNanos;
+  private double limit;
+  private int inFlight;
+  private boolean drainScheduled;
+  private boolean closed;
+
+  /**
+   * Constructs a new SendLimiter.
+   *
+   * @param config The send limit configuration.
+   * @param isOverload Whether a failed send indicates that the queue provider is overloaded, in
+   *     which case the adaptive concurrency limit is decreased.
+   * @param metrics The metrics that the state of the limiter is reported to.
+   * @param queue The queue that sends are made to.
+   */
+  public SendLimiter(
+      SendLimitConfig config,
+      Predicate<Throwable> isOverload,
+      QueueMetrics metrics,
+      String queue) {
+    this.config = config;
+    this.isOverload = isOverload;
+    this.metrics = metrics;
+    this.queue = queue;
+    this.maxLimit = config.getMaxConcurrency() > 0 ? config.getMaxConcurrency() : Integer.MAX_VALUE;
+    this.limit =
+        config.isAdaptiveConcurrency()
+            ? Math.max(
+                config.getMinConcurrency(),
+                Math.min(config.getInitialConcurrency(), this.maxLimit))
+            : this.maxLimit;
+    this.burstSize =
+        config.getBurstSize() > 0
+            ? config.getBurstSize()
+            : Math.max(1, Math.ceil(config.getPermitsPerSecond()));
+    this.tokens = this.burstSize;
+    this.refilledAtNanos = System.nanoTime();
+    this.drainScheduler =
+        config.getOverflowStrategy() == SendLimitConfig.OverflowStrategy.QUEUE
+                && config.getPermitsPerSecond() > 0
+            ? Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                  Thread thread = new Thread(runnable, "send-limiter");
+                  thread.setDaemon(true);
+                  return thread;
+                })
+            : null;
+    this.gaugeRegistrations.add(
+        metrics.registerGauge(queue, QueueMetrics.Gauge.SEND_CONCURRENCY_LIMIT, this::getLimit));
+    this.gaugeRegistrations.add(
+        metrics.registerGauge(queue, QueueMetrics.Gauge.SEND_IN_FLIGHT, this::getInFlight));
+    this.gaugeRegistrations.add(
+        metrics.registerGauge(queue, QueueMetrics.Gauge.SEND_QUEUED, this::getQueued));
+  }
+
+  /**
+   * Makes a send once the limits allow it. Depending on the overflow strategy, a send that exceeds
+   * the limits blocks the calling thread, fails immediately, or is queued.
+   *
+   * @param send The send to make.
+   * @return A CompletableFuture that completes when the send completes, or fails with a {@link
+   *     SendRejectedException} if the send was rejected.
+   */
+  public CompletableFuture<Void> submit(Supplier<CompletableFuture<Void>> send) {
+    QueuedSend queuedSend = null;
+    List<QueuedSend> ready = Collections.emptyList();
+    this.lock.lock();
+    try {
+      if (this.closed) {
+        return this.reject("Send limiter is closed");
+      }
+      if (!this.queued.isEmpty() || !this.tryAcquire()) {
+        switch (this.config.getOverflowStrategy()) {
+          case FAIL:
+            return this.reject("Send limit exceeded");
+          case QUEUE:
+            if (this.queued.size() >= this.config.getMaxQueueSize()) {
+              return this.reject("Send queue is full");
+            }
+            queuedSend = new QueuedSend(send);
+            this.queued.add(queuedSend);
+            ready = this.pollReady();
+            break;
+          default:
+            if (!this.awaitPermit()) {
+              return this.reject("Timed out waiting for send limit");
+            }
+        }
+      }
+    } finally {
+      this.lock.unlock();
+    }
+    if (queuedSend != null) {
+      ready.forEach(this::runQueued);
+      return queuedSend.future;
+    }
+    return this.run(send);
+  }
+
+  /**
+   * Returns the current concurrency limit.
+   *
+   * @return The concurrency limit, or Integer.MAX_VALUE if concurrency is not limited.
+   */
+  public int getLimit() {
+    this.lock.lock();
+    try {
+      return (int) this.limit;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of sends that have started but not completed.
+   *
+   * @return The number of outstanding sends.
+   */
+  public int getInFlight() {
+    this.lock.lock();
+    try {
+      return this.inFlight;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of queued sends.
+   *
+   * @return The number of queued sends.
+   */
+  public int getQueued() {
+    this.lock.lock();
+    try {
+      return this.queued.size();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Closes the limiter. Queued sends fail with a {@link SendRejectedException}, and later sends are
+   * rejected. Sends that have already started are not affected.
+   */
+  @Override
+  public void close() {
+    List<QueuedSend> rejected;
+    this.lock.lock();
+    try {
+      this.closed = true;
+      rejected = new ArrayList<>(this.queued);
+      this.queued.clear();
+      this.released.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+    rejected.forEach(
+        queuedSend ->
+            queuedSend.future.completeExceptionally(
+                new SendRejectedException("Send limiter is closed")));
+    if (this.drainScheduler != null) {
+      this.drainScheduler.shutdownNow();
+    }
+    this.gaugeRegistrations.forEach(Runnable::run);
+  }
+
+  private CompletableFuture<Void> run(Supplier<CompletableFuture<Void>> send) {
+    CompletableFuture<Void> future;
+    try {
+      future = send.get();
+    } catch (RuntimeException e) {
+      future = CompletableFuture.failedFuture(e);
+    }
+    return future.whenComplete((v, throwable) -> this.release(throwable));
+  }
+
+  private void release(Throwable throwable) {
+    List<QueuedSend> ready;
+    this.lock.lock();
+    try {
+      this.inFlight--;
+      if (this.config.isAdaptiveConcurrency()) {
+        if (throwable == null) {
+          this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+        } else if (this.isOverload.test(throwable)) {
+          this.limit = Math.max(this.config.getMinConcurrency(), this.limit * DECREASE_RATIO);
+        }
+      }
+      this.released.signalAll();
+      ready = this.pollReady();
+    } finally {
+      this.lock.unlock();
+    }
+    ready.forEach(this::runQueued);
+  }
+
+  private void drain() {
+    List<QueuedSend> ready;
+    this.lock.lock();
+    try {
+      this.drainScheduled = false;
+      ready = this.pollReady();
+    } finally {
+      this.lock.unlock();
+    }
+    ready.forEach(this::runQueued);
+  }
+
+  private void runQueued(QueuedSend queuedSend) {
+    this.run(queuedSend.send)
+        .whenComplete(
+            (v, throwable) -> {
+              if (throwable != null) {
+                queuedSend.future.completeExceptionally(throwable);
+              } else {
+                queuedSend.future.complete(null);
+              }
+            });
+  }
+
+  /** Removes the queued sends that the limits allow to start. Must hold the lock. */
+  private List<QueuedSend> pollReady() {
+    if (this.queued.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<QueuedSend> ready = new ArrayList<>();
+    while (!this.queued.isEmpty() && this.tryAcquire()) {
+      ready.add(this.queued.poll());
+    }
+    this.scheduleDrain();
+    return ready;
+  }
+
+  /** Schedules a drain for when the next token is available, if sends are queued. */
+  private void scheduleDrain() {
+    if (this.drainScheduler == null || this.drainScheduled || this.queued.isEmpty()) {
+      return;
+    }
+    long waitNanos = this.nanosUntilToken();
+    if (waitNanos == Long.MAX_VALUE) {
+      // Waiting for a send to complete, which drains the queue
+      return;
+    }
+    this.drainScheduled = true;
+    this.drainScheduler.schedule(this::drain, waitNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Waits for a permit for up to the configured time. Must hold the lock. */
+  private boolean awaitPermit() {
+    long deadline =
+        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.config.getMaxBlockMillis());
+    while (!this.tryAcquire()) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0 || this.closed) {
+        return false;
+      }
+      try {
+        this.released.awaitNanos(Math.min(remaining, this.nanosUntilToken()));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Acquires a token and a concurrency slot if both are available. Must hold the lock. */
+  private boolean tryAcquire() {
+    if (this.inFlight >= (int) this.limit) {
+      return false;
+    }
+    if (this.config.getPermitsPerSecond() > 0) {
+      this.refill();
+      if (this.tokens < 1) {
+        return false;
+      }
+      this.tokens--;
+    }
+    this.inFlight++;
+    return true;
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    this.tokens =
+        Math.min(
+            this.burstSize,
+            this.tokens + (now - this.refilledAtNanos) * this.config.getPermitsPerSecond() / 1e9);
+    this.refilledAtNanos = now;
+  }
+
+  /**
+   * Returns the time until the next token is available, or Long.MAX_VALUE if a token is available
+   * or rate limiting is disabled, in which case only a completing send can make room.
+   */
+  private long nanosUntilToken() {
+    if (this.config.getPermitsPerSecond() <= 0) {
+      return Long.MAX_VALUE;
+    }
+    this.refill();
+    if (this.tokens >= 1) {
+      return Long.MAX_VALUE;
+    }
+    return (long) Math.ceil((1 - this.tokens) / this.config.getPermitsPerSecond() * 1e9);
+  }
+
+  private CompletableFuture<Void> reject(String reason) {
+    this.metrics.recordError(
+        this.queue, QueueMetrics.Operation.SEND, SendRejectedException.class.getSimpleName());
+    return CompletableFuture.failedFuture(new SendRejectedException(reason));
+  }
+
+  @RequiredArgsConstructor
+  private static class QueuedSend {
+    private final Supplier<CompletableFuture<Void>> send;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+  }
+}
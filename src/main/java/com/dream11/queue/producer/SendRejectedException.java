@@ -0,0 +1,13 @@
+package com.dream11.queue.producer;
+
+/** Exception thrown when a send is rejected because it exceeds the configured send limits. */
+public class SendRejectedException extends RuntimeException {
+  /**
+   * Constructs a new SendRejectedException.
+   *
+   * @param message The reason the send was rejected.
+   */
+  public SendRejectedException(String message) {
+    super(message);
+  }
+}
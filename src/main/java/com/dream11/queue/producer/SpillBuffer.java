@@ -0,0 +1,358 @@
+package com.dream11.queue.producer;
+
+import com.dream11.queue.config.SpillConfig;
+import com.dream11.queue.journal.SegmentLog;
+import com.dream11.queue.metrics.QueueMetrics;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-ahead spill stage for sends. Sends that fail with a retriable error are appended to a
+ * {@link SegmentLog} instead of failing, and replayed in the background once the queue provider
+ * accepts them again. While messages are spilled, new sends are appended to the journal right away
+ * rather than attempted, so that they complete at the speed of the local disk and keep their place
+ * behind the earlier spilled messages. A spilled send completes successfully once the message is in
+ * the journal.
+ *
+ * <p>Replays run at the configured interval, and send up to the replay batch size of spilled
+ * messages concurrently. While a replay succeeds, the next batch is sent right away; a replay that
+ * fails with a retriable error puts its messages back and waits for the next interval. Spilled
+ * messages that fail with an error that is not retriable are dropped and logged. The total size of
+ * the spilled messages is bounded, and spilled messages found in the journal when the buffer is
+ * created are replayed. The number of spilled messages is published as a gauge.
+ *
+ * <p>Every spilled message is appended to the journal as a spill record with a sequence number, and
+ * every message that is replayed or dropped as a sent record with the same sequence number, so that
+ * a buffer created on the same directory only replays the messages that were not sent yet.
+ */
+@Slf4j
+public class SpillBuffer implements AutoCloseable {
+  private static final byte SPILL = 1;
+  private static final byte SENT = 2;
+
+  private final SpillConfig config;
+  private final Function<Entry, CompletableFuture<Void>> sender;
+  private final Predicate<Throwable> isRetriable;
+  private final SegmentLog segmentLog;
+  private final ScheduledExecutorService replayScheduler;
+  private final Runnable gaugeRegistration;
+  private final Deque<Spilled> spilled = new ArrayDeque<>();
+  private long spilledBytes;
+  private long nextSequence;
+  private boolean replaying;
+  private boolean closed;
+
+  /**
+   * Constructs a new SpillBuffer and schedules replays of the messages found in its journal.
+   *
+   * @param config The spill configuration.
+   * @param sender The function that sends a message to the queue provider.
+   * @param isRetriable Whether a failed send may succeed later, in which case it is spilled.
+   * @param metrics The metrics that the number of spilled messages is reported to.
+   * @param queue The queue that messages are sent to.
+   */
+  public SpillBuffer(
+      @NonNull SpillConfig config,
+      @NonNull Function<Entry, CompletableFuture<Void>> sender,
+      @NonNull Predicate<Throwable> isRetriable,
+      @NonNull QueueMetrics metrics,
+      String queue) {
+    if (config.getDirectory() == null) {
+      throw new IllegalArgumentException("A directory is required to spill sends");
+    }
+    this.config = config;
+    this.sender = sender;
+    this.isRetriable = isRetriable;
+    this.segmentLog =
+        new SegmentLog(
+            config.getDirectory(), config.getSegmentSizeBytes(), config.isForceOnWrite());
+    Map<Long, Spilled> pending = new LinkedHashMap<>();
+    this.segmentLog.replay(
+        (segment, record) -> {
+          int bytes = record.remaining();
+          byte type = record.get();
+          long sequence = record.getLong();
+          this.nextSequence = Math.max(this.nextSequence, sequence + 1);
+          if (type == SPILL) {
+            pending.put(sequence, new Spilled(decode(record), sequence, segment, bytes));
+          } else {
+            Spilled sent = pending.remove(sequence);
+            this.segmentLog.release(segment);
+            if (sent != null) {
+              this.segmentLog.release(sent.segment);
+            }
+          }
+        });
+    for (Spilled message : pending.values()) {
+      this.spilled.add(message);
+      this.spilledBytes += message.bytes;
+    }
+    if (!this.spilled.isEmpty()) {
+      log.info("Found {} spilled messages for queue {}", this.spilled.size(), queue);
+    }
+    this.replayScheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "spill-replay");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.replayScheduler.scheduleWithFixedDelay(
+        this::replay,
+        config.getReplayIntervalMillis(),
+        config.getReplayIntervalMillis(),
+        TimeUnit.MILLISECONDS);
+    this.gaugeRegistration =
+        metrics.registerGauge(queue, QueueMetrics.Gauge.SPILLED, this::getSpilledCount);
+  }
+
+  /**
+   * Sends a message, or spills it if messages are already spilled or the send fails with a
+   * retriable error.
+   *
+   * @param entry The message to send.
+   * @return A CompletableFuture that completes when the message is sent or spilled, or fails if the
+   *     send fails with an error that is not retriable, or the buffer is full.
+   */
+  public CompletableFuture<Void> send(Entry entry) {
+    synchronized (this) {
+      if (!this.spilled.isEmpty()) {
+        return this.spill(entry, null);
+      }
+    }
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    this.sender
+        .apply(entry)
+        .whenComplete(
+            (ignored, throwable) -> {
+              if (throwable == null) {
+                result.complete(null);
+              } else if (this.isRetriable.test(throwable)) {
+                this.spill(entry, throwable).whenComplete(complete(result));
+              } else {
+                result.completeExceptionally(throwable);
+              }
+            });
+    return result;
+  }
+
+  /**
+   * Returns the number of spilled messages waiting to be replayed.
+   *
+   * @return The number of spilled messages.
+   */
+  public synchronized int getSpilledCount() {
+    return this.spilled.size();
+  }
+
+  /**
+   * Returns the total size in bytes of the spilled messages waiting to be replayed.
+   *
+   * @return The size of the spilled messages.
+   */
+  public synchronized long getSpilledBytes() {
+    return this.spilledBytes;
+  }
+
+  /**
+   * Stops replays and closes the journal. Spilled messages are kept in the journal and replayed by
+   * the next buffer created on the same directory.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+    }
+    this.replayScheduler.shutdownNow();
+    this.gaugeRegistration.run();
+    this.segmentLog.close();
+  }
+
+  private synchronized CompletableFuture<Void> spill(Entry entry, Throwable cause) {
+    if (this.closed) {
+      return CompletableFuture.failedFuture(
+          cause != null ? cause : new IllegalStateException("Spill buffer is closed"));
+    }
+    byte[] record = encode(this.nextSequence, entry);
+    if (this.spilledBytes + record.length > this.config.getMaxBytes()) {
+      SendRejectedException exception = new SendRejectedException("Spill buffer is full");
+      if (cause != null) {
+        exception.initCause(cause);
+      }
+      return CompletableFuture.failedFuture(exception);
+    }
+    try {
+      long segment = this.segmentLog.append(record);
+      this.spilled.add(new Spilled(entry, this.nextSequence++, segment, record.length));
+      this.spilledBytes += record.length;
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(cause != null ? cause : e);
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /** Sends the next batch of spilled messages, and keeps going while batches succeed. */
+  private void replay() {
+    List<Spilled> batch = new ArrayList<>();
+    synchronized (this) {
+      if (this.replaying || this.closed) {
+        return;
+      }
+      while (batch.size() < this.config.getReplayBatchSize() && !this.spilled.isEmpty()) {
+        batch.add(this.spilled.poll());
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+      this.replaying = true;
+    }
+    List<CompletableFuture<Throwable>> results = new ArrayList<>(batch.size());
+    for (Spilled message : batch) {
+      CompletableFuture<Void> sent;
+      try {
+        sent = this.sender.apply(message.entry);
+      } catch (RuntimeException e) {
+        sent = CompletableFuture.failedFuture(e);
+      }
+      results.add(sent.handle((ignored, throwable) -> throwable));
+    }
+    CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+        .whenComplete((ignored, throwable) -> this.onReplayed(batch, results));
+  }
+
+  private void onReplayed(List<Spilled> batch, List<CompletableFuture<Throwable>> results) {
+    List<Spilled> failed = new ArrayList<>();
+    synchronized (this) {
+      for (int i = 0; i < batch.size(); i++) {
+        Spilled message = batch.get(i);
+        Throwable throwable = results.get(i).join();
+        if (throwable != null && this.isRetriable.test(throwable)) {
+          failed.add(message);
+          continue;
+        }
+        if (throwable != null) {
+          log.error("Dropping spilled message that cannot be sent", throwable);
+        }
+        this.spilledBytes -= message.bytes;
+        this.markSent(message);
+      }
+      for (int i = failed.size() - 1; i >= 0; i--) {
+        this.spilled.addFirst(failed.get(i));
+      }
+      this.replaying = false;
+      if (!failed.isEmpty() || this.spilled.isEmpty() || this.closed) {
+        return;
+      }
+    }
+    this.replayScheduler.execute(this::replay);
+  }
+
+  /** Appends a sent record for a spilled message, and releases the spill record of the message. */
+  private void markSent(Spilled message) {
+    byte[] record = ByteBuffer.allocate(1 + Long.BYTES).put(SENT).putLong(message.sequence).array();
+    try {
+      // The sent record is only needed while the spill record exists, and segments are deleted
+      // oldest first, so it can be released right away
+      this.segmentLog.release(this.segmentLog.append(record));
+    } catch (RuntimeException e) {
+      log.warn("Failed to journal sent spilled message, it is replayed again on restart", e);
+    }
+    this.segmentLog.release(message.segment);
+  }
+
+  private static <T> BiConsumer<T, Throwable> complete(CompletableFuture<T> result) {
+    return (value, throwable) -> {
+      if (throwable == null) {
+        result.complete(value);
+      } else {
+        result.completeExceptionally(throwable);
+      }
+    };
+  }
+
+  private static byte[] encode(long sequence, Entry entry) {
+    byte[] body = entry.getBody().getBytes(StandardCharsets.UTF_8);
+    byte[] groupId = bytes(entry.getGroupId());
+    byte[] deduplicationId = bytes(entry.getDeduplicationId());
+    ByteBuffer buffer =
+        ByteBuffer.allocate(
+            1
+                + Long.BYTES
+                + 3 * Integer.BYTES
+                + body.length
+                + (groupId == null ? 0 : groupId.length)
+                + (deduplicationId == null ? 0 : deduplicationId.length));
+    buffer.put(SPILL).putLong(sequence);
+    put(buffer, body);
+    put(buffer, groupId);
+    put(buffer, deduplicationId);
+    return buffer.array();
+  }
+
+  private static Entry decode(ByteBuffer record) {
+    return new Entry(get(record), get(record), get(record));
+  }
+
+  private static byte[] bytes(String value) {
+    return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void put(ByteBuffer buffer, byte[] value) {
+    if (value == null) {
+      buffer.putInt(-1);
+    } else {
+      buffer.putInt(value.length).put(value);
+    }
+  }
+
+  private static String get(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] value = new byte[length];
+    buffer.get(value);
+    return new String(value, StandardCharsets.UTF_8);
+  }
+
+  /** A message to send, as it is stored in the journal. */
+  @Value
+  public static class Entry {
+    /** The body of the message. */
+    String body;
+
+    /** The message group id of the message, or null. */
+    String groupId;
+
+    /** The deduplication id of the message, or null. */
+    String deduplicationId;
+  }
+
+  /** A spilled message and the journal segment holding it. */
+  @Value
+  private static class Spilled {
+    Entry entry;
+    long sequence;
+    long segment;
+    int bytes;
+  }
+}
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 import static software.amazon.awssdk.services.sqs.model.QueueAttributeName.VISIBILITY_TIMEOUT;
 
+import com.dream11.queue.config.BatchConfig;
 import com.dream11.queue.config.HeartbeatConfig;
 import com.dream11.queue.impl.sqs.SqsConfig;
 import com.dream11.queue.impl.sqs.SqsConsumer;
@@ -12,6 +13,7 @@ import java.net.URI;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.AfterAll;
@@ -119,6 +121,35 @@ class SqsQueueIT {
     assertThat(messages.get(0).body()).isEqualTo(message.toUpperCase());
   }
 
+  @Test
+  @SneakyThrows
+  void testSendAndReceiveWithBatching() {
+    // Arrange
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl(QUEUE_URL)
+            .region(System.getProperty(Constants.AWS_REGION))
+            .endpoint(System.getProperty(Constants.SQS_ENDPOINT))
+            .receiveConfig(SqsConfig.ReceiveConfig.builder().maxMessages(2).build())
+            .sendBatchConfig(BatchConfig.builder().enabled(true).build())
+            .build();
+    SqsProducer<String> producer = new SqsProducer<>(sqsConfig);
+
+    // Act
+    CompletableFuture.allOf(producer.send("batch message 1"), producer.send("batch message 2"))
+        .get();
+    producer.close();
+    List<Message> messages = SQS_CONSUMER.receive(2).get();
+    for (Message message : messages) {
+      SQS_CONSUMER.acknowledgeMessage(message).get();
+    }
+
+    // Assert
+    assertThat(messages)
+        .extracting(Message::body)
+        .containsExactlyInAnyOrder("batch message 1", "batch message 2");
+  }
+
   @Test
   @SneakyThrows
   void testSendAndReceiveWithTimeout() {
@@ -0,0 +1,64 @@
+package com.dream11.queue.blob;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalBlobStoreTest {
+  @TempDir Path directory;
+
+  @Test
+  void testPutGetAndDelete() throws Exception {
+    // Arrange
+    LocalBlobStore blobStore = new LocalBlobStore(this.directory.resolve("blobs"));
+    byte[] data = "payload".getBytes(StandardCharsets.UTF_8);
+
+    // Act
+    blobStore.put("key-1", data).get(5, TimeUnit.SECONDS);
+    byte[] read = blobStore.get("key-1").get(5, TimeUnit.SECONDS);
+    blobStore.delete("key-1").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(read).isEqualTo(data);
+    assertThat(Files.list(this.directory.resolve("blobs"))).isEmpty();
+  }
+
+  @Test
+  void testGetFailsForMissingKey() {
+    // Arrange
+    LocalBlobStore blobStore = new LocalBlobStore(this.directory);
+
+    // Act and Assert
+    assertThatThrownBy(() -> blobStore.get("missing").get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class);
+  }
+
+  @Test
+  void testDeleteIgnoresMissingKey() throws Exception {
+    // Arrange
+    LocalBlobStore blobStore = new LocalBlobStore(this.directory);
+
+    // Act and Assert
+    blobStore.delete("missing").get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void testRejectsKeysOutsideDirectory() {
+    // Arrange
+    LocalBlobStore blobStore = new LocalBlobStore(this.directory);
+
+    // Act and Assert
+    assertThatThrownBy(() -> blobStore.put("../escape", new byte[0]).get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> blobStore.get("..").get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(IllegalArgumentException.class);
+  }
+}
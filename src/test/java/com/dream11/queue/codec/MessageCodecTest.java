@@ -0,0 +1,115 @@
+package com.dream11.queue.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+
+class MessageCodecTest {
+
+  @Test
+  void testStringCodecReturnsBodyUnchanged() {
+    // Act
+    String encoded = StringMessageCodec.INSTANCE.encode("message");
+
+    // Assert
+    assertThat(encoded).isEqualTo("message");
+    assertThat(StringMessageCodec.INSTANCE.decode(encoded)).isEqualTo("message");
+  }
+
+  @Test
+  void testJsonCodecRoundTrip() {
+    // Arrange
+    JsonMessageCodec<Order> codec = new JsonMessageCodec<>(Order.class);
+    Order order = new Order("order-1", 42);
+
+    // Act
+    String encoded = codec.encode(order);
+
+    // Assert
+    assertThat(encoded).isEqualTo("{\"id\":\"order-1\",\"quantity\":42}");
+    assertThat(codec.decode(encoded)).isEqualTo(order);
+  }
+
+  @Test
+  void testJsonCodecReusesBufferAcrossMessagesOfDifferentSizes() {
+    // Arrange
+    JsonMessageCodec<Order> codec = new JsonMessageCodec<>(Order.class);
+    Order large = new Order("x".repeat(300_000), 1);
+    Order small = new Order("order-2", 2);
+
+    // Act
+    String largeEncoded = codec.encode(large);
+    String smallEncoded = codec.encode(small);
+
+    // Assert
+    assertThat(codec.decode(largeEncoded)).isEqualTo(large);
+    assertThat(codec.decode(smallEncoded)).isEqualTo(small);
+  }
+
+  @Test
+  void testJsonCodecThrowsOnMalformedBody() {
+    // Arrange
+    JsonMessageCodec<Order> codec = new JsonMessageCodec<>(Order.class);
+
+    // Act & Assert
+    assertThatThrownBy(() -> codec.decode("not json")).isInstanceOf(UncheckedIOException.class);
+  }
+
+  @Test
+  void testBinaryCodecRoundTrip() {
+    // Arrange
+    BinaryMessageCodec<Order> codec =
+        new BinaryMessageCodec<>(
+            (order, output) -> {
+              output.writeUTF(order.getId());
+              output.writeInt(order.getQuantity());
+            },
+            input -> new Order(input.readUTF(), input.readInt()));
+    Order order = new Order("order-1", 42);
+
+    // Act
+    String encoded = codec.encode(order);
+
+    // Assert
+    assertThat(Base64.getDecoder().decode(encoded)).hasSize(2 + 7 + 4);
+    assertThat(codec.decode(encoded)).isEqualTo(order);
+  }
+
+  public static class Order {
+    private String id;
+    private int quantity;
+
+    public Order() {}
+
+    public Order(String id, int quantity) {
+      this.id = id;
+      this.quantity = quantity;
+    }
+
+    public String getId() {
+      return this.id;
+    }
+
+    public int getQuantity() {
+      return this.quantity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Order)) {
+        return false;
+      }
+      Order other = (Order) o;
+      return this.quantity == other.quantity && Objects.equals(this.id, other.id);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.id, this.quantity);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dream11.queue.metrics.NoopQueueMetrics;
+import org.junit.jupiter.api.Test;
+
+class AutoscaleConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    AutoscaleConfig autoscaleConfig = new AutoscaleConfig();
+
+    // Act and Assert
+    assertThat(autoscaleConfig.isEnabled()).isFalse();
+    assertThat(autoscaleConfig.getMinConcurrency()).isEqualTo(1);
+    assertThat(autoscaleConfig.getMaxConcurrency()).isEqualTo(100);
+    assertThat(autoscaleConfig.getMinPollers()).isEqualTo(1);
+    assertThat(autoscaleConfig.getMaxPollers()).isEqualTo(10);
+    assertThat(autoscaleConfig.getIntervalSeconds()).isEqualTo(30);
+    assertThat(autoscaleConfig.getTargetDrainSeconds()).isEqualTo(60);
+    assertThat(autoscaleConfig.getMetrics()).isSameAs(NoopQueueMetrics.INSTANCE);
+    assertThat(autoscaleConfig.getQueue()).isEqualTo("default");
+  }
+
+  @Test
+  void testListenerConfigDefaultsToDisabledAutoscaling() {
+    // Act and Assert
+    assertThat(new ListenerConfig().getAutoscaleConfig().isEnabled()).isFalse();
+  }
+}
@@ -0,0 +1,54 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BatchConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    BatchConfig batchConfig = new BatchConfig();
+
+    // Act and Assert
+    assertThat(batchConfig.isEnabled()).isFalse();
+    assertThat(batchConfig.getMaxBatchSize()).isEqualTo(10);
+    assertThat(batchConfig.getMaxBatchBytes()).isEqualTo(262_144);
+    assertThat(batchConfig.getLingerMillis()).isEqualTo(10);
+    assertThat(batchConfig.getMaxRetries()).isEqualTo(3);
+  }
+
+  @Test
+  void testDefaultValuesBuilder() {
+    // Arrange
+    BatchConfig batchConfig = BatchConfig.builder().build();
+
+    // Act and Assert
+    assertThat(batchConfig.isEnabled()).isFalse();
+    assertThat(batchConfig.getMaxBatchSize()).isEqualTo(10);
+    assertThat(batchConfig.getMaxBatchBytes()).isEqualTo(262_144);
+    assertThat(batchConfig.getLingerMillis()).isEqualTo(10);
+    assertThat(batchConfig.getMaxRetries()).isEqualTo(3);
+  }
+
+  @Test
+  void testCustomValues() {
+    // Arrange
+    BatchConfig batchConfig =
+        BatchConfig.builder()
+            .enabled(true)
+            .maxBatchSize(5)
+            .maxBatchBytes(1024)
+            .lingerMillis(50)
+            .maxRetries(1)
+            .build();
+
+    // Act and Assert
+    assertThat(batchConfig.isEnabled()).isTrue();
+    assertThat(batchConfig.getMaxBatchSize()).isEqualTo(5);
+    assertThat(batchConfig.getMaxBatchBytes()).isEqualTo(1024);
+    assertThat(batchConfig.getLingerMillis()).isEqualTo(50);
+    assertThat(batchConfig.getMaxRetries()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,53 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.dream11.queue.blob.BlobStore;
+import org.junit.jupiter.api.Test;
+
+class ClaimCheckConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    ClaimCheckConfig claimCheckConfig = new ClaimCheckConfig();
+
+    // Act and Assert
+    assertThat(claimCheckConfig.isEnabled()).isFalse();
+    assertThat(claimCheckConfig.getThresholdBytes()).isEqualTo(204_800);
+    assertThat(claimCheckConfig.getBlobStore()).isNull();
+    assertThat(claimCheckConfig.isDeleteOnAcknowledge()).isTrue();
+  }
+
+  @Test
+  void testDefaultValuesBuilder() {
+    // Arrange
+    ClaimCheckConfig claimCheckConfig = ClaimCheckConfig.builder().build();
+
+    // Act and Assert
+    assertThat(claimCheckConfig.isEnabled()).isFalse();
+    assertThat(claimCheckConfig.getThresholdBytes()).isEqualTo(204_800);
+    assertThat(claimCheckConfig.getBlobStore()).isNull();
+    assertThat(claimCheckConfig.isDeleteOnAcknowledge()).isTrue();
+  }
+
+  @Test
+  void testCustomValues() {
+    // Arrange
+    BlobStore blobStore = mock(BlobStore.class);
+    ClaimCheckConfig claimCheckConfig =
+        ClaimCheckConfig.builder()
+            .enabled(true)
+            .thresholdBytes(1024)
+            .blobStore(blobStore)
+            .deleteOnAcknowledge(false)
+            .build();
+
+    // Act and Assert
+    assertThat(claimCheckConfig.isEnabled()).isTrue();
+    assertThat(claimCheckConfig.getThresholdBytes()).isEqualTo(1024);
+    assertThat(claimCheckConfig.getBlobStore()).isSameAs(blobStore);
+    assertThat(claimCheckConfig.isDeleteOnAcknowledge()).isFalse();
+  }
+}
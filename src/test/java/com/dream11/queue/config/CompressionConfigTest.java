@@ -0,0 +1,42 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class CompressionConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    CompressionConfig compressionConfig = new CompressionConfig();
+
+    // Act and Assert
+    assertThat(compressionConfig.isEnabled()).isFalse();
+    assertThat(compressionConfig.getThresholdBytes()).isEqualTo(8192);
+    assertThat(compressionConfig.getLevel()).isEqualTo(6);
+  }
+
+  @Test
+  void testDefaultValuesBuilder() {
+    // Arrange
+    CompressionConfig compressionConfig = CompressionConfig.builder().build();
+
+    // Act and Assert
+    assertThat(compressionConfig.isEnabled()).isFalse();
+    assertThat(compressionConfig.getThresholdBytes()).isEqualTo(8192);
+    assertThat(compressionConfig.getLevel()).isEqualTo(6);
+  }
+
+  @Test
+  void testCustomValues() {
+    // Arrange
+    CompressionConfig compressionConfig =
+        CompressionConfig.builder().enabled(true).thresholdBytes(1024).level(1).build();
+
+    // Act and Assert
+    assertThat(compressionConfig.isEnabled()).isTrue();
+    assertThat(compressionConfig.getThresholdBytes()).isEqualTo(1024);
+    assertThat(compressionConfig.getLevel()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,21 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dream11.queue.metrics.NoopQueueMetrics;
+import org.junit.jupiter.api.Test;
+
+class DeduplicationConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    DeduplicationConfig deduplicationConfig = new DeduplicationConfig();
+
+    // Act and Assert
+    assertThat(deduplicationConfig.getWindowSeconds()).isEqualTo(300);
+    assertThat(deduplicationConfig.getMaxEntries()).isEqualTo(100_000);
+    assertThat(deduplicationConfig.getMetrics()).isSameAs(NoopQueueMetrics.INSTANCE);
+    assertThat(deduplicationConfig.getQueue()).isEqualTo("default");
+  }
+}
@@ -0,0 +1,38 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class FifoConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    FifoConfig<String> fifoConfig = new FifoConfig<>();
+
+    // Act and Assert
+    assertThat(fifoConfig.isEnabled()).isFalse();
+    assertThat(fifoConfig.getGroupIdExtractor()).isNull();
+    assertThat(fifoConfig.getDefaultGroupId()).isEqualTo("default");
+    assertThat(fifoConfig.getDeduplicationIdExtractor()).isNull();
+  }
+
+  @Test
+  void testCustomValues() {
+    // Arrange
+    FifoConfig<String> fifoConfig =
+        FifoConfig.<String>builder()
+            .enabled(true)
+            .groupIdExtractor(message -> message.substring(0, 1))
+            .defaultGroupId("none")
+            .deduplicationIdExtractor(String::toUpperCase)
+            .build();
+
+    // Act and Assert
+    assertThat(fifoConfig.isEnabled()).isTrue();
+    assertThat(fifoConfig.getGroupIdExtractor().apply("abc")).isEqualTo("a");
+    assertThat(fifoConfig.getDefaultGroupId()).isEqualTo("none");
+    assertThat(fifoConfig.getDeduplicationIdExtractor().apply("abc")).isEqualTo("ABC");
+  }
+}
@@ -24,6 +24,11 @@ class HeartbeatConfigTest {
     // Act and Assert
     assertThat(heartbeatConfig.getHeartbeatInterval()).isEqualTo(-1);
     assertThat(heartbeatConfig.getExecutorThreadPoolSize()).isEqualTo(2);
+    assertThat(heartbeatConfig.getAdaptive()).isFalse();
+    assertThat(heartbeatConfig.getAdaptivePercentile()).isEqualTo(0.99);
+    assertThat(heartbeatConfig.getAdaptiveMultiplier()).isEqualTo(2.0);
+    assertThat(heartbeatConfig.getMinVisibilityTimeout()).isEqualTo(2);
+    assertThat(heartbeatConfig.getMaxVisibilityTimeout()).isEqualTo(43_200);
   }
 
   @Test
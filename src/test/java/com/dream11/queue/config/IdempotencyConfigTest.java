@@ -0,0 +1,22 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dream11.queue.metrics.NoopQueueMetrics;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    IdempotencyConfig idempotencyConfig = new IdempotencyConfig();
+
+    // Act and Assert
+    assertThat(idempotencyConfig.getWindowSeconds()).isEqualTo(3600);
+    assertThat(idempotencyConfig.getMaxEntries()).isEqualTo(100_000);
+    assertThat(idempotencyConfig.getStore()).isNull();
+    assertThat(idempotencyConfig.getMetrics()).isSameAs(NoopQueueMetrics.INSTANCE);
+    assertThat(idempotencyConfig.getQueue()).isEqualTo("default");
+  }
+}
@@ -0,0 +1,38 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ListenerConfigTest {
+
+  @Test
+  void testDefaultValuesBuilder() {
+    // Arrange
+    ListenerConfig listenerConfig = ListenerConfig.builder().build();
+
+    // Act and Assert
+    assertThat(listenerConfig.getMaxConcurrency()).isEqualTo(10);
+    assertThat(listenerConfig.getReceiveTimeout()).isEqualTo(20);
+    assertThat(listenerConfig.isUseVirtualThreads()).isFalse();
+    assertThat(listenerConfig.getShutdownTimeout()).isEqualTo(30);
+  }
+
+  @Test
+  void testCustomValues() {
+    // Arrange
+    ListenerConfig listenerConfig =
+        ListenerConfig.builder()
+            .maxConcurrency(4)
+            .receiveTimeout(1)
+            .useVirtualThreads(true)
+            .shutdownTimeout(5)
+            .build();
+
+    // Act and Assert
+    assertThat(listenerConfig.getMaxConcurrency()).isEqualTo(4);
+    assertThat(listenerConfig.getReceiveTimeout()).isEqualTo(1);
+    assertThat(listenerConfig.isUseVirtualThreads()).isTrue();
+    assertThat(listenerConfig.getShutdownTimeout()).isEqualTo(5);
+  }
+}
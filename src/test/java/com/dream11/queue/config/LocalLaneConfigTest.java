@@ -0,0 +1,31 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LocalLaneConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    LocalLaneConfig localLaneConfig = new LocalLaneConfig();
+
+    // Act and Assert
+    assertThat(localLaneConfig.isEnabled()).isFalse();
+    assertThat(localLaneConfig.getCapacity()).isEqualTo(1024);
+    assertThat(localLaneConfig.getAckDeadlineSeconds()).isEqualTo(30);
+  }
+
+  @Test
+  void testCustomValues() {
+    // Arrange
+    LocalLaneConfig localLaneConfig =
+        LocalLaneConfig.builder().enabled(true).capacity(16).ackDeadlineSeconds(5).build();
+
+    // Act and Assert
+    assertThat(localLaneConfig.isEnabled()).isTrue();
+    assertThat(localLaneConfig.getCapacity()).isEqualTo(16);
+    assertThat(localLaneConfig.getAckDeadlineSeconds()).isEqualTo(5);
+  }
+}
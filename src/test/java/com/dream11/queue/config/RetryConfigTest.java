@@ -0,0 +1,28 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class RetryConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    RetryConfig retryConfig = new RetryConfig();
+
+    // Act and Assert
+    assertThat(retryConfig.isEnabled()).isFalse();
+    assertThat(retryConfig.getMaxAttempts()).isEqualTo(5);
+    assertThat(retryConfig.getInitialBackoffSeconds()).isEqualTo(2);
+    assertThat(retryConfig.getBackoffMultiplier()).isEqualTo(2.0);
+    assertThat(retryConfig.getMaxBackoffSeconds()).isEqualTo(900);
+    assertThat(retryConfig.getDeadLetterProducer()).isNull();
+  }
+
+  @Test
+  void testListenerConfigDefaultsToDisabledRetries() {
+    // Act and Assert
+    assertThat(new ListenerConfig().getRetryConfig().isEnabled()).isFalse();
+  }
+}
@@ -0,0 +1,52 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SendLimitConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    SendLimitConfig sendLimitConfig = new SendLimitConfig();
+
+    // Act and Assert
+    assertThat(sendLimitConfig.isEnabled()).isFalse();
+    assertThat(sendLimitConfig.getPermitsPerSecond()).isZero();
+    assertThat(sendLimitConfig.getBurstSize()).isZero();
+    assertThat(sendLimitConfig.getMaxConcurrency()).isZero();
+    assertThat(sendLimitConfig.isAdaptiveConcurrency()).isFalse();
+    assertThat(sendLimitConfig.getInitialConcurrency()).isEqualTo(20);
+    assertThat(sendLimitConfig.getMinConcurrency()).isEqualTo(1);
+    assertThat(sendLimitConfig.getOverflowStrategy())
+        .isEqualTo(SendLimitConfig.OverflowStrategy.BLOCK);
+    assertThat(sendLimitConfig.getMaxBlockMillis()).isEqualTo(30_000);
+    assertThat(sendLimitConfig.getMaxQueueSize()).isEqualTo(10_000);
+  }
+
+  @Test
+  void testCustomValues() {
+    // Arrange
+    SendLimitConfig sendLimitConfig =
+        SendLimitConfig.builder()
+            .enabled(true)
+            .permitsPerSecond(100)
+            .burstSize(10)
+            .maxConcurrency(50)
+            .adaptiveConcurrency(true)
+            .overflowStrategy(SendLimitConfig.OverflowStrategy.QUEUE)
+            .maxQueueSize(100)
+            .build();
+
+    // Act and Assert
+    assertThat(sendLimitConfig.isEnabled()).isTrue();
+    assertThat(sendLimitConfig.getPermitsPerSecond()).isEqualTo(100);
+    assertThat(sendLimitConfig.getBurstSize()).isEqualTo(10);
+    assertThat(sendLimitConfig.getMaxConcurrency()).isEqualTo(50);
+    assertThat(sendLimitConfig.isAdaptiveConcurrency()).isTrue();
+    assertThat(sendLimitConfig.getOverflowStrategy())
+        .isEqualTo(SendLimitConfig.OverflowStrategy.QUEUE);
+    assertThat(sendLimitConfig.getMaxQueueSize()).isEqualTo(100);
+  }
+}
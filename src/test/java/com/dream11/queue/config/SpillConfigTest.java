@@ -0,0 +1,44 @@
+package com.dream11.queue.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class SpillConfigTest {
+
+  @Test
+  void testDefaultValues() {
+    // Arrange
+    SpillConfig spillConfig = new SpillConfig();
+
+    // Act and Assert
+    assertThat(spillConfig.isEnabled()).isFalse();
+    assertThat(spillConfig.getDirectory()).isNull();
+    assertThat(spillConfig.getMaxBytes()).isEqualTo(64L * 1024 * 1024);
+    assertThat(spillConfig.getSegmentSizeBytes()).isEqualTo(16 * 1024 * 1024);
+    assertThat(spillConfig.isForceOnWrite()).isFalse();
+    assertThat(spillConfig.getReplayIntervalMillis()).isEqualTo(1000);
+    assertThat(spillConfig.getReplayBatchSize()).isEqualTo(10);
+  }
+
+  @Test
+  void testCustomValues() {
+    // Arrange
+    SpillConfig spillConfig =
+        SpillConfig.builder()
+            .enabled(true)
+            .directory(Path.of("spill"))
+            .maxBytes(1024)
+            .replayIntervalMillis(100)
+            .replayBatchSize(5)
+            .build();
+
+    // Act and Assert
+    assertThat(spillConfig.isEnabled()).isTrue();
+    assertThat(spillConfig.getDirectory()).isEqualTo(Path.of("spill"));
+    assertThat(spillConfig.getMaxBytes()).isEqualTo(1024);
+    assertThat(spillConfig.getReplayIntervalMillis()).isEqualTo(100);
+    assertThat(spillConfig.getReplayBatchSize()).isEqualTo(5);
+  }
+}
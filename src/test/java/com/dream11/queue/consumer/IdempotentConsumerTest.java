@@ -0,0 +1,82 @@
+package com.dream11.queue.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dream11.queue.config.IdempotencyConfig;
+import com.dream11.queue.dedup.IdempotencyStore;
+import com.dream11.queue.impl.local.LocalConfig;
+import com.dream11.queue.impl.local.LocalConsumer;
+import com.dream11.queue.impl.local.LocalMessage;
+import com.dream11.queue.impl.local.LocalProducer;
+import com.dream11.queue.impl.local.LocalQueue;
+import com.dream11.queue.metrics.QueueMetrics;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class IdempotentConsumerTest {
+
+  @AfterEach
+  void tearDown() {
+    LocalQueue.closeAll();
+  }
+
+  @Test
+  void testAcknowledgesAndDropsProcessedMessages() throws Exception {
+    // Arrange
+    LocalConfig config = LocalConfig.builder().queueName("idempotent").maxMessages(10).build();
+    LocalProducer<String> producer = new LocalProducer<>(config);
+    producer.send("a").get(5, TimeUnit.SECONDS);
+    LocalConsumer localConsumer = new LocalConsumer(config);
+    QueueMetrics metrics = mock(QueueMetrics.class);
+    IdempotentConsumer<LocalMessage> consumer =
+        new IdempotentConsumer<>(
+            localConsumer,
+            LocalMessage::getBody,
+            IdempotencyConfig.builder().metrics(metrics).queue("idempotent").build());
+    List<LocalMessage> first = consumer.receive().get(5, TimeUnit.SECONDS);
+    consumer.acknowledgeMessage(first.get(0)).get(5, TimeUnit.SECONDS);
+    producer.send("a").get(5, TimeUnit.SECONDS);
+    producer.send("b").get(5, TimeUnit.SECONDS);
+
+    // Act
+    List<LocalMessage> second = consumer.receive().get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(second).extracting(LocalMessage::getBody).containsExactly("b");
+    assertThat(localConsumer.receive().get(5, TimeUnit.SECONDS)).isEmpty();
+    verify(metrics, times(1)).recordReceiveDeduplication("idempotent", true);
+    verify(metrics, times(2)).recordReceiveDeduplication("idempotent", false);
+    consumer.close();
+  }
+
+  @Test
+  void testHandsOutMessagesWhenStoreFails() throws Exception {
+    // Arrange
+    LocalConfig config = LocalConfig.builder().queueName("failing-store").build();
+    new LocalProducer<String>(config).send("a").get(5, TimeUnit.SECONDS);
+    IdempotencyStore store = mock(IdempotencyStore.class);
+    when(store.contains(any()))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("unavailable")));
+    IdempotentConsumer<LocalMessage> consumer =
+        new IdempotentConsumer<>(
+            new LocalConsumer(config),
+            LocalMessage::getBody,
+            IdempotencyConfig.builder().store(store).build());
+
+    // Act
+    List<LocalMessage> messages = consumer.receive().get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(messages).extracting(LocalMessage::getBody).containsExactly("a");
+    consumer.close();
+    verify(store).close();
+  }
+}
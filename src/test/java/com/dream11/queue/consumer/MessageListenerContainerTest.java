@@ -0,0 +1,307 @@
+package com.dream11.queue.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.dream11.queue.config.AutoscaleConfig;
+import com.dream11.queue.config.ListenerConfig;
+import com.dream11.queue.config.RetryConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class MessageListenerContainerTest {
+
+  private static ListenerConfig listenerConfig(int maxConcurrency) {
+    return ListenerConfig.builder().maxConcurrency(maxConcurrency).receiveTimeout(1).build();
+  }
+
+  @Test
+  void testHandlesAndAcknowledgesMessages() {
+    // Arrange
+    InMemoryConsumer consumer = new InMemoryConsumer(IntStream.range(0, 20));
+    List<String> handled = new ArrayList<>();
+    MessageListenerContainer<String> container =
+        new MessageListenerContainer<>(
+            consumer,
+            message -> {
+              synchronized (handled) {
+                handled.add(message);
+              }
+            },
+            listenerConfig(4));
+
+    // Act
+    container.start();
+
+    // Assert
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(consumer.acknowledged).hasSize(20));
+    assertThat(handled).hasSize(20);
+    container.close();
+  }
+
+  @Test
+  void testDoesNotAcknowledgeFailedMessages() {
+    // Arrange
+    InMemoryConsumer consumer = new InMemoryConsumer(IntStream.range(0, 4));
+    AtomicInteger attempts = new AtomicInteger();
+    MessageListenerContainer<String> container =
+        new MessageListenerContainer<>(
+            consumer,
+            message -> {
+              attempts.incrementAndGet();
+              if (message.equals("1")) {
+                throw new IllegalStateException("failed");
+              }
+            },
+            listenerConfig(2));
+
+    // Act
+    container.start();
+
+    // Assert
+    await().atMost(Duration.ofSeconds(5)).until(() -> attempts.get() == 4);
+    container.close();
+    assertThat(consumer.acknowledged).containsExactlyInAnyOrder("0", "2", "3");
+  }
+
+  @Test
+  void testLimitsConcurrencyAndDrainsOnClose() throws Exception {
+    // Arrange
+    InMemoryConsumer consumer = new InMemoryConsumer(IntStream.range(0, 10));
+    CountDownLatch release = new CountDownLatch(1);
+    MessageListenerContainer<String> container =
+        new MessageListenerContainer<>(
+            consumer, message -> release.await(5, TimeUnit.SECONDS), listenerConfig(3));
+
+    // Act
+    container.start();
+
+    // Assert
+    await().atMost(Duration.ofSeconds(5)).until(() -> container.getInFlightCount() == 3);
+    Thread.sleep(200);
+    assertThat(container.getInFlightCount()).isEqualTo(3);
+    release.countDown();
+    container.close();
+    assertThat(container.getInFlightCount()).isZero();
+    assertThat(container.isRunning()).isFalse();
+  }
+
+  @Test
+  void testProcessesGroupsInParallelAndInOrderWithinGroup() {
+    // Arrange
+    List<String> messages = new ArrayList<>();
+    IntStream.range(0, 5).forEach(i -> List.of("a", "b", "c").forEach(g -> messages.add(g + i)));
+    InMemoryConsumer consumer = new InMemoryConsumer(messages, 15);
+    Map<String, List<String>> handled = new ConcurrentHashMap<>();
+    AtomicInteger concurrent = new AtomicInteger();
+    AtomicInteger maxConcurrent = new AtomicInteger();
+    MessageListenerContainer<String> container =
+        new MessageListenerContainer<>(
+            consumer,
+            message -> {
+              maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              handled
+                  .computeIfAbsent(message.substring(0, 1), g -> new CopyOnWriteArrayList<>())
+                  .add(message);
+              concurrent.decrementAndGet();
+            },
+            listenerConfig(15),
+            message -> message.substring(0, 1));
+
+    // Act
+    container.start();
+
+    // Assert
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(consumer.acknowledged).hasSize(15));
+    assertThat(handled.get("a")).containsExactly("a0", "a1", "a2", "a3", "a4");
+    assertThat(handled.get("b")).containsExactly("b0", "b1", "b2", "b3", "b4");
+    assertThat(handled.get("c")).containsExactly("c0", "c1", "c2", "c3", "c4");
+    assertThat(maxConcurrent.get()).isBetween(2, 3);
+    container.close();
+  }
+
+  @Test
+  void testSkipsWaitingMessagesOfGroupAfterFailure() {
+    // Arrange
+    InMemoryConsumer consumer = new InMemoryConsumer(List.of("a0", "a1", "a2", "b0"), 4);
+    AtomicInteger attempts = new AtomicInteger();
+    MessageListenerContainer<String> container =
+        new MessageListenerContainer<>(
+            consumer,
+            message -> {
+              attempts.incrementAndGet();
+              if (message.equals("a0")) {
+                throw new IllegalStateException("failed");
+              }
+            },
+            listenerConfig(4),
+            message -> message.substring(0, 1));
+
+    // Act
+    container.start();
+
+    // Assert
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(consumer.acknowledged).containsExactly("b0"));
+    await().atMost(Duration.ofSeconds(5)).until(() -> container.getInFlightCount() == 0);
+    assertThat(attempts.get()).isEqualTo(2);
+    assertThat(consumer.released).containsExactly("a1", "a2");
+    container.close();
+  }
+
+  @Test
+  void testRedeliversFailedMessageOfGroupBeforeSkippedMessages() {
+    // Arrange
+    InMemoryConsumer consumer = new InMemoryConsumer(List.of("a0", "a1", "a2", "b0"), 4);
+    List<String> handled = new CopyOnWriteArrayList<>();
+    AtomicInteger failures = new AtomicInteger();
+    ListenerConfig config =
+        ListenerConfig.builder()
+            .maxConcurrency(4)
+            .receiveTimeout(1)
+            .retryConfig(RetryConfig.builder().enabled(true).initialBackoffSeconds(0).build())
+            .build();
+    MessageListenerContainer<String> container =
+        new MessageListenerContainer<>(
+            consumer,
+            message -> {
+              handled.add(message);
+              if (message.equals("a0") && failures.incrementAndGet() == 1) {
+                throw new IllegalStateException("failed");
+              }
+            },
+            config,
+            message -> message.substring(0, 1));
+
+    // Act
+    container.start();
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(consumer.released).containsExactly("a0", "a1", "a2"));
+    await().atMost(Duration.ofSeconds(5)).until(() -> container.getInFlightCount() == 0);
+    // Like a FIFO queue, redeliver the group once none of its messages are in flight
+    consumer.messages.addAll(consumer.released);
+
+    // Assert
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () ->
+                assertThat(consumer.acknowledged)
+                    .containsExactlyInAnyOrder("a0", "a1", "a2", "b0"));
+    assertThat(handled.stream().filter(message -> message.startsWith("a")))
+        .containsExactly("a0", "a0", "a1", "a2");
+    container.close();
+  }
+
+  @Test
+  void testScalesConcurrencyWithBacklog() {
+    // Arrange
+    InMemoryConsumer consumer = new InMemoryConsumer(IntStream.range(0, 300));
+    ListenerConfig config =
+        ListenerConfig.builder()
+            .maxConcurrency(2)
+            .receiveTimeout(1)
+            .autoscaleConfig(
+                AutoscaleConfig.builder()
+                    .enabled(true)
+                    .maxConcurrency(20)
+                    .intervalSeconds(1)
+                    .targetDrainSeconds(1)
+                    .build())
+            .build();
+    MessageListenerContainer<String> container =
+        new MessageListenerContainer<>(consumer, message -> Thread.sleep(50), config);
+
+    // Act
+    container.start();
+
+    // Assert
+    assertThat(container.getConcurrency()).isEqualTo(2);
+    await().atMost(Duration.ofSeconds(5)).until(() -> container.getConcurrency() > 2);
+    await()
+        .atMost(Duration.ofSeconds(10))
+        .untilAsserted(() -> assertThat(consumer.acknowledged).hasSize(300));
+    await().atMost(Duration.ofSeconds(10)).until(() -> container.getConcurrency() == 1);
+    container.close();
+  }
+
+  private static class InMemoryConsumer implements MessageConsumer<String> {
+    private final Queue<String> messages;
+    private final Queue<String> acknowledged = new ConcurrentLinkedQueue<>();
+    private final Queue<String> released = new ConcurrentLinkedQueue<>();
+    private final int batchSize;
+
+    InMemoryConsumer(IntStream ids) {
+      this(ids.mapToObj(Integer::toString).collect(Collectors.toList()), 1);
+    }
+
+    InMemoryConsumer(List<String> messages, int batchSize) {
+      this.messages = new ConcurrentLinkedQueue<>(messages);
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> receive() {
+      return this.receive(0);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> receive(int timeout) {
+      List<String> batch = new ArrayList<>();
+      String message;
+      while (batch.size() < this.batchSize && (message = this.messages.poll()) != null) {
+        batch.add(message);
+      }
+      if (batch.isEmpty()) {
+        return CompletableFuture.supplyAsync(
+            () -> List.<String>of(), CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+      }
+      return CompletableFuture.completedFuture(batch);
+    }
+
+    @Override
+    public CompletableFuture<Void> acknowledgeMessage(String message) {
+      this.acknowledged.add(message);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendHeartbeat(String message) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseMessage(String message, int delaySeconds) {
+      this.released.add(message);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<QueueDepth> getQueueDepth() {
+      return CompletableFuture.completedFuture(new QueueDepth(this.messages.size(), 0));
+    }
+
+    @Override
+    public void close() {}
+  }
+}
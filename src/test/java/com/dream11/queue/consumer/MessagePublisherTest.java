@@ -0,0 +1,138 @@
+package com.dream11.queue.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.dream11.queue.impl.local.LocalConfig;
+import com.dream11.queue.impl.local.LocalConsumer;
+import com.dream11.queue.impl.local.LocalMessage;
+import com.dream11.queue.impl.local.LocalProducer;
+import com.dream11.queue.impl.local.LocalQueue;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MessagePublisherTest {
+
+  @AfterEach
+  void tearDown() {
+    LocalQueue.closeAll();
+  }
+
+  @Test
+  void testDoesNotPollWithoutDemand() throws Exception {
+    // Arrange
+    MessageConsumer<String> consumer = mock(MessageConsumer.class);
+    MessagePublisher<String> publisher = new MessagePublisher<>(consumer, 10, 1);
+    RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+
+    // Act
+    publisher.subscribe(subscriber);
+    Thread.sleep(200);
+
+    // Assert
+    verify(consumer, never()).receive(anyInt());
+    assertThat(subscriber.received).isEmpty();
+  }
+
+  @Test
+  void testPollingStopsWhileMaxInFlightMessagesAreUnacknowledged() throws Exception {
+    // Arrange
+    LocalConfig localConfig = LocalConfig.builder().queueName("publisher").build();
+    LocalProducer<String> producer = new LocalProducer<>(localConfig);
+    for (int i = 0; i < 25; i++) {
+      producer.send("message-" + i).get(5, TimeUnit.SECONDS);
+    }
+    MessagePublisher<LocalMessage> publisher =
+        new MessagePublisher<>(new LocalConsumer(localConfig), 10, 1);
+    RecordingSubscriber<LocalMessage> subscriber = new RecordingSubscriber<>();
+    publisher.subscribe(subscriber);
+
+    // Act
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    // Assert
+    await().atMost(Duration.ofSeconds(5)).until(() -> subscriber.received.size() == 10);
+    Thread.sleep(200);
+    assertThat(subscriber.received).hasSize(10);
+    assertThat(publisher.getInFlightCount()).isEqualTo(10);
+    for (LocalMessage message : new ArrayList<>(subscriber.received)) {
+      publisher.acknowledge(message).get(5, TimeUnit.SECONDS);
+    }
+    await().atMost(Duration.ofSeconds(5)).until(() -> subscriber.received.size() == 20);
+    subscriber.subscription.cancel();
+  }
+
+  @Test
+  void testDeliversOnlyRequestedMessages() throws Exception {
+    // Arrange
+    LocalConfig localConfig = LocalConfig.builder().queueName("demand").build();
+    LocalProducer<String> producer = new LocalProducer<>(localConfig);
+    for (int i = 0; i < 5; i++) {
+      producer.send("message-" + i).get(5, TimeUnit.SECONDS);
+    }
+    MessagePublisher<LocalMessage> publisher =
+        new MessagePublisher<>(new LocalConsumer(localConfig), 10, 1);
+    RecordingSubscriber<LocalMessage> subscriber = new RecordingSubscriber<>();
+    publisher.subscribe(subscriber);
+
+    // Act
+    subscriber.subscription.request(2);
+
+    // Assert
+    await().atMost(Duration.ofSeconds(5)).until(() -> subscriber.received.size() == 2);
+    Thread.sleep(200);
+    assertThat(subscriber.received).hasSize(2);
+    subscriber.subscription.request(3);
+    await().atMost(Duration.ofSeconds(5)).until(() -> subscriber.received.size() == 5);
+    subscriber.subscription.cancel();
+  }
+
+  @Test
+  void testSecondSubscriberIsRejected() {
+    // Arrange
+    MessageConsumer<String> consumer = mock(MessageConsumer.class);
+    MessagePublisher<String> publisher = new MessagePublisher<>(consumer, 10, 1);
+    publisher.subscribe(new RecordingSubscriber<>());
+    RecordingSubscriber<String> second = new RecordingSubscriber<>();
+
+    // Act
+    publisher.subscribe(second);
+
+    // Assert
+    assertThat(second.error).isInstanceOf(IllegalStateException.class);
+  }
+
+  private static class RecordingSubscriber<T> implements Flow.Subscriber<T> {
+    private final List<T> received = new CopyOnWriteArrayList<>();
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(T item) {
+      this.received.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      this.error = throwable;
+    }
+
+    @Override
+    public void onComplete() {}
+  }
+}
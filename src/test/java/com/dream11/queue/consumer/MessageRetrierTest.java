@@ -0,0 +1,128 @@
+package com.dream11.queue.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.dream11.queue.config.ListenerConfig;
+import com.dream11.queue.config.RetryConfig;
+import com.dream11.queue.impl.local.LocalConfig;
+import com.dream11.queue.impl.local.LocalConsumer;
+import com.dream11.queue.impl.local.LocalMessage;
+import com.dream11.queue.impl.local.LocalProducer;
+import com.dream11.queue.impl.local.LocalQueue;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MessageRetrierTest {
+
+  @AfterEach
+  void tearDown() {
+    LocalQueue.closeAll();
+  }
+
+  @Test
+  void testBackoffGrowsExponentiallyUpToMaximum() {
+    // Arrange
+    RetryConfig retryConfig =
+        RetryConfig.builder()
+            .enabled(true)
+            .initialBackoffSeconds(2)
+            .backoffMultiplier(3)
+            .maxBackoffSeconds(60)
+            .build();
+    MessageRetrier<LocalMessage> retrier =
+        new MessageRetrier<>(
+            new LocalConsumer(LocalConfig.builder().queueName("backoff").build()), retryConfig);
+
+    // Act and Assert
+    assertThat(retrier.backoffSeconds(1)).isEqualTo(2);
+    assertThat(retrier.backoffSeconds(2)).isEqualTo(6);
+    assertThat(retrier.backoffSeconds(3)).isEqualTo(18);
+    assertThat(retrier.backoffSeconds(5)).isEqualTo(60);
+  }
+
+  @Test
+  void testFailedMessageIsRetriedAndDeadLettered() throws Exception {
+    // Arrange
+    LocalConfig sourceConfig = LocalConfig.builder().queueName("source").build();
+    LocalConfig deadLetterConfig = LocalConfig.builder().queueName("dead-letter").build();
+    new LocalProducer<String>(sourceConfig).send("poison").get(5, TimeUnit.SECONDS);
+    LocalConsumer consumer = new LocalConsumer(sourceConfig);
+    List<Integer> attempts = new CopyOnWriteArrayList<>();
+    ListenerConfig listenerConfig =
+        ListenerConfig.builder()
+            .receiveTimeout(1)
+            .retryConfig(
+                RetryConfig.builder()
+                    .enabled(true)
+                    .maxAttempts(3)
+                    .initialBackoffSeconds(0)
+                    .deadLetterProducer(
+                        new LocalProducer<LocalMessage>(deadLetterConfig, LocalMessage::getBody))
+                    .build())
+            .build();
+    MessageListenerContainer<LocalMessage> container =
+        new MessageListenerContainer<>(
+            consumer,
+            message -> {
+              attempts.add(message.getReceiveCount());
+              throw new IllegalStateException("failed");
+            },
+            listenerConfig);
+
+    // Act
+    container.start();
+
+    // Assert
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .until(() -> LocalQueue.open(deadLetterConfig).size() == 1);
+    container.close();
+    assertThat(attempts).containsExactly(1, 2, 3);
+    assertThat(LocalQueue.open(sourceConfig).size()).isZero();
+    List<LocalMessage> deadLettered =
+        new LocalConsumer(deadLetterConfig).receive().get(5, TimeUnit.SECONDS);
+    assertThat(deadLettered).extracting(LocalMessage::getBody).containsExactly("poison");
+  }
+
+  @Test
+  void testPoisonMessageIsGivenUpWithoutHandling() throws Exception {
+    // Arrange
+    LocalConfig sourceConfig =
+        LocalConfig.builder().queueName("poison").visibilityTimeout(1).build();
+    LocalConfig deadLetterConfig = LocalConfig.builder().queueName("poison-dead-letter").build();
+    new LocalProducer<String>(sourceConfig).send("poison").get(5, TimeUnit.SECONDS);
+    LocalConsumer consumer = new LocalConsumer(sourceConfig);
+    // Receive the message without acknowledging it, as if a handler had crashed
+    consumer.receive().get(5, TimeUnit.SECONDS);
+    consumer.receive(5).get(10, TimeUnit.SECONDS);
+    List<LocalMessage> handled = new CopyOnWriteArrayList<>();
+    ListenerConfig listenerConfig =
+        ListenerConfig.builder()
+            .receiveTimeout(1)
+            .retryConfig(
+                RetryConfig.builder()
+                    .enabled(true)
+                    .maxAttempts(2)
+                    .deadLetterProducer(
+                        new LocalProducer<LocalMessage>(deadLetterConfig, LocalMessage::getBody))
+                    .build())
+            .build();
+    MessageListenerContainer<LocalMessage> container =
+        new MessageListenerContainer<>(consumer, handled::add, listenerConfig);
+
+    // Act
+    container.start();
+
+    // Assert
+    await()
+        .atMost(Duration.ofSeconds(10))
+        .until(() -> LocalQueue.open(deadLetterConfig).size() == 1);
+    container.close();
+    assertThat(handled).isEmpty();
+  }
+}
@@ -0,0 +1,145 @@
+package com.dream11.queue.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dream11.queue.config.MultiQueueConfig;
+import com.dream11.queue.impl.local.LocalConfig;
+import com.dream11.queue.impl.local.LocalConsumer;
+import com.dream11.queue.impl.local.LocalMessage;
+import com.dream11.queue.impl.local.LocalProducer;
+import com.dream11.queue.impl.local.LocalQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MultiQueueConsumerTest {
+
+  @AfterEach
+  void tearDown() {
+    LocalQueue.closeAll();
+  }
+
+  @Test
+  void testWeightedFairSchedulingSharesMessagesByWeight() throws Exception {
+    // Arrange
+    LocalConfig high = fill("weighted-high", 40);
+    LocalConfig low = fill("weighted-low", 40);
+    MultiQueueConsumer<LocalMessage> consumer =
+        new MultiQueueConsumer<>(
+            List.of(
+                MultiQueueConsumer.Source.of(new LocalConsumer(high), 3),
+                MultiQueueConsumer.Source.of(new LocalConsumer(low), 1)),
+            MultiQueueConfig.builder().build());
+    consumer.receive(1).get(5, TimeUnit.SECONDS).forEach(consumer::acknowledgeMessage);
+
+    // Act
+    List<LocalMessage> messages = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      messages.addAll(consumer.receive(1).get(5, TimeUnit.SECONDS));
+    }
+
+    // Assert
+    assertThat(messages).hasSize(40);
+    assertThat(messages.stream().filter(message -> message.getBody().startsWith("weighted-high")))
+        .hasSizeBetween(28, 32);
+    consumer.close();
+  }
+
+  @Test
+  void testStrictPrioritySchedulingDrainsHigherWeightFirst() throws Exception {
+    // Arrange
+    LocalConfig high = fill("priority-high", 20);
+    LocalConfig low = fill("priority-low", 20);
+    MultiQueueConsumer<LocalMessage> consumer =
+        new MultiQueueConsumer<>(
+            List.of(
+                MultiQueueConsumer.Source.of(new LocalConsumer(low), 1),
+                MultiQueueConsumer.Source.of(new LocalConsumer(high), 2)),
+            MultiQueueConfig.builder()
+                .scheduling(MultiQueueConfig.Scheduling.STRICT_PRIORITY)
+                .build());
+
+    // Act
+    List<LocalMessage> messages = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      List<LocalMessage> received = consumer.receive(1).get(5, TimeUnit.SECONDS);
+      for (LocalMessage message : received) {
+        consumer.acknowledgeMessage(message).get(5, TimeUnit.SECONDS);
+      }
+      messages.addAll(received);
+    }
+
+    // Assert
+    assertThat(messages).hasSize(40);
+    assertThat(messages.subList(0, 20))
+        .allMatch(message -> message.getBody().startsWith("priority-high"));
+    assertThat(messages.subList(20, 40))
+        .allMatch(message -> message.getBody().startsWith("priority-low"));
+    consumer.close();
+  }
+
+  @Test
+  void testAcknowledgeIsRoutedToReceivingQueue() throws Exception {
+    // Arrange
+    LocalConfig first = fill("route-first", 1);
+    LocalConfig second = fill("route-second", 1);
+    MultiQueueConsumer<LocalMessage> consumer =
+        new MultiQueueConsumer<>(
+            List.of(
+                MultiQueueConsumer.Source.of(new LocalConsumer(first), 1),
+                MultiQueueConsumer.Source.of(new LocalConsumer(second), 1)),
+            MultiQueueConfig.builder().build());
+    List<LocalMessage> messages = new ArrayList<>();
+    while (messages.size() < 2) {
+      messages.addAll(consumer.receive(1).get(5, TimeUnit.SECONDS));
+    }
+
+    // Act
+    for (LocalMessage message : messages) {
+      consumer.acknowledgeMessage(message).get(5, TimeUnit.SECONDS);
+    }
+
+    // Assert
+    assertThat(LocalQueue.open(first).size()).isZero();
+    assertThat(LocalQueue.open(second).size()).isZero();
+    assertThatThrownBy(() -> consumer.acknowledgeMessage(messages.get(0)).get())
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalArgumentException.class);
+    consumer.close();
+  }
+
+  @Test
+  void testReceiveWaitsForTimeoutWhenQueuesAreEmpty() throws Exception {
+    // Arrange
+    MultiQueueConsumer<LocalMessage> consumer =
+        new MultiQueueConsumer<>(
+            List.of(
+                MultiQueueConsumer.Source.of(
+                    new LocalConsumer(LocalConfig.builder().queueName("empty").build()), 1)),
+            MultiQueueConfig.builder().build());
+
+    // Act
+    long start = System.nanoTime();
+    List<LocalMessage> messages = consumer.receive(1).get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(messages).isEmpty();
+    assertThat(System.nanoTime() - start)
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(900));
+    assertThat(consumer.receive().get(5, TimeUnit.SECONDS)).isEmpty();
+    consumer.close();
+  }
+
+  private static LocalConfig fill(String queueName, int count) throws Exception {
+    LocalConfig localConfig = LocalConfig.builder().queueName(queueName).build();
+    LocalProducer<String> producer = new LocalProducer<>(localConfig);
+    for (int i = 0; i < count; i++) {
+      producer.send(queueName + "-" + i).get(5, TimeUnit.SECONDS);
+    }
+    return localConfig;
+  }
+}
@@ -0,0 +1,80 @@
+package com.dream11.queue.dedup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class FingerprintCacheTest {
+
+  @Test
+  void testAddReturnsFalseForHeldKey() {
+    // Arrange
+    FingerprintCache cache = new FingerprintCache(10, 60_000);
+
+    // Act
+    boolean first = cache.add("key");
+    boolean second = cache.add("key");
+
+    // Assert
+    assertThat(first).isTrue();
+    assertThat(second).isFalse();
+    assertThat(cache.contains("key")).isTrue();
+    assertThat(cache.contains("other")).isFalse();
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void testEvictsOldestKeyWhenFull() {
+    // Arrange
+    FingerprintCache cache = new FingerprintCache(3, 60_000);
+
+    // Act
+    IntStream.range(0, 4).forEach(i -> cache.add("key" + i));
+
+    // Assert
+    assertThat(cache.contains("key0")).isFalse();
+    assertThat(cache.contains("key1")).isTrue();
+    assertThat(cache.contains("key3")).isTrue();
+    assertThat(cache.size()).isEqualTo(3);
+  }
+
+  @Test
+  void testKeyExpiresAfterTimeToLive() {
+    // Arrange
+    FingerprintCache cache = new FingerprintCache(10, 100);
+    cache.add("key");
+
+    // Act and Assert
+    await().atMost(Duration.ofSeconds(2)).until(() -> !cache.contains("key"));
+    assertThat(cache.add("key")).isTrue();
+  }
+
+  @Test
+  void testRemovedKeyCanBeAddedAgain() {
+    // Arrange
+    FingerprintCache cache = new FingerprintCache(100, 60_000);
+    IntStream.range(0, 100).forEach(i -> cache.add("key" + i));
+
+    // Act
+    boolean removed = cache.remove("key50");
+
+    // Assert
+    assertThat(removed).isTrue();
+    assertThat(cache.remove("key50")).isFalse();
+    assertThat(cache.contains("key50")).isFalse();
+    assertThat(IntStream.range(0, 100).filter(i -> i != 50))
+        .allMatch(i -> cache.contains("key" + i));
+    assertThat(cache.add("key50")).isTrue();
+  }
+
+  @Test
+  void testRejectsInvalidCapacity() {
+    // Act and Assert
+    assertThatThrownBy(() -> new FingerprintCache(0, 1000))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,184 @@
+package com.dream11.queue.impl.local;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dream11.queue.QueueProvider;
+import com.dream11.queue.codec.StringMessageCodec;
+import com.dream11.queue.consumer.MessageConsumer;
+import com.dream11.queue.consumer.MessageConsumerFactory;
+import com.dream11.queue.consumer.ReceivedMessage;
+import com.dream11.queue.producer.MessageProducer;
+import com.dream11.queue.producer.MessageProducerFactory;
+import com.dream11.queue.producer.SendRejectedException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalQueueTest {
+  @TempDir Path directory;
+
+  @AfterEach
+  void tearDown() {
+    LocalQueue.closeAll();
+  }
+
+  @Test
+  void testProviderDependsOnDirectory() {
+    // Arrange
+    LocalConfig memoryConfig = LocalConfig.builder().queueName("queue").build();
+    LocalConfig diskConfig =
+        LocalConfig.builder().queueName("queue").directory(this.directory).build();
+
+    // Act and Assert
+    assertThat(memoryConfig.getProvider()).isEqualTo(QueueProvider.IN_MEMORY);
+    assertThat(diskConfig.getProvider()).isEqualTo(QueueProvider.LOCAL_DISK);
+  }
+
+  @Test
+  void testSendReceiveAndAcknowledge() throws Exception {
+    // Arrange
+    LocalConfig config = LocalConfig.builder().queueName("send-receive").build();
+    MessageProducer<String> producer = MessageProducerFactory.create(config);
+    MessageConsumer<LocalMessage> consumer = MessageConsumerFactory.create(config);
+
+    // Act
+    producer.send("message-1").get(5, TimeUnit.SECONDS);
+    List<LocalMessage> messages = consumer.receive().get(5, TimeUnit.SECONDS);
+    consumer.acknowledgeMessage(messages.get(0)).get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(producer).isInstanceOf(LocalProducer.class);
+    assertThat(consumer).isInstanceOf(LocalConsumer.class);
+    assertThat(messages).extracting(LocalMessage::getBody).containsExactly("message-1");
+    assertThat(messages.get(0).getReceiveCount()).isEqualTo(1);
+    assertThat(LocalQueue.open(config).size()).isZero();
+  }
+
+  @Test
+  void testRedeliversMessageAfterVisibilityTimeout() throws Exception {
+    // Arrange
+    LocalConfig config = LocalConfig.builder().queueName("redelivery").visibilityTimeout(1).build();
+    LocalProducer<String> producer = new LocalProducer<>(config);
+    LocalConsumer consumer = new LocalConsumer(config);
+    producer.send("message-1").get(5, TimeUnit.SECONDS);
+    LocalMessage first = consumer.receive().get(5, TimeUnit.SECONDS).get(0);
+
+    // Act
+    List<LocalMessage> whileInvisible = consumer.receive().get(5, TimeUnit.SECONDS);
+    List<LocalMessage> redelivered = consumer.receive(5).get(10, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(whileInvisible).isEmpty();
+    assertThat(redelivered).hasSize(1);
+    assertThat(redelivered.get(0).getMessageId()).isEqualTo(first.getMessageId());
+    assertThat(redelivered.get(0).getReceiveCount()).isEqualTo(2);
+    assertThatThrownBy(() -> consumer.acknowledgeMessage(first).get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void testHeartbeatExtendsVisibility() throws Exception {
+    // Arrange
+    LocalConfig config = LocalConfig.builder().queueName("heartbeat").visibilityTimeout(1).build();
+    LocalProducer<String> producer = new LocalProducer<>(config);
+    LocalConsumer consumer = new LocalConsumer(config);
+    producer.send("message-1").get(5, TimeUnit.SECONDS);
+    LocalMessage message = consumer.receive().get(5, TimeUnit.SECONDS).get(0);
+
+    // Act
+    Thread.sleep(500);
+    consumer.sendHeartbeat(message).get(5, TimeUnit.SECONDS);
+    Thread.sleep(800);
+    List<LocalMessage> received = consumer.receive().get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(received).isEmpty();
+    consumer.acknowledgeMessage(message).get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void testWaitingReceiveCompletesWhenMessageIsSent() throws Exception {
+    // Arrange
+    LocalConfig config = LocalConfig.builder().queueName("waiting").build();
+    LocalProducer<String> producer = new LocalProducer<>(config);
+    LocalConsumer consumer = new LocalConsumer(config);
+    CompletableFuture<List<LocalMessage>> receive = consumer.receive(10);
+
+    // Act
+    producer.send("message-1").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(receive.get(5, TimeUnit.SECONDS))
+        .extracting(LocalMessage::getBody)
+        .containsExactly("message-1");
+  }
+
+  @Test
+  void testSendIsRejectedWhenQueueIsFull() throws Exception {
+    // Arrange
+    LocalConfig config = LocalConfig.builder().queueName("full").capacity(1).build();
+    LocalProducer<String> producer = new LocalProducer<>(config);
+    producer.send("message-1").get(5, TimeUnit.SECONDS);
+
+    // Act and Assert
+    assertThatThrownBy(() -> producer.send("message-2").get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(SendRejectedException.class);
+  }
+
+  @Test
+  void testDiskQueueRestoresUnacknowledgedMessages() throws Exception {
+    // Arrange
+    LocalConfig config =
+        LocalConfig.builder()
+            .queueName("disk")
+            .directory(this.directory)
+            .maxMessages(2)
+            .segmentSizeBytes(256)
+            .build();
+    LocalProducer<String> producer = new LocalProducer<>(config);
+    LocalConsumer consumer = new LocalConsumer(config);
+    for (int i = 0; i < 5; i++) {
+      producer.send("message-" + i).get(5, TimeUnit.SECONDS);
+    }
+    for (LocalMessage message : consumer.receive().get(5, TimeUnit.SECONDS)) {
+      consumer.acknowledgeMessage(message).get(5, TimeUnit.SECONDS);
+    }
+
+    // Act
+    LocalQueue.closeAll();
+    LocalConsumer restored = new LocalConsumer(config);
+
+    // Assert
+    assertThat(restored.getLocalQueue().size()).isEqualTo(3);
+    assertThat(restored.receive().get(5, TimeUnit.SECONDS))
+        .extracting(LocalMessage::getBody)
+        .containsExactly("message-2", "message-3");
+  }
+
+  @Test
+  void testTypedConsumerDecodesPayload() throws Exception {
+    // Arrange
+    LocalConfig config = LocalConfig.builder().queueName("typed").build();
+    MessageProducer<String> producer =
+        MessageProducerFactory.create(config, StringMessageCodec.INSTANCE);
+    MessageConsumer<ReceivedMessage<String>> consumer =
+        MessageConsumerFactory.create(config, StringMessageCodec.INSTANCE);
+    producer.send("message-1").get(5, TimeUnit.SECONDS);
+
+    // Act
+    List<ReceivedMessage<String>> messages = consumer.receive().get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(consumer).isInstanceOf(LocalTypedConsumer.class);
+    assertThat(messages).extracting(ReceivedMessage::getPayload).containsExactly("message-1");
+    consumer.acknowledgeMessage(messages.get(0)).get(5, TimeUnit.SECONDS);
+  }
+}
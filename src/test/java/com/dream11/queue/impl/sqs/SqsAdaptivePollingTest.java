@@ -0,0 +1,116 @@
+package com.dream11.queue.impl.sqs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+class SqsAdaptivePollingTest {
+
+  private static SqsAdaptivePolling adaptivePolling(long maxThrottleBackoffMillis) {
+    return new SqsAdaptivePolling(
+        SqsConfig.ReceiveConfig.builder()
+            .adaptivePolling(true)
+            .emptyReceivesBeforeLongPoll(2)
+            .longPollWaitTimeSeconds(20)
+            .maxThrottleBackoffMillis(maxThrottleBackoffMillis)
+            .build());
+  }
+
+  private static AwsServiceException serviceException(String errorCode) {
+    return AwsServiceException.builder()
+        .awsErrorDetails(AwsErrorDetails.builder().errorCode(errorCode).build())
+        .build();
+  }
+
+  @Test
+  void testSwitchesToLongPollsAfterEmptyReceives() {
+    // Arrange
+    SqsAdaptivePolling adaptivePolling = adaptivePolling(20_000);
+
+    // Act and Assert
+    assertThat(adaptivePolling.waitTimeSeconds(0)).isZero();
+    adaptivePolling.onReceive(0);
+    assertThat(adaptivePolling.waitTimeSeconds(0)).isZero();
+    adaptivePolling.onReceive(0);
+    assertThat(adaptivePolling.waitTimeSeconds(0)).isEqualTo(20);
+    adaptivePolling.onReceive(1);
+    assertThat(adaptivePolling.waitTimeSeconds(0)).isZero();
+  }
+
+  @Test
+  void testKeepsLongerRequestedWaitTime() {
+    // Arrange
+    SqsAdaptivePolling adaptivePolling = adaptivePolling(20_000);
+    adaptivePolling.onReceive(0);
+    adaptivePolling.onReceive(0);
+
+    // Act and Assert
+    assertThat(adaptivePolling.waitTimeSeconds(5)).isEqualTo(20);
+    assertThat(adaptivePolling.waitTimeSeconds(20)).isEqualTo(20);
+  }
+
+  @Test
+  void testBacksOffExponentiallyWithJitterOnThrottling() {
+    // Arrange
+    SqsAdaptivePolling adaptivePolling = adaptivePolling(1_000);
+    AwsServiceException throttled = serviceException("ThrottlingException");
+
+    // Act and Assert
+    assertThat(adaptivePolling.onError(throttled)).isBetween(50L, 100L);
+    assertThat(adaptivePolling.onError(throttled)).isBetween(100L, 200L);
+    assertThat(adaptivePolling.onError(throttled)).isBetween(200L, 400L);
+    assertThat(adaptivePolling.onError(throttled)).isBetween(400L, 800L);
+    assertThat(adaptivePolling.onError(throttled)).isBetween(500L, 1_000L);
+    adaptivePolling.onReceive(1);
+    assertThat(adaptivePolling.onError(throttled)).isBetween(50L, 100L);
+  }
+
+  @Test
+  void testDoesNotBackOffOtherErrors() {
+    // Arrange
+    SqsAdaptivePolling adaptivePolling = adaptivePolling(20_000);
+
+    // Act and Assert
+    assertThat(adaptivePolling.onError(serviceException("AccessDenied"))).isZero();
+    assertThat(adaptivePolling.onError(new IllegalStateException("failed"))).isZero();
+  }
+
+  @Test
+  void testDetectsThrottling() {
+    // Act and Assert
+    assertThat(SqsClient.isThrottling(serviceException("ThrottlingException"))).isTrue();
+    assertThat(SqsClient.isThrottling(serviceException("RequestThrottled"))).isTrue();
+    assertThat(SqsClient.isThrottling(serviceException("OverLimit"))).isTrue();
+    assertThat(
+            SqsClient.isThrottling(
+                new CompletionException(serviceException("OverLimit"))))
+        .isTrue();
+    assertThat(SqsClient.isThrottling(serviceException("QueueDoesNotExist"))).isFalse();
+  }
+
+  @Test
+  void testObserveDelaysThrottledFailures() {
+    // Arrange
+    SqsAdaptivePolling adaptivePolling = adaptivePolling(20_000);
+    for (int i = 0; i < 3; i++) {
+      adaptivePolling.onError(serviceException("ThrottlingException"));
+    }
+    long start = System.nanoTime();
+
+    // Act
+    CompletableFuture<List<Message>> observed =
+        adaptivePolling.observe(
+            CompletableFuture.failedFuture(serviceException("ThrottlingException")));
+
+    // Assert
+    assertThat(observed).failsWithin(Duration.ofSeconds(5));
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(400_000_000L);
+  }
+}
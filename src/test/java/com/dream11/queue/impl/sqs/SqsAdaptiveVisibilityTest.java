@@ -0,0 +1,73 @@
+package com.dream11.queue.impl.sqs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dream11.queue.config.HeartbeatConfig;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class SqsAdaptiveVisibilityTest {
+
+  @Test
+  void testFallsBackToHeartbeatIntervalWithoutSamples() {
+    // Arrange
+    SqsAdaptiveVisibility adaptiveVisibility =
+        new SqsAdaptiveVisibility(
+            HeartbeatConfig.builder().adaptive(true).heartbeatInterval(10).build());
+
+    // Act and Assert
+    assertThat(adaptiveVisibility.visibilityTimeout()).isEqualTo(20);
+  }
+
+  @Test
+  void testFallsBackToDefaultWithoutSamplesOrHeartbeatInterval() {
+    // Arrange
+    SqsAdaptiveVisibility adaptiveVisibility =
+        new SqsAdaptiveVisibility(HeartbeatConfig.builder().adaptive(true).build());
+
+    // Act and Assert
+    assertThat(adaptiveVisibility.visibilityTimeout()).isEqualTo(30);
+  }
+
+  @Test
+  void testUsesPercentileOfProcessingTimes() {
+    // Arrange
+    SqsAdaptiveVisibility adaptiveVisibility =
+        new SqsAdaptiveVisibility(
+            HeartbeatConfig.builder().adaptive(true).adaptivePercentile(0.5).build());
+
+    // Act
+    LongStream.range(0, 200).forEach(i -> adaptiveVisibility.record(10_000));
+
+    // Assert
+    assertThat(adaptiveVisibility.visibilityTimeout()).isBetween(20, 23);
+  }
+
+  @Test
+  void testClampsVisibilityTimeout() {
+    // Arrange
+    SqsAdaptiveVisibility adaptiveVisibility =
+        new SqsAdaptiveVisibility(
+            HeartbeatConfig.builder().adaptive(true).minVisibilityTimeout(5).build());
+
+    // Act
+    LongStream.range(0, 200).forEach(i -> adaptiveVisibility.record(50));
+
+    // Assert
+    assertThat(adaptiveVisibility.visibilityTimeout()).isEqualTo(5);
+  }
+
+  @Test
+  void testHistogramPercentileIsUpperBound() {
+    // Arrange
+    ProcessingTimeHistogram histogram = new ProcessingTimeHistogram(1_000);
+
+    // Act
+    LongStream.rangeClosed(1, 100).forEach(histogram::record);
+
+    // Assert
+    assertThat(histogram.count()).isEqualTo(100);
+    assertThat(histogram.percentile(0.5)).isBetween(50L, 56L);
+    assertThat(histogram.percentile(0.99)).isBetween(99L, 111L);
+  }
+}
@@ -0,0 +1,133 @@
+package com.dream11.queue.impl.sqs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+
+class SqsClientRegistryTest {
+  private final List<SqsAsyncClient> createdClients = new ArrayList<>();
+  private SqsClientRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    this.registry =
+        new SqsClientRegistry(
+            sqsConfig -> {
+              SqsAsyncClient client = mock(SqsAsyncClient.class);
+              this.createdClients.add(client);
+              return client;
+            });
+  }
+
+  @Test
+  void testSharesClientForSameConfiguration() {
+    // Arrange
+    SqsConfig first = SqsConfig.builder().queueUrl("first").region("us-east-1").build();
+    SqsConfig second = SqsConfig.builder().queueUrl("second").region("us-east-1").build();
+
+    // Act
+    SqsClientRegistry.Lease firstLease = this.registry.acquire(first);
+    SqsClientRegistry.Lease secondLease = this.registry.acquire(second);
+
+    // Assert
+    assertThat(firstLease.getClient()).isSameAs(secondLease.getClient());
+    assertThat(this.createdClients).hasSize(1);
+    assertThat(this.registry.size()).isEqualTo(1);
+  }
+
+  @Test
+  void testCreatesClientPerRegionEndpointAndHttpConfig() {
+    // Arrange
+    SqsConfig base = SqsConfig.builder().queueUrl("queue").region("us-east-1").build();
+    SqsConfig otherRegion = SqsConfig.builder().queueUrl("queue").region("eu-west-1").build();
+    SqsConfig otherEndpoint =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .endpoint("http://localhost:4566")
+            .build();
+    SqsConfig otherHttpConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .httpConfig(SqsConfig.HttpConfig.builder().maxConcurrency(200).build())
+            .build();
+
+    // Act
+    this.registry.acquire(base);
+    this.registry.acquire(otherRegion);
+    this.registry.acquire(otherEndpoint);
+    this.registry.acquire(otherHttpConfig);
+
+    // Assert
+    assertThat(this.createdClients).hasSize(4);
+    assertThat(this.registry.size()).isEqualTo(4);
+  }
+
+  @Test
+  void testClosesClientWhenLastLeaseIsReleased() {
+    // Arrange
+    SqsConfig sqsConfig = SqsConfig.builder().queueUrl("queue").region("us-east-1").build();
+    SqsClientRegistry.Lease firstLease = this.registry.acquire(sqsConfig);
+    SqsClientRegistry.Lease secondLease = this.registry.acquire(sqsConfig);
+    SqsAsyncClient client = firstLease.getClient();
+
+    // Act
+    firstLease.release();
+    firstLease.release();
+
+    // Assert
+    verify(client, never()).close();
+    assertThat(this.registry.size()).isEqualTo(1);
+
+    // Act
+    secondLease.release();
+
+    // Assert
+    verify(client, times(1)).close();
+    assertThat(this.registry.size()).isZero();
+  }
+
+  @Test
+  void testCreatesNewClientAfterRelease() {
+    // Arrange
+    SqsConfig sqsConfig = SqsConfig.builder().queueUrl("queue").region("us-east-1").build();
+    this.registry.acquire(sqsConfig).release();
+
+    // Act
+    SqsClientRegistry.Lease lease = this.registry.acquire(sqsConfig);
+
+    // Assert
+    assertThat(this.createdClients).hasSize(2);
+    assertThat(lease.getClient()).isSameAs(this.createdClients.get(1));
+  }
+
+  @Test
+  void testSqsClientReleasesLeaseOnClose() {
+    // Arrange
+    SqsConfig sqsConfig = SqsConfig.builder().queueUrl("queue").region("us-east-1").build();
+    SqsClient first = new SqsClient(sqsConfig, this.registry);
+    SqsClient second = new SqsClient(sqsConfig, this.registry);
+
+    // Act
+    first.close();
+
+    // Assert
+    verify(this.createdClients.get(0), never()).close();
+
+    // Act
+    second.close();
+
+    // Assert
+    verify(this.createdClients.get(0), times(1)).close();
+    assertThat(this.createdClients).hasSize(1);
+  }
+}
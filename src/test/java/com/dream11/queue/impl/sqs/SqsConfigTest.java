@@ -42,4 +42,23 @@ class SqsConfigTest {
         .isInstanceOf(NullPointerException.class)
         .hasMessageContaining("region is marked non-null but is null");
   }
+
+  @Test
+  void testSqsConfigDefaultHttpConfig() {
+    // Arrange
+    SqsConfig sqsConfig = SqsConfig.builder().queueUrl("queue").region("us-east-1").build();
+
+    // Act
+    SqsConfig.HttpConfig httpConfig = sqsConfig.getHttpConfig();
+
+    // Assert
+    assertThat(sqsConfig.getCredentialsProvider()).isNull();
+    assertThat(httpConfig.isShared()).isTrue();
+    assertThat(httpConfig.getClientType()).isEqualTo(SqsConfig.HttpConfig.ClientType.NETTY);
+    assertThat(httpConfig.getMaxConcurrency()).isEqualTo(50);
+    assertThat(httpConfig.getConnectionTimeToLiveMillis()).isZero();
+    assertThat(httpConfig.getConnectionMaxIdleTimeMillis()).isEqualTo(60_000);
+    assertThat(httpConfig.isTcpKeepAlive()).isFalse();
+    assertThat(httpConfig).isEqualTo(new SqsConfig.HttpConfig());
+  }
 }
@@ -0,0 +1,685 @@
+package com.dream11.queue.impl.sqs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dream11.queue.blob.LocalBlobStore;
+import com.dream11.queue.config.BatchConfig;
+import com.dream11.queue.config.ClaimCheckConfig;
+import com.dream11.queue.config.CompressionConfig;
+import com.dream11.queue.config.HeartbeatConfig;
+import com.dream11.queue.consumer.QueueDepth;
+import com.dream11.queue.metrics.MicrometerQueueMetrics;
+import com.dream11.queue.metrics.QueueMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageResponse;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+
+class SqsConsumerTest {
+
+  private static Message message(String id) {
+    return Message.builder().messageId(id).receiptHandle("handle-" + id).body(id).build();
+  }
+
+  private static CompletableFuture<ReceiveMessageResponse> delayedResponse(Message... messages) {
+    return CompletableFuture.supplyAsync(
+        () -> ReceiveMessageResponse.builder().messages(messages).build(),
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+  }
+
+  private static SqsConfig prefetchConfig(int bufferSize) {
+    return SqsConfig.builder()
+        .queueUrl("queue")
+        .region("us-east-1")
+        .receiveConfig(
+            SqsConfig.ReceiveConfig.builder()
+                .maxMessages(2)
+                .visibilityTimeout(30)
+                .prefetchPollers(1)
+                .prefetchBufferSize(bufferSize)
+                .build())
+        .build();
+  }
+
+  @Test
+  void testReceiveReturnsPrefetchedMessages() {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenAnswer(invocation -> delayedResponse(message("1"), message("2")))
+        .thenAnswer(invocation -> delayedResponse());
+    SqsConsumer consumer = new SqsConsumer(prefetchConfig(10), sqsAsyncClient);
+
+    // Act and Assert
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () ->
+                assertThat(consumer.receive().get())
+                    .extracting(Message::messageId)
+                    .containsExactly("1", "2"));
+    consumer.close();
+  }
+
+  @Test
+  void testPrefetchPausesWhenBufferIsFull() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenAnswer(invocation -> delayedResponse(message("1"), message("2")));
+    when(sqsAsyncClient.changeMessageVisibility(any(ChangeMessageVisibilityRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(ChangeMessageVisibilityResponse.builder().build()));
+    SqsConsumer consumer = new SqsConsumer(prefetchConfig(2), sqsAsyncClient);
+
+    // Act
+    Thread.sleep(500);
+
+    // Assert
+    verify(sqsAsyncClient, times(1)).receiveMessage(any(ReceiveMessageRequest.class));
+    consumer.close();
+    verify(sqsAsyncClient, times(2))
+        .changeMessageVisibility(any(ChangeMessageVisibilityRequest.class));
+  }
+
+  @Test
+  void testHeartbeatsAreSentInBatches() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    Message[] messages =
+        IntStream.range(0, 12).mapToObj(i -> message(Integer.toString(i))).toArray(Message[]::new);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ReceiveMessageResponse.builder().messages(messages).build()));
+    when(sqsAsyncClient.changeMessageVisibilityBatch(
+            any(ChangeMessageVisibilityBatchRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ChangeMessageVisibilityBatchResponse.builder()
+                    .successful(List.of())
+                    .failed(List.of())
+                    .build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .heartbeatConfig(HeartbeatConfig.builder().heartbeatInterval(1).build())
+            .build();
+    SqsConsumer consumer = new SqsConsumer(sqsConfig, sqsAsyncClient);
+
+    // Act
+    consumer.receive().get();
+
+    // Assert
+    ArgumentCaptor<ChangeMessageVisibilityBatchRequest> captor =
+        ArgumentCaptor.forClass(ChangeMessageVisibilityBatchRequest.class);
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () -> verify(sqsAsyncClient, times(2)).changeMessageVisibilityBatch(captor.capture()));
+    assertThat(captor.getAllValues())
+        .extracting(request -> request.entries().size())
+        .containsExactlyInAnyOrder(10, 2);
+    consumer.close();
+  }
+
+  @Test
+  void testFirstHeartbeatOfPrefetchedMessageIsDueBeforeItsVisibilityExpires() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenAnswer(invocation -> delayedResponse(message("1")))
+        .thenAnswer(invocation -> delayedResponse());
+    when(sqsAsyncClient.changeMessageVisibilityBatch(
+            any(ChangeMessageVisibilityBatchRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ChangeMessageVisibilityBatchResponse.builder()
+                    .successful(List.of())
+                    .failed(List.of())
+                    .build()));
+    when(sqsAsyncClient.changeMessageVisibility(any(ChangeMessageVisibilityRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(ChangeMessageVisibilityResponse.builder().build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .receiveConfig(
+                SqsConfig.ReceiveConfig.builder()
+                    .maxMessages(1)
+                    .visibilityTimeout(6)
+                    .prefetchPollers(1)
+                    .prefetchVisibilityMarginSeconds(1)
+                    .build())
+            .heartbeatConfig(
+                HeartbeatConfig.builder().adaptive(true).heartbeatInterval(10).build())
+            .build();
+    SqsConsumer consumer = new SqsConsumer(sqsConfig, sqsAsyncClient);
+    Thread.sleep(3000);
+
+    // Act
+    List<Message> messages = consumer.receive().get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(messages).extracting(Message::messageId).containsExactly("1");
+    await()
+        .atMost(Duration.ofMillis(2500))
+        .untilAsserted(
+            () ->
+                verify(sqsAsyncClient)
+                    .changeMessageVisibilityBatch(any(ChangeMessageVisibilityBatchRequest.class)));
+    consumer.close();
+  }
+
+  @Test
+  void testAcknowledgeMessageStopsHeartbeats() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ReceiveMessageResponse.builder().messages(message("1")).build()));
+    when(sqsAsyncClient.deleteMessage(any(DeleteMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(DeleteMessageResponse.builder().build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .heartbeatConfig(HeartbeatConfig.builder().heartbeatInterval(1).build())
+            .build();
+    SqsConsumer consumer = new SqsConsumer(sqsConfig, sqsAsyncClient);
+
+    // Act
+    Message message = consumer.receive().get().get(0);
+    consumer.acknowledgeMessage(message).get();
+    Thread.sleep(1500);
+
+    // Assert
+    verify(sqsAsyncClient, times(0))
+        .changeMessageVisibilityBatch(any(ChangeMessageVisibilityBatchRequest.class));
+    consumer.close();
+  }
+
+  @Test
+  void testInvalidReceiptHandleForgetsHeartbeat() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ReceiveMessageResponse.builder().messages(message("1")).build()));
+    BatchResultErrorEntry failure =
+        BatchResultErrorEntry.builder()
+            .id("0")
+            .code("ReceiptHandleIsInvalid")
+            .message("error")
+            .senderFault(true)
+            .build();
+    when(sqsAsyncClient.changeMessageVisibilityBatch(
+            any(ChangeMessageVisibilityBatchRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ChangeMessageVisibilityBatchResponse.builder()
+                    .successful(List.of())
+                    .failed(List.of(failure))
+                    .build()));
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .heartbeatConfig(HeartbeatConfig.builder().heartbeatInterval(1).build())
+            .metrics(new MicrometerQueueMetrics(registry))
+            .build();
+    SqsConsumer consumer = new SqsConsumer(sqsConfig, sqsAsyncClient);
+
+    // Act
+    consumer.receive().get();
+
+    // Assert
+    assertThat(registry.get("messagekit.in_flight").gauge().value()).isEqualTo(1);
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () -> assertThat(registry.get("messagekit.in_flight").gauge().value()).isZero());
+    consumer.close();
+  }
+
+  @Test
+  void testAcknowledgeMessageCoalescesDeletes() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.deleteMessageBatch(any(DeleteMessageBatchRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                DeleteMessageBatchResponse.builder()
+                    .successful(List.of())
+                    .failed(List.of())
+                    .build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .ackBatchConfig(BatchConfig.builder().enabled(true).maxBatchSize(3).build())
+            .build();
+    SqsConsumer consumer = new SqsConsumer(sqsConfig, sqsAsyncClient);
+
+    // Act
+    CompletableFuture.allOf(
+            consumer.acknowledgeMessage(message("1")),
+            consumer.acknowledgeMessage(message("2")),
+            consumer.acknowledgeMessage(message("3")))
+        .get(5, TimeUnit.SECONDS);
+
+    // Assert
+    ArgumentCaptor<DeleteMessageBatchRequest> captor =
+        ArgumentCaptor.forClass(DeleteMessageBatchRequest.class);
+    verify(sqsAsyncClient, times(1)).deleteMessageBatch(captor.capture());
+    assertThat(captor.getValue().entries()).hasSize(3);
+    consumer.close();
+  }
+
+  @Test
+  void testAcknowledgeMessageFailsOnlyFailedEntry() {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    BatchResultErrorEntry failure =
+        BatchResultErrorEntry.builder()
+            .id("1")
+            .code("ReceiptHandleIsInvalid")
+            .message("error")
+            .senderFault(true)
+            .build();
+    when(sqsAsyncClient.deleteMessageBatch(any(DeleteMessageBatchRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                DeleteMessageBatchResponse.builder()
+                    .successful(List.of())
+                    .failed(List.of(failure))
+                    .build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .ackBatchConfig(BatchConfig.builder().enabled(true).maxBatchSize(2).build())
+            .build();
+    SqsConsumer consumer = new SqsConsumer(sqsConfig, sqsAsyncClient);
+
+    // Act
+    CompletableFuture<Void> first = consumer.acknowledgeMessage(message("1"));
+    CompletableFuture<Void> second = consumer.acknowledgeMessage(message("2"));
+
+    // Assert
+    assertThat(first).succeedsWithin(5, TimeUnit.SECONDS);
+    assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(SqsBatchEntryException.class);
+    consumer.close();
+  }
+
+  @Test
+  void testReceiveDecompressesCompressedBodies() throws Exception {
+    // Arrange
+    String body = "message ".repeat(1000);
+    SendMessageBatchRequestEntry compressed =
+        new SqsCompressor(CompressionConfig.builder().enabled(true).build())
+            .compress(SendMessageBatchRequestEntry.builder().messageBody(body).build());
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ReceiveMessageResponse.builder()
+                    .messages(
+                        message("1").toBuilder()
+                            .body(compressed.messageBody())
+                            .messageAttributes(compressed.messageAttributes())
+                            .build(),
+                        message("2"))
+                    .build()));
+    SqsConsumer consumer =
+        new SqsConsumer(
+            SqsConfig.builder().queueUrl("queue").region("us-east-1").build(), sqsAsyncClient);
+
+    // Act
+    List<Message> messages = consumer.receive().get();
+
+    // Assert
+    assertThat(messages).extracting(Message::body).containsExactly(body, "2");
+    ArgumentCaptor<ReceiveMessageRequest> captor =
+        ArgumentCaptor.forClass(ReceiveMessageRequest.class);
+    verify(sqsAsyncClient).receiveMessage(captor.capture());
+    assertThat(captor.getValue().messageAttributeNames()).contains(SqsMessageAttributes.ENCODING);
+    consumer.close();
+  }
+
+  @Test
+  void testReceiveRequestsConfiguredAttributes() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(ReceiveMessageResponse.builder().build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .receiveConfig(
+                SqsConfig.ReceiveConfig.builder()
+                    .maxMessages(10)
+                    .messageAttributeNames(List.of("TraceId"))
+                    .systemAttributeNames(List.of("SenderId"))
+                    .build())
+            .build();
+    SqsConsumer consumer = new SqsConsumer(sqsConfig, sqsAsyncClient);
+
+    // Act
+    consumer.receive(5).get();
+
+    // Assert
+    ArgumentCaptor<ReceiveMessageRequest> captor =
+        ArgumentCaptor.forClass(ReceiveMessageRequest.class);
+    verify(sqsAsyncClient).receiveMessage(captor.capture());
+    ReceiveMessageRequest request = captor.getValue();
+    assertThat(request.maxNumberOfMessages()).isEqualTo(10);
+    assertThat(request.waitTimeSeconds()).isEqualTo(5);
+    assertThat(request.messageAttributeNames())
+        .contains(SqsMessageAttributes.ENCODING, SqsMessageAttributes.CLAIM_CHECK, "TraceId");
+    assertThat(request.attributeNamesAsStrings())
+        .contains("SentTimestamp", "ApproximateReceiveCount", "SenderId");
+    assertThat(request.receiveRequestAttemptId()).isNull();
+    consumer.close();
+  }
+
+  @Test
+  void testReceiveRetriedAfterFailureReusesAttemptId() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(SdkClientException.create("reset")))
+        .thenReturn(CompletableFuture.completedFuture(ReceiveMessageResponse.builder().build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue.fifo")
+            .region("us-east-1")
+            .receiveConfig(SqsConfig.ReceiveConfig.builder().receiveRequestAttemptIds(true).build())
+            .build();
+    SqsConsumer consumer = new SqsConsumer(sqsConfig, sqsAsyncClient);
+
+    // Act
+    assertThatThrownBy(() -> consumer.receive().get()).isInstanceOf(ExecutionException.class);
+    consumer.receive().get();
+    consumer.receive().get();
+
+    // Assert
+    ArgumentCaptor<ReceiveMessageRequest> captor =
+        ArgumentCaptor.forClass(ReceiveMessageRequest.class);
+    verify(sqsAsyncClient, times(3)).receiveMessage(captor.capture());
+    List<String> attemptIds =
+        captor.getAllValues().stream()
+            .map(ReceiveMessageRequest::receiveRequestAttemptId)
+            .collect(Collectors.toList());
+    assertThat(attemptIds).doesNotContainNull();
+    assertThat(attemptIds.get(1)).isEqualTo(attemptIds.get(0));
+    assertThat(attemptIds.get(2)).isNotEqualTo(attemptIds.get(1));
+    consumer.close();
+  }
+
+  @Test
+  void testReceiveFetchesOffloadedBodiesAndAcknowledgeDeletesThem(@TempDir Path directory)
+      throws Exception {
+    // Arrange
+    LocalBlobStore blobStore = new LocalBlobStore(directory);
+    blobStore.put("key-1", "payload".getBytes(StandardCharsets.UTF_8)).get();
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ReceiveMessageResponse.builder()
+                    .messages(claimCheck("1", "key-1"), claimCheck("2", "missing"), message("3"))
+                    .build()));
+    when(sqsAsyncClient.deleteMessage(any(DeleteMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(DeleteMessageResponse.builder().build()));
+    SqsConsumer consumer =
+        new SqsConsumer(
+            SqsConfig.builder()
+                .queueUrl("queue")
+                .region("us-east-1")
+                .claimCheckConfig(
+                    ClaimCheckConfig.builder().enabled(true).blobStore(blobStore).build())
+                .build(),
+            sqsAsyncClient);
+
+    // Act
+    List<Message> messages = consumer.receive().get();
+    consumer.acknowledgeMessage(messages.get(0)).get();
+
+    // Assert
+    assertThat(messages).extracting(Message::body).containsExactly("payload", "3");
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(directory.resolve("key-1")).doesNotExist());
+    consumer.close();
+  }
+
+  private static Message claimCheck(String id, String key) {
+    return message(id).toBuilder()
+        .body(key)
+        .messageAttributes(
+            Map.of(SqsMessageAttributes.CLAIM_CHECK, SqsMessageAttributes.stringValue(key)))
+        .build();
+  }
+
+  @Test
+  void testReceiveAndAcknowledgeReportMetrics() throws Exception {
+    // Arrange
+    QueueMetrics metrics = mock(QueueMetrics.class);
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ReceiveMessageResponse.builder().messages(message("1"), message("2")).build()));
+    when(sqsAsyncClient.deleteMessage(any(DeleteMessageRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("failed")));
+    SqsConsumer consumer =
+        new SqsConsumer(
+            SqsConfig.builder().queueUrl("queue").region("us-east-1").metrics(metrics).build(),
+            sqsAsyncClient);
+
+    // Act
+    List<Message> messages = consumer.receive().get();
+    assertThatThrownBy(() -> consumer.acknowledgeMessage(messages.get(0)).get())
+        .isInstanceOf(ExecutionException.class);
+
+    // Assert
+    verify(metrics).recordReceive("queue", 2);
+    verify(metrics).recordLatency(eq("queue"), eq(QueueMetrics.Operation.RECEIVE), anyLong());
+    verify(metrics).recordLatency(eq("queue"), eq(QueueMetrics.Operation.DELETE), anyLong());
+    verify(metrics).recordError("queue", QueueMetrics.Operation.DELETE, "IllegalStateException");
+    consumer.close();
+  }
+
+  @Test
+  void testAdaptivePollingSwitchesToLongPollsOnQuietQueue() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(ReceiveMessageResponse.builder().build()));
+    SqsConsumer consumer =
+        new SqsConsumer(
+            SqsConfig.builder()
+                .queueUrl("queue")
+                .region("us-east-1")
+                .receiveConfig(
+                    SqsConfig.ReceiveConfig.builder()
+                        .adaptivePolling(true)
+                        .emptyReceivesBeforeLongPoll(2)
+                        .build())
+                .build(),
+            sqsAsyncClient);
+
+    // Act
+    for (int i = 0; i < 3; i++) {
+      consumer.receive().get();
+    }
+
+    // Assert
+    ArgumentCaptor<ReceiveMessageRequest> captor =
+        ArgumentCaptor.forClass(ReceiveMessageRequest.class);
+    verify(sqsAsyncClient, times(3)).receiveMessage(captor.capture());
+    assertThat(captor.getAllValues())
+        .extracting(ReceiveMessageRequest::waitTimeSeconds)
+        .containsExactly(0, 0, 20);
+    consumer.close();
+  }
+
+  @Test
+  void testReceiveReportsDeliveryLatency() throws Exception {
+    // Arrange
+    QueueMetrics metrics = mock(QueueMetrics.class);
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    Message message =
+        message("1").toBuilder()
+            .attributes(
+                Map.of(
+                    MessageSystemAttributeName.SENT_TIMESTAMP,
+                    Long.toString(System.currentTimeMillis() - 1_000)))
+            .build();
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ReceiveMessageResponse.builder().messages(message).build()));
+    SqsConsumer consumer =
+        new SqsConsumer(
+            SqsConfig.builder().queueUrl("queue").region("us-east-1").metrics(metrics).build(),
+            sqsAsyncClient);
+
+    // Act
+    consumer.receive().get();
+
+    // Assert
+    verify(metrics).recordDeliveryLatency(eq("queue"), longThat(latency -> latency >= 1_000));
+    consumer.close();
+  }
+
+  @Test
+  void testReceiveCountReadsSystemAttribute() {
+    // Arrange
+    SqsConsumer consumer =
+        new SqsConsumer(
+            SqsConfig.builder().queueUrl("queue").region("us-east-1").build(),
+            mock(SqsAsyncClient.class));
+    Message redelivered =
+        message("1").toBuilder()
+            .attributes(Map.of(MessageSystemAttributeName.APPROXIMATE_RECEIVE_COUNT, "3"))
+            .build();
+
+    // Act and Assert
+    assertThat(consumer.getReceiveCount(redelivered)).isEqualTo(3);
+    assertThat(consumer.getReceiveCount(message("2"))).isEqualTo(1);
+    consumer.close();
+  }
+
+  @Test
+  void testReleaseMessageChangesVisibilityToDelay() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.changeMessageVisibility(any(ChangeMessageVisibilityRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(ChangeMessageVisibilityResponse.builder().build()));
+    SqsConsumer consumer =
+        new SqsConsumer(
+            SqsConfig.builder().queueUrl("queue").region("us-east-1").build(), sqsAsyncClient);
+
+    // Act
+    consumer.releaseMessage(message("1"), 8).get(5, TimeUnit.SECONDS);
+
+    // Assert
+    ArgumentCaptor<ChangeMessageVisibilityRequest> captor =
+        ArgumentCaptor.forClass(ChangeMessageVisibilityRequest.class);
+    verify(sqsAsyncClient).changeMessageVisibility(captor.capture());
+    assertThat(captor.getValue().receiptHandle()).isEqualTo("handle-1");
+    assertThat(captor.getValue().visibilityTimeout()).isEqualTo(8);
+    consumer.close();
+  }
+
+  @Test
+  void testGetQueueDepthReadsApproximateCounts() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.getQueueAttributes(any(GetQueueAttributesRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                GetQueueAttributesResponse.builder()
+                    .attributes(
+                        Map.of(
+                            QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES,
+                            "42",
+                            QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES_NOT_VISIBLE,
+                            "7"))
+                    .build()));
+    SqsConsumer consumer =
+        new SqsConsumer(
+            SqsConfig.builder().queueUrl("queue").region("us-east-1").build(), sqsAsyncClient);
+
+    // Act
+    QueueDepth depth = consumer.getQueueDepth().get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(depth.getVisible()).isEqualTo(42);
+    assertThat(depth.getInFlight()).isEqualTo(7);
+    consumer.close();
+  }
+
+  @Test
+  void testMessageGroupIdReadsSystemAttribute() {
+    // Arrange
+    Message fifoMessage =
+        message("1").toBuilder()
+            .attributes(Map.of(MessageSystemAttributeName.MESSAGE_GROUP_ID, "orders"))
+            .build();
+
+    // Act and Assert
+    assertThat(SqsConsumer.messageGroupId(fifoMessage)).isEqualTo("orders");
+    assertThat(SqsConsumer.messageGroupId(message("2"))).isNull();
+  }
+}
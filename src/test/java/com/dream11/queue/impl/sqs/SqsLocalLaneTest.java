@@ -0,0 +1,231 @@
+package com.dream11.queue.impl.sqs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dream11.queue.config.CompressionConfig;
+import com.dream11.queue.config.HeartbeatConfig;
+import com.dream11.queue.config.LocalLaneConfig;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+
+class SqsLocalLaneTest {
+
+  private static SqsConfig localLaneConfig(String queueUrl, int capacity) {
+    return SqsConfig.builder()
+        .queueUrl(queueUrl)
+        .region("us-east-1")
+        .localLaneConfig(
+            LocalLaneConfig.builder()
+                .enabled(true)
+                .capacity(capacity)
+                .ackDeadlineSeconds(1)
+                .build())
+        .build();
+  }
+
+  private static SqsConfig compressingLocalLaneConfig(String queueUrl) {
+    return SqsConfig.builder()
+        .queueUrl(queueUrl)
+        .region("us-east-1")
+        .compressionConfig(CompressionConfig.builder().enabled(true).build())
+        .localLaneConfig(
+            LocalLaneConfig.builder().enabled(true).capacity(10).ackDeadlineSeconds(1).build())
+        .build();
+  }
+
+  private static SqsAsyncClient sqsAsyncClient(Queue<String> sent) {
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenAnswer(
+            invocation ->
+                CompletableFuture.supplyAsync(
+                    () -> ReceiveMessageResponse.builder().messages(List.of()).build(),
+                    CompletableFuture.delayedExecutor(1, TimeUnit.SECONDS)));
+    when(sqsAsyncClient.sendMessage(any(SendMessageRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              sent.add(((SendMessageRequest) invocation.getArgument(0)).messageBody());
+              return CompletableFuture.completedFuture(SendMessageResponse.builder().build());
+            });
+    return sqsAsyncClient;
+  }
+
+  @Test
+  void testHandsMessageToWaitingReceiveWithoutSqs() throws Exception {
+    // Arrange
+    Queue<String> sent = new ConcurrentLinkedQueue<>();
+    SqsAsyncClient sqsAsyncClient = sqsAsyncClient(sent);
+    SqsConfig config = localLaneConfig("handoff-queue", 10);
+    SqsConsumer consumer = new SqsConsumer(config, sqsAsyncClient);
+    SqsProducer<String> producer = new SqsProducer<>(config, sqsAsyncClient);
+    CompletableFuture<List<Message>> received = consumer.receive(20);
+
+    // Act
+    producer.send("message").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    List<Message> messages = received.get(500, TimeUnit.MILLISECONDS);
+    assertThat(messages).extracting(Message::body).containsExactly("message");
+    assertThat(SqsLocalLane.isLocal(messages.get(0))).isTrue();
+    consumer.acknowledgeMessage(messages.get(0)).get(5, TimeUnit.SECONDS);
+    consumer.close();
+    producer.close();
+    verify(sqsAsyncClient, never()).sendMessage(any(SendMessageRequest.class));
+  }
+
+  @Test
+  void testSendsToSqsWhenRingIsFull() throws Exception {
+    // Arrange
+    Queue<String> sent = new ConcurrentLinkedQueue<>();
+    SqsAsyncClient sqsAsyncClient = sqsAsyncClient(sent);
+    SqsConfig config = localLaneConfig("full-queue", 2);
+    SqsConsumer consumer = new SqsConsumer(config, sqsAsyncClient);
+    SqsProducer<String> producer = new SqsProducer<>(config, sqsAsyncClient);
+
+    // Act
+    for (String body : List.of("a", "b", "c")) {
+      producer.send(body).get(5, TimeUnit.SECONDS);
+    }
+
+    // Assert
+    assertThat(sent).containsExactly("c");
+    consumer.close();
+    producer.close();
+  }
+
+  @Test
+  void testSendsUnacknowledgedMessageToSqsAfterDeadline() throws Exception {
+    // Arrange
+    Queue<String> sent = new ConcurrentLinkedQueue<>();
+    SqsAsyncClient sqsAsyncClient = sqsAsyncClient(sent);
+    SqsConfig config = localLaneConfig("deadline-queue", 10);
+    SqsConsumer consumer = new SqsConsumer(config, sqsAsyncClient);
+    SqsProducer<String> producer = new SqsProducer<>(config, sqsAsyncClient);
+    producer.send("message").get(5, TimeUnit.SECONDS);
+
+    // Act
+    List<Message> messages = consumer.receive(0).get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(messages).hasSize(1);
+    await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(sent).hasSize(1));
+    assertThat(sent).containsExactly("message");
+    consumer.close();
+    producer.close();
+  }
+
+  @Test
+  void testSendsCompressedBodyToSqsWhenLocalMessageMissesDeadline() throws Exception {
+    // Arrange
+    Queue<String> sent = new ConcurrentLinkedQueue<>();
+    SqsAsyncClient sqsAsyncClient = sqsAsyncClient(sent);
+    SqsConfig config = compressingLocalLaneConfig("compressed-deadline-queue");
+    SqsConsumer consumer = new SqsConsumer(config, sqsAsyncClient);
+    SqsProducer<String> producer = new SqsProducer<>(config, sqsAsyncClient);
+    String body = "x".repeat(200_000);
+    producer.send(body).get(5, TimeUnit.SECONDS);
+
+    // Act
+    List<Message> messages = consumer.receive(0).get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(messages).extracting(Message::body).containsExactly(body);
+    ArgumentCaptor<SendMessageRequest> captor = ArgumentCaptor.forClass(SendMessageRequest.class);
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> verify(sqsAsyncClient).sendMessage(captor.capture()));
+    assertThat(captor.getValue().messageAttributes()).containsKey(SqsMessageAttributes.ENCODING);
+    assertThat(captor.getValue().messageBody().length()).isLessThan(body.length());
+    consumer.close();
+    producer.close();
+  }
+
+  @Test
+  void testSendsBodyAboveSqsLimitToSqsRightAway() throws Exception {
+    // Arrange
+    Queue<String> sent = new ConcurrentLinkedQueue<>();
+    SqsAsyncClient sqsAsyncClient = sqsAsyncClient(sent);
+    SqsConfig config = compressingLocalLaneConfig("compressed-large-queue");
+    SqsConsumer consumer = new SqsConsumer(config, sqsAsyncClient);
+    SqsProducer<String> producer = new SqsProducer<>(config, sqsAsyncClient);
+
+    // Act
+    producer.send("x".repeat(SqsLocalLane.MAX_BODY_BYTES + 1)).get(5, TimeUnit.SECONDS);
+
+    // Assert
+    ArgumentCaptor<SendMessageRequest> captor = ArgumentCaptor.forClass(SendMessageRequest.class);
+    verify(sqsAsyncClient).sendMessage(captor.capture());
+    assertThat(captor.getValue().messageAttributes()).containsKey(SqsMessageAttributes.ENCODING);
+    assertThat(SqsLocalLane.find("compressed-large-queue").size()).isZero();
+    consumer.close();
+    producer.close();
+  }
+
+  @Test
+  void testHeartbeatsKeepMessageInLanePastDeadline() throws Exception {
+    // Arrange
+    Queue<String> sent = new ConcurrentLinkedQueue<>();
+    SqsAsyncClient sqsAsyncClient = sqsAsyncClient(sent);
+    SqsConfig config =
+        SqsConfig.builder()
+            .queueUrl("heartbeat-queue")
+            .region("us-east-1")
+            .heartbeatConfig(HeartbeatConfig.builder().heartbeatInterval(1).build())
+            .localLaneConfig(
+                LocalLaneConfig.builder().enabled(true).capacity(10).ackDeadlineSeconds(1).build())
+            .build();
+    SqsConsumer consumer = new SqsConsumer(config, sqsAsyncClient);
+    SqsProducer<String> producer = new SqsProducer<>(config, sqsAsyncClient);
+    producer.send("message").get(5, TimeUnit.SECONDS);
+
+    // Act
+    List<Message> messages = consumer.receive(0).get(5, TimeUnit.SECONDS);
+    Thread.sleep(3000);
+
+    // Assert
+    assertThat(sent).isEmpty();
+    consumer.acknowledgeMessage(messages.get(0)).get(5, TimeUnit.SECONDS);
+    consumer.close();
+    producer.close();
+    assertThat(sent).isEmpty();
+  }
+
+  @Test
+  void testSendsWaitingMessagesToSqsWhenLastConsumerCloses() throws Exception {
+    // Arrange
+    Queue<String> sent = new ConcurrentLinkedQueue<>();
+    SqsAsyncClient sqsAsyncClient = sqsAsyncClient(sent);
+    SqsConfig config = localLaneConfig("close-queue", 10);
+    SqsConsumer consumer = new SqsConsumer(config, sqsAsyncClient);
+    SqsProducer<String> producer = new SqsProducer<>(config, sqsAsyncClient);
+    producer.send("a").get(5, TimeUnit.SECONDS);
+    producer.send("b").get(5, TimeUnit.SECONDS);
+
+    // Act
+    consumer.close();
+    producer.send("c").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(sent).containsExactly("a", "b", "c");
+    assertThat(SqsLocalLane.find("close-queue")).isNull();
+    producer.close();
+  }
+}
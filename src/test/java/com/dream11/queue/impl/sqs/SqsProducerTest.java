@@ -0,0 +1,454 @@
+package com.dream11.queue.impl.sqs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dream11.queue.blob.LocalBlobStore;
+import com.dream11.queue.config.BatchConfig;
+import com.dream11.queue.config.ClaimCheckConfig;
+import com.dream11.queue.config.CompressionConfig;
+import com.dream11.queue.config.FifoConfig;
+import com.dream11.queue.config.SendLimitConfig;
+import com.dream11.queue.config.SpillConfig;
+import com.dream11.queue.producer.SendRejectedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SqsException;
+
+class SqsProducerTest {
+
+  private static SqsConfig batchingConfig(int lingerMillis) {
+    return SqsConfig.builder()
+        .queueUrl("queue")
+        .region("us-east-1")
+        .sendBatchConfig(BatchConfig.builder().enabled(true).lingerMillis(lingerMillis).build())
+        .build();
+  }
+
+  private static CompletableFuture<SendMessageBatchResponse> respond(
+      SendMessageBatchRequest request, List<BatchResultErrorEntry> failed) {
+    return CompletableFuture.completedFuture(
+        SendMessageBatchResponse.builder().successful(List.of()).failed(failed).build());
+  }
+
+  @Test
+  void testSendCoalescesMessagesIntoSingleBatch() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    List<SendMessageBatchRequest> requests = new ArrayList<>();
+    when(sqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              SendMessageBatchRequest request = invocation.getArgument(0);
+              requests.add(request);
+              return respond(request, List.of());
+            });
+    SqsProducer<String> producer = new SqsProducer<>(batchingConfig(60_000), sqsAsyncClient);
+
+    // Act
+    List<CompletableFuture<Void>> futures =
+        IntStream.range(0, 10)
+            .mapToObj(i -> producer.send("message " + i))
+            .collect(Collectors.toList());
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(requests).hasSize(1);
+    assertThat(requests.get(0).entries()).hasSize(10);
+    producer.close();
+  }
+
+  @Test
+  void testSendFlushesPartialBatchAfterLinger() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+        .thenAnswer(invocation -> respond(invocation.getArgument(0), List.of()));
+    SqsProducer<String> producer = new SqsProducer<>(batchingConfig(10), sqsAsyncClient);
+
+    // Act
+    producer.send("message").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    verify(sqsAsyncClient, times(1)).sendMessageBatch(any(SendMessageBatchRequest.class));
+    producer.close();
+  }
+
+  @Test
+  void testSendRetriesFailedEntry() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    BatchResultErrorEntry failure =
+        BatchResultErrorEntry.builder()
+            .id("0")
+            .code("InternalError")
+            .message("error")
+            .senderFault(false)
+            .build();
+    when(sqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+        .thenAnswer(invocation -> respond(invocation.getArgument(0), List.of(failure)))
+        .thenAnswer(invocation -> respond(invocation.getArgument(0), List.of()));
+    SqsProducer<String> producer = new SqsProducer<>(batchingConfig(10), sqsAsyncClient);
+
+    // Act
+    producer.send("message").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    verify(sqsAsyncClient, times(2)).sendMessageBatch(any(SendMessageBatchRequest.class));
+    producer.close();
+  }
+
+  @Test
+  void testSendFailsEntryOnSenderFault() {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    BatchResultErrorEntry failure =
+        BatchResultErrorEntry.builder()
+            .id("0")
+            .code("InvalidMessageContents")
+            .message("error")
+            .senderFault(true)
+            .build();
+    when(sqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+        .thenAnswer(invocation -> respond(invocation.getArgument(0), List.of(failure)));
+    SqsProducer<String> producer = new SqsProducer<>(batchingConfig(10), sqsAsyncClient);
+
+    // Act
+    CompletableFuture<Void> future = producer.send("message");
+
+    // Assert
+    assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(SqsBatchEntryException.class);
+    producer.close();
+  }
+
+  @Test
+  void testSendCompressesBodyAboveThreshold() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.sendMessage(any(SendMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(SendMessageResponse.builder().build()));
+    SqsProducer<String> producer = new SqsProducer<>(compressionConfig(), sqsAsyncClient);
+    String body = "message ".repeat(1000);
+
+    // Act
+    producer.send(body).get(5, TimeUnit.SECONDS);
+
+    // Assert
+    ArgumentCaptor<SendMessageRequest> captor = ArgumentCaptor.forClass(SendMessageRequest.class);
+    verify(sqsAsyncClient).sendMessage(captor.capture());
+    SendMessageRequest request = captor.getValue();
+    assertThat(request.messageBody().length()).isLessThan(body.length() / 10);
+    assertThat(request.messageAttributes().get(SqsMessageAttributes.ENCODING).stringValue())
+        .isEqualTo(SqsCompressor.DEFLATE);
+    Message received =
+        Message.builder()
+            .messageId("1")
+            .body(request.messageBody())
+            .messageAttributes(request.messageAttributes())
+            .build();
+    assertThat(SqsCompressor.decompress(received).body()).isEqualTo(body);
+    producer.close();
+  }
+
+  @Test
+  void testSendDoesNotCompressBodyBelowThreshold() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.sendMessage(any(SendMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(SendMessageResponse.builder().build()));
+    SqsProducer<String> producer = new SqsProducer<>(compressionConfig(), sqsAsyncClient);
+
+    // Act
+    producer.send("message").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    ArgumentCaptor<SendMessageRequest> captor = ArgumentCaptor.forClass(SendMessageRequest.class);
+    verify(sqsAsyncClient).sendMessage(captor.capture());
+    assertThat(captor.getValue().messageBody()).isEqualTo("message");
+    assertThat(captor.getValue().messageAttributes()).isEmpty();
+    producer.close();
+  }
+
+  private static SqsConfig compressionConfig() {
+    return SqsConfig.builder()
+        .queueUrl("queue")
+        .region("us-east-1")
+        .compressionConfig(CompressionConfig.builder().enabled(true).thresholdBytes(1024).build())
+        .build();
+  }
+
+  @Test
+  void testSendOffloadsBodyAboveThresholdToBlobStore(@TempDir Path directory) throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.sendMessage(any(SendMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(SendMessageResponse.builder().build()));
+    LocalBlobStore blobStore = new LocalBlobStore(directory);
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .claimCheckConfig(
+                ClaimCheckConfig.builder()
+                    .enabled(true)
+                    .thresholdBytes(1024)
+                    .blobStore(blobStore)
+                    .build())
+            .build();
+    SqsProducer<String> producer = new SqsProducer<>(sqsConfig, sqsAsyncClient);
+    String body = "x".repeat(2048);
+
+    // Act
+    producer.send(body).get(5, TimeUnit.SECONDS);
+    producer.send("small").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    ArgumentCaptor<SendMessageRequest> captor = ArgumentCaptor.forClass(SendMessageRequest.class);
+    verify(sqsAsyncClient, times(2)).sendMessage(captor.capture());
+    SendMessageRequest offloaded = captor.getAllValues().get(0);
+    String key = offloaded.messageAttributes().get(SqsMessageAttributes.CLAIM_CHECK).stringValue();
+    assertThat(offloaded.messageBody()).isEqualTo(key);
+    assertThat(blobStore.get(key).get(5, TimeUnit.SECONDS))
+        .isEqualTo(body.getBytes(StandardCharsets.UTF_8));
+    assertThat(captor.getAllValues().get(1).messageBody()).isEqualTo("small");
+    producer.close();
+  }
+
+  @Test
+  void testSendDeletesOffloadedBodyWhenSendFails(@TempDir Path directory) throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.sendMessage(any(SendMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                SqsException.builder().statusCode(400).message("invalid").build()));
+    LocalBlobStore blobStore = new LocalBlobStore(directory);
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .claimCheckConfig(
+                ClaimCheckConfig.builder()
+                    .enabled(true)
+                    .thresholdBytes(1024)
+                    .blobStore(blobStore)
+                    .build())
+            .build();
+    SqsProducer<String> producer = new SqsProducer<>(sqsConfig, sqsAsyncClient);
+
+    // Act
+    CompletableFuture<Void> future = producer.send("x".repeat(2048));
+
+    // Assert
+    assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(SqsException.class);
+    ArgumentCaptor<SendMessageRequest> captor = ArgumentCaptor.forClass(SendMessageRequest.class);
+    verify(sqsAsyncClient).sendMessage(captor.capture());
+    String key =
+        captor.getValue().messageAttributes().get(SqsMessageAttributes.CLAIM_CHECK).stringValue();
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () ->
+                assertThatThrownBy(() -> blobStore.get(key).get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class));
+    producer.close();
+  }
+
+  @Test
+  void testSendRejectsSendsAboveConcurrencyLimit() {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    CompletableFuture<SendMessageResponse> pending = new CompletableFuture<>();
+    when(sqsAsyncClient.sendMessage(any(SendMessageRequest.class))).thenReturn(pending);
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .sendLimitConfig(
+                SendLimitConfig.builder()
+                    .enabled(true)
+                    .maxConcurrency(1)
+                    .overflowStrategy(SendLimitConfig.OverflowStrategy.FAIL)
+                    .build())
+            .build();
+    SqsProducer<String> producer = new SqsProducer<>(sqsConfig, sqsAsyncClient);
+
+    // Act
+    CompletableFuture<Void> first = producer.send("first");
+    CompletableFuture<Void> second = producer.send("second");
+
+    // Assert
+    assertThatThrownBy(second::get).hasCauseInstanceOf(SendRejectedException.class);
+    pending.complete(SendMessageResponse.builder().build());
+    assertThat(first).isCompleted();
+    assertThat(producer.send("third")).isNotCompletedExceptionally();
+    verify(sqsAsyncClient, times(2)).sendMessage(any(SendMessageRequest.class));
+    producer.close();
+  }
+
+  @Test
+  void testSendSpillsFailedSendsAndReplaysThem(@TempDir Path directory) throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.sendMessage(any(SendMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                SqsException.builder().statusCode(503).message("unavailable").build()))
+        .thenReturn(CompletableFuture.completedFuture(SendMessageResponse.builder().build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .spillConfig(
+                SpillConfig.builder()
+                    .enabled(true)
+                    .directory(directory)
+                    .replayIntervalMillis(50)
+                    .build())
+            .build();
+    SqsProducer<String> producer = new SqsProducer<>(sqsConfig, sqsAsyncClient);
+
+    // Act
+    producer.send("message").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    ArgumentCaptor<SendMessageRequest> captor = ArgumentCaptor.forClass(SendMessageRequest.class);
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> verify(sqsAsyncClient, times(2)).sendMessage(captor.capture()));
+    assertThat(captor.getAllValues())
+        .extracting(SendMessageRequest::messageBody)
+        .containsExactly("message", "message");
+    producer.close();
+  }
+
+  @Test
+  void testSendDoesNotSpillSenderFaults(@TempDir Path directory) {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.sendMessage(any(SendMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                SqsException.builder().statusCode(400).message("invalid").build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .spillConfig(SpillConfig.builder().enabled(true).directory(directory).build())
+            .build();
+    SqsProducer<String> producer = new SqsProducer<>(sqsConfig, sqsAsyncClient);
+
+    // Act and Assert
+    assertThatThrownBy(() -> producer.send("message").get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(SqsException.class);
+    producer.close();
+  }
+
+  @Test
+  void testSendSetsGroupAndDeduplicationIdsForFifoQueues() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.sendMessage(any(SendMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(SendMessageResponse.builder().build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue.fifo")
+            .region("us-east-1")
+            .fifoConfig(
+                FifoConfig.<String>builder()
+                    .enabled(true)
+                    .groupIdExtractor(message -> message.startsWith("order") ? "orders" : null)
+                    .deduplicationIdExtractor(message -> "dedup-" + message)
+                    .build())
+            .build();
+    SqsProducer<String> producer = new SqsProducer<>(sqsConfig, sqsAsyncClient);
+
+    // Act
+    producer.send("order-1").get(5, TimeUnit.SECONDS);
+    producer.send("other").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    ArgumentCaptor<SendMessageRequest> captor = ArgumentCaptor.forClass(SendMessageRequest.class);
+    verify(sqsAsyncClient, times(2)).sendMessage(captor.capture());
+    assertThat(captor.getAllValues())
+        .extracting(SendMessageRequest::messageGroupId)
+        .containsExactly("orders", "default");
+    assertThat(captor.getAllValues())
+        .extracting(SendMessageRequest::messageDeduplicationId)
+        .containsExactly("dedup-order-1", "dedup-other");
+    producer.close();
+  }
+
+  @Test
+  void testSendBatchKeepsGroupIdsForFifoQueues() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    List<SendMessageBatchRequest> requests = new ArrayList<>();
+    when(sqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              SendMessageBatchRequest request = invocation.getArgument(0);
+              requests.add(request);
+              return respond(request, List.of());
+            });
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue.fifo")
+            .region("us-east-1")
+            .sendBatchConfig(BatchConfig.builder().enabled(true).lingerMillis(60_000).build())
+            .fifoConfig(
+                FifoConfig.<String>builder()
+                    .enabled(true)
+                    .groupIdExtractor(message -> message.substring(0, 1))
+                    .build())
+            .build();
+    SqsProducer<String> producer = new SqsProducer<>(sqsConfig, sqsAsyncClient);
+
+    // Act
+    List<CompletableFuture<Void>> futures =
+        IntStream.range(0, 10)
+            .mapToObj(i -> producer.send((i % 2 == 0 ? "a" : "b") + i))
+            .collect(Collectors.toList());
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(requests).hasSize(1);
+    assertThat(requests.get(0).entries())
+        .allSatisfy(
+            entry ->
+                assertThat(entry.messageGroupId()).isEqualTo(entry.messageBody().substring(0, 1)));
+    assertThat(requests.get(0).entries())
+        .extracting(SendMessageBatchRequestEntry::messageDeduplicationId)
+        .containsOnlyNulls();
+    producer.close();
+  }
+}
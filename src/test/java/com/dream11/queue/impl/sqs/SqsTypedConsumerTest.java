@@ -0,0 +1,127 @@
+package com.dream11.queue.impl.sqs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dream11.queue.blob.BlobStore;
+import com.dream11.queue.codec.MessageCodec;
+import com.dream11.queue.codec.StringMessageCodec;
+import com.dream11.queue.config.ClaimCheckConfig;
+import com.dream11.queue.consumer.ReceivedMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+
+class SqsTypedConsumerTest {
+
+  private static SqsConfig config() {
+    return SqsConfig.builder().queueUrl("queue").region("us-east-1").build();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testPayloadIsDecodedLazilyAndOnce() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ReceiveMessageResponse.builder()
+                    .messages(
+                        Message.builder().messageId("1").receiptHandle("h").body("42").build())
+                    .build()));
+    MessageCodec<Integer> codec = mock(MessageCodec.class);
+    when(codec.decode("42")).thenReturn(42);
+    SqsTypedConsumer<Integer> consumer = new SqsTypedConsumer<>(config(), sqsAsyncClient, codec);
+
+    // Act
+    List<ReceivedMessage<Integer>> messages = consumer.receive().get();
+
+    // Assert
+    assertThat(messages).hasSize(1);
+    verify(codec, never()).decode(any());
+    assertThat(messages.get(0).getPayload()).isEqualTo(42);
+    assertThat(messages.get(0).getPayload()).isEqualTo(42);
+    verify(codec).decode("42");
+    consumer.close();
+  }
+
+  @Test
+  void testAcknowledgeMessageDeletesUnderlyingMessage() throws Exception {
+    // Arrange
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.deleteMessage(any(DeleteMessageRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(DeleteMessageResponse.builder().build()));
+    SqsTypedConsumer<String> consumer =
+        new SqsTypedConsumer<>(config(), sqsAsyncClient, StringMessageCodec.INSTANCE);
+    Message message = Message.builder().messageId("1").receiptHandle("handle-1").body("a").build();
+
+    // Act
+    consumer
+        .acknowledgeMessage(new SqsReceivedMessage<>(message, StringMessageCodec.INSTANCE))
+        .get();
+
+    // Assert
+    ArgumentCaptor<DeleteMessageRequest> captor =
+        ArgumentCaptor.forClass(DeleteMessageRequest.class);
+    verify(sqsAsyncClient).deleteMessage(captor.capture());
+    assertThat(captor.getValue().receiptHandle()).isEqualTo("handle-1");
+    consumer.close();
+  }
+
+  @Test
+  void testOffloadedBodyIsFetchedWhenAccessed() throws Exception {
+    // Arrange
+    BlobStore blobStore = mock(BlobStore.class);
+    when(blobStore.get("key-1"))
+        .thenReturn(
+            CompletableFuture.completedFuture("payload".getBytes(StandardCharsets.UTF_8)));
+    SqsAsyncClient sqsAsyncClient = mock(SqsAsyncClient.class);
+    when(sqsAsyncClient.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                ReceiveMessageResponse.builder()
+                    .messages(
+                        Message.builder()
+                            .messageId("1")
+                            .receiptHandle("h")
+                            .body("key-1")
+                            .messageAttributes(
+                                Map.of(
+                                    SqsMessageAttributes.CLAIM_CHECK,
+                                    SqsMessageAttributes.stringValue("key-1")))
+                            .build())
+                    .build()));
+    SqsConfig sqsConfig =
+        SqsConfig.builder()
+            .queueUrl("queue")
+            .region("us-east-1")
+            .claimCheckConfig(ClaimCheckConfig.builder().enabled(true).blobStore(blobStore).build())
+            .build();
+    SqsTypedConsumer<String> consumer =
+        new SqsTypedConsumer<>(sqsConfig, sqsAsyncClient, StringMessageCodec.INSTANCE);
+
+    // Act
+    List<ReceivedMessage<String>> messages = consumer.receive().get();
+
+    // Assert
+    verify(blobStore, never()).get(any());
+    assertThat(messages.get(0).getPayload()).isEqualTo("payload");
+    assertThat(messages.get(0).getBody()).isEqualTo("payload");
+    verify(blobStore).get("key-1");
+    consumer.close();
+  }
+}
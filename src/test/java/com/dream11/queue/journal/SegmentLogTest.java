@@ -0,0 +1,92 @@
+package com.dream11.queue.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentLogTest {
+  @TempDir Path directory;
+
+  @Test
+  void testReplaysRecordsAfterReopen() {
+    // Arrange
+    try (SegmentLog segmentLog = new SegmentLog(this.directory, 64, false)) {
+      for (int i = 0; i < 10; i++) {
+        segmentLog.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+      }
+    }
+
+    // Act
+    List<String> records = new ArrayList<>();
+    try (SegmentLog segmentLog = new SegmentLog(this.directory, 64, false)) {
+      segmentLog.replay((segment, record) -> records.add(asString(record)));
+
+      // Assert
+      assertThat(records).hasSize(10).startsWith("record-0").endsWith("record-9");
+      assertThat(segmentLog.getSegmentCount()).isGreaterThan(1);
+      assertThat(segmentLog.getLiveRecords()).isEqualTo(10);
+    }
+  }
+
+  @Test
+  void testDeletesOldestSegmentsOnceReleased() {
+    // Arrange
+    SegmentLog segmentLog = new SegmentLog(this.directory, 64, false);
+    List<Long> segments = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      segments.add(segmentLog.append(("record-" + i).getBytes(StandardCharsets.UTF_8)));
+    }
+    int segmentCount = segmentLog.getSegmentCount();
+
+    // Act
+    segments.subList(1, 10).forEach(segmentLog::release);
+    int segmentCountWithFirstLive = segmentLog.getSegmentCount();
+    segmentLog.release(segments.get(0));
+
+    // Assert
+    assertThat(segmentCountWithFirstLive).isEqualTo(segmentCount);
+    assertThat(segmentLog.getSegmentCount()).isEqualTo(1);
+    assertThat(segmentLog.getLiveRecords()).isZero();
+    segmentLog.close();
+  }
+
+  @Test
+  void testRecordLargerThanSegmentGetsOwnSegment() {
+    // Arrange
+    SegmentLog segmentLog = new SegmentLog(this.directory, 64, false);
+    byte[] large = new byte[1000];
+
+    // Act
+    segmentLog.append(large);
+    List<Integer> sizes = new ArrayList<>();
+    segmentLog.replay((segment, record) -> sizes.add(record.remaining()));
+
+    // Assert
+    assertThat(sizes).containsExactly(1000);
+    segmentLog.close();
+  }
+
+  @Test
+  void testAppendFailsWhenClosed() {
+    // Arrange
+    SegmentLog segmentLog = new SegmentLog(this.directory, 64, false);
+    segmentLog.close();
+
+    // Act and Assert
+    assertThatThrownBy(() -> segmentLog.append(new byte[] {1}))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  private static String asString(ByteBuffer record) {
+    byte[] bytes = new byte[record.remaining()];
+    record.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,196 @@
+package com.dream11.queue.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class MicrometerQueueMetricsTest {
+  private static final String QUEUE = "queue";
+
+  @Test
+  void testRecordLatencyIsTaggedWithQueueAndOperation() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerQueueMetrics metrics = new MicrometerQueueMetrics(registry);
+
+    // Act
+    metrics.recordLatency(QUEUE, QueueMetrics.Operation.SEND, TimeUnit.MILLISECONDS.toNanos(5));
+    metrics.recordLatency(QUEUE, QueueMetrics.Operation.SEND, TimeUnit.MILLISECONDS.toNanos(15));
+
+    // Assert
+    assertThat(
+            registry
+                .get("messagekit.request.latency")
+                .tag("queue", QUEUE)
+                .tag("operation", "send")
+                .timer()
+                .count())
+        .isEqualTo(2);
+  }
+
+  @Test
+  void testRecordErrorCountsByType() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerQueueMetrics metrics = new MicrometerQueueMetrics(registry);
+
+    // Act
+    metrics.recordError(QUEUE, QueueMetrics.Operation.DELETE, "ReceiptHandleIsInvalid");
+    metrics.recordError(QUEUE, QueueMetrics.Operation.DELETE, "ReceiptHandleIsInvalid");
+    metrics.recordError(QUEUE, QueueMetrics.Operation.DELETE, "TimeoutException");
+
+    // Assert
+    assertThat(
+            registry
+                .get("messagekit.request.errors")
+                .tag("type", "ReceiptHandleIsInvalid")
+                .counter()
+                .count())
+        .isEqualTo(2);
+    assertThat(
+            registry
+                .get("messagekit.request.errors")
+                .tag("type", "TimeoutException")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void testRecordReceiveCountsEmptyReceives() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerQueueMetrics metrics = new MicrometerQueueMetrics(registry);
+
+    // Act
+    metrics.recordReceive(QUEUE, 0);
+    metrics.recordReceive(QUEUE, 10);
+
+    // Assert
+    assertThat(registry.get("messagekit.receive.messages").summary().totalAmount()).isEqualTo(10);
+    assertThat(registry.get("messagekit.receive.empty").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void testRecordDeliveryLatency() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerQueueMetrics metrics = new MicrometerQueueMetrics(registry);
+
+    // Act
+    metrics.recordDeliveryLatency(QUEUE, 250);
+
+    // Assert
+    assertThat(
+            registry
+                .get("messagekit.delivery.latency")
+                .tag("queue", QUEUE)
+                .timer()
+                .totalTime(TimeUnit.MILLISECONDS))
+        .isEqualTo(250);
+  }
+
+  @Test
+  void testRecordBatchRecordsFillRatio() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerQueueMetrics metrics = new MicrometerQueueMetrics(registry);
+
+    // Act
+    metrics.recordBatch(QUEUE, QueueMetrics.Operation.SEND_BATCH, 5, 10);
+
+    // Assert
+    assertThat(registry.get("messagekit.batch.fill").summary().max()).isEqualTo(0.5);
+  }
+
+  @Test
+  void testRecordSendDeduplicationCountsHitsAndMisses() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerQueueMetrics metrics = new MicrometerQueueMetrics(registry);
+
+    // Act
+    metrics.recordSendDeduplication(QUEUE, false);
+    metrics.recordSendDeduplication(QUEUE, true);
+    metrics.recordSendDeduplication(QUEUE, true);
+
+    // Assert
+    assertThat(
+            registry.get("messagekit.send.deduplication").tag("result", "hit").counter().count())
+        .isEqualTo(2);
+    assertThat(
+            registry.get("messagekit.send.deduplication").tag("result", "miss").counter().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void testRecordReceiveDeduplicationCountsHitsAndMisses() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerQueueMetrics metrics = new MicrometerQueueMetrics(registry);
+
+    // Act
+    metrics.recordReceiveDeduplication(QUEUE, true);
+    metrics.recordReceiveDeduplication(QUEUE, false);
+    metrics.recordReceiveDeduplication(QUEUE, false);
+
+    // Assert
+    assertThat(
+            registry
+                .get("messagekit.receive.deduplication")
+                .tag("result", "hit")
+                .counter()
+                .count())
+        .isEqualTo(1);
+    assertThat(
+            registry
+                .get("messagekit.receive.deduplication")
+                .tag("result", "miss")
+                .counter()
+                .count())
+        .isEqualTo(2);
+  }
+
+  @Test
+  void testRegisterGaugeSamplesValueUntilRemoved() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerQueueMetrics metrics = new MicrometerQueueMetrics(registry);
+    AtomicInteger inFlight = new AtomicInteger(3);
+
+    // Act
+    Runnable registration =
+        metrics.registerGauge(QUEUE, QueueMetrics.Gauge.IN_FLIGHT, inFlight::get);
+
+    // Assert
+    assertThat(registry.get("messagekit.in_flight").gauge().value()).isEqualTo(3);
+    registration.run();
+    assertThat(registry.find("messagekit.in_flight").gauge()).isNull();
+  }
+
+  @Test
+  void testRegisterGaugeSumsOwnersOfSameQueueUntilAllAreRemoved() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerQueueMetrics metrics = new MicrometerQueueMetrics(registry);
+    AtomicInteger first = new AtomicInteger(3);
+    AtomicInteger second = new AtomicInteger(4);
+
+    // Act
+    Runnable firstRegistration =
+        metrics.registerGauge(QUEUE, QueueMetrics.Gauge.SEND_IN_FLIGHT, first::get);
+    Runnable secondRegistration =
+        metrics.registerGauge(QUEUE, QueueMetrics.Gauge.SEND_IN_FLIGHT, second::get);
+
+    // Assert
+    assertThat(registry.get("messagekit.send_in_flight").gauge().value()).isEqualTo(7);
+    firstRegistration.run();
+    firstRegistration.run();
+    assertThat(registry.get("messagekit.send_in_flight").gauge().value()).isEqualTo(4);
+    secondRegistration.run();
+    assertThat(registry.find("messagekit.send_in_flight").gauge()).isNull();
+  }
+}
@@ -0,0 +1,123 @@
+package com.dream11.queue.producer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dream11.queue.config.DeduplicationConfig;
+import com.dream11.queue.metrics.QueueMetrics;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class DeduplicatingProducerTest {
+
+  private static MessageProducer<String> producer(List<String> sent) {
+    MessageProducer<String> producer = mock(MessageProducer.class);
+    when(producer.send(any()))
+        .thenAnswer(
+            invocation -> {
+              sent.add(invocation.getArgument(0));
+              return CompletableFuture.completedFuture(null);
+            });
+    return producer;
+  }
+
+  @Test
+  void testDropsDuplicatesAndReportsHitsAndMisses() throws Exception {
+    // Arrange
+    List<String> sent = new CopyOnWriteArrayList<>();
+    QueueMetrics metrics = mock(QueueMetrics.class);
+    DeduplicatingProducer<String> producer =
+        new DeduplicatingProducer<>(
+            producer(sent),
+            message -> message.split(":")[0],
+            DeduplicationConfig.builder().metrics(metrics).queue("queue").build());
+
+    // Act
+    for (String message : List.of("1:a", "2:a", "1:b", "1:c")) {
+      producer.send(message).get(5, TimeUnit.SECONDS);
+    }
+
+    // Assert
+    assertThat(sent).containsExactly("1:a", "2:a");
+    verify(metrics, times(2)).recordSendDeduplication("queue", true);
+    verify(metrics, times(2)).recordSendDeduplication("queue", false);
+  }
+
+  @Test
+  void testSendsMessagesWithoutId() throws Exception {
+    // Arrange
+    List<String> sent = new CopyOnWriteArrayList<>();
+    DeduplicatingProducer<String> producer =
+        new DeduplicatingProducer<>(producer(sent), message -> null, new DeduplicationConfig());
+
+    // Act
+    producer.send("message").get(5, TimeUnit.SECONDS);
+    producer.send("message").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(sent).hasSize(2);
+  }
+
+  @Test
+  void testSendsRetryOfFailedSend() throws Exception {
+    // Arrange
+    MessageProducer<String> delegate = mock(MessageProducer.class);
+    when(delegate.send(any()))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("failed")))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    DeduplicatingProducer<String> producer =
+        new DeduplicatingProducer<>(delegate, message -> message, new DeduplicationConfig());
+
+    // Act
+    CompletableFuture<Void> first = producer.send("message");
+    producer.send("message").get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(first).isCompletedExceptionally();
+    verify(delegate, times(2)).send("message");
+  }
+
+  @Test
+  void testFailsDuplicateOfFailedSendInFlight() throws Exception {
+    // Arrange
+    CompletableFuture<Void> original = new CompletableFuture<>();
+    MessageProducer<String> delegate = mock(MessageProducer.class);
+    when(delegate.send(any()))
+        .thenReturn(original)
+        .thenReturn(CompletableFuture.completedFuture(null));
+    DeduplicatingProducer<String> producer =
+        new DeduplicatingProducer<>(delegate, message -> message, new DeduplicationConfig());
+    CompletableFuture<Void> first = producer.send("message");
+    CompletableFuture<Void> duplicate = producer.send("message");
+
+    // Act
+    original.completeExceptionally(new IllegalStateException("failed"));
+
+    // Assert
+    assertThat(first).isCompletedExceptionally();
+    assertThat(duplicate).isCompletedExceptionally();
+    producer.send("message").get(5, TimeUnit.SECONDS);
+    verify(delegate, times(2)).send("message");
+  }
+
+  @Test
+  void testCloseClosesDelegate() {
+    // Arrange
+    MessageProducer<String> delegate = mock(MessageProducer.class);
+    DeduplicatingProducer<String> producer =
+        new DeduplicatingProducer<>(delegate, message -> message, new DeduplicationConfig());
+
+    // Act
+    producer.close();
+
+    // Assert
+    verify(delegate).close();
+  }
+}
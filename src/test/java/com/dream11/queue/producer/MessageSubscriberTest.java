@@ -0,0 +1,95 @@
+package com.dream11.queue.producer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class MessageSubscriberTest {
+
+  @Test
+  void testSendsAllItemsAndCompletes() throws Exception {
+    // Arrange
+    List<String> sent = new CopyOnWriteArrayList<>();
+    MessageProducer<String> producer = mock(MessageProducer.class);
+    when(producer.send(any()))
+        .thenAnswer(
+            invocation -> {
+              sent.add(invocation.getArgument(0));
+              return CompletableFuture.completedFuture(null);
+            });
+    MessageSubscriber<String> subscriber = new MessageSubscriber<>(producer, 5);
+
+    // Act
+    try (SubmissionPublisher<String> publisher = new SubmissionPublisher<>()) {
+      publisher.subscribe(subscriber);
+      for (int i = 0; i < 25; i++) {
+        publisher.submit("message-" + i);
+      }
+    }
+
+    // Assert
+    subscriber.getCompletion().get(5, TimeUnit.SECONDS);
+    assertThat(sent).hasSize(25);
+  }
+
+  @Test
+  void testRequestsNextBatchOnlyOnceBatchIsSent() {
+    // Arrange
+    List<CompletableFuture<Void>> sends = new CopyOnWriteArrayList<>();
+    MessageProducer<String> producer = mock(MessageProducer.class);
+    when(producer.send(any()))
+        .thenAnswer(
+            invocation -> {
+              CompletableFuture<Void> send = new CompletableFuture<>();
+              sends.add(send);
+              return send;
+            });
+    Flow.Subscription subscription = mock(Flow.Subscription.class);
+    MessageSubscriber<String> subscriber = new MessageSubscriber<>(producer, 2);
+
+    // Act
+    subscriber.onSubscribe(subscription);
+    for (int i = 0; i < 4; i++) {
+      subscriber.onNext("message-" + i);
+    }
+    sends.get(0).complete(null);
+    sends.get(1).complete(null);
+
+    // Assert
+    verify(subscription).request(4);
+    verify(subscription).request(2);
+  }
+
+  @Test
+  void testFailedSendCancelsSubscription() {
+    // Arrange
+    MessageProducer<String> producer = mock(MessageProducer.class);
+    when(producer.send(any()))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("failed")));
+    Flow.Subscription subscription = mock(Flow.Subscription.class);
+    MessageSubscriber<String> subscriber = new MessageSubscriber<>(producer);
+
+    // Act
+    subscriber.onSubscribe(subscription);
+    subscriber.onNext("message");
+
+    // Assert
+    verify(subscription).cancel();
+    assertThatThrownBy(() -> subscriber.getCompletion().get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+    assertThat(subscriber.getCompletion()).isCompletedExceptionally();
+  }
+}
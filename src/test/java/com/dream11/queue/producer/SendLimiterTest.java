@@ -0,0 +1,217 @@
+package com.dream11.queue.producer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dream11.queue.config.SendLimitConfig;
+import com.dream11.queue.metrics.NoopQueueMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class SendLimiterTest {
+  private static final String QUEUE = "queue";
+
+  private static SendLimiter limiter(SendLimitConfig config) {
+    return new SendLimiter(
+        config, IllegalStateException.class::isInstance, NoopQueueMetrics.INSTANCE, QUEUE);
+  }
+
+  private static Supplier<CompletableFuture<Void>> pending(List<CompletableFuture<Void>> sends) {
+    return () -> {
+      CompletableFuture<Void> send = new CompletableFuture<>();
+      sends.add(send);
+      return send;
+    };
+  }
+
+  @Test
+  void testFailStrategyRejectsSendsAboveConcurrencyLimit() {
+    // Arrange
+    SendLimiter limiter =
+        limiter(
+            SendLimitConfig.builder()
+                .enabled(true)
+                .maxConcurrency(2)
+                .overflowStrategy(SendLimitConfig.OverflowStrategy.FAIL)
+                .build());
+    List<CompletableFuture<Void>> sends = new ArrayList<>();
+
+    // Act
+    limiter.submit(pending(sends));
+    limiter.submit(pending(sends));
+    CompletableFuture<Void> rejected = limiter.submit(pending(sends));
+
+    // Assert
+    assertThat(sends).hasSize(2);
+    assertThat(limiter.getInFlight()).isEqualTo(2);
+    assertThat(rejected)
+        .failsWithin(Duration.ZERO)
+        .withThrowableOfType(Exception.class)
+        .withCauseInstanceOf(SendRejectedException.class);
+    limiter.close();
+  }
+
+  @Test
+  void testQueueStrategyStartsQueuedSendsWhenSendsComplete() {
+    // Arrange
+    SendLimiter limiter =
+        limiter(
+            SendLimitConfig.builder()
+                .enabled(true)
+                .maxConcurrency(1)
+                .overflowStrategy(SendLimitConfig.OverflowStrategy.QUEUE)
+                .maxQueueSize(1)
+                .build());
+    List<CompletableFuture<Void>> sends = new ArrayList<>();
+
+    // Act
+    CompletableFuture<Void> first = limiter.submit(pending(sends));
+    CompletableFuture<Void> second = limiter.submit(pending(sends));
+    CompletableFuture<Void> third = limiter.submit(pending(sends));
+
+    // Assert
+    assertThat(sends).hasSize(1);
+    assertThat(limiter.getQueued()).isEqualTo(1);
+    assertThat(third).isCompletedExceptionally();
+
+    // Act
+    sends.get(0).complete(null);
+
+    // Assert
+    assertThat(first).isCompleted();
+    assertThat(sends).hasSize(2);
+    assertThat(limiter.getQueued()).isZero();
+    sends.get(1).complete(null);
+    assertThat(second).isCompleted();
+    limiter.close();
+  }
+
+  @Test
+  void testBlockStrategyWaitsForRateLimit() {
+    // Arrange
+    SendLimiter limiter =
+        limiter(
+            SendLimitConfig.builder().enabled(true).permitsPerSecond(10).burstSize(1).build());
+    long start = System.nanoTime();
+
+    // Act
+    IntStream.range(0, 4)
+        .forEach(i -> limiter.submit(() -> CompletableFuture.completedFuture(null)).join());
+
+    // Assert
+    assertThat(System.nanoTime() - start)
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(250));
+    limiter.close();
+  }
+
+  @Test
+  void testBlockStrategyFailsAfterMaxBlockTime() {
+    // Arrange
+    SendLimiter limiter =
+        limiter(
+            SendLimitConfig.builder().enabled(true).maxConcurrency(1).maxBlockMillis(50).build());
+    limiter.submit(pending(new ArrayList<>()));
+
+    // Act
+    CompletableFuture<Void> blocked = limiter.submit(() -> CompletableFuture.completedFuture(null));
+
+    // Assert
+    assertThat(blocked).isCompletedExceptionally();
+    limiter.close();
+  }
+
+  @Test
+  void testQueueStrategyDrainsQueueWhenTokensRefill() {
+    // Arrange
+    SendLimiter limiter =
+        limiter(
+            SendLimitConfig.builder()
+                .enabled(true)
+                .permitsPerSecond(20)
+                .burstSize(1)
+                .overflowStrategy(SendLimitConfig.OverflowStrategy.QUEUE)
+                .build());
+
+    // Act
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    IntStream.range(0, 3)
+        .forEach(i -> futures.add(limiter.submit(() -> CompletableFuture.completedFuture(null))));
+
+    // Assert
+    assertThat(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])))
+        .succeedsWithin(Duration.ofSeconds(5));
+    limiter.close();
+  }
+
+  @Test
+  void testAdaptiveConcurrencyDecreasesOnOverloadAndIncreasesOnSuccess() {
+    // Arrange
+    SendLimiter limiter =
+        limiter(
+            SendLimitConfig.builder()
+                .enabled(true)
+                .adaptiveConcurrency(true)
+                .initialConcurrency(16)
+                .maxConcurrency(32)
+                .build());
+
+    // Act
+    limiter.submit(() -> CompletableFuture.failedFuture(new IllegalStateException("throttled")));
+
+    // Assert
+    assertThat(limiter.getLimit()).isEqualTo(8);
+
+    // Act
+    IntStream.range(0, 9)
+        .forEach(i -> limiter.submit(() -> CompletableFuture.completedFuture(null)));
+
+    // Assert
+    assertThat(limiter.getLimit()).isEqualTo(9);
+    limiter.close();
+  }
+
+  @Test
+  void testAdaptiveConcurrencyIgnoresOtherFailures() {
+    // Arrange
+    SendLimiter limiter =
+        limiter(
+            SendLimitConfig.builder()
+                .enabled(true)
+                .adaptiveConcurrency(true)
+                .initialConcurrency(16)
+                .build());
+
+    // Act
+    limiter.submit(
+        () -> CompletableFuture.failedFuture(new IllegalArgumentException("invalid message")));
+
+    // Assert
+    assertThat(limiter.getLimit()).isEqualTo(16);
+    limiter.close();
+  }
+
+  @Test
+  void testCloseFailsQueuedSends() {
+    // Arrange
+    SendLimiter limiter =
+        limiter(
+            SendLimitConfig.builder()
+                .enabled(true)
+                .maxConcurrency(1)
+                .overflowStrategy(SendLimitConfig.OverflowStrategy.QUEUE)
+                .build());
+    limiter.submit(pending(new ArrayList<>()));
+    CompletableFuture<Void> queued = limiter.submit(() -> CompletableFuture.completedFuture(null));
+
+    // Act
+    limiter.close();
+
+    // Assert
+    assertThat(queued).isCompletedExceptionally();
+  }
+}
@@ -0,0 +1,140 @@
+package com.dream11.queue.producer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.dream11.queue.config.SpillConfig;
+import com.dream11.queue.metrics.NoopQueueMetrics;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpillBufferTest {
+  @TempDir Path directory;
+
+  private final AtomicBoolean available = new AtomicBoolean(false);
+  private final List<SpillBuffer.Entry> sent = new CopyOnWriteArrayList<>();
+
+  private CompletableFuture<Void> send(SpillBuffer.Entry entry) {
+    if (!this.available.get()) {
+      return CompletableFuture.failedFuture(new SendRejectedException("unavailable"));
+    }
+    this.sent.add(entry);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  private SpillBuffer spillBuffer(SpillConfig.SpillConfigBuilder builder) {
+    return new SpillBuffer(
+        builder.enabled(true).directory(this.directory).replayIntervalMillis(50).build(),
+        this::send,
+        throwable -> throwable instanceof SendRejectedException,
+        NoopQueueMetrics.INSTANCE,
+        "queue");
+  }
+
+  @Test
+  void testSpillsFailedSendsAndReplaysThemOnceAvailable() throws Exception {
+    // Arrange
+    SpillBuffer spillBuffer = this.spillBuffer(SpillConfig.builder());
+
+    // Act
+    for (int i = 0; i < 25; i++) {
+      spillBuffer.send(new SpillBuffer.Entry("message-" + i, null, null)).get(5, TimeUnit.SECONDS);
+    }
+    int spilled = spillBuffer.getSpilledCount();
+    this.available.set(true);
+
+    // Assert
+    assertThat(spilled).isEqualTo(25);
+    await().atMost(Duration.ofSeconds(5)).until(() -> spillBuffer.getSpilledCount() == 0);
+    assertThat(this.sent).hasSize(25);
+    assertThat(this.sent.get(0).getBody()).isEqualTo("message-0");
+    assertThat(spillBuffer.getSpilledBytes()).isZero();
+    spillBuffer.close();
+  }
+
+  @Test
+  void testReplaysMessagesSpilledBeforeRestart() throws Exception {
+    // Arrange
+    SpillBuffer spillBuffer = this.spillBuffer(SpillConfig.builder());
+    spillBuffer.send(new SpillBuffer.Entry("message", "group", "deduplication")).get();
+    spillBuffer.close();
+    this.available.set(true);
+
+    // Act
+    SpillBuffer restarted = this.spillBuffer(SpillConfig.builder());
+
+    // Assert
+    await().atMost(Duration.ofSeconds(5)).until(() -> this.sent.size() == 1);
+    assertThat(this.sent)
+        .containsExactly(new SpillBuffer.Entry("message", "group", "deduplication"));
+    restarted.close();
+  }
+
+  @Test
+  void testDoesNotReplayMessagesSentBeforeRestart() throws Exception {
+    // Arrange
+    SpillBuffer spillBuffer = this.spillBuffer(SpillConfig.builder());
+    for (int i = 0; i < 3; i++) {
+      spillBuffer.send(new SpillBuffer.Entry("message-" + i, null, null)).get(5, TimeUnit.SECONDS);
+    }
+    this.available.set(true);
+    await().atMost(Duration.ofSeconds(5)).until(() -> spillBuffer.getSpilledCount() == 0);
+    spillBuffer.close();
+
+    // Act
+    SpillBuffer restarted = this.spillBuffer(SpillConfig.builder());
+
+    // Assert
+    assertThat(restarted.getSpilledCount()).isZero();
+    await()
+        .during(Duration.ofMillis(300))
+        .atMost(Duration.ofSeconds(1))
+        .until(() -> this.sent.size() == 3);
+    restarted.close();
+  }
+
+  @Test
+  void testFailsSendsWhenFull() throws Exception {
+    // Arrange
+    SpillBuffer spillBuffer = this.spillBuffer(SpillConfig.builder().maxBytes(40));
+    spillBuffer.send(new SpillBuffer.Entry("message-1", null, null)).get(5, TimeUnit.SECONDS);
+
+    SpillBuffer.Entry entry = new SpillBuffer.Entry("message-2", null, null);
+
+    // Act and Assert
+    assertThatThrownBy(() -> spillBuffer.send(entry).get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(SendRejectedException.class)
+        .hasMessageContaining("Spill buffer is full");
+    spillBuffer.close();
+  }
+
+  @Test
+  void testDoesNotSpillErrorsThatAreNotRetriable() {
+    // Arrange
+    SpillBuffer spillBuffer =
+        new SpillBuffer(
+            SpillConfig.builder().enabled(true).directory(this.directory).build(),
+            entry -> CompletableFuture.failedFuture(new IllegalArgumentException("invalid")),
+            throwable -> false,
+            NoopQueueMetrics.INSTANCE,
+            "queue");
+
+    SpillBuffer.Entry entry = new SpillBuffer.Entry("message", null, null);
+
+    // Act and Assert
+    assertThatThrownBy(() -> spillBuffer.send(entry).get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(IllegalArgumentException.class);
+    assertThat(spillBuffer.getSpilledCount()).isZero();
+    spillBuffer.close();
+  }
+}